@@ -16,11 +16,9 @@
 
 package org.gradle.caching.internal.tasks
 
-import groovy.io.FileType
 import org.gradle.api.internal.cache.StringInterner
-import org.gradle.api.internal.changedetection.state.DirContentSnapshot
-import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
-import org.gradle.api.internal.changedetection.state.FileHashSnapshot
+import org.gradle.api.internal.changedetection.state.CachingFileHasher
+import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.tasks.OutputType
 import org.gradle.api.internal.tasks.ResolvedTaskOutputFilePropertySpec
 import org.gradle.caching.internal.tasks.origin.TaskOutputOriginReader
@@ -29,7 +27,6 @@ import org.gradle.internal.hash.DefaultStreamHasher
 import org.gradle.internal.hash.Hashing
 import org.gradle.internal.nativeplatform.filesystem.FileSystem
 import org.gradle.test.fixtures.file.CleanupTestDirectory
-import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.Requires
 import org.gradle.util.TestPrecondition
@@ -37,8 +34,6 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Unroll
 
-import java.util.concurrent.Callable
-
 import static org.gradle.api.internal.tasks.OutputType.DIRECTORY
 import static org.gradle.api.internal.tasks.OutputType.FILE
 
@@ -51,8 +46,9 @@ class TarTaskOutputPackerTest extends Specification {
 
     def fileSystem = Mock(FileSystem)
     def streamHasher = new DefaultStreamHasher({ Hashing.md5().newHasher() })
+    def fileHasher = Mock(CachingFileHasher)
     def stringInterner = new StringInterner()
-    def packer = new TarTaskOutputPacker(fileSystem, streamHasher, stringInterner)
+    def packer = new TarTaskOutputPacker(fileSystem, streamHasher, fileHasher, stringInterner, TestFiles.directoryFileTreeFactory())
 
     @Unroll
     def "can pack single task output file with file mode #mode"() {
@@ -67,6 +63,7 @@ class TarTaskOutputPackerTest extends Specification {
 
         then:
         1 * fileSystem.getUnixMode(sourceOutputFile) >> unixMode
+        1 * fileHasher.recordHash(sourceOutputFile, 6, _, Hashing.md5().hashBytes("output".bytes))
         _ * sourceOutputFile._
         0 * _
 
@@ -95,12 +92,17 @@ class TarTaskOutputPackerTest extends Specification {
         def targetDataFile = targetSubDir.file("data.txt")
         def output = new ByteArrayOutputStream()
         when:
-        pack output, prop(DIRECTORY, sourceOutputDir)
+        def packResult = pack output, prop(DIRECTORY, sourceOutputDir)
 
         then:
         1 * fileSystem.getUnixMode(sourceSubDir) >> 0711
         1 * fileSystem.getUnixMode(sourceDataFile) >> 0600
+        1 * fileHasher.recordHash(sourceDataFile, sourceDataFile.length(), sourceDataFile.lastModified(), Hashing.md5().hashBytes(sourceDataFile.bytes))
         0 * _
+        packResult.entries == 4
+        packResult.snapshots.get("test")*.path == [sourceOutputDir, sourceSubDir, sourceDataFile]*.absolutePath
+        packResult.snapshots.get("test")*.relativePath*.pathString == ["source", "subdir", "subdir/data.txt"]
+        packResult.snapshots.get("test")[2].content.contentMd5 == Hashing.md5().hashBytes(sourceDataFile.bytes)
 
         when:
         def input = new ByteArrayInputStream(output.toByteArray())
@@ -166,6 +168,7 @@ class TarTaskOutputPackerTest extends Specification {
         then:
         noExceptionThrown()
         1 * fileSystem.getUnixMode(sourceOutputFile) >> 0644
+        1 * fileHasher.recordHash(sourceOutputFile, _, _, _)
         0 * _
 
         when:
@@ -198,6 +201,7 @@ class TarTaskOutputPackerTest extends Specification {
         then:
         noExceptionThrown()
         1 * fileSystem.getUnixMode(sourceOutputFile) >> 0644
+        1 * fileHasher.recordHash(sourceOutputFile, _, _, _)
         0 * _
 
         when:
@@ -234,6 +238,7 @@ class TarTaskOutputPackerTest extends Specification {
         then:
         noExceptionThrown()
         1 * fileSystem.getUnixMode(sourceOutputFile) >> 0644
+        1 * fileHasher.recordHash(sourceOutputFile, _, _, _)
         0 * _
 
         when:
@@ -331,57 +336,15 @@ class TarTaskOutputPackerTest extends Specification {
         0 * _
     }
 
-    def pack(OutputStream output, TaskOutputOriginWriter writeOrigin = this.writeOrigin, PropertyDefinition... propertyDefs) {
-        def propertySpecs = propertyDefs*.property as SortedSet
-        def outputSnapshots = propertyDefs.collectEntries { propertyDef ->
-            return [(propertyDef.property.propertyName): propertyDef.outputSnapshots()]
-        }
-        packer.pack(propertySpecs, outputSnapshots, output, writeOrigin)
+    def pack(OutputStream output, TaskOutputOriginWriter writeOrigin = this.writeOrigin, ResolvedTaskOutputFilePropertySpec... propertySpecs) {
+        packer.pack(propertySpecs as SortedSet, output, writeOrigin)
     }
 
-    def unpack(InputStream input, TaskOutputOriginReader readOrigin = this.readOrigin, PropertyDefinition... propertyDefs) {
-        def propertySpecs = propertyDefs*.property as SortedSet
-        packer.unpack(propertySpecs, input, readOrigin)
+    def unpack(InputStream input, TaskOutputOriginReader readOrigin = this.readOrigin, ResolvedTaskOutputFilePropertySpec... propertySpecs) {
+        packer.unpack(propertySpecs as SortedSet, input, readOrigin)
     }
 
     def prop(String name = "test", OutputType type, File output) {
-        switch (type) {
-            case FILE:
-                return new PropertyDefinition(new ResolvedTaskOutputFilePropertySpec(name, FILE, output), {
-                    if (output == null || !output.exists()) {
-                        return [:]
-                    }
-                    return [(output.absolutePath): new FileHashSnapshot(TestFile.md5(output))]
-                })
-            case DIRECTORY:
-                return new PropertyDefinition(new ResolvedTaskOutputFilePropertySpec(name, DIRECTORY, output), {
-                    if (output == null || !output.exists()) {
-                        return [:]
-                    }
-                    def descendants = []
-                    output.traverse(type: FileType.ANY, visitRoot: true) { descendants += it }
-                    return descendants.collectEntries { File file ->
-                        def snapshot
-                        if (file.isDirectory()) {
-                            snapshot = DirContentSnapshot.INSTANCE
-                        } else {
-                            snapshot = new FileHashSnapshot(TestFile.md5(file))
-                        }
-                        return [(file.absolutePath): snapshot]
-                    }
-                })
-            default:
-                throw new AssertionError()
-        }
-    }
-
-    private static class PropertyDefinition {
-        ResolvedTaskOutputFilePropertySpec property
-        Callable<Map<String, FileCollectionSnapshot>> outputSnapshots
-
-        PropertyDefinition(ResolvedTaskOutputFilePropertySpec property, Callable<Map<String, FileCollectionSnapshot>> outputSnapshots) {
-            this.property = property
-            this.outputSnapshots = outputSnapshots
-        }
+        return new ResolvedTaskOutputFilePropertySpec(name, type, output)
     }
 }
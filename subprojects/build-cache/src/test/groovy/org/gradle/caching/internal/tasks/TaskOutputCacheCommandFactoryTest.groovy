@@ -192,11 +192,15 @@ class TaskOutputCacheCommandFactoryTest extends Specification {
         !localStateFile.exists()
     }
 
-    def "store invokes packer"() {
+    def "store invokes packer and snapshots outputs"() {
         def output = Mock(OutputStream)
-        def outputProperties = props("output")
-        def outputSnapshots = Mock(Map)
-        def command = commandFactory.createStore(key, outputProperties, outputSnapshots, task, 1)
+        def outputFile = temporaryFolder.file("output.txt")
+        def outputProperties = props("output", FILE, outputFile)
+        def outputFileSnapshot = new RegularFileSnapshot(outputFile.path, RelativePath.EMPTY_ROOT, true, new FileHashSnapshot(HashCode.fromInt(234)))
+        def command = commandFactory.createStore(key, outputProperties, task, 1)
+
+        expect:
+        command.outputSnapshots == null
 
         when:
         def result = command.store(output)
@@ -205,10 +209,15 @@ class TaskOutputCacheCommandFactoryTest extends Specification {
         1 * originFactory.createWriter(task, _)
 
         then:
-        1 * packer.pack(outputProperties, outputSnapshots, output, _) >> new TaskOutputPacker.PackResult(123)
+        1 * packer.pack(outputProperties, output, _) >> new TaskOutputPacker.PackResult(123, ImmutableListMultimap.of("output", outputFileSnapshot))
+
+        then:
+        1 * fileSystemMirror.putFile(outputFileSnapshot)
 
         then:
         result.artifactEntryCount == 123
+        command.outputSnapshots.keySet() as List == ["output"]
+        command.outputSnapshots["output"].files == [outputFile]
         0 * _
     }
 
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+
+class TaskHistoryGenerationsIntegrationTest extends AbstractIntegrationSpec {
+    @Rule
+    BlockingHttpServer server = new BlockingHttpServer()
+
+    def setup() {
+        server.start()
+        // Start a new generation on every build
+        file("gradle.properties") << "systemProp.${TaskHistoryGenerations.MAX_SIZE_MB_SYSPROP}=0"
+    }
+
+    def "a new generation started by another build process does not discard the history used by a running build"() {
+        buildFile << """
+            task a {
+                inputs.file 'src.txt'
+                outputs.file 'src.a.txt'
+                doLast {
+                    file('src.a.txt').text = file('src.txt').text
+                }
+            }
+            task block {
+                doLast {
+                    ${server.callFromBuild("block")}
+                }
+            }
+            a.mustRunAfter block
+            task other
+        """
+        file('src.txt').text = 'content'
+        def block = server.expectAndBlock("block")
+
+        given:
+        succeeds "a"
+
+        when:
+        // Start build 1, which starts a new generation and then waits before it reads the history of 'a' from the previous generation
+        executer.withTasks("block", "a")
+        def build1 = executer.start()
+        block.waitForAllPendingCalls()
+
+        // Run build 2, which starts another generation while build 1 is running
+        executer.withTasks("other").run()
+
+        block.releaseAll()
+        def result1 = build1.waitForFinish()
+
+        then:
+        result1.assertTaskSkipped(":a")
+    }
+}
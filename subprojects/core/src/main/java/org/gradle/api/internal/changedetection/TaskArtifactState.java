@@ -18,7 +18,6 @@ package org.gradle.api.internal.changedetection;
 import com.google.common.collect.ImmutableSortedMap;
 import org.gradle.api.internal.TaskExecutionHistory;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.execution.TaskProperties;
@@ -26,8 +25,8 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey;
 import org.gradle.internal.id.UniqueId;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
-import java.util.Map;
 
 /**
  * Encapsulates the state of the task when its outputs were last generated.
@@ -73,14 +72,14 @@ public interface TaskArtifactState {
     void snapshotAfterLoadedFromCache(ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata);
 
     /**
-     * Returns the history for this task.
+     * Called on successful completion of task execution when the outputs of the task have been stored in the build cache.
+     *
+     * @param newOutputSnapshot the output snapshots taken while storing the outputs, or {@code null} if the outputs were not stored and need to be snapshotted.
      */
-    TaskExecutionHistory getExecutionHistory();
+    void snapshotAfterOutputsStoredInCache(@Nullable ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata);
 
     /**
-     * Returns the current output file content snapshots indexed by property name.
+     * Returns the history for this task.
      */
-    Map<String, Map<String, FileContentSnapshot>> getOutputContentSnapshots();
-
-
+    TaskExecutionHistory getExecutionHistory();
 }
@@ -16,12 +16,10 @@
 
 package org.gradle.api.internal.changedetection.changes;
 
-import com.google.common.base.Function;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
 import org.gradle.api.NonNullApi;
 import org.gradle.api.internal.OverlappingOutputs;
 import org.gradle.api.internal.TaskExecutionHistory;
@@ -34,7 +32,6 @@ import org.gradle.api.internal.changedetection.rules.TaskStateChange;
 import org.gradle.api.internal.changedetection.rules.TaskUpToDateState;
 import org.gradle.api.internal.changedetection.state.CurrentTaskExecution;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.changedetection.state.HistoricalTaskExecution;
 import org.gradle.api.internal.changedetection.state.TaskHistoryRepository;
 import org.gradle.api.internal.changedetection.state.TaskOutputFilesRepository;
@@ -52,7 +49,6 @@ import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 @NonNullApi
@@ -143,17 +139,6 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             return outputs;
         }
 
-        @Override
-        public Map<String, Map<String, FileContentSnapshot>> getOutputContentSnapshots() {
-            ImmutableSortedMap<String, FileCollectionSnapshot> outputFilesSnapshot = history.getCurrentExecution().getOutputFilesSnapshot();
-            return Maps.transformValues(outputFilesSnapshot, new Function<FileCollectionSnapshot, Map<String, FileContentSnapshot>>() {
-                @Override
-                public Map<String, FileContentSnapshot> apply(FileCollectionSnapshot fileCollectionSnapshot) {
-                    return fileCollectionSnapshot.getContentSnapshots();
-                }
-            });
-        }
-
         @Override
         public TaskExecutionHistory getExecutionHistory() {
             return this;
@@ -190,6 +175,16 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             snapshotAfterOutputsWereGenerated(history, null, originMetadata);
         }
 
+        @Override
+        public void snapshotAfterOutputsStoredInCache(@Nullable ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata) {
+            if (newOutputSnapshot == null) {
+                history.updateCurrentExecution(taskInputs);
+            } else {
+                history.updateCurrentExecutionWithOutputs(taskInputs, newOutputSnapshot);
+            }
+            snapshotAfterOutputsWereGenerated(history, null, originMetadata);
+        }
+
         private void snapshotAfterOutputsWereGenerated(TaskHistoryRepository.History history, @Nullable Throwable failure, OriginTaskExecutionMetadata originMetadata) {
             // Only persist task history if there was no failure, or some output files have been changed
             if (failure == null || getStates().hasAnyOutputFileChanges()) {
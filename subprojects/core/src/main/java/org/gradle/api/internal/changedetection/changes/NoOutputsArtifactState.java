@@ -21,7 +21,6 @@ import org.gradle.api.internal.OverlappingOutputs;
 import org.gradle.api.internal.TaskExecutionHistory;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.execution.TaskProperties;
@@ -34,7 +33,6 @@ import org.gradle.util.Path;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map;
 import java.util.Set;
 
 class NoOutputsArtifactState implements TaskArtifactState, TaskExecutionHistory {
@@ -138,8 +136,7 @@ class NoOutputsArtifactState implements TaskArtifactState, TaskExecutionHistory
     }
 
     @Override
-    public Map<String, Map<String, FileContentSnapshot>> getOutputContentSnapshots() {
-        return Collections.emptyMap();
+    public void snapshotAfterOutputsStoredInCache(ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata) {
     }
 
     @Override
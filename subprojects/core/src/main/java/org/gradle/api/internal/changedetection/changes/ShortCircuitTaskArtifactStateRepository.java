@@ -22,7 +22,6 @@ import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
 import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.execution.TaskProperties;
@@ -32,8 +31,8 @@ import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey;
 import org.gradle.internal.id.UniqueId;
 import org.gradle.internal.reflect.Instantiator;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
-import java.util.Map;
 
 public class ShortCircuitTaskArtifactStateRepository implements TaskArtifactStateRepository {
 
@@ -112,11 +111,6 @@ public class ShortCircuitTaskArtifactStateRepository implements TaskArtifactStat
             return delegate.getExecutionHistory();
         }
 
-        @Override
-        public Map<String, Map<String, FileContentSnapshot>> getOutputContentSnapshots() {
-            return delegate.getOutputContentSnapshots();
-        }
-
         @Override
         public void ensureSnapshotBeforeTask() {
             delegate.ensureSnapshotBeforeTask();
@@ -137,5 +131,10 @@ public class ShortCircuitTaskArtifactStateRepository implements TaskArtifactStat
         public void snapshotAfterLoadedFromCache(ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata) {
             delegate.snapshotAfterLoadedFromCache(newOutputSnapshot, originMetadata);
         }
+
+        @Override
+        public void snapshotAfterOutputsStoredInCache(@Nullable ImmutableSortedMap<String, FileCollectionSnapshot> newOutputSnapshot, OriginTaskExecutionMetadata originMetadata) {
+            delegate.snapshotAfterOutputsStoredInCache(newOutputSnapshot, originMetadata);
+        }
     }
 }
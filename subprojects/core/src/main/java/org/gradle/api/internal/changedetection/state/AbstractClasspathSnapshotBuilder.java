@@ -70,6 +70,11 @@ public abstract class AbstractClasspathSnapshotBuilder implements VisitingFileCo
         entryResourceCollectionBuilder.collectNormalizedSnapshots(builder);
     }
 
+    @Override
+    public void visitDirectoryTreeSnapshot(FileTreeSnapshot tree) {
+        visitFileTreeSnapshot(tree.getDescendants());
+    }
+
     @Override
     public void visitFileSnapshot(RegularFileSnapshot file) {
         if (FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
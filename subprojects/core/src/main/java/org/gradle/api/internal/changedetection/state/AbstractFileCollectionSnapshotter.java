@@ -27,7 +27,6 @@ import org.gradle.internal.serialize.SerializerRegistry;
 import org.gradle.internal.serialize.Serializers;
 
 import java.io.File;
-import java.util.Collection;
 import java.util.List;
 
 /**
@@ -98,8 +97,7 @@ public abstract class AbstractFileCollectionSnapshotter implements FileCollectio
         @Override
         public void visitDirectoryTree(DirectoryFileTree directoryTree) {
             FileTreeSnapshot treeSnapshot = fileSystemSnapshotter.snapshotDirectoryTree(directoryTree);
-            Collection<FileSnapshot> descendants = treeSnapshot.getDescendants();
-            fileSnapshotVisitor.visitFileTreeSnapshot(descendants);
+            fileSnapshotVisitor.visitDirectoryTreeSnapshot(treeSnapshot);
         }
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.collect.Sets;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.Serializer;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * Stores {@link FileCollectionSnapshot}s by their contents, so that tasks with identical snapshots, like a shared classpath,
+ * share a single persisted and in-memory copy. The task history only refers to the stored snapshots.
+ */
+public class CacheBackedFileSnapshotRepository {
+    private final PersistentIndexedCache<HashCode, FileCollectionSnapshot> snapshotCache;
+    // Snapshots known to be in the cache, which don't need to be written again. A snapshot is only added once it has been written, so that references to it can always be loaded
+    private final Set<HashCode> storedSnapshots = Sets.newConcurrentHashSet();
+
+    public CacheBackedFileSnapshotRepository(TaskHistoryStore cacheAccess, Serializer<FileCollectionSnapshot> fileCollectionSnapshotSerializer) {
+        this.snapshotCache = cacheAccess.createCache("fileSnapshots", HashCode.class, fileCollectionSnapshotSerializer, 10000, false);
+    }
+
+    /**
+     * Stores the given snapshot, unless an identical snapshot has already been stored, and returns a reference to the stored snapshot.
+     */
+    public FileCollectionSnapshot add(FileCollectionSnapshot snapshot) {
+        if (!(snapshot instanceof DefaultFileCollectionSnapshot)) {
+            // Empty snapshots and references don't need to be stored
+            return snapshot;
+        }
+        HashCode key = ((DefaultFileCollectionSnapshot) snapshot).getStorageKey();
+        if (!storedSnapshots.contains(key)) {
+            // Tasks with identical snapshots may write the snapshot concurrently, which is harmless
+            snapshotCache.put(key, snapshot);
+            storedSnapshots.add(key);
+        }
+        return new FileCollectionSnapshotReference(key, this);
+    }
+
+    /**
+     * Resolves a reference to a stored snapshot. Returns {@code null} when the snapshot is no longer stored.
+     */
+    @Nullable
+    public FileCollectionSnapshot load(FileCollectionSnapshot snapshot) {
+        if (!(snapshot instanceof FileCollectionSnapshotReference)) {
+            return snapshot;
+        }
+        return get(((FileCollectionSnapshotReference) snapshot).getKey());
+    }
+
+    @Nullable
+    FileCollectionSnapshot get(HashCode key) {
+        FileCollectionSnapshot snapshot = snapshotCache.get(key);
+        if (snapshot != null) {
+            storedSnapshots.add(key);
+        }
+        return snapshot;
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -68,6 +69,7 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheBackedTaskHistoryRepository.class);
 
     private final PersistentIndexedCache<String, HistoricalTaskExecution> taskHistoryCache;
+    private final CacheBackedFileSnapshotRepository fileSnapshotRepository;
     private final StringInterner stringInterner;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
     private final ValueSnapshotter valueSnapshotter;
@@ -88,7 +90,8 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
         this.valueSnapshotter = valueSnapshotter;
         this.snapshotterRegistry = snapshotterRegistry;
         this.fileCollectionFactory = fileCollectionFactory;
-        TaskExecutionSnapshotSerializer serializer = new TaskExecutionSnapshotSerializer(stringInterner, fileCollectionSnapshotSerializer);
+        this.fileSnapshotRepository = new CacheBackedFileSnapshotRepository(cacheAccess, fileCollectionSnapshotSerializer);
+        TaskExecutionSnapshotSerializer serializer = new TaskExecutionSnapshotSerializer(stringInterner, fileSnapshotRepository);
         this.taskHistoryCache = cacheAccess.createCache("taskHistory", String.class, serializer, 10000, false);
     }
 
@@ -130,7 +133,7 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
 
             @Override
             public void persist() {
-                taskHistoryCache.put(task.getPath(), getCurrentExecution().archive());
+                taskHistoryCache.put(task.getPath(), storeFileSnapshots(getCurrentExecution().archive()));
             }
 
         };
@@ -367,7 +370,63 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
 
     @Nullable
     private HistoricalTaskExecution loadPreviousExecution(TaskInternal task) {
-        return taskHistoryCache.get(task.getPath());
+        HistoricalTaskExecution storedExecution = taskHistoryCache.get(task.getPath());
+        if (storedExecution == null) {
+            return null;
+        }
+        ImmutableSortedMap<String, FileCollectionSnapshot> inputFiles = loadFileSnapshots(storedExecution.getInputFilesSnapshot());
+        FileCollectionSnapshot discoveredInputs = fileSnapshotRepository.load(storedExecution.getDiscoveredInputFilesSnapshot());
+        ImmutableSortedMap<String, FileCollectionSnapshot> outputFiles = loadFileSnapshots(storedExecution.getOutputFilesSnapshot());
+        if (inputFiles == null || discoveredInputs == null || outputFiles == null) {
+            LOGGER.info("File snapshots for {} are missing from the task history, ignoring the previous execution.", task);
+            return null;
+        }
+        return withFileSnapshots(storedExecution, inputFiles, discoveredInputs, outputFiles);
+    }
+
+    @Nullable
+    private ImmutableSortedMap<String, FileCollectionSnapshot> loadFileSnapshots(ImmutableSortedMap<String, FileCollectionSnapshot> storedSnapshots) {
+        ImmutableSortedMap.Builder<String, FileCollectionSnapshot> builder = ImmutableSortedMap.naturalOrder();
+        for (Map.Entry<String, FileCollectionSnapshot> entry : storedSnapshots.entrySet()) {
+            FileCollectionSnapshot snapshot = fileSnapshotRepository.load(entry.getValue());
+            if (snapshot == null) {
+                return null;
+            }
+            builder.put(entry.getKey(), snapshot);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Replaces the file snapshots of the execution with references to snapshots shared by all tasks.
+     */
+    private HistoricalTaskExecution storeFileSnapshots(HistoricalTaskExecution execution) {
+        Function<FileCollectionSnapshot, FileCollectionSnapshot> storeSnapshot = new Function<FileCollectionSnapshot, FileCollectionSnapshot>() {
+            @Override
+            public FileCollectionSnapshot apply(FileCollectionSnapshot snapshot) {
+                return fileSnapshotRepository.add(snapshot);
+            }
+        };
+        return withFileSnapshots(
+            execution,
+            ImmutableSortedMap.copyOfSorted(Maps.transformValues(execution.getInputFilesSnapshot(), storeSnapshot)),
+            storeSnapshot.apply(execution.getDiscoveredInputFilesSnapshot()),
+            ImmutableSortedMap.copyOfSorted(Maps.transformValues(execution.getOutputFilesSnapshot(), storeSnapshot))
+        );
+    }
+
+    private static HistoricalTaskExecution withFileSnapshots(HistoricalTaskExecution execution, ImmutableSortedMap<String, FileCollectionSnapshot> inputFiles, FileCollectionSnapshot discoveredInputs, ImmutableSortedMap<String, FileCollectionSnapshot> outputFiles) {
+        return new HistoricalTaskExecution(
+            execution.getTaskImplementation(),
+            execution.getTaskActionImplementations(),
+            execution.getInputProperties(),
+            execution.getOutputPropertyNamesForCacheKey(),
+            inputFiles,
+            discoveredInputs,
+            outputFiles,
+            execution.isSuccessful(),
+            execution.getOriginExecutionMetadata()
+        );
     }
 
     private static ImmutableSortedSet<String> getOutputPropertyNamesForCacheKey(TaskProperties taskProperties) {
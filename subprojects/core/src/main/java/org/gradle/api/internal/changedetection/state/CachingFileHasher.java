@@ -91,6 +91,13 @@ public class CachingFileHasher implements FileHasher {
         return info;
     }
 
+    /**
+     * Records the hash of a file that was calculated while its contents were read for some other purpose.
+     */
+    public void recordHash(File file, long length, long timestamp, HashCode hash) {
+        cache.put(stringInterner.intern(file.getAbsolutePath()), new FileInfo(hash, length, timestamp));
+    }
+
     public void discard(String path) {
         cache.remove(path);
     }
@@ -16,8 +16,11 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.hash.HashCode;
 
 import java.util.Map;
 
@@ -26,6 +29,8 @@ public class CollectingFileCollectionSnapshotBuilder implements FileCollectionSn
     private final PathNormalizationStrategy pathNormalizationStrategy;
     private final StringInterner stringInterner;
     private final TaskFilePropertyCompareStrategy compareStrategy;
+    // Hashes of the roots of the collection, or null when some part of the collection has no root to hash
+    private Map<String, HashCode> rootHashes = Maps.newLinkedHashMap();
 
     public CollectingFileCollectionSnapshotBuilder(TaskFilePropertyCompareStrategy compareStrategy, PathNormalizationStrategy pathNormalizationStrategy, StringInterner stringInterner) {
         this.pathNormalizationStrategy = pathNormalizationStrategy;
@@ -47,10 +52,51 @@ public class CollectingFileCollectionSnapshotBuilder implements FileCollectionSn
         }
     }
 
+    /**
+     * Records the hash of a root of the collection. All file snapshots collected for the root must be located at or below the root path.
+     */
+    public void collectRootHash(String absolutePath, HashCode hash) {
+        if (rootHashes == null) {
+            return;
+        }
+        HashCode previous = rootHashes.get(absolutePath);
+        if (previous != null) {
+            // The same root visited more than once, e.g. a directory and its tree
+            DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+            hasher.putHash(previous);
+            hasher.putHash(hash);
+            hash = hasher.hash();
+        }
+        rootHashes.put(absolutePath, hash);
+    }
+
+    /**
+     * Records that some of the collected file snapshots do not belong to a hashed root, so the snapshot can not be compared by its roots.
+     */
+    public void collectUnhashedRoot() {
+        rootHashes = null;
+    }
+
     public FileCollectionSnapshot build() {
         if (snapshots.isEmpty()) {
             return EmptyFileCollectionSnapshot.INSTANCE;
         }
-        return new DefaultFileCollectionSnapshot(snapshots, compareStrategy, pathNormalizationStrategy.isPathAbsolute());
+        return new DefaultFileCollectionSnapshot(snapshots, null, compareStrategy, pathNormalizationStrategy.isPathAbsolute(), buildRootHashes());
+    }
+
+    private Map<String, HashCode> buildRootHashes() {
+        if (rootHashes == null || rootHashes.isEmpty()) {
+            return null;
+        }
+        // The normalized snapshots depend on the normalization strategy, so it needs to be part of the root hashes
+        String normalization = pathNormalizationStrategy instanceof Enum ? ((Enum<?>) pathNormalizationStrategy).name() : pathNormalizationStrategy.getClass().getName();
+        ImmutableMap.Builder<String, HashCode> builder = ImmutableMap.builder();
+        for (Map.Entry<String, HashCode> entry : rootHashes.entrySet()) {
+            DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+            hasher.putString(normalization);
+            hasher.putHash(entry.getValue());
+            builder.put(entry.getKey(), hasher.hash());
+        }
+        return builder.build();
     }
 }
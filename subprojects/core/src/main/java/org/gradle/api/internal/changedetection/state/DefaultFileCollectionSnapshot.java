@@ -18,6 +18,8 @@ package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -36,14 +38,18 @@ import org.gradle.internal.serialize.HashCodeSerializer;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
     private final Map<String, NormalizedFileSnapshot> snapshots;
     private final TaskFilePropertyCompareStrategy compareStrategy;
     private final boolean pathIsAbsolute;
+    // Hashes of the roots of the collection, used to skip comparing the files of unchanged roots. Null when not known.
+    private final Map<String, HashCode> rootHashes;
     private final Factory<List<File>> cachedElementsFactory = Factories.softReferenceCache(new Factory<List<File>>() {
         @Override
         public List<File> create() {
@@ -57,16 +63,18 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
         }
     });
     private HashCode hashCode;
+    private HashCode storageKey;
 
     public DefaultFileCollectionSnapshot(Map<String, NormalizedFileSnapshot> snapshots, TaskFilePropertyCompareStrategy compareStrategy, boolean pathIsAbsolute) {
-        this(snapshots, null, compareStrategy, pathIsAbsolute);
+        this(snapshots, null, compareStrategy, pathIsAbsolute, null);
     }
 
-    DefaultFileCollectionSnapshot(Map<String, NormalizedFileSnapshot> snapshots, @Nullable HashCode hashCode, TaskFilePropertyCompareStrategy compareStrategy, boolean pathIsAbsolute) {
+    DefaultFileCollectionSnapshot(Map<String, NormalizedFileSnapshot> snapshots, @Nullable HashCode hashCode, TaskFilePropertyCompareStrategy compareStrategy, boolean pathIsAbsolute, @Nullable Map<String, HashCode> rootHashes) {
         this.snapshots = snapshots;
         this.hashCode = hashCode;
         this.compareStrategy = compareStrategy;
         this.pathIsAbsolute = pathIsAbsolute;
+        this.rootHashes = rootHashes;
     }
 
     @Override
@@ -93,7 +101,63 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
         if (includeAdded && hashCode != null && getHash().equals(oldSnapshot.getHash())) {
             return Iterators.emptyIterator();
         }
-        return compareStrategy.iterateContentChangesSince(snapshots, oldSnapshot.getSnapshots(), fileType, pathIsAbsolute, includeAdded);
+        Map<String, NormalizedFileSnapshot> currentSnapshots = snapshots;
+        Map<String, NormalizedFileSnapshot> previousSnapshots = oldSnapshot.getSnapshots();
+        if (oldSnapshot instanceof DefaultFileCollectionSnapshot && canCompareRootsWith((DefaultFileCollectionSnapshot) oldSnapshot)) {
+            Map<String, HashCode> previousRootHashes = ((DefaultFileCollectionSnapshot) oldSnapshot).rootHashes;
+            Set<String> changedRoots = new HashSet<String>();
+            for (Map.Entry<String, HashCode> entry : rootHashes.entrySet()) {
+                if (!entry.getValue().equals(previousRootHashes.get(entry.getKey()))) {
+                    changedRoots.add(entry.getKey());
+                }
+            }
+            if (changedRoots.isEmpty()) {
+                return Iterators.emptyIterator();
+            }
+            if (changedRoots.size() < rootHashes.size()) {
+                // Only compare the files of the roots that have changed
+                currentSnapshots = withoutUnchangedRoots(currentSnapshots, changedRoots);
+                previousSnapshots = withoutUnchangedRoots(previousSnapshots, changedRoots);
+            }
+        }
+        return compareStrategy.iterateContentChangesSince(currentSnapshots, previousSnapshots, fileType, pathIsAbsolute, includeAdded);
+    }
+
+    private boolean canCompareRootsWith(DefaultFileCollectionSnapshot oldSnapshot) {
+        return rootHashes != null
+            && oldSnapshot.rootHashes != null
+            // The order of the files is only significant between roots for unordered collections
+            && compareStrategy == TaskFilePropertyCompareStrategy.UNORDERED
+            && oldSnapshot.compareStrategy == compareStrategy
+            && oldSnapshot.pathIsAbsolute == pathIsAbsolute
+            && Iterables.elementsEqual(rootHashes.keySet(), oldSnapshot.rootHashes.keySet());
+    }
+
+    private Map<String, NormalizedFileSnapshot> withoutUnchangedRoots(Map<String, NormalizedFileSnapshot> snapshots, Set<String> changedRoots) {
+        Map<String, NormalizedFileSnapshot> filtered = Maps.newLinkedHashMap();
+        for (Map.Entry<String, NormalizedFileSnapshot> entry : snapshots.entrySet()) {
+            if (isInChangedRoot(entry.getKey(), changedRoots)) {
+                filtered.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Every file belongs to at least one root, but roots can overlap. Keep the file when any of the roots containing it has changed.
+     */
+    private boolean isInChangedRoot(String absolutePath, Set<String> changedRoots) {
+        String path = absolutePath;
+        while (true) {
+            if (changedRoots.contains(path)) {
+                return true;
+            }
+            int separator = path.lastIndexOf(File.separatorChar);
+            if (separator <= 0) {
+                return false;
+            }
+            path = path.substring(0, separator);
+        }
     }
 
     @Override
@@ -106,6 +170,33 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
         return hashCode;
     }
 
+    /**
+     * Returns a hash of everything stored for this snapshot, used to share identical snapshots between tasks.
+     * Unlike {@link #getHash()}, this includes the absolute paths of the files.
+     */
+    HashCode getStorageKey() {
+        if (storageKey == null) {
+            DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+            hasher.putInt(compareStrategy.ordinal());
+            hasher.putBoolean(pathIsAbsolute);
+            for (Map.Entry<String, NormalizedFileSnapshot> entry : snapshots.entrySet()) {
+                NormalizedFileSnapshot snapshot = entry.getValue();
+                hasher.putString(entry.getKey());
+                hasher.putString(snapshot.getClass().getName());
+                hasher.putInt(snapshot.getSnapshot().getType().ordinal());
+                snapshot.appendToHasher(hasher);
+            }
+            if (rootHashes != null) {
+                for (Map.Entry<String, HashCode> entry : rootHashes.entrySet()) {
+                    hasher.putString(entry.getKey());
+                    hasher.putHash(entry.getValue());
+                }
+            }
+            storageKey = hasher.hash();
+        }
+        return storageKey;
+    }
+
     @Override
     public void appendToHasher(BuildCacheHasher hasher) {
         hasher.putHash(getHash());
@@ -147,8 +238,10 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
     public static class SerializerImpl extends AbstractSerializer<DefaultFileCollectionSnapshot> {
         private final SnapshotMapSerializer snapshotMapSerializer;
         private final HashCodeSerializer hashCodeSerializer;
+        private final StringInterner stringInterner;
 
         public SerializerImpl(StringInterner stringInterner) {
+            this.stringInterner = stringInterner;
             this.snapshotMapSerializer = new SnapshotMapSerializer(stringInterner);
             this.hashCodeSerializer = new HashCodeSerializer();
         }
@@ -159,7 +252,21 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
             HashCode hash = hasHash ? hashCodeSerializer.read(decoder) : null;
             Map<String, NormalizedFileSnapshot> snapshots = snapshotMapSerializer.read(decoder);
             boolean pathIsUnique = decoder.readBoolean();
-            return new DefaultFileCollectionSnapshot(snapshots, hash, compareStrategy, pathIsUnique);
+            Map<String, HashCode> rootHashes = readRootHashes(decoder);
+            return new DefaultFileCollectionSnapshot(snapshots, hash, compareStrategy, pathIsUnique, rootHashes);
+        }
+
+        private Map<String, HashCode> readRootHashes(Decoder decoder) throws Exception {
+            if (!decoder.readBoolean()) {
+                return null;
+            }
+            int rootCount = decoder.readSmallInt();
+            ImmutableMap.Builder<String, HashCode> builder = ImmutableMap.builder();
+            for (int i = 0; i < rootCount; i++) {
+                String path = stringInterner.intern(decoder.readString());
+                builder.put(path, hashCodeSerializer.read(decoder));
+            }
+            return builder.build();
         }
 
         public void write(Encoder encoder, DefaultFileCollectionSnapshot value) throws Exception {
@@ -171,6 +278,18 @@ public class DefaultFileCollectionSnapshot implements FileCollectionSnapshot {
             }
             snapshotMapSerializer.write(encoder, value.snapshots);
             encoder.writeBoolean(value.pathIsAbsolute);
+            writeRootHashes(encoder, value.rootHashes);
+        }
+
+        private void writeRootHashes(Encoder encoder, @Nullable Map<String, HashCode> rootHashes) throws Exception {
+            encoder.writeBoolean(rootHashes != null);
+            if (rootHashes != null) {
+                encoder.writeSmallInt(rootHashes.size());
+                for (Map.Entry<String, HashCode> entry : rootHashes.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    hashCodeSerializer.write(encoder, entry.getValue());
+                }
+            }
         }
 
         @Override
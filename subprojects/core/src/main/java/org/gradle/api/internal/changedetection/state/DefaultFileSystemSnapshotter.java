@@ -42,6 +42,7 @@ import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.normalization.internal.InputNormalizationStrategy;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
@@ -182,16 +183,17 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     @Override
     public List<FileSnapshot> snapshotTree(FileTreeInternal tree) {
         List<FileSnapshot> elements = Lists.newArrayList();
-        tree.visitTreeOrBackingFile(new FileVisitorImpl(elements));
+        tree.visitTreeOrBackingFile(new FileVisitorImpl(elements, null));
         return elements;
     }
 
     private FileTreeSnapshot snapshotAndCache(DirectoryFileTree directoryTree) {
         String path = internPath(directoryTree.getDir());
         List<FileSnapshot> elements = Lists.newArrayList();
-        directoryTree.visit(new FileVisitorImpl(elements));
+        DirectoryTreeDetails.TreeHasher treeHasher = new DirectoryTreeDetails.TreeHasher();
+        directoryTree.visit(new FileVisitorImpl(elements, treeHasher));
         ImmutableList<FileSnapshot> descendants = ImmutableList.copyOf(elements);
-        DirectoryTreeDetails snapshot = new DirectoryTreeDetails(path, descendants);
+        DirectoryTreeDetails snapshot = new DirectoryTreeDetails(path, descendants, treeHasher.hash());
         fileSystemMirror.putDirectory(snapshot);
         return snapshot;
     }
@@ -203,8 +205,9 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
     private FileTreeSnapshot snapshotWithoutCaching(DirectoryFileTree directoryTree) {
         String path = directoryTree.getDir().getAbsolutePath();
         List<FileSnapshot> elements = Lists.newArrayList();
-        directoryTree.visit(new FileVisitorImpl(elements));
-        return new DirectoryTreeDetails(path, elements);
+        DirectoryTreeDetails.TreeHasher treeHasher = new DirectoryTreeDetails.TreeHasher();
+        directoryTree.visit(new FileVisitorImpl(elements, treeHasher));
+        return new DirectoryTreeDetails(path, elements, treeHasher.hash());
     }
 
     private FileTreeSnapshot filterSnapshot(FileTreeSnapshot snapshot, PatternSet patterns) {
@@ -282,19 +285,28 @@ public class DefaultFileSystemSnapshotter implements FileSystemSnapshotter {
 
     private class FileVisitorImpl implements FileVisitor {
         private final List<FileSnapshot> fileTreeElements;
+        private final DirectoryTreeDetails.TreeHasher treeHasher;
 
-        FileVisitorImpl(List<FileSnapshot> fileTreeElements) {
+        FileVisitorImpl(List<FileSnapshot> fileTreeElements, @Nullable DirectoryTreeDetails.TreeHasher treeHasher) {
             this.fileTreeElements = fileTreeElements;
+            this.treeHasher = treeHasher;
         }
 
         @Override
         public void visitDir(FileVisitDetails dirDetails) {
-            fileTreeElements.add(new DirectoryFileSnapshot(internPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
+            add(new DirectoryFileSnapshot(internPath(dirDetails.getFile()), dirDetails.getRelativePath(), false));
         }
 
         @Override
         public void visitFile(FileVisitDetails fileDetails) {
-            fileTreeElements.add(new RegularFileSnapshot(internPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+            add(new RegularFileSnapshot(internPath(fileDetails.getFile()), fileDetails.getRelativePath(), false, fileSnapshot(fileDetails)));
+        }
+
+        private void add(FileSnapshot snapshot) {
+            fileTreeElements.add(snapshot);
+            if (treeHasher != null) {
+                treeHasher.add(snapshot);
+            }
         }
     }
 }
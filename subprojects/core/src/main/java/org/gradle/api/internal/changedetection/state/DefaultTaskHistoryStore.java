@@ -21,23 +21,42 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.CleanupActionFactory;
+import org.gradle.internal.Factory;
 import org.gradle.internal.serialize.Serializer;
 
 import java.io.Closeable;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
+/**
+ * Stores the task history, discarding history which is no longer used as described in {@link TaskHistoryGenerations}.
+ */
 public class DefaultTaskHistoryStore implements TaskHistoryStore, Closeable {
     private final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory;
     private final PersistentCache cache;
+    private final int generation;
+
+    public DefaultTaskHistoryStore(Gradle gradle, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, CleanupActionFactory cleanupActionFactory) {
+        this(gradle, cacheRepository, inMemoryCacheDecoratorFactory, cleanupActionFactory, TaskHistoryGenerations.fromSystemProperties());
+    }
 
-    public DefaultTaskHistoryStore(Gradle gradle, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+    DefaultTaskHistoryStore(Gradle gradle, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, final CleanupActionFactory cleanupActionFactory, final TaskHistoryGenerations generations) {
         this.inMemoryCacheDecoratorFactory = inMemoryCacheDecoratorFactory;
         cache = cacheRepository
                 .cache(gradle, "taskHistory")
                 .withDisplayName("task history cache")
                 .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
                 .open();
+        generation = cache.withFileLock(new Factory<Integer>() {
+            @Override
+            public Integer create() {
+                if (generations.isNewGenerationRequired(cache)) {
+                    cleanupActionFactory.create(generations).clean(cache);
+                }
+                return generations.getCurrentGeneration(cache);
+            }
+        });
     }
 
     public void close() {
@@ -46,7 +65,16 @@ public class DefaultTaskHistoryStore implements TaskHistoryStore, Closeable {
 
     @Override
     public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Class<K> keyType, Serializer<V> valueSerializer, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
-        PersistentIndexedCacheParameters<K, V> parameters = new PersistentIndexedCacheParameters<K, V>(cacheName, keyType, valueSerializer)
+        PersistentIndexedCache<K, V> current = createGenerationCache(TaskHistoryGenerations.generationCacheName(cacheName, generation), keyType, valueSerializer, maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
+        if (generation <= 1) {
+            return current;
+        }
+        PersistentIndexedCache<K, V> previous = createGenerationCache(TaskHistoryGenerations.generationCacheName(cacheName, generation - 1), keyType, valueSerializer, maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
+        return new GenerationalPersistentIndexedCache<K, V>(current, previous);
+    }
+
+    private <K, V> PersistentIndexedCache<K, V> createGenerationCache(String generationCacheName, Class<K> keyType, Serializer<V> valueSerializer, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
+        PersistentIndexedCacheParameters<K, V> parameters = new PersistentIndexedCacheParameters<K, V>(generationCacheName, keyType, valueSerializer)
                 .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses));
         return cache.createCache(parameters);
     }
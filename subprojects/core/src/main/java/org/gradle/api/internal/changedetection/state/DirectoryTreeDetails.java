@@ -16,6 +16,10 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
 import java.util.Collection;
 
 /**
@@ -26,10 +30,20 @@ public class DirectoryTreeDetails implements FileTreeSnapshot {
     private final String path;
     // All elements, not just direct children
     private final Collection<FileSnapshot> descendants;
+    // Calculated while walking the tree when possible, otherwise lazily. Shared by all users of the tree from the file system mirror
+    private volatile HashCode treeHash;
 
     public DirectoryTreeDetails(String path, Collection<FileSnapshot> descendants) {
+        this(path, descendants, null);
+    }
+
+    /**
+     * @param treeHash the hash of the descendants calculated by a {@link TreeHasher}, or {@code null} to calculate it on first use.
+     */
+    public DirectoryTreeDetails(String path, Collection<FileSnapshot> descendants, @Nullable HashCode treeHash) {
         this.path = path;
         this.descendants = descendants;
+        this.treeHash = treeHash;
     }
 
     @Override
@@ -42,6 +56,44 @@ public class DirectoryTreeDetails implements FileTreeSnapshot {
         return descendants;
     }
 
+    @Override
+    public HashCode getTreeHash() {
+        HashCode hash = treeHash;
+        if (hash == null) {
+            hash = hashFileSnapshots(descendants);
+            treeHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the absolute paths, types and contents of the given snapshots, in iteration order.
+     */
+    static HashCode hashFileSnapshots(Iterable<? extends FileSnapshot> snapshots) {
+        TreeHasher hasher = new TreeHasher();
+        for (FileSnapshot snapshot : snapshots) {
+            hasher.add(snapshot);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Calculates the tree hash of the descendants of a directory as they are visited, so that the tree does not need to be traversed again to hash it.
+     */
+    public static class TreeHasher {
+        private final DefaultBuildCacheHasher hasher = new DefaultBuildCacheHasher();
+
+        public void add(FileSnapshot snapshot) {
+            hasher.putString(snapshot.getPath());
+            hasher.putInt(snapshot.getType().ordinal());
+            hasher.putHash(snapshot.getContent().getContentMd5());
+        }
+
+        public HashCode hash() {
+            return hasher.hash();
+        }
+    }
+
     @Override
     public String toString() {
         return path + " (" + descendants.size() + " descendants)";
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.internal.changedetection.rules.TaskStateChange;
+import org.gradle.caching.internal.BuildCacheHasher;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Refers to a {@link FileCollectionSnapshot} stored in a {@link CacheBackedFileSnapshotRepository}. The snapshot is loaded on first use and kept by the reference.
+ */
+class FileCollectionSnapshotReference implements FileCollectionSnapshot {
+    private final HashCode key;
+    private final CacheBackedFileSnapshotRepository repository;
+    private volatile FileCollectionSnapshot snapshot;
+
+    FileCollectionSnapshotReference(HashCode key, CacheBackedFileSnapshotRepository repository) {
+        this.key = key;
+        this.repository = repository;
+    }
+
+    public HashCode getKey() {
+        return key;
+    }
+
+    private FileCollectionSnapshot getSnapshot() {
+        FileCollectionSnapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            // Loading the same snapshot twice from concurrent threads is harmless
+            snapshot = repository.get(key);
+            if (snapshot == null) {
+                throw new IllegalStateException("Could not find file snapshot " + key + " in the task history.");
+            }
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSnapshot().isEmpty();
+    }
+
+    @Override
+    public Iterator<TaskStateChange> iterateContentChangesSince(FileCollectionSnapshot oldSnapshot, String title, boolean includeAdded) {
+        return getSnapshot().iterateContentChangesSince(oldSnapshot, title, includeAdded);
+    }
+
+    @Override
+    public HashCode getHash() {
+        return getSnapshot().getHash();
+    }
+
+    @Override
+    public Collection<File> getElements() {
+        return getSnapshot().getElements();
+    }
+
+    @Override
+    public Collection<File> getFiles() {
+        return getSnapshot().getFiles();
+    }
+
+    @Override
+    public Map<String, NormalizedFileSnapshot> getSnapshots() {
+        return getSnapshot().getSnapshots();
+    }
+
+    @Override
+    public Map<String, FileContentSnapshot> getContentSnapshots() {
+        return getSnapshot().getContentSnapshots();
+    }
+
+    @Override
+    public void appendToHasher(BuildCacheHasher hasher) {
+        getSnapshot().appendToHasher(hasher);
+    }
+
+    @Override
+    public String toString() {
+        return "snapshot " + key;
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.changedetection.state;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Used to build a {@link FileCollectionSnapshot} by collecting normalized file snapshots.
@@ -30,24 +31,39 @@ public class FileCollectionVisitingSnapshotBuilder implements VisitingFileCollec
 
     @Override
     public void visitFileTreeSnapshot(Collection<FileSnapshot> descendants) {
+        // An arbitrary file tree has no root directory to identify it by
+        builder.collectUnhashedRoot();
         for (FileSnapshot fileSnapshot : descendants) {
             builder.collectFileSnapshot(fileSnapshot);
         }
     }
 
+    @Override
+    public void visitDirectoryTreeSnapshot(FileTreeSnapshot tree) {
+        builder.collectRootHash(tree.getPath(), tree.getTreeHash());
+        for (FileSnapshot fileSnapshot : tree.getDescendants()) {
+            builder.collectFileSnapshot(fileSnapshot);
+        }
+    }
+
     @Override
     public void visitDirectorySnapshot(DirectoryFileSnapshot directory) {
-        builder.collectFileSnapshot(directory);
+        collectRoot(directory);
     }
 
     @Override
     public void visitFileSnapshot(RegularFileSnapshot file) {
-        builder.collectFileSnapshot(file);
+        collectRoot(file);
     }
 
     @Override
     public void visitMissingFileSnapshot(MissingFileSnapshot missingFile) {
-        builder.collectFileSnapshot(missingFile);
+        collectRoot(missingFile);
+    }
+
+    private void collectRoot(FileSnapshot root) {
+        builder.collectRootHash(root.getPath(), DirectoryTreeDetails.hashFileSnapshots(Collections.singleton(root)));
+        builder.collectFileSnapshot(root);
     }
 
     public FileCollectionSnapshot build() {
@@ -27,6 +27,11 @@ public interface FileSnapshotVisitor {
      */
     void visitFileTreeSnapshot(Collection<FileSnapshot> descendants);
 
+    /**
+     * Visits the snapshot of a {@link org.gradle.api.internal.file.collections.DirectoryFileTree}, including the root directory it was taken from.
+     */
+    void visitDirectoryTreeSnapshot(FileTreeSnapshot tree);
+
     /**
      * Visits a {@link DirectoryFileSnapshot} in the root of the {@link org.gradle.api.file.FileCollection}.
      */
@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.changedetection.state;
 
+import org.gradle.internal.hash.HashCode;
+
 import java.util.Collection;
 
 /**
@@ -31,4 +33,10 @@ public interface FileTreeSnapshot {
      * The descendants of the root directory, if any. Includes direct and indirect children. Does not include the root directory.
      */
     Collection<FileSnapshot> getDescendants();
+
+    /**
+     * A hash of the absolute paths, types and contents of the descendants of the root directory.
+     * Two trees with the same hash have the same descendants with the same contents.
+     */
+    HashCode getTreeHash();
 }
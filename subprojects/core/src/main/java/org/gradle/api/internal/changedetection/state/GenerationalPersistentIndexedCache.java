@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.Transformer;
+import org.gradle.cache.PersistentIndexedCache;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads through to the previous generation of a task history cache, and copies the entries found there to the current generation.
+ *
+ * @see TaskHistoryGenerations
+ */
+class GenerationalPersistentIndexedCache<K, V> implements PersistentIndexedCache<K, V> {
+    private final PersistentIndexedCache<K, V> current;
+    private final PersistentIndexedCache<K, V> previous;
+
+    GenerationalPersistentIndexedCache(PersistentIndexedCache<K, V> current, PersistentIndexedCache<K, V> previous) {
+        this.current = current;
+        this.previous = previous;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        V value = current.get(key);
+        if (value == null) {
+            value = previous.get(key);
+            if (value != null) {
+                current.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public V get(K key, final Transformer<? extends V, ? super K> producer) {
+        return current.get(key, new Transformer<V, K>() {
+            @Override
+            public V transform(K key) {
+                V value = previous.get(key);
+                return value != null ? value : producer.transform(key);
+            }
+        });
+    }
+
+    @Override
+    public void put(K key, V value) {
+        current.put(key, value);
+    }
+
+    @Override
+    public void remove(K key) {
+        current.remove(key);
+        previous.remove(key);
+    }
+}
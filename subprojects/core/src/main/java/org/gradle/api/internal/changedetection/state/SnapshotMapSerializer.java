@@ -48,8 +48,10 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
     public Map<String, NormalizedFileSnapshot> read(Decoder decoder) throws Exception {
         int snapshotsCount = decoder.readSmallInt();
         Map<String, NormalizedFileSnapshot> snapshots = new LinkedHashMap<String, NormalizedFileSnapshot>(snapshotsCount);
+        String previousPath = "";
         for (int i = 0; i < snapshotsCount; i++) {
-            String absolutePath = stringInterner.intern(decoder.readString());
+            String absolutePath = stringInterner.intern(readPath(decoder, previousPath));
+            previousPath = absolutePath;
             NormalizedFileSnapshot snapshot = readSnapshot(absolutePath, decoder, stringInterner);
             snapshots.put(absolutePath, snapshot);
         }
@@ -93,13 +95,42 @@ public class SnapshotMapSerializer extends AbstractSerializer<Map<String, Normal
     @Override
     public void write(Encoder encoder, Map<String, NormalizedFileSnapshot> value) throws Exception {
         encoder.writeSmallInt(value.size());
-        for (String key : value.keySet()) {
-            encoder.writeString(key);
-            NormalizedFileSnapshot snapshot = value.get(key);
-            writeSnapshot(encoder, snapshot);
+        String previousPath = "";
+        for (Map.Entry<String, NormalizedFileSnapshot> entry : value.entrySet()) {
+            String absolutePath = entry.getKey();
+            writePath(encoder, absolutePath, previousPath);
+            previousPath = absolutePath;
+            writeSnapshot(encoder, entry.getValue());
         }
     }
 
+    /**
+     * Snapshots are mostly ordered by directory, so consecutive paths usually share a long prefix.
+     * Paths are written as the length of the prefix shared with the previous path, followed by the rest of the path.
+     */
+    private static void writePath(Encoder encoder, String path, String previousPath) throws IOException {
+        int maxPrefixLength = Math.min(path.length(), previousPath.length());
+        int prefixLength = 0;
+        while (prefixLength < maxPrefixLength && path.charAt(prefixLength) == previousPath.charAt(prefixLength)) {
+            prefixLength++;
+        }
+        if (prefixLength > 0 && Character.isHighSurrogate(path.charAt(prefixLength - 1))) {
+            // Don't split a surrogate pair
+            prefixLength--;
+        }
+        encoder.writeSmallInt(prefixLength);
+        encoder.writeString(path.substring(prefixLength));
+    }
+
+    private static String readPath(Decoder decoder, String previousPath) throws IOException {
+        int prefixLength = decoder.readSmallInt();
+        String suffix = decoder.readString();
+        if (prefixLength == 0) {
+            return suffix;
+        }
+        return previousPath.substring(0, prefixLength) + suffix;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (!super.equals(obj)) {
@@ -26,18 +26,23 @@ import org.gradle.internal.id.UniqueId;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
-import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.HashCodeSerializer;
 
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * Serializes the history of a task. File snapshots are stored separately in a {@link CacheBackedFileSnapshotRepository},
+ * the history only contains references to them.
+ */
 public class TaskExecutionSnapshotSerializer extends AbstractSerializer<HistoricalTaskExecution> {
     private final InputPropertiesSerializer inputPropertiesSerializer;
     private final StringInterner stringInterner;
-    private final Serializer<FileCollectionSnapshot> fileCollectionSnapshotSerializer;
+    private final CacheBackedFileSnapshotRepository fileSnapshotRepository;
+    private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
 
-    TaskExecutionSnapshotSerializer(StringInterner stringInterner, Serializer<FileCollectionSnapshot> fileCollectionSnapshotSerializer) {
-        this.fileCollectionSnapshotSerializer = fileCollectionSnapshotSerializer;
+    TaskExecutionSnapshotSerializer(StringInterner stringInterner, CacheBackedFileSnapshotRepository fileSnapshotRepository) {
+        this.fileSnapshotRepository = fileSnapshotRepository;
         this.inputPropertiesSerializer = new InputPropertiesSerializer();
         this.stringInterner = stringInterner;
     }
@@ -52,7 +57,7 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
 
         ImmutableSortedMap<String, FileCollectionSnapshot> inputFilesSnapshots = readSnapshots(decoder);
         ImmutableSortedMap<String, FileCollectionSnapshot> outputFilesSnapshots = readSnapshots(decoder);
-        FileCollectionSnapshot discoveredFilesSnapshot = fileCollectionSnapshotSerializer.read(decoder);
+        FileCollectionSnapshot discoveredFilesSnapshot = readSnapshot(decoder);
 
         ImplementationSnapshot taskImplementation = readImplementation(decoder);
 
@@ -93,7 +98,7 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
         encoder.writeLong(execution.getOriginExecutionMetadata().getExecutionTime());
         writeSnapshots(encoder, execution.getInputFilesSnapshot());
         writeSnapshots(encoder, execution.getOutputFilesSnapshot());
-        fileCollectionSnapshotSerializer.write(encoder, execution.getDiscoveredInputFilesSnapshot());
+        writeSnapshot(encoder, execution.getDiscoveredInputFilesSnapshot());
         writeImplementation(encoder, execution.getTaskImplementation());
         encoder.writeSmallInt(execution.getTaskActionImplementations().size());
         for (ImplementationSnapshot actionImpl : execution.getTaskActionImplementations()) {
@@ -127,7 +132,7 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
         ImmutableSortedMap.Builder<String, FileCollectionSnapshot> builder = ImmutableSortedMap.naturalOrder();
         for (int snapshotIdx = 0; snapshotIdx < count; snapshotIdx++) {
             String property = decoder.readString();
-            FileCollectionSnapshot snapshot = fileCollectionSnapshotSerializer.read(decoder);
+            FileCollectionSnapshot snapshot = readSnapshot(decoder);
             builder.put(property, snapshot);
         }
         return builder.build();
@@ -137,7 +142,25 @@ public class TaskExecutionSnapshotSerializer extends AbstractSerializer<Historic
         encoder.writeSmallInt(ids.size());
         for (Map.Entry<String, FileCollectionSnapshot> entry : ids.entrySet()) {
             encoder.writeString(entry.getKey());
-            fileCollectionSnapshotSerializer.write(encoder, entry.getValue());
+            writeSnapshot(encoder, entry.getValue());
+        }
+    }
+
+    private FileCollectionSnapshot readSnapshot(Decoder decoder) throws Exception {
+        if (!decoder.readBoolean()) {
+            return EmptyFileCollectionSnapshot.INSTANCE;
+        }
+        return new FileCollectionSnapshotReference(hashCodeSerializer.read(decoder), fileSnapshotRepository);
+    }
+
+    private void writeSnapshot(Encoder encoder, FileCollectionSnapshot snapshot) throws Exception {
+        if (snapshot instanceof EmptyFileCollectionSnapshot) {
+            encoder.writeBoolean(false);
+        } else if (snapshot instanceof FileCollectionSnapshotReference) {
+            encoder.writeBoolean(true);
+            hashCodeSerializer.write(encoder, ((FileCollectionSnapshotReference) snapshot).getKey());
+        } else {
+            throw new IllegalArgumentException("File snapshots need to be added to the file snapshot repository before writing the task history: " + snapshot);
         }
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.io.FileUtils;
+import org.gradle.cache.CleanupAction;
+import org.gradle.cache.PersistentCache;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discards task history which is no longer used by keeping the history in generations.
+ *
+ * Entries are written to the current generation, and entries found in the previous generation are copied to the current generation when they are read.
+ * When the current generation becomes older than the retention period or larger than the maximum size, a new generation is started and the files of all but the two generations before it are deleted.
+ * This way, history that has not been used for two to three retention periods is discarded without having to enumerate the entries of the store.
+ *
+ * The task history cache is locked on demand, so a build in another process may still be using the generation it found current when it started, and the generation before it.
+ * Keeping one generation more than a build reads from means that a new generation can be started while such a build is running without deleting the files it uses.
+ */
+class TaskHistoryGenerations implements CleanupAction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskHistoryGenerations.class);
+
+    static final String RETENTION_DAYS_SYSPROP = "org.gradle.internal.taskhistory.retention.days";
+    static final String MAX_SIZE_MB_SYSPROP = "org.gradle.internal.taskhistory.retention.maxsizemb";
+    private static final long DEFAULT_RETENTION_DAYS = 30;
+    private static final long DEFAULT_MAX_SIZE_MB = 512;
+
+    private static final String GENERATION_FILE_NAME = "generation.properties";
+    private static final String GENERATION_PROPERTY = "generation";
+    private static final String CACHE_FILE_EXTENSION = ".bin";
+
+    private final long retentionMillis;
+    private final long maxGenerationSize;
+
+    @VisibleForTesting
+    TaskHistoryGenerations(long retentionMillis, long maxGenerationSize) {
+        this.retentionMillis = retentionMillis;
+        this.maxGenerationSize = maxGenerationSize;
+    }
+
+    static TaskHistoryGenerations fromSystemProperties() {
+        long retentionDays = Long.getLong(RETENTION_DAYS_SYSPROP, DEFAULT_RETENTION_DAYS);
+        long maxSizeMb = Long.getLong(MAX_SIZE_MB_SYSPROP, DEFAULT_MAX_SIZE_MB);
+        return new TaskHistoryGenerations(TimeUnit.DAYS.toMillis(retentionDays), maxSizeMb * FileUtils.ONE_MB);
+    }
+
+    /**
+     * Returns the name of the given cache in the given generation. Generation 0 means that no generation has been started yet.
+     */
+    static String generationCacheName(String cacheName, int generation) {
+        return cacheName + "-" + generation;
+    }
+
+    /**
+     * Returns the current generation of the given cache. The caller must hold the lock of the cache.
+     */
+    int getCurrentGeneration(PersistentCache cache) {
+        File generationFile = generationFile(cache);
+        if (!generationFile.isFile()) {
+            return 0;
+        }
+        String generation = GUtil.loadProperties(generationFile).getProperty(GENERATION_PROPERTY);
+        try {
+            return Integer.parseInt(generation);
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Ignoring invalid task history generation '{}' in {}.", generation, generationFile);
+            return 0;
+        }
+    }
+
+    /**
+     * Returns whether a new generation should be started. The caller must hold the lock of the cache.
+     */
+    boolean isNewGenerationRequired(PersistentCache cache) {
+        File generationFile = generationFile(cache);
+        if (!generationFile.isFile()) {
+            return true;
+        }
+        long age = System.currentTimeMillis() - generationFile.lastModified();
+        if (age >= retentionMillis) {
+            LOGGER.debug("{} current task history generation is older than {} days.", cache, TimeUnit.MILLISECONDS.toDays(retentionMillis));
+            return true;
+        }
+        int currentGeneration = getCurrentGeneration(cache);
+        long size = 0;
+        for (File file : findCacheFiles(cache)) {
+            if (generationOf(file) == currentGeneration) {
+                size += file.length();
+            }
+        }
+        if (size >= maxGenerationSize) {
+            LOGGER.debug("{} current task history generation is larger than {}.", cache, FileUtils.byteCountToDisplaySize(maxGenerationSize));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts a new generation, and deletes the files of the generations before the previous one, which builds that have not seen the new generation may still be using.
+     * The caller must hold the lock of the cache.
+     */
+    @Override
+    public void clean(PersistentCache cache) {
+        int currentGeneration = getCurrentGeneration(cache);
+        long reclaimedSize = 0;
+        int deletedFiles = 0;
+        for (File file : findCacheFiles(cache)) {
+            int generation = generationOf(file);
+            if (generation >= 0 && generation >= currentGeneration - 1) {
+                continue;
+            }
+            long size = file.length();
+            if (GFileUtils.deleteQuietly(file)) {
+                reclaimedSize += size;
+                deletedFiles++;
+            }
+        }
+        Properties properties = new Properties();
+        properties.setProperty(GENERATION_PROPERTY, String.valueOf(currentGeneration + 1));
+        GUtil.saveProperties(properties, generationFile(cache));
+        LOGGER.info("{} started task history generation {}, removing {} files of older generations ({} reclaimed).", cache, currentGeneration + 1, deletedFiles, FileUtils.byteCountToDisplaySize(reclaimedSize));
+    }
+
+    private static File generationFile(PersistentCache cache) {
+        return new File(cache.getBaseDir(), GENERATION_FILE_NAME);
+    }
+
+    private static File[] findCacheFiles(PersistentCache cache) {
+        File[] files = cache.getBaseDir().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(CACHE_FILE_EXTENSION);
+            }
+        });
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Returns the generation of the given cache file, or -1 for the files of caches that were not kept in generations.
+     */
+    private static int generationOf(File file) {
+        String name = file.getName();
+        String cacheName = name.substring(0, name.length() - CACHE_FILE_EXTENSION.length());
+        int separator = cacheName.lastIndexOf('-');
+        if (separator < 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(cacheName.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -49,6 +49,7 @@ public interface TaskExecutionContext {
      *
      * This time includes from the very start of the task (e.g. include input snapshotting), the task actions, and output snapshotting.
      * It does not include time taken to write back to the build cache, or time to update the task history repository.
+     * When the output snapshot is deferred, the outputs are snapshotted while being written to the build cache, so it does not include output snapshotting either.
      *
      * This can only be called once per task.
      */
@@ -61,6 +62,15 @@ public interface TaskExecutionContext {
      */
     long getExecutionTime();
 
+    /**
+     * Whether the outputs of the task are snapshotted by a later stage of execution, instead of directly after the task actions have run.
+     *
+     * This is the case when the outputs are stored in the build cache, as they are snapshotted while they are packed.
+     */
+    boolean isOutputSnapshotDeferred();
+
+    void setOutputSnapshotDeferred(boolean outputSnapshotDeferred);
+
     @Nullable
     List<String> getUpToDateMessages();
 
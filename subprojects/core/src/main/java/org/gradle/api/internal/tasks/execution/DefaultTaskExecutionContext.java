@@ -33,6 +33,7 @@ public class DefaultTaskExecutionContext implements TaskExecutionContext {
     private TaskProperties taskProperties;
     private OriginTaskExecutionMetadata originExecutionMetadata;
     private Long executionTime;
+    private boolean outputSnapshotDeferred;
 
     private final Timer executionTimer;
 
@@ -87,6 +88,16 @@ public class DefaultTaskExecutionContext implements TaskExecutionContext {
         return executionTime;
     }
 
+    @Override
+    public boolean isOutputSnapshotDeferred() {
+        return outputSnapshotDeferred;
+    }
+
+    @Override
+    public void setOutputSnapshotDeferred(boolean outputSnapshotDeferred) {
+        this.outputSnapshotDeferred = outputSnapshotDeferred;
+    }
+
     @Override
     @Nullable
     public List<String> getUpToDateMessages() {
@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.StopActionException;
@@ -54,23 +55,25 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
     private final BuildOperationExecutor buildOperationExecutor;
     private final AsyncWorkTracker asyncWorkTracker;
     private final BuildInvocationScopeId buildInvocationScopeId;
+    private final TaskExecutionStageTimer stageTimer;
 
-    public ExecuteActionsTaskExecuter(TaskOutputChangesListener outputsGenerationListener, TaskActionListener taskActionListener, BuildOperationExecutor buildOperationExecutor, AsyncWorkTracker asyncWorkTracker, BuildInvocationScopeId buildInvocationScopeId) {
+    public ExecuteActionsTaskExecuter(TaskOutputChangesListener outputsGenerationListener, TaskActionListener taskActionListener, BuildOperationExecutor buildOperationExecutor, AsyncWorkTracker asyncWorkTracker, BuildInvocationScopeId buildInvocationScopeId, TaskExecutionStageTimer stageTimer) {
         this.outputsGenerationListener = outputsGenerationListener;
         this.listener = taskActionListener;
         this.buildOperationExecutor = buildOperationExecutor;
         this.asyncWorkTracker = asyncWorkTracker;
         this.buildInvocationScopeId = buildInvocationScopeId;
+        this.stageTimer = stageTimer;
     }
 
-    public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+    public void execute(TaskInternal task, TaskStateInternal state, final TaskExecutionContext context) {
         listener.beforeActions(task);
         if (task.hasTaskActions()) {
             outputsGenerationListener.beforeTaskOutputChanged();
         }
         state.setExecuting(true);
         try {
-            GradleException failure = executeActions(task, state, context);
+            final GradleException failure = executeActions(task, state, context);
             if (failure != null) {
                 state.setOutcome(failure);
             } else {
@@ -78,7 +81,14 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
                     state.getDidWork() ? TaskExecutionOutcome.EXECUTED : TaskExecutionOutcome.UP_TO_DATE
                 );
             }
-            context.getTaskArtifactState().snapshotAfterTaskExecution(failure, buildInvocationScopeId.getId(), context);
+            if (failure != null || !context.isOutputSnapshotDeferred()) {
+                stageTimer.time(task, TaskExecutionStage.SNAPSHOT_AFTER_EXECUTION, new Runnable() {
+                    @Override
+                    public void run() {
+                        context.getTaskArtifactState().snapshotAfterTaskExecution(failure, buildInvocationScopeId.getId(), context);
+                    }
+                });
+            }
         } finally {
             state.setExecuting(false);
             listener.afterActions(task);
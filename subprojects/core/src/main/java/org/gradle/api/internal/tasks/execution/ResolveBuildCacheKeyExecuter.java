@@ -29,6 +29,7 @@ import org.gradle.api.internal.tasks.SnapshotTaskInputsBuildOperationType;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -38,6 +39,8 @@ import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 
 import javax.annotation.Nullable;
 import java.util.List;
@@ -52,11 +55,13 @@ public class ResolveBuildCacheKeyExecuter implements TaskExecuter {
 
     private final TaskExecuter delegate;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final TaskExecutionStageTimer stageTimer;
     private final boolean buildCacheDebugLogging;
 
-    public ResolveBuildCacheKeyExecuter(TaskExecuter delegate, BuildOperationExecutor buildOperationExecutor, boolean buildCacheDebugLogging) {
+    public ResolveBuildCacheKeyExecuter(TaskExecuter delegate, BuildOperationExecutor buildOperationExecutor, TaskExecutionStageTimer stageTimer, boolean buildCacheDebugLogging) {
         this.delegate = delegate;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.stageTimer = stageTimer;
         this.buildCacheDebugLogging = buildCacheDebugLogging;
     }
 
@@ -87,9 +92,15 @@ public class ResolveBuildCacheKeyExecuter implements TaskExecuter {
         buildOperationExecutor.run(new RunnableBuildOperation() {
             @Override
             public void run(BuildOperationContext buildOperationContext) {
-                TaskOutputCachingBuildCacheKey cacheKey = doResolve(task, context);
-                buildOperationContext.setResult(new OperationResultImpl(cacheKey));
-                context.setBuildCacheKey(cacheKey);
+                Timer timer = Time.startTimer();
+                try {
+                    TaskOutputCachingBuildCacheKey cacheKey = doResolve(task, context);
+                    buildOperationContext.setResult(new OperationResultImpl(cacheKey));
+                    context.setBuildCacheKey(cacheKey);
+                } finally {
+                    // This operation already represents the stage, so only record its timing
+                    stageTimer.record(TaskExecutionStage.CALCULATE_CACHE_KEY, timer);
+                }
             }
 
             @Override
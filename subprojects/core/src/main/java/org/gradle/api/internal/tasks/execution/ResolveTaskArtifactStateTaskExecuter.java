@@ -24,7 +24,9 @@ import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
 import org.gradle.api.internal.tasks.properties.PropertyWalker;
+import org.gradle.internal.Factory;
 import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.Timer;
@@ -39,20 +41,27 @@ public class ResolveTaskArtifactStateTaskExecuter implements TaskExecuter {
     private final PathToFileResolver resolver;
     private final TaskExecuter executer;
     private final TaskArtifactStateRepository repository;
+    private final TaskExecutionStageTimer stageTimer;
 
-    public ResolveTaskArtifactStateTaskExecuter(TaskArtifactStateRepository repository, PathToFileResolver resolver, PropertyWalker propertyWalker, TaskExecuter executer) {
+    public ResolveTaskArtifactStateTaskExecuter(TaskArtifactStateRepository repository, PathToFileResolver resolver, PropertyWalker propertyWalker, TaskExecutionStageTimer stageTimer, TaskExecuter executer) {
         this.propertyWalker = propertyWalker;
         this.resolver = resolver;
         this.executer = executer;
         this.repository = repository;
+        this.stageTimer = stageTimer;
     }
 
     @Override
-    public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+    public void execute(final TaskInternal task, TaskStateInternal state, final TaskExecutionContext context) {
         Timer clock = Time.startTimer();
-        TaskProperties taskProperties = DefaultTaskProperties.resolve(propertyWalker, resolver, task);
-        context.setTaskProperties(taskProperties);
-        TaskArtifactState taskArtifactState = repository.getStateFor(task, taskProperties);
+        TaskArtifactState taskArtifactState = stageTimer.time(task, TaskExecutionStage.RESOLVE_TASK_STATE, new Factory<TaskArtifactState>() {
+            @Override
+            public TaskArtifactState create() {
+                TaskProperties taskProperties = DefaultTaskProperties.resolve(propertyWalker, resolver, task);
+                context.setTaskProperties(taskProperties);
+                return repository.getStateFor(task, taskProperties);
+            }
+        });
         TaskOutputsInternal outputs = task.getOutputs();
 
         context.setTaskArtifactState(taskArtifactState);
@@ -16,10 +16,11 @@
 
 package org.gradle.api.internal.tasks.execution;
 
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
+import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
 import org.gradle.api.internal.tasks.CacheableTaskOutputFilePropertySpec;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.tasks.ResolvedTaskOutputFilePropertySpec;
@@ -28,14 +29,16 @@ import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.api.internal.tasks.TaskOutputFilePropertySpec;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
 import org.gradle.caching.internal.controller.BuildCacheController;
 import org.gradle.caching.internal.tasks.TaskOutputCacheCommandFactory;
 import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey;
 import org.gradle.caching.internal.tasks.UnrecoverableTaskOutputUnpackingException;
+import org.gradle.internal.Factory;
+import org.gradle.internal.scopeids.id.BuildInvocationScopeId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
 import java.util.SortedSet;
 
 public class SkipCachedTaskExecuter implements TaskExecuter {
@@ -45,25 +48,31 @@ public class SkipCachedTaskExecuter implements TaskExecuter {
     private final TaskExecuter delegate;
     private final TaskOutputChangesListener taskOutputChangesListener;
     private final TaskOutputCacheCommandFactory buildCacheCommandFactory;
+    private final BuildInvocationScopeId buildInvocationScopeId;
+    private final TaskExecutionStageTimer stageTimer;
 
     public SkipCachedTaskExecuter(
         BuildCacheController buildCache,
         TaskOutputChangesListener taskOutputChangesListener,
         TaskOutputCacheCommandFactory buildCacheCommandFactory,
+        BuildInvocationScopeId buildInvocationScopeId,
+        TaskExecutionStageTimer stageTimer,
         TaskExecuter delegate
     ) {
         this.taskOutputChangesListener = taskOutputChangesListener;
         this.buildCacheCommandFactory = buildCacheCommandFactory;
         this.buildCache = buildCache;
+        this.buildInvocationScopeId = buildInvocationScopeId;
+        this.stageTimer = stageTimer;
         this.delegate = delegate;
     }
 
     @Override
-    public void execute(final TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
+    public void execute(final TaskInternal task, TaskStateInternal state, final TaskExecutionContext context) {
         LOGGER.debug("Determining if {} is cached already", task);
 
-        TaskProperties taskProperties = context.getTaskProperties();
-        TaskOutputCachingBuildCacheKey cacheKey = context.getBuildCacheKey();
+        final TaskProperties taskProperties = context.getTaskProperties();
+        final TaskOutputCachingBuildCacheKey cacheKey = context.getBuildCacheKey();
         boolean taskOutputCachingEnabled = state.getTaskOutputCaching().isEnabled();
 
         SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties = null;
@@ -72,15 +81,23 @@ public class SkipCachedTaskExecuter implements TaskExecuter {
                 LOGGER.info("Custom actions are attached to {}.", task);
             }
             if (cacheKey.isValid()) {
-                TaskArtifactState taskState = context.getTaskArtifactState();
+                // The outputs are snapshotted while they are packed, so there's no need to snapshot them right after execution
+                context.setOutputSnapshotDeferred(true);
+                final TaskArtifactState taskState = context.getTaskArtifactState();
                 // TODO: This is really something we should do at an earlier/higher level so that the input and output
                 // property values are locked in at this point.
                 outputProperties = resolveProperties(taskProperties.getOutputFileProperties());
                 if (taskState.isAllowedToUseCachedResults()) {
                     try {
-                        OriginTaskExecutionMetadata originMetadata = buildCache.load(
-                            buildCacheCommandFactory.createLoad(cacheKey, outputProperties, task, taskProperties, taskOutputChangesListener, taskState)
-                        );
+                        final SortedSet<ResolvedTaskOutputFilePropertySpec> resolvedOutputProperties = outputProperties;
+                        OriginTaskExecutionMetadata originMetadata = stageTimer.time(task, TaskExecutionStage.LOAD_FROM_CACHE, new Factory<OriginTaskExecutionMetadata>() {
+                            @Override
+                            public OriginTaskExecutionMetadata create() {
+                                return buildCache.load(
+                                    buildCacheCommandFactory.createLoad(cacheKey, resolvedOutputProperties, task, taskProperties, taskOutputChangesListener, taskState)
+                                );
+                            }
+                        });
                         if (originMetadata != null) {
                             state.setOutcome(TaskExecutionOutcome.FROM_CACHE);
                             context.setOriginExecutionMetadata(originMetadata);
@@ -107,13 +124,7 @@ public class SkipCachedTaskExecuter implements TaskExecuter {
         if (taskOutputCachingEnabled) {
             if (cacheKey.isValid()) {
                 if (state.getFailure() == null) {
-                    try {
-                        TaskArtifactState taskState = context.getTaskArtifactState();
-                        Map<String, Map<String, FileContentSnapshot>> outputSnapshots = taskState.getOutputContentSnapshots();
-                        buildCache.store(buildCacheCommandFactory.createStore(cacheKey, outputProperties, outputSnapshots, task, context.getExecutionTime()));
-                    } catch (Exception e) {
-                        LOGGER.warn("Failed to store cache entry {}", cacheKey.getDisplayName(), task, e);
-                    }
+                    storeAndSnapshotOutputs(task, context, cacheKey, outputProperties);
                 } else {
                     LOGGER.debug("Not pushing result from {} to cache because the task failed", task);
                 }
@@ -123,6 +134,31 @@ public class SkipCachedTaskExecuter implements TaskExecuter {
         }
     }
 
+    private void storeAndSnapshotOutputs(final TaskInternal task, TaskExecutionContext context, final TaskOutputCachingBuildCacheKey cacheKey, final SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties) {
+        final OriginTaskExecutionMetadata originMetadata = new OriginTaskExecutionMetadata(buildInvocationScopeId.getId(), context.markExecutionTime());
+        final TaskOutputCacheCommandFactory.StoreCommand storeCommand = buildCacheCommandFactory.createStore(cacheKey, outputProperties, task, originMetadata.getExecutionTime());
+        try {
+            stageTimer.time(task, TaskExecutionStage.STORE_IN_CACHE, new Runnable() {
+                @Override
+                public void run() {
+                    buildCache.store(storeCommand);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.warn("Failed to store cache entry {}", cacheKey.getDisplayName(), task, e);
+        }
+
+        // Fall back to snapshotting the outputs when they have not been packed
+        final ImmutableSortedMap<String, FileCollectionSnapshot> outputSnapshots = storeCommand.getOutputSnapshots();
+        final TaskArtifactState taskState = context.getTaskArtifactState();
+        stageTimer.time(task, TaskExecutionStage.SNAPSHOT_AFTER_EXECUTION, new Runnable() {
+            @Override
+            public void run() {
+                taskState.snapshotAfterOutputsStoredInCache(outputSnapshots, originMetadata);
+            }
+        });
+    }
+
     private static SortedSet<ResolvedTaskOutputFilePropertySpec> resolveProperties(ImmutableSortedSet<? extends TaskOutputFilePropertySpec> properties) {
         ImmutableSortedSet.Builder<ResolvedTaskOutputFilePropertySpec> builder = ImmutableSortedSet.naturalOrder();
         for (TaskOutputFilePropertySpec property : properties) {
@@ -24,6 +24,8 @@ import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
 import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
+import org.gradle.internal.Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,18 +38,26 @@ import java.util.List;
  */
 public class SkipUpToDateTaskExecuter implements TaskExecuter {
     private static final Logger LOGGER = LoggerFactory.getLogger(SkipUpToDateTaskExecuter.class);
+    private final TaskExecutionStageTimer stageTimer;
     private final TaskExecuter executer;
 
-    public SkipUpToDateTaskExecuter(TaskExecuter executer) {
+    public SkipUpToDateTaskExecuter(TaskExecutionStageTimer stageTimer, TaskExecuter executer) {
+        this.stageTimer = stageTimer;
         this.executer = executer;
     }
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         LOGGER.debug("Determining if {} is up-to-date", task);
-        TaskArtifactState taskArtifactState = context.getTaskArtifactState();
+        final TaskArtifactState taskArtifactState = context.getTaskArtifactState();
 
-        List<String> messages = new ArrayList<String>(TaskUpToDateState.MAX_OUT_OF_DATE_MESSAGES);
-        if (taskArtifactState.isUpToDate(messages)) {
+        final List<String> messages = new ArrayList<String>(TaskUpToDateState.MAX_OUT_OF_DATE_MESSAGES);
+        boolean upToDate = stageTimer.time(task, TaskExecutionStage.CHECK_UP_TO_DATE, new Factory<Boolean>() {
+            @Override
+            public Boolean create() {
+                return taskArtifactState.isUpToDate(messages);
+            }
+        });
+        if (upToDate) {
             LOGGER.info("Skipping {} as it is up-to-date.", task);
             state.setOutcome(TaskExecutionOutcome.UP_TO_DATE);
             context.setOriginExecutionMetadata(taskArtifactState.getExecutionHistory().getOriginExecutionMetadata());
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.execution;
+
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings;
+import org.gradle.internal.Factory;
+import org.gradle.internal.execution.ExecuteTaskStageBuildOperationType;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+
+/**
+ * Runs a stage of the task execution pipeline as a child build operation of the task execution,
+ * and records the time spent in the stage in the build's {@link TaskExecutionStageTimings}.
+ */
+public class TaskExecutionStageTimer {
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final TaskExecutionStageTimings timings;
+
+    public TaskExecutionStageTimer(BuildOperationExecutor buildOperationExecutor, TaskExecutionStageTimings timings) {
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.timings = timings;
+    }
+
+    public <T> T time(final TaskInternal task, final TaskExecutionStage stage, final Factory<T> action) {
+        return buildOperationExecutor.call(new CallableBuildOperation<T>() {
+            @Override
+            public T call(BuildOperationContext context) {
+                Timer timer = Time.startTimer();
+                try {
+                    T result = action.create();
+                    context.setResult(OperationResultImpl.INSTANCE);
+                    return result;
+                } finally {
+                    record(stage, timer);
+                }
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                String taskPath = task.getIdentityPath().getPath();
+                return BuildOperationDescriptor
+                    .displayName(stage.getDisplayName() + " for " + taskPath).name(stage.getDisplayName())
+                    .details(new OperationDetailsImpl(taskPath, stage));
+            }
+        });
+    }
+
+    public void time(TaskInternal task, TaskExecutionStage stage, final Runnable action) {
+        time(task, stage, new Factory<Void>() {
+            @Override
+            public Void create() {
+                action.run();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Records the time elapsed on the given timer for a stage which is already represented by its own build operation.
+     */
+    public void record(TaskExecutionStage stage, Timer timer) {
+        timings.record(stage, timer.getElapsedMillis());
+    }
+
+    private static class OperationDetailsImpl implements ExecuteTaskStageBuildOperationType.Details {
+        private final String taskPath;
+        private final TaskExecutionStage stage;
+
+        OperationDetailsImpl(String taskPath, TaskExecutionStage stage) {
+            this.taskPath = taskPath;
+            this.stage = stage;
+        }
+
+        @Override
+        public String getTaskPath() {
+            return taskPath;
+        }
+
+        @Override
+        public String getStage() {
+            return stage.name();
+        }
+    }
+
+    private static class OperationResultImpl implements ExecuteTaskStageBuildOperationType.Result {
+        private static final OperationResultImpl INSTANCE = new OperationResultImpl();
+    }
+}
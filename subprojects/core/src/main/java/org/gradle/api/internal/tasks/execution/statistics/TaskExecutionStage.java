@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.execution.statistics;
+
+/**
+ * The stages of the task execution pipeline which are timed individually.
+ */
+public enum TaskExecutionStage {
+    RESOLVE_TASK_STATE("Resolve task state"),
+    CALCULATE_CACHE_KEY("Calculate build cache key"),
+    CHECK_UP_TO_DATE("Check up-to-date state"),
+    LOAD_FROM_CACHE("Load outputs from cache"),
+    STORE_IN_CACHE("Store outputs in cache"),
+    SNAPSHOT_AFTER_EXECUTION("Snapshot outputs and persist history");
+
+    private final String displayName;
+
+    TaskExecutionStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.execution.statistics;
+
+/**
+ * The time spent in each {@link TaskExecutionStage} over all tasks of a build.
+ */
+public class TaskExecutionStageStatistics {
+    public static final TaskExecutionStageStatistics EMPTY = new TaskExecutionStageStatistics(new long[TaskExecutionStage.values().length], new long[TaskExecutionStage.values().length]);
+
+    private final long[] durationsMillis;
+    private final long[] counts;
+
+    TaskExecutionStageStatistics(long[] durationsMillis, long[] counts) {
+        this.durationsMillis = durationsMillis;
+        this.counts = counts;
+    }
+
+    /**
+     * The accumulated time spent in the given stage, in milliseconds.
+     */
+    public long getDurationMillis(TaskExecutionStage stage) {
+        return durationsMillis[stage.ordinal()];
+    }
+
+    /**
+     * The number of times the given stage was executed.
+     */
+    public long getCount(TaskExecutionStage stage) {
+        return counts[stage.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        for (long count : counts) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.execution.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Accumulates the time spent in each {@link TaskExecutionStage} over all tasks of a build.
+ *
+ * Stages are recorded concurrently by the worker threads executing tasks.
+ */
+public class TaskExecutionStageTimings {
+    private static final TaskExecutionStage[] STAGES = TaskExecutionStage.values();
+
+    private final AtomicLongArray durations = new AtomicLongArray(STAGES.length);
+    private final AtomicLongArray counts = new AtomicLongArray(STAGES.length);
+
+    public void record(TaskExecutionStage stage, long durationMillis) {
+        durations.addAndGet(stage.ordinal(), durationMillis);
+        counts.incrementAndGet(stage.ordinal());
+    }
+
+    public TaskExecutionStageStatistics getStatistics() {
+        long[] durationSnapshot = new long[STAGES.length];
+        long[] countSnapshot = new long[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            durationSnapshot[i] = durations.get(i);
+            countSnapshot[i] = counts.get(i);
+        }
+        return new TaskExecutionStageStatistics(durationSnapshot, countSnapshot);
+    }
+}
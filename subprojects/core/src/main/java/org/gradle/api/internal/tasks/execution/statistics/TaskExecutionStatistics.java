@@ -21,14 +21,20 @@ public class TaskExecutionStatistics {
     private final int executedTasksCount;
     private final int fromCacheTaskCount;
     private final int upToDateTaskCount;
+    private final TaskExecutionStageStatistics stageStatistics;
 
     public TaskExecutionStatistics(int executedTasksCount, int fromCacheTaskCount, int upToDateTaskCount) {
+        this(executedTasksCount, fromCacheTaskCount, upToDateTaskCount, TaskExecutionStageStatistics.EMPTY);
+    }
+
+    public TaskExecutionStatistics(int executedTasksCount, int fromCacheTaskCount, int upToDateTaskCount, TaskExecutionStageStatistics stageStatistics) {
         checkArgument(executedTasksCount >= 0, "executedTasksCount must be non-negative");
         checkArgument(fromCacheTaskCount >= 0, "fromCacheTaskCount must be non-negative");
         checkArgument(upToDateTaskCount >= 0, "upToDateTaskCount must be non-negative");
         this.executedTasksCount = executedTasksCount;
         this.fromCacheTaskCount = fromCacheTaskCount;
         this.upToDateTaskCount = upToDateTaskCount;
+        this.stageStatistics = stageStatistics;
     }
 
     public int getExecutedTasksCount() {
@@ -43,6 +49,10 @@ public class TaskExecutionStatistics {
         return upToDateTaskCount;
     }
 
+    public TaskExecutionStageStatistics getStageStatistics() {
+        return stageStatistics;
+    }
+
     public int getTotalTaskCount() {
         return executedTasksCount + fromCacheTaskCount + upToDateTaskCount;
     }
@@ -25,19 +25,21 @@ import org.gradle.api.tasks.TaskState;
 
 public class TaskExecutionStatisticsEventAdapter extends BuildAdapter implements BuildListener, TaskExecutionListener {
     private final TaskExecutionStatisticsListener listener;
+    private final TaskExecutionStageTimings stageTimings;
     private int executedTasksCount;
     private int fromCacheTaskCount;
     private int upToDateTaskCount;
 
-    public TaskExecutionStatisticsEventAdapter(TaskExecutionStatisticsListener listener) {
+    public TaskExecutionStatisticsEventAdapter(TaskExecutionStatisticsListener listener, TaskExecutionStageTimings stageTimings) {
         this.listener = listener;
+        this.stageTimings = stageTimings;
     }
 
     @Override
     public void buildFinished(BuildResult result) {
         // Do not report stats for nested builds
         if (result.getGradle().getParent() == null) {
-            listener.buildFinished(new TaskExecutionStatistics(executedTasksCount, fromCacheTaskCount, upToDateTaskCount));
+            listener.buildFinished(new TaskExecutionStatistics(executedTasksCount, fromCacheTaskCount, upToDateTaskCount, stageTimings.getStatistics()));
         }
     }
 
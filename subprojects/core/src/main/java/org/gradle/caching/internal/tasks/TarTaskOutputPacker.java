@@ -29,14 +29,18 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.tools.zip.UnixStat;
 import org.gradle.api.GradleException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.DirectoryFileSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.changedetection.state.FileHashSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.changedetection.state.RegularFileSnapshot;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.tasks.CacheableTaskOutputFilePropertySpec;
 import org.gradle.api.internal.tasks.OutputType;
 import org.gradle.api.internal.tasks.ResolvedTaskOutputFilePropertySpec;
@@ -58,7 +62,6 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
-import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
 import java.util.SortedSet;
@@ -70,33 +73,31 @@ import static org.gradle.caching.internal.tasks.TaskOutputPackerUtils.makeDirect
 
 /**
  * Packages task output to a POSIX TAR file.
+ *
+ * The outputs are snapshotted while they are packed or unpacked, so that their contents only need to be read once.
  */
-@SuppressWarnings("Since15")
 public class TarTaskOutputPacker implements TaskOutputPacker {
     private static final String METADATA_PATH = "METADATA";
     private static final Pattern PROPERTY_PATH = Pattern.compile("(missing-)?property-([^/]+)(?:/(.*))?");
     @SuppressWarnings("OctalInteger")
     private static final int FILE_PERMISSION_MASK = 0777;
-    private static final int BUFFER_SIZE = 64 * 1024;
-    private static final ThreadLocal<byte[]> COPY_BUFFERS = new ThreadLocal<byte[]>() {
-        @Override
-        protected byte[] initialValue() {
-            return new byte[BUFFER_SIZE];
-        }
-    };
 
     private final FileSystem fileSystem;
     private final StreamHasher streamHasher;
+    private final CachingFileHasher fileHasher;
     private final StringInterner stringInterner;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
 
-    public TarTaskOutputPacker(FileSystem fileSystem, StreamHasher streamHasher, StringInterner stringInterner) {
+    public TarTaskOutputPacker(FileSystem fileSystem, StreamHasher streamHasher, CachingFileHasher fileHasher, StringInterner stringInterner, DirectoryFileTreeFactory directoryFileTreeFactory) {
         this.fileSystem = fileSystem;
         this.streamHasher = streamHasher;
+        this.fileHasher = fileHasher;
         this.stringInterner = stringInterner;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
     }
 
     @Override
-    public PackResult pack(SortedSet<ResolvedTaskOutputFilePropertySpec> propertySpecs, Map<String, Map<String, FileContentSnapshot>> outputSnapshots, OutputStream output, TaskOutputOriginWriter writeOrigin) throws IOException {
+    public PackResult pack(SortedSet<ResolvedTaskOutputFilePropertySpec> propertySpecs, OutputStream output, TaskOutputOriginWriter writeOrigin) throws IOException {
         BufferedOutputStream bufferedOutput;
         if (output instanceof BufferedOutputStream) {
             bufferedOutput = (BufferedOutputStream) output;
@@ -109,8 +110,9 @@ public class TarTaskOutputPacker implements TaskOutputPacker {
             tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
             tarOutput.setAddPaxHeadersForNonAsciiNames(true);
             packMetadata(writeOrigin, tarOutput);
-            long entryCount = pack(propertySpecs, outputSnapshots, tarOutput);
-            return new PackResult(entryCount + 1);
+            ImmutableListMultimap.Builder<String, FileSnapshot> propertyFileSnapshots = ImmutableListMultimap.builder();
+            long entryCount = pack(propertySpecs, tarOutput, propertyFileSnapshots);
+            return new PackResult(entryCount + 1, propertyFileSnapshots.build());
         } finally {
             IOUtils.closeQuietly(tarOutput);
         }
@@ -124,13 +126,12 @@ public class TarTaskOutputPacker implements TaskOutputPacker {
         tarOutput.closeArchiveEntry();
     }
 
-    private long pack(Collection<ResolvedTaskOutputFilePropertySpec> propertySpecs, Map<String, Map<String, FileContentSnapshot>> outputSnapshots, TarArchiveOutputStream tarOutput) {
+    private long pack(Collection<ResolvedTaskOutputFilePropertySpec> propertySpecs, TarArchiveOutputStream tarOutput, ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots) {
         long entries = 0;
         for (ResolvedTaskOutputFilePropertySpec propertySpec : propertySpecs) {
             String propertyName = propertySpec.getPropertyName();
-            Map<String, FileContentSnapshot> outputs = outputSnapshots.get(propertyName);
             try {
-                entries += packProperty(propertySpec, outputs, tarOutput);
+                entries += packProperty(propertySpec, tarOutput, fileSnapshots);
             } catch (Exception ex) {
                 throw new GradleException(String.format("Could not pack property '%s': %s", propertyName, ex.getMessage()), ex);
             }
@@ -138,75 +139,51 @@ public class TarTaskOutputPacker implements TaskOutputPacker {
         return entries;
     }
 
-    private long packProperty(CacheableTaskOutputFilePropertySpec propertySpec, Map<String, FileContentSnapshot> outputSnapshots, TarArchiveOutputStream tarOutput) throws IOException {
+    private long packProperty(CacheableTaskOutputFilePropertySpec propertySpec, TarArchiveOutputStream tarOutput, ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots) throws IOException {
         String propertyName = propertySpec.getPropertyName();
         File root = propertySpec.getOutputFile();
         if (root == null) {
             return 0;
         }
         String propertyPath = "property-" + escape(propertyName);
-        if (outputSnapshots.isEmpty()) {
+        if (!root.exists()) {
             storeMissingProperty(propertyPath, tarOutput);
             return 1;
         }
         switch (propertySpec.getOutputType()) {
             case DIRECTORY:
-                return storeDirectoryProperty(propertyPath, root, outputSnapshots, tarOutput);
+                return storeDirectoryProperty(propertyName, propertyPath, root, tarOutput, fileSnapshots);
             case FILE:
-                storeFileProperty(propertyPath, root, tarOutput);
+                storeFileProperty(propertyName, propertyPath, root, tarOutput, fileSnapshots);
                 return 1;
             default:
                 throw new AssertionError();
         }
     }
 
-    private long storeDirectoryProperty(String propertyPath, File directory, Map<String, FileContentSnapshot> outputSnapshots, final TarArchiveOutputStream tarOutput) throws IOException {
+    private long storeDirectoryProperty(String propertyName, String propertyPath, File directory, TarArchiveOutputStream tarOutput, ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots) throws IOException {
         if (!directory.isDirectory()) {
             throw new IllegalArgumentException(String.format("Expected '%s' to be a directory", directory));
         }
 
-        long entries = 0;
-
-        final String propertyRoot = propertyPath + "/";
+        String propertyRoot = propertyPath + "/";
         createTarEntry(propertyRoot, 0, UnixStat.DIR_FLAG | UnixStat.DEFAULT_DIR_PERM, tarOutput);
         tarOutput.closeArchiveEntry();
-        entries++;
-
-        String rootAbsolutePath = directory.getAbsolutePath();
-        Path rootPath = directory.toPath();
+        fileSnapshots.put(propertyName, new DirectoryFileSnapshot(internedAbsolutePath(directory), RelativePath.parse(false, directory.getName()), true));
 
-        for (Map.Entry<String, FileContentSnapshot> entry : outputSnapshots.entrySet()) {
-            String absolutePath = entry.getKey();
-            // We've already created the directory for the property
-            if (absolutePath.equals(rootAbsolutePath)) {
-                continue;
-            }
-            File file = new File(absolutePath);
-            String relativePath = rootPath.relativize(file.toPath()).toString();
-            String targetPath = propertyRoot + relativePath;
-            int mode = fileSystem.getUnixMode(file);
-            switch (entry.getValue().getType()) {
-                case RegularFile:
-                    storeFileEntry(file, targetPath, file.length(), mode, tarOutput);
-                    break;
-                case Directory:
-                    storeDirectoryEntry(targetPath, mode, tarOutput);
-                    break;
-                case Missing:
-                    throw new IllegalStateException("File should not be missing: " + file);
-                default:
-                    throw new AssertionError();
-            }
-            entries++;
-        }
-        return entries;
+        PackingFileVisitor visitor = new PackingFileVisitor(propertyName, propertyRoot, tarOutput, fileSnapshots);
+        directoryFileTreeFactory.create(directory).visit(visitor);
+        return visitor.entries + 1;
     }
 
-    private void storeFileProperty(String propertyPath, File file, TarArchiveOutputStream tarOutput) throws IOException {
+    private void storeFileProperty(String propertyName, String propertyPath, File file, TarArchiveOutputStream tarOutput, ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots) throws IOException {
         if (!file.isFile()) {
             throw new IllegalArgumentException(String.format("Expected '%s' to be a file", file));
         }
-        storeFileEntry(file, propertyPath, file.length(), fileSystem.getUnixMode(file), tarOutput);
+        long lastModified = file.lastModified();
+        HashCode hash = storeFileEntry(file, propertyPath, file.length(), lastModified, fileSystem.getUnixMode(file), tarOutput);
+        FileHashSnapshot contentSnapshot = new FileHashSnapshot(hash, lastModified);
+        fileSnapshots.put(propertyName, new RegularFileSnapshot(internedAbsolutePath(file), RelativePath.parse(true, file.getName()), true, contentSnapshot));
     }
 
     private void storeMissingProperty(String propertyPath, TarArchiveOutputStream tarOutput) throws IOException {
@@ -219,15 +196,71 @@ public class TarTaskOutputPacker implements TaskOutputPacker {
         tarOutput.closeArchiveEntry();
     }
 
-    private void storeFileEntry(File inputFile, String path, long size, int mode, TarArchiveOutputStream tarOutput) throws IOException {
+    /**
+     * Copies the file into the archive, and returns the hash of its contents calculated while copying.
+     * The hash is also recorded in the file hash cache, so that the file does not need to be read again
+     * when the outputs are next checked for changes.
+     */
+    private HashCode storeFileEntry(File inputFile, String path, long size, long lastModified, int mode, TarArchiveOutputStream tarOutput) throws IOException {
         createTarEntry(path, size, UnixStat.FILE_FLAG | mode, tarOutput);
         FileInputStream input = new FileInputStream(inputFile);
+        HashCode hash;
         try {
-            IOUtils.copyLarge(input, tarOutput, COPY_BUFFERS.get());
+            hash = streamHasher.hashCopy(input, tarOutput);
         } finally {
             IOUtils.closeQuietly(input);
         }
         tarOutput.closeArchiveEntry();
+        fileHasher.recordHash(inputFile, size, lastModified, hash);
+        return hash;
+    }
+
+    private String internedAbsolutePath(File file) {
+        return stringInterner.intern(file.getAbsolutePath());
+    }
+
+    /**
+     * Packs the contents of an output directory, and snapshots them at the same time.
+     */
+    private class PackingFileVisitor implements FileVisitor {
+        private final String propertyName;
+        private final String propertyRoot;
+        private final TarArchiveOutputStream tarOutput;
+        private final ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots;
+        private long entries;
+
+        PackingFileVisitor(String propertyName, String propertyRoot, TarArchiveOutputStream tarOutput, ImmutableMultimap.Builder<String, FileSnapshot> fileSnapshots) {
+            this.propertyName = propertyName;
+            this.propertyRoot = propertyRoot;
+            this.tarOutput = tarOutput;
+            this.fileSnapshots = fileSnapshots;
+        }
+
+        @Override
+        public void visitDir(FileVisitDetails dirDetails) {
+            File dir = dirDetails.getFile();
+            try {
+                storeDirectoryEntry(propertyRoot + dirDetails.getRelativePath().getPathString(), fileSystem.getUnixMode(dir), tarOutput);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            fileSnapshots.put(propertyName, new DirectoryFileSnapshot(internedAbsolutePath(dir), dirDetails.getRelativePath(), false));
+            entries++;
+        }
+
+        @Override
+        public void visitFile(FileVisitDetails fileDetails) {
+            File file = fileDetails.getFile();
+            HashCode hash;
+            try {
+                hash = storeFileEntry(file, propertyRoot + fileDetails.getRelativePath().getPathString(), fileDetails.getSize(), fileDetails.getLastModified(), fileSystem.getUnixMode(file), tarOutput);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            FileHashSnapshot contentSnapshot = new FileHashSnapshot(hash, fileDetails.getLastModified());
+            fileSnapshots.put(propertyName, new RegularFileSnapshot(internedAbsolutePath(file), fileDetails.getRelativePath(), false, contentSnapshot));
+            entries++;
+        }
     }
 
     private static void createTarEntry(String path, long size, int mode, TarArchiveOutputStream tarOutput) throws IOException {
@@ -329,7 +362,7 @@ public class TarTaskOutputPacker implements TaskOutputPacker {
             outputFile = new File(propertyRoot, childPath);
         }
 
-        String internedPath = stringInterner.intern(outputFile.getAbsolutePath());
+        String internedPath = internedAbsolutePath(outputFile);
         RelativePath relativePath = root ? RelativePath.parse(!isDirEntry, outputFile.getName()) : RelativePath.parse(!isDirEntry, childPath);
         if (isDirEntry) {
             FileUtils.forceMkdir(outputFile);
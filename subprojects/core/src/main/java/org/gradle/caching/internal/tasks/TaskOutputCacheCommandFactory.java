@@ -32,7 +32,6 @@ import org.gradle.api.internal.changedetection.state.CollectingFileCollectionSna
 import org.gradle.api.internal.changedetection.state.DirectoryTreeDetails;
 import org.gradle.api.internal.changedetection.state.EmptyFileCollectionSnapshot;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSystemMirror;
 import org.gradle.api.internal.changedetection.state.MissingFileSnapshot;
@@ -49,13 +48,13 @@ import org.gradle.caching.internal.controller.BuildCacheStoreCommand;
 import org.gradle.caching.internal.tasks.origin.TaskOutputOriginFactory;
 import org.gradle.internal.file.FileType;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.SortedSet;
 
 import static org.gradle.api.internal.changedetection.state.TaskFilePropertyCompareStrategy.UNORDERED;
@@ -86,8 +85,8 @@ public class TaskOutputCacheCommandFactory {
         return new LoadCommand(cacheKey, outputProperties, task, taskProperties, taskOutputChangesListener, taskArtifactState);
     }
 
-    public BuildCacheStoreCommand createStore(TaskOutputCachingBuildCacheKey cacheKey, SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties, Map<String, Map<String, FileContentSnapshot>> outputSnapshots, TaskInternal task, long taskExecutionTime) {
-        return new StoreCommand(cacheKey, outputProperties, outputSnapshots, task, taskExecutionTime);
+    public StoreCommand createStore(TaskOutputCachingBuildCacheKey cacheKey, SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties, TaskInternal task, long taskExecutionTime) {
+        return new StoreCommand(cacheKey, outputProperties, task, taskExecutionTime);
     }
 
     private class LoadCommand implements BuildCacheLoadCommand<OriginTaskExecutionMetadata> {
@@ -119,7 +118,8 @@ public class TaskOutputCacheCommandFactory {
             final TaskOutputPacker.UnpackResult unpackResult;
             try {
                 unpackResult = packer.unpack(outputProperties, input, taskOutputOriginFactory.createReader(task));
-                updateSnapshots(unpackResult.getSnapshots(), unpackResult.getOriginMetadata());
+                ImmutableSortedMap<String, FileCollectionSnapshot> outputSnapshots = snapshotOutputs(outputProperties, unpackResult.getSnapshots());
+                taskArtifactState.snapshotAfterLoadedFromCache(outputSnapshots, unpackResult.getOriginMetadata());
             } catch (Exception e) {
                 LOGGER.warn("Cleaning outputs for {} after failed load from cache.", task);
                 try {
@@ -148,46 +148,6 @@ public class TaskOutputCacheCommandFactory {
             };
         }
 
-        private void updateSnapshots(ImmutableListMultimap<String, FileSnapshot> propertiesFileSnapshots, OriginTaskExecutionMetadata originMetadata) {
-            ImmutableSortedMap.Builder<String, FileCollectionSnapshot> propertySnapshotsBuilder = ImmutableSortedMap.naturalOrder();
-            for (ResolvedTaskOutputFilePropertySpec property : outputProperties) {
-                String propertyName = property.getPropertyName();
-                File outputFile = property.getOutputFile();
-                if (outputFile == null) {
-                    propertySnapshotsBuilder.put(propertyName, EmptyFileCollectionSnapshot.INSTANCE);
-                    continue;
-                }
-                List<FileSnapshot> fileSnapshots = propertiesFileSnapshots.get(propertyName);
-
-                CollectingFileCollectionSnapshotBuilder builder = new CollectingFileCollectionSnapshotBuilder(UNORDERED, OutputPathNormalizationStrategy.getInstance(), stringInterner);
-                for (FileSnapshot fileSnapshot : fileSnapshots) {
-                    builder.collectFileSnapshot(fileSnapshot);
-                }
-                propertySnapshotsBuilder.put(propertyName, builder.build());
-
-                switch (property.getOutputType()) {
-                    case FILE:
-                        FileSnapshot singleSnapshot = Iterables.getOnlyElement(fileSnapshots, null);
-                        if (singleSnapshot != null) {
-                            if (singleSnapshot.getType() != FileType.RegularFile) {
-                                throw new IllegalStateException(String.format("Only a regular file should be produced by unpacking property '%s', but saw a %s", propertyName, singleSnapshot.getType()));
-                            }
-                            fileSystemMirror.putFile(singleSnapshot);
-                        } else {
-                            fileSystemMirror.putFile(new MissingFileSnapshot(internedAbsolutePath(outputFile), RelativePath.EMPTY_ROOT));
-                        }
-                        break;
-                    case DIRECTORY:
-                        Collection<FileSnapshot> descendants = Collections2.filter(fileSnapshots, EXCLUDE_ROOT_SNAPSHOTS);
-                        fileSystemMirror.putDirectory(new DirectoryTreeDetails(internedAbsolutePath(outputFile), descendants));
-                        break;
-                    default:
-                        throw new AssertionError();
-                }
-            }
-            taskArtifactState.snapshotAfterLoadedFromCache(propertySnapshotsBuilder.build(), originMetadata);
-        }
-
         private void cleanLocalState() {
             for (File localStateFile : taskProperties.getLocalStateFiles()) {
                 try {
@@ -224,18 +184,61 @@ public class TaskOutputCacheCommandFactory {
         return stringInterner.intern(outputFile.getAbsolutePath());
     }
 
-    private class StoreCommand implements BuildCacheStoreCommand {
+    /**
+     * Builds the output snapshots from the file snapshots taken while packing or unpacking the outputs,
+     * and records them in the file system mirror so that they don't need to be snapshotted again.
+     */
+    private ImmutableSortedMap<String, FileCollectionSnapshot> snapshotOutputs(SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties, ImmutableListMultimap<String, FileSnapshot> propertiesFileSnapshots) {
+        ImmutableSortedMap.Builder<String, FileCollectionSnapshot> propertySnapshotsBuilder = ImmutableSortedMap.naturalOrder();
+        for (ResolvedTaskOutputFilePropertySpec property : outputProperties) {
+            String propertyName = property.getPropertyName();
+            File outputFile = property.getOutputFile();
+            if (outputFile == null) {
+                propertySnapshotsBuilder.put(propertyName, EmptyFileCollectionSnapshot.INSTANCE);
+                continue;
+            }
+            List<FileSnapshot> fileSnapshots = propertiesFileSnapshots.get(propertyName);
+
+            CollectingFileCollectionSnapshotBuilder builder = new CollectingFileCollectionSnapshotBuilder(UNORDERED, OutputPathNormalizationStrategy.getInstance(), stringInterner);
+            for (FileSnapshot fileSnapshot : fileSnapshots) {
+                builder.collectFileSnapshot(fileSnapshot);
+            }
+            propertySnapshotsBuilder.put(propertyName, builder.build());
+
+            switch (property.getOutputType()) {
+                case FILE:
+                    FileSnapshot singleSnapshot = Iterables.getOnlyElement(fileSnapshots, null);
+                    if (singleSnapshot != null) {
+                        if (singleSnapshot.getType() != FileType.RegularFile) {
+                            throw new IllegalStateException(String.format("Only a regular file should be produced for property '%s', but saw a %s", propertyName, singleSnapshot.getType()));
+                        }
+                        fileSystemMirror.putFile(singleSnapshot);
+                    } else {
+                        fileSystemMirror.putFile(new MissingFileSnapshot(internedAbsolutePath(outputFile), RelativePath.EMPTY_ROOT));
+                    }
+                    break;
+                case DIRECTORY:
+                    Collection<FileSnapshot> descendants = Collections2.filter(fileSnapshots, EXCLUDE_ROOT_SNAPSHOTS);
+                    fileSystemMirror.putDirectory(new DirectoryTreeDetails(internedAbsolutePath(outputFile), descendants));
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+        }
+        return propertySnapshotsBuilder.build();
+    }
+
+    public class StoreCommand implements BuildCacheStoreCommand {
 
         private final TaskOutputCachingBuildCacheKey cacheKey;
         private final SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties;
-        private final Map<String, Map<String, FileContentSnapshot>> outputSnapshots;
         private final TaskInternal task;
         private final long taskExecutionTime;
+        private ImmutableSortedMap<String, FileCollectionSnapshot> outputSnapshots;
 
-        private StoreCommand(TaskOutputCachingBuildCacheKey cacheKey, SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties, Map<String, Map<String, FileContentSnapshot>> outputSnapshots, TaskInternal task, long taskExecutionTime) {
+        private StoreCommand(TaskOutputCachingBuildCacheKey cacheKey, SortedSet<ResolvedTaskOutputFilePropertySpec> outputProperties, TaskInternal task, long taskExecutionTime) {
             this.cacheKey = cacheKey;
             this.outputProperties = outputProperties;
-            this.outputSnapshots = outputSnapshots;
             this.task = task;
             this.taskExecutionTime = taskExecutionTime;
         }
@@ -248,7 +251,8 @@ public class TaskOutputCacheCommandFactory {
         @Override
         public BuildCacheStoreCommand.Result store(OutputStream output) throws IOException {
             LOGGER.info("Packing {}", task);
-            final TaskOutputPacker.PackResult packResult = packer.pack(outputProperties, outputSnapshots, output, taskOutputOriginFactory.createWriter(task, taskExecutionTime));
+            final TaskOutputPacker.PackResult packResult = packer.pack(outputProperties, output, taskOutputOriginFactory.createWriter(task, taskExecutionTime));
+            outputSnapshots = snapshotOutputs(outputProperties, packResult.getSnapshots());
             return new BuildCacheStoreCommand.Result() {
                 @Override
                 public long getArtifactEntryCount() {
@@ -256,5 +260,13 @@ public class TaskOutputCacheCommandFactory {
                 }
             };
         }
+
+        /**
+         * Returns the snapshots of the outputs taken while packing them, or {@code null} if the outputs have not been packed.
+         */
+        @Nullable
+        public ImmutableSortedMap<String, FileCollectionSnapshot> getOutputSnapshots() {
+            return outputSnapshots;
+        }
     }
 }
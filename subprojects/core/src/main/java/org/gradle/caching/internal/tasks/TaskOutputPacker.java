@@ -17,7 +17,6 @@
 package org.gradle.caching.internal.tasks;
 
 import com.google.common.collect.ImmutableListMultimap;
-import org.gradle.api.internal.changedetection.state.FileContentSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata;
 import org.gradle.api.internal.tasks.ResolvedTaskOutputFilePropertySpec;
@@ -27,7 +26,6 @@ import org.gradle.caching.internal.tasks.origin.TaskOutputOriginWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 import java.util.SortedSet;
 
 public interface TaskOutputPacker {
@@ -39,18 +37,24 @@ public interface TaskOutputPacker {
     // - any major changes of the layout of a cache entry
     int CACHE_ENTRY_FORMAT = 1;
 
-    PackResult pack(SortedSet<ResolvedTaskOutputFilePropertySpec> propertySpecs, Map<String, Map<String, FileContentSnapshot>> outputSnapshots, OutputStream output, TaskOutputOriginWriter writeOrigin) throws IOException;
+    PackResult pack(SortedSet<ResolvedTaskOutputFilePropertySpec> propertySpecs, OutputStream output, TaskOutputOriginWriter writeOrigin) throws IOException;
 
     class PackResult {
         private final long entries;
+        private final ImmutableListMultimap<String, FileSnapshot> snapshots;
 
-        public PackResult(long entries) {
+        public PackResult(long entries, ImmutableListMultimap<String, FileSnapshot> snapshots) {
             this.entries = entries;
+            this.snapshots = snapshots;
         }
 
         public long getEntries() {
             return entries;
         }
+
+        public ImmutableListMultimap<String, FileSnapshot> getSnapshots() {
+            return snapshots;
+        }
     }
 
     UnpackResult unpack(SortedSet<ResolvedTaskOutputFilePropertySpec> propertySpecs, InputStream input, TaskOutputOriginReader readOrigin) throws IOException;
@@ -15,11 +15,14 @@
  */
 package org.gradle.internal.buildevents;
 
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageStatistics;
 import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatistics;
 import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatisticsListener;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.logging.text.StyledTextOutput;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
+import org.gradle.internal.time.TimeFormatting;
 
 public class TaskExecutionStatisticsReporter implements TaskExecutionStatisticsListener {
     private final StyledTextOutputFactory textOutputFactory;
@@ -38,6 +41,22 @@ public class TaskExecutionStatisticsReporter implements TaskExecutionStatisticsL
             printedDetail = formatDetail(textOutput, statistics.getFromCacheTaskCount(), "from cache", printedDetail);
             formatDetail(textOutput, statistics.getUpToDateTaskCount(), "up-to-date", printedDetail);
             textOutput.println();
+            reportStages(statistics.getStageStatistics());
+        }
+    }
+
+    private void reportStages(TaskExecutionStageStatistics stageStatistics) {
+        if (stageStatistics.isEmpty()) {
+            return;
+        }
+        StyledTextOutput textOutput = textOutputFactory.create(BuildResultLogger.class, LogLevel.INFO);
+        textOutput.println("Time spent in task execution stages:");
+        for (TaskExecutionStage stage : TaskExecutionStage.values()) {
+            long count = stageStatistics.getCount(stage);
+            if (count > 0) {
+                textOutput.format("  %s: %s (%d %s)", stage.getDisplayName(), TimeFormatting.formatDurationVeryTerse(stageStatistics.getDurationMillis(stage)), count, count > 1 ? "tasks" : "task");
+                textOutput.println();
+            }
         }
     }
 
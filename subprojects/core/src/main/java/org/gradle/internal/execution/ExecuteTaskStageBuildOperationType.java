@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.execution;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * A single stage of the task execution pipeline, such as the up-to-date check or loading outputs from the build cache.
+ *
+ * Must occur as a child of {@link ExecuteTaskBuildOperationType}.
+ * The time spent in each stage is also aggregated into a per-build summary,
+ * see {@link org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageStatistics}.
+ *
+ * @since 4.7
+ */
+public final class ExecuteTaskStageBuildOperationType implements BuildOperationType<ExecuteTaskStageBuildOperationType.Details, ExecuteTaskStageBuildOperationType.Result> {
+
+    public interface Details {
+
+        String getTaskPath();
+
+        /**
+         * The name of the stage, corresponding to {@link org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage#name()}.
+         */
+        String getStage();
+
+    }
+
+    public interface Result {
+
+    }
+
+    private ExecuteTaskStageBuildOperationType() {
+
+    }
+
+}
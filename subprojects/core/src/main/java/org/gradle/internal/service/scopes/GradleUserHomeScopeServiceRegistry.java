@@ -39,4 +39,9 @@ public interface GradleUserHomeScopeServiceRegistry {
      * Releases a service registry created by {@link #getServicesFor(File)}.
      */
     void release(ServiceRegistry services);
+
+    /**
+     * Closes the services that are kept for reuse but are not currently in use, to release the memory held by them. The services are recreated when next requested.
+     */
+    void releaseUnusedServices();
 }
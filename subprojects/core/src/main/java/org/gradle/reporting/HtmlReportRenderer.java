@@ -27,8 +27,10 @@ import java.io.IOException;
 import java.io.Writer;
 import java.net.URL;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class HtmlReportRenderer {
@@ -40,7 +42,7 @@ public class HtmlReportRenderer {
             outputDirectory.mkdirs();
             DefaultHtmlReportContext context = new DefaultHtmlReportContext(outputDirectory);
             renderer.render(model, context);
-            for (Resource resource : context.resources.values()) {
+            for (Resource resource : context.getResources()) {
                 File destFile = new File(outputDirectory, resource.path);
                 if (!destFile.exists()) {
                     GFileUtils.copyURLToFile(resource.source, destFile);
@@ -93,7 +95,10 @@ public class HtmlReportRenderer {
             this.outputDirectory = outputDirectory;
         }
 
-        Resource addResource(URL source) {
+        /**
+         * Pages may be rendered concurrently, so resources can be added from multiple threads.
+         */
+        synchronized Resource addResource(URL source) {
             String urlString = source.toString();
             Resource resource = resources.get(urlString);
             if (resource == null) {
@@ -109,6 +114,10 @@ public class HtmlReportRenderer {
             return resource;
         }
 
+        synchronized List<Resource> getResources() {
+            return new ArrayList<Resource>(resources.values());
+        }
+
         public void requireResource(URL source) {
             addResource(source);
         }
@@ -40,11 +40,14 @@ import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskStateInternal
 import org.gradle.api.internal.tasks.execution.DefaultTaskExecutionContext
 import org.gradle.api.internal.tasks.execution.ResolveTaskArtifactStateTaskExecuter
+import org.gradle.api.internal.tasks.execution.TaskExecutionStageTimer
 import org.gradle.api.internal.tasks.execution.TaskProperties
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.api.internal.tasks.properties.PropertyWalker
 import org.gradle.api.tasks.incremental.InputFileDetails
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.CleanupActionFactory
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
 import org.gradle.cache.internal.DefaultCacheRepository
 import org.gradle.caching.internal.tasks.TaskCacheKeyCalculator
@@ -54,6 +57,7 @@ import org.gradle.internal.file.PathToFileResolver
 import org.gradle.internal.hash.HashCode
 import org.gradle.internal.hash.TestFileHasher
 import org.gradle.internal.id.UniqueId
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId
 import org.gradle.internal.serialize.DefaultSerializerRegistry
@@ -101,7 +105,7 @@ class DefaultTaskArtifactStateRepositoryTest extends AbstractProjectBuilderSpec
         task = builder.task()
         CacheRepository cacheRepository = new DefaultCacheRepository(mapping, new InMemoryCacheFactory())
         CrossBuildInMemoryCacheFactory cacheFactory = new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())
-        TaskHistoryStore cacheAccess = new DefaultTaskHistoryStore(gradle, cacheRepository, new InMemoryCacheDecoratorFactory(false, cacheFactory))
+        TaskHistoryStore cacheAccess = new DefaultTaskHistoryStore(gradle, cacheRepository, new InMemoryCacheDecoratorFactory(false, cacheFactory), new CleanupActionFactory(new TestBuildOperationExecutor()))
         def stringInterner = new StringInterner()
         def fileHasher = new TestFileHasher()
         fileSystemMirror = new DefaultFileSystemMirror([])
@@ -631,7 +635,7 @@ class DefaultTaskArtifactStateRepositoryTest extends AbstractProjectBuilderSpec
     private TaskArtifactState getStateFor(TaskInternal task) {
         def state = null
         def serviceRegistry = project.services
-        new ResolveTaskArtifactStateTaskExecuter(repository, serviceRegistry.get(PathToFileResolver), serviceRegistry.get(PropertyWalker), new TaskExecuter() {
+        new ResolveTaskArtifactStateTaskExecuter(repository, serviceRegistry.get(PathToFileResolver), serviceRegistry.get(PropertyWalker), new TaskExecutionStageTimer(new TestBuildOperationExecutor(), new TaskExecutionStageTimings()), new TaskExecuter() {
             @Override
             void execute(TaskInternal task1, TaskStateInternal state1, TaskExecutionContext context) {
                 state = context.getTaskArtifactState()
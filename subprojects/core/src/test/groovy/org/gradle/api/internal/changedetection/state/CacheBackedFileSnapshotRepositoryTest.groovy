@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.Serializer
+import spock.lang.Specification
+
+import static org.gradle.api.internal.changedetection.state.TaskFilePropertyCompareStrategy.UNORDERED
+
+class CacheBackedFileSnapshotRepositoryTest extends Specification {
+    def cache = Mock(PersistentIndexedCache)
+    def serializer = Stub(Serializer)
+    def cacheAccess = Stub(TaskHistoryStore) {
+        createCache("fileSnapshots", HashCode, serializer, _, _) >> cache
+    }
+    def repository = new CacheBackedFileSnapshotRepository(cacheAccess, serializer)
+
+    def "stores identical snapshots once"() {
+        def snapshot = snapshot("/file", 123)
+        def identicalSnapshot = snapshot("/file", 123)
+
+        when:
+        def reference = repository.add(snapshot)
+        def identicalReference = repository.add(identicalSnapshot)
+
+        then:
+        1 * cache.put(snapshot.storageKey, snapshot)
+        0 * _
+
+        and:
+        reference.key == identicalReference.key
+    }
+
+    def "stores snapshots of different files separately"() {
+        def snapshot = snapshot("/file", 123)
+        def otherSnapshot = snapshot("/other", 123)
+
+        when:
+        repository.add(snapshot)
+        repository.add(otherSnapshot)
+
+        then:
+        1 * cache.put(snapshot.storageKey, snapshot)
+        1 * cache.put(otherSnapshot.storageKey, otherSnapshot)
+        0 * _
+
+        and:
+        snapshot.storageKey != otherSnapshot.storageKey
+    }
+
+    def "does not store empty snapshots"() {
+        when:
+        def stored = repository.add(EmptyFileCollectionSnapshot.INSTANCE)
+
+        then:
+        stored == EmptyFileCollectionSnapshot.INSTANCE
+        0 * _
+    }
+
+    def "loads referenced snapshot"() {
+        def snapshot = snapshot("/file", 123)
+        def reference = new FileCollectionSnapshotReference(snapshot.storageKey, repository)
+
+        when:
+        def loaded = repository.load(reference)
+
+        then:
+        1 * cache.get(snapshot.storageKey) >> snapshot
+        0 * _
+
+        and:
+        loaded == snapshot
+
+        when:
+        repository.add(snapshot)
+
+        then:
+        0 * _
+    }
+
+    def "reference loads the snapshot once"() {
+        def snapshot = snapshot("/file", 123)
+        def reference = new FileCollectionSnapshotReference(snapshot.storageKey, repository)
+
+        when:
+        def files = reference.files
+        def hash = reference.hash
+        def empty = reference.empty
+
+        then:
+        1 * cache.get(snapshot.storageKey) >> snapshot
+        0 * _
+
+        and:
+        files == snapshot.files
+        hash == snapshot.hash
+        !empty
+    }
+
+    def "writes snapshot again when a previous write failed"() {
+        def snapshot = snapshot("/file", 123)
+        def failure = new RuntimeException()
+
+        when:
+        repository.add(snapshot)
+
+        then:
+        1 * cache.put(snapshot.storageKey, snapshot) >> { throw failure }
+        def e = thrown(RuntimeException)
+        e == failure
+
+        when:
+        repository.add(snapshot)
+
+        then:
+        1 * cache.put(snapshot.storageKey, snapshot)
+        0 * _
+    }
+
+    def "returns null when referenced snapshot is no longer stored"() {
+        def key = HashCode.fromInt(123)
+
+        when:
+        def loaded = repository.load(new FileCollectionSnapshotReference(key, repository))
+
+        then:
+        1 * cache.get(key) >> null
+        0 * _
+
+        and:
+        loaded == null
+    }
+
+    private static DefaultFileCollectionSnapshot snapshot(String path, int hash) {
+        new DefaultFileCollectionSnapshot([(path): new NonNormalizedFileSnapshot(path, new FileHashSnapshot(HashCode.fromInt(hash)))], UNORDERED, true)
+    }
+}
@@ -193,4 +193,17 @@ class CachingFileHasherTest extends Specification {
         }
         0 * _._
     }
+
+    def recordsHashCalculatedElsewhere() {
+        when:
+        hasher.recordHash(file, 321, 123, hash)
+
+        then:
+        1 * cache.put(file.absolutePath, _) >> { String key, FileInfo fileInfo ->
+            assert fileInfo.hash == hash
+            assert fileInfo.length == 321
+            assert fileInfo.timestamp == 123
+        }
+        0 * _._
+    }
 }
@@ -36,7 +36,7 @@ class DefaultFileCollectionSnapshotSerializerTest extends SerializerSpec {
             "/1": new DefaultNormalizedFileSnapshot("1", DirContentSnapshot.getInstance()),
             "/2": new DefaultNormalizedFileSnapshot("2", MissingFileContentSnapshot.getInstance()),
             "/3": new DefaultNormalizedFileSnapshot("3", new FileHashSnapshot(hash))
-        ], combinedHash, UNORDERED, true), serializer)
+        ], combinedHash, UNORDERED, true, ["/1": HashCode.fromInt(1), "/3": HashCode.fromInt(3)]), serializer)
 
         then:
         out.snapshots.size() == 3
@@ -49,6 +49,7 @@ class DefaultFileCollectionSnapshotSerializerTest extends SerializerSpec {
         out.snapshots['/3'].snapshot instanceof FileHashSnapshot
         out.snapshots['/3'].snapshot.hash == hash
         out.pathIsAbsolute
+        out.rootHashes == ["/1": HashCode.fromInt(1), "/3": HashCode.fromInt(3)]
     }
 
     def "should retain order in serialization"() {
@@ -62,5 +63,23 @@ class DefaultFileCollectionSnapshotSerializerTest extends SerializerSpec {
 
         then:
         out.snapshots.keySet() as List == ['/3', '/2', '/1']
+        out.rootHashes == null
+    }
+
+    def "reads and writes paths sharing a prefix with the previous path"() {
+        when:
+        def hash = Hashing.md5().hashString("foo")
+        DefaultFileCollectionSnapshot out = serialize(new DefaultFileCollectionSnapshot([
+            "/dir": new DefaultNormalizedFileSnapshot("dir", DirContentSnapshot.getInstance()),
+            "/dir/sub/file1": new DefaultNormalizedFileSnapshot("file1", new FileHashSnapshot(hash)),
+            "/dir/sub/file2": new DefaultNormalizedFileSnapshot("file2", new FileHashSnapshot(hash)),
+            "/dir/other/\uD83D\uDE00": new DefaultNormalizedFileSnapshot("\uD83D\uDE00", new FileHashSnapshot(hash)),
+            "/dir/other/\uD83D\uDE01": new DefaultNormalizedFileSnapshot("\uD83D\uDE01", new FileHashSnapshot(hash)),
+            "/": new DefaultNormalizedFileSnapshot("", DirContentSnapshot.getInstance())
+        ], UNORDERED, true), serializer)
+
+        then:
+        out.snapshots.keySet() as List == ["/dir", "/dir/sub/file1", "/dir/sub/file2", "/dir/other/\uD83D\uDE00", "/dir/other/\uD83D\uDE01", "/"]
+        out.snapshots["/dir/sub/file2"].normalizedPath == "file2"
     }
 }
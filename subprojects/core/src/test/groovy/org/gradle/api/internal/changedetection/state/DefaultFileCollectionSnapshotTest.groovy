@@ -93,4 +93,44 @@ class DefaultFileCollectionSnapshotTest extends Specification {
             .hash())
         0 * _
     }
+
+    def "does not compare files when the hashes of all roots are unchanged"() {
+        def oldSnapshot = snapshotWithRoots([(path("dir", "file1.txt")): 123], [(path("dir")): 1])
+        def newSnapshot = snapshotWithRoots([(path("dir", "file1.txt")): 234], [(path("dir")): 1])
+
+        expect:
+        !newSnapshot.iterateContentChangesSince(oldSnapshot, "TYPE", true).hasNext()
+    }
+
+    def "only compares files of the roots which have changed"() {
+        def oldSnapshot = snapshotWithRoots([(path("dir1", "file1.txt")): 123, (path("dir2", "file2.txt")): 123], [(path("dir1")): 1, (path("dir2")): 2])
+        def newSnapshot = snapshotWithRoots([(path("dir1", "file1.txt")): 234, (path("dir2", "file2.txt")): 234], [(path("dir1")): 1, (path("dir2")): 3])
+
+        when:
+        def changes = newSnapshot.iterateContentChangesSince(oldSnapshot, "TYPE", true).collect { it.path }
+
+        then:
+        changes == [path("dir2", "file2.txt")]
+    }
+
+    def "compares all files when the roots are different"() {
+        def oldSnapshot = snapshotWithRoots([(path("dir1", "file1.txt")): 123], [(path("dir1")): 1])
+        def newSnapshot = snapshotWithRoots([(path("dir1", "file1.txt")): 234, (path("dir2", "file2.txt")): 234], [(path("dir1")): 1, (path("dir2")): 2])
+
+        when:
+        def changes = newSnapshot.iterateContentChangesSince(oldSnapshot, "TYPE", true).collect { it.path }
+
+        then:
+        changes as Set == [path("dir1", "file1.txt"), path("dir2", "file2.txt")] as Set
+    }
+
+    private static DefaultFileCollectionSnapshot snapshotWithRoots(Map<String, Integer> files, Map<String, Integer> roots) {
+        def snapshots = files.collectEntries { path, hash -> [(path): new DefaultNormalizedFileSnapshot(path, new FileHashSnapshot(HashCode.fromInt(hash)))] }
+        def rootHashes = roots.collectEntries { path, hash -> [(path): HashCode.fromInt(hash)] }
+        return new DefaultFileCollectionSnapshot(snapshots, null, UNORDERED, true, rootHashes)
+    }
+
+    private static String path(String... segments) {
+        return segments.join(File.separator)
+    }
 }
@@ -126,6 +126,24 @@ class DefaultFileSystemSnapshotterTest extends Specification {
         snapshot3.is(snapshot)
     }
 
+    def "calculates the tree hash while walking the tree"() {
+        def d = tmpDir.createDir("d")
+        d.createFile("f1")
+        d.createFile("d1/f2")
+        d.createDir("d2")
+
+        expect:
+        def snapshot = snapshotter.snapshotDirectoryTree(d)
+        snapshot.treeHash == DirectoryTreeDetails.hashFileSnapshots(snapshot.descendants)
+
+        fileSystemMirror.beforeTaskOutputChanged()
+        d.file("f1").text = "changed"
+
+        def snapshot2 = snapshotter.snapshotDirectoryTree(d)
+        snapshot2.treeHash == DirectoryTreeDetails.hashFileSnapshots(snapshot2.descendants)
+        snapshot2.treeHash != snapshot.treeHash
+    }
+
     def "fetches details of a directory tree with patterns patterns and does not cache the result"() {
         def d = tmpDir.createDir("d")
         d.createFile("f1")
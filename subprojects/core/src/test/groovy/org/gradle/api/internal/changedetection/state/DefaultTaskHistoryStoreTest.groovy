@@ -18,29 +18,92 @@ package org.gradle.api.internal.changedetection.state
 import org.gradle.api.internal.GradleInternal
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
+import org.gradle.cache.CleanupAction
 import org.gradle.cache.FileLockManager
 import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.cache.internal.CleanupActionFactory
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
 import org.gradle.cache.internal.filelock.LockOptionsBuilder
+import org.gradle.internal.Factory
 import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.serialize.BaseSerializerFactory
 import spock.lang.Specification
 
 class DefaultTaskHistoryStoreTest extends Specification {
     final GradleInternal gradle = Mock()
     final CacheRepository cacheRepository = Mock()
+    final CleanupActionFactory cleanupActionFactory = Mock()
+    final TaskHistoryGenerations generations = Mock()
+    final CacheBuilder cacheBuilder = Mock()
+    final PersistentCache backingCache = Mock()
+    final inMemoryCacheDecoratorFactory = new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
 
     def "opens backing cache on construction"() {
-        CacheBuilder cacheBuilder = Mock()
-        PersistentCache backingCache = Mock()
-
         when:
-        new DefaultTaskHistoryStore(gradle, cacheRepository, new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())))
+        createStore()
 
         then:
         1 * cacheRepository.cache(gradle, "taskHistory") >> cacheBuilder
         1 * cacheBuilder.withDisplayName(_) >> cacheBuilder
         1 * cacheBuilder.withLockOptions(LockOptionsBuilder.mode(FileLockManager.LockMode.None)) >> cacheBuilder
         1 * cacheBuilder.open() >> backingCache
+
+        then:
+        1 * backingCache.withFileLock(_ as Factory) >> { Factory action -> action.create() }
+        1 * generations.isNewGenerationRequired(backingCache) >> false
+        1 * generations.getCurrentGeneration(backingCache) >> 1
+        0 * _._
+    }
+
+    def "starts new generation on construction when required"() {
+        def cleanupAction = Mock(CleanupAction)
+
+        when:
+        createStore()
+
+        then:
+        1 * cacheRepository.cache(gradle, "taskHistory") >> cacheBuilder
+        _ * cacheBuilder._ >> cacheBuilder
+        1 * cacheBuilder.open() >> backingCache
+
+        then:
+        1 * backingCache.withFileLock(_ as Factory) >> { Factory action -> action.create() }
+        1 * generations.isNewGenerationRequired(backingCache) >> true
+        1 * cleanupActionFactory.create(generations) >> cleanupAction
+        1 * cleanupAction.clean(backingCache)
+        1 * generations.getCurrentGeneration(backingCache) >> 2
         0 * _._
     }
+
+    def "creates caches in current generation"() {
+        def currentCache = Mock(PersistentIndexedCache)
+        def previousCache = Mock(PersistentIndexedCache)
+        cacheRepository.cache(gradle, "taskHistory") >> cacheBuilder
+        cacheBuilder._ >> cacheBuilder
+        cacheBuilder.open() >> backingCache
+        backingCache.withFileLock(_ as Factory) >> { Factory action -> action.create() }
+        generations.getCurrentGeneration(backingCache) >> generation
+
+        when:
+        def cache = createStore().createCache("history", String, BaseSerializerFactory.STRING_SERIALIZER, 10, false)
+
+        then:
+        1 * backingCache.createCache({ it.cacheName == "history-${generation}" }) >> currentCache
+        (generation > 1 ? 1 : 0) * backingCache.createCache({ it.cacheName == "history-${generation - 1}" }) >> previousCache
+
+        when:
+        cache.get("key")
+
+        then:
+        1 * currentCache.get("key") >> null
+        (generation > 1 ? 1 : 0) * previousCache.get("key") >> null
+
+        where:
+        generation << [1, 2]
+    }
+
+    private DefaultTaskHistoryStore createStore() {
+        new DefaultTaskHistoryStore(gradle, cacheRepository, inMemoryCacheDecoratorFactory, cleanupActionFactory, generations)
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.cache.PersistentIndexedCache
+import spock.lang.Specification
+
+class GenerationalPersistentIndexedCacheTest extends Specification {
+    def current = Mock(PersistentIndexedCache)
+    def previous = Mock(PersistentIndexedCache)
+    def cache = new GenerationalPersistentIndexedCache<String, String>(current, previous)
+
+    def "reads from current generation"() {
+        when:
+        def value = cache.get("key")
+
+        then:
+        value == "value"
+        1 * current.get("key") >> "value"
+        0 * _
+    }
+
+    def "copies entry found in previous generation to current generation"() {
+        when:
+        def value = cache.get("key")
+
+        then:
+        value == "value"
+        1 * current.get("key") >> null
+        1 * previous.get("key") >> "value"
+        1 * current.put("key", "value")
+        0 * _
+    }
+
+    def "returns null when entry is in neither generation"() {
+        when:
+        def value = cache.get("key")
+
+        then:
+        value == null
+        1 * current.get("key") >> null
+        1 * previous.get("key") >> null
+        0 * _
+    }
+
+    def "writes to current generation only"() {
+        when:
+        cache.put("key", "value")
+
+        then:
+        1 * current.put("key", "value")
+        0 * _
+    }
+
+    def "removes from both generations"() {
+        when:
+        cache.remove("key")
+
+        then:
+        1 * current.remove("key")
+        1 * previous.remove("key")
+        0 * _
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.cache.PersistentCache
+import org.gradle.test.fixtures.file.CleanupTestDirectory
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+@CleanupTestDirectory(fieldName = "tmpDir")
+class TaskHistoryGenerationsTest extends Specification {
+
+    @Rule
+    public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def retentionMillis = TimeUnit.DAYS.toMillis(1)
+    def generations = new TaskHistoryGenerations(retentionMillis, 100)
+    TestFile cacheDir = tmpDir.createDir("cache")
+    def cache = Stub(PersistentCache) {
+        getBaseDir() >> cacheDir
+    }
+
+    def "requires new generation when no generation has been started"() {
+        expect:
+        generations.getCurrentGeneration(cache) == 0
+        generations.isNewGenerationRequired(cache)
+    }
+
+    def "starts new generation and removes files of the generations before the previous one"() {
+        def legacy = cacheDir.file("history.bin").createFile()
+        def older = cacheDir.file("history-1.bin").createFile()
+        def previous = cacheDir.file("history-2.bin").createFile()
+        def current = cacheDir.file("history-3.bin").createFile()
+        def otherFile = cacheDir.file("history-1.lock").createFile()
+        cacheDir.file("generation.properties").text = "generation=3"
+
+        when:
+        generations.clean(cache)
+
+        then:
+        generations.getCurrentGeneration(cache) == 4
+        !generations.isNewGenerationRequired(cache)
+        !legacy.exists()
+        !older.exists()
+        previous.exists()
+        current.exists()
+        otherFile.exists()
+    }
+
+    def "keeps the generations used by a build that started before the new generation"() {
+        def previous = cacheDir.file("history-1.bin").createFile()
+        def current = cacheDir.file("history-2.bin").createFile()
+        cacheDir.file("generation.properties").text = "generation=2"
+
+        when:
+        generations.clean(cache)
+        cacheDir.file("history-3.bin").createFile()
+
+        then:
+        previous.exists()
+        current.exists()
+
+        when:
+        generations.clean(cache)
+
+        then:
+        !previous.exists()
+        current.exists()
+    }
+
+    def "requires new generation when current generation is older than retention period"() {
+        generations.clean(cache)
+        def generationFile = cacheDir.file("generation.properties")
+
+        when:
+        generationFile.lastModified = System.currentTimeMillis() - retentionMillis + TimeUnit.HOURS.toMillis(1)
+
+        then:
+        !generations.isNewGenerationRequired(cache)
+
+        when:
+        generationFile.lastModified = System.currentTimeMillis() - retentionMillis - TimeUnit.HOURS.toMillis(1)
+
+        then:
+        generations.isNewGenerationRequired(cache)
+    }
+
+    def "requires new generation when current generation is larger than maximum size"() {
+        generations.clean(cache)
+        cacheDir.file("history-0.bin").bytes = new byte[200]
+        cacheDir.file("history-1.bin").bytes = new byte[60]
+
+        expect:
+        !generations.isNewGenerationRequired(cache)
+
+        when:
+        cacheDir.file("outputs-1.bin").bytes = new byte[40]
+
+        then:
+        generations.isNewGenerationRequired(cache)
+    }
+
+    def "ignores invalid generation file"() {
+        cacheDir.file("generation.properties").text = "generation=broken"
+
+        expect:
+        generations.getCurrentGeneration(cache) == 0
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.api.tasks.StopActionException
 import org.gradle.api.tasks.StopExecutionException
 import org.gradle.api.tasks.TaskExecutionException
@@ -34,9 +35,11 @@ import org.gradle.internal.id.UniqueId
 import org.gradle.internal.operations.BuildOperationContext
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId
 import org.gradle.internal.work.AsyncWorkTracker
 import org.gradle.logging.StandardOutputCapture
+import org.gradle.util.Path
 import spock.lang.Specification
 
 import static java.util.Collections.emptyList
@@ -48,6 +51,7 @@ class ExecuteActionsTaskExecutorTest extends Specification {
     def state = new TaskStateInternal()
     def taskArtifactState = Mock(TaskArtifactState)
     def executionContext = Mock(TaskExecutionContext)
+    def outputSnapshotDeferred = false
     def scriptSource = Mock(ScriptSource)
     def standardOutputCapture = Mock(StandardOutputCapture)
     def publicListener = Mock(TaskActionListener)
@@ -58,15 +62,19 @@ class ExecuteActionsTaskExecutorTest extends Specification {
     final taskExecutionTime = 1L
     final originExecutionMetadata = new OriginTaskExecutionMetadata(buildInvocationId, taskExecutionTime)
 
-    def executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker, new BuildInvocationScopeId(buildInvocationId))
+    def stageTimer = new TaskExecutionStageTimer(new TestBuildOperationExecutor(), new TaskExecutionStageTimings())
+
+    def executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker, new BuildInvocationScopeId(buildInvocationId), stageTimer)
 
     def setup() {
         ProjectInternal project = Mock(ProjectInternal)
         task.getProject() >> project
         task.getState() >> state
+        task.getIdentityPath() >> Path.path(":task")
         project.getBuildScriptSource() >> scriptSource
         task.getStandardOutputCapture() >> standardOutputCapture
         executionContext.taskArtifactState >> taskArtifactState
+        executionContext.outputSnapshotDeferred >> { outputSnapshotDeferred }
     }
 
     void noMoreInteractions() {
@@ -105,6 +113,26 @@ class ExecuteActionsTaskExecutorTest extends Specification {
         state.actionable
     }
 
+    def doesNotSnapshotOutputsWhenOutputSnapshotIsDeferred() {
+        given:
+        outputSnapshotDeferred = true
+        task.getTaskActions() >> emptyList()
+        task.hasTaskActions() >> false
+
+        when:
+        executer.execute(task, state, executionContext)
+
+        then:
+        1 * publicListener.beforeActions(task)
+
+        then:
+        1 * publicListener.afterActions(task)
+        noMoreInteractions()
+
+        state.outcome == TaskExecutionOutcome.UP_TO_DATE
+        !state.executing
+    }
+
     def executesEachActionInOrder() {
         given:
         task.getTaskActions() >> [action1, action2]
@@ -25,6 +25,7 @@ import org.gradle.api.internal.tasks.SnapshotTaskInputsBuildOperationType
 import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.caching.internal.tasks.BuildCacheKeyInputs
 import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey
 import org.gradle.internal.hash.HashCode
@@ -41,7 +42,7 @@ class ResolveBuildCacheKeyExecuterTest extends Specification {
     def taskProperties = Mock(TaskProperties)
     def delegate = Mock(TaskExecuter)
     def buildOperationExecutor = new TestBuildOperationExecutor()
-    def executer = new ResolveBuildCacheKeyExecuter(delegate, buildOperationExecutor, false)
+    def executer = new ResolveBuildCacheKeyExecuter(delegate, buildOperationExecutor, new TaskExecutionStageTimer(buildOperationExecutor, new TaskExecutionStageTimings()), false)
     def cacheKey = Mock(TaskOutputCachingBuildCacheKey)
 
     def "calculates build cache key"() {
@@ -31,8 +31,11 @@ import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskLocalStateInternal
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.api.internal.tasks.properties.PropertyWalker
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.util.Path
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -55,13 +58,16 @@ class ResolveTaskArtifactStateTaskExecuterTest extends Specification {
     final serviceRegistry = Mock(ServiceRegistry)
     final Action<Task> action = Mock(Action)
 
-    final executer = new ResolveTaskArtifactStateTaskExecuter(repository, resolver, propertyWalker, delegate)
+    final stageTimer = new TaskExecutionStageTimer(new TestBuildOperationExecutor(), new TaskExecutionStageTimings())
+
+    final executer = new ResolveTaskArtifactStateTaskExecuter(repository, resolver, propertyWalker, stageTimer, delegate)
 
     def 'taskContext is initialized and cleaned as expected'() {
         when:
         executer.execute(task, taskState, taskContext)
 
         then: 'taskContext is initialized with task artifact state'
+        1 * task.getIdentityPath() >> Path.path(":task")
         1 * taskContext.setTaskProperties(_)
         1 * repository.getStateFor(task, _) >> taskArtifactState
         1 * taskContext.setTaskArtifactState(taskArtifactState)
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.execution
 
+import com.google.common.collect.ImmutableSortedMap
 import com.google.common.collect.ImmutableSortedSet
 import org.gradle.api.Project
 import org.gradle.api.internal.TaskInternal
@@ -26,13 +27,16 @@ import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.caching.internal.controller.BuildCacheController
 import org.gradle.caching.internal.controller.BuildCacheLoadCommand
-import org.gradle.caching.internal.controller.BuildCacheStoreCommand
 import org.gradle.caching.internal.tasks.TaskOutputCacheCommandFactory
 import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey
 import org.gradle.caching.internal.tasks.UnrecoverableTaskOutputUnpackingException
 import org.gradle.internal.id.UniqueId
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.scopeids.id.BuildInvocationScopeId
+import org.gradle.util.Path
 import spock.lang.Specification
 
 class SkipCachedTaskExecuterTest extends Specification {
@@ -41,7 +45,9 @@ class SkipCachedTaskExecuterTest extends Specification {
     def projectDir = Mock(File)
     def taskOutputCaching = Mock(TaskOutputCachingState)
     def taskProperties = Mock(TaskProperties)
-    def task = Stub(TaskInternal)
+    def task = Stub(TaskInternal) {
+        getIdentityPath() >> Path.path(":task")
+    }
     def taskState = Mock(TaskStateInternal)
     def taskContext = Mock(TaskExecutionContext)
     def taskArtifactState = Mock(TaskArtifactState)
@@ -49,11 +55,14 @@ class SkipCachedTaskExecuterTest extends Specification {
     def cacheKey = Mock(TaskOutputCachingBuildCacheKey)
     def taskOutputGenerationListener = Mock(TaskOutputChangesListener)
     def loadCommand = Mock(BuildCacheLoadCommand)
-    def storeCommand = Mock(BuildCacheStoreCommand)
+    def storeCommand = Mock(TaskOutputCacheCommandFactory.StoreCommand)
     def buildCacheCommandFactory = Mock(TaskOutputCacheCommandFactory)
-    def outputContentSnapshots = [:]
+    def outputSnapshots = ImmutableSortedMap.of()
+    def buildInvocationScopeId = new BuildInvocationScopeId(UniqueId.generate())
+
+    def stageTimer = new TaskExecutionStageTimer(new TestBuildOperationExecutor(), new TaskExecutionStageTimings())
 
-    def executer = new SkipCachedTaskExecuter(buildCacheController, taskOutputGenerationListener, buildCacheCommandFactory, delegate)
+    def executer = new SkipCachedTaskExecuter(buildCacheController, taskOutputGenerationListener, buildCacheCommandFactory, buildInvocationScopeId, stageTimer, delegate)
 
     def "skip task when cached results exist"() {
         def originId = UniqueId.generate()
@@ -73,6 +82,7 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
 
         then:
         1 * buildCacheCommandFactory.createLoad(cacheKey, _, task, taskProperties, taskOutputGenerationListener, _) >> loadCommand
@@ -100,6 +110,7 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
 
         then:
         1 * buildCacheCommandFactory.createLoad(cacheKey, _, task, taskProperties, taskOutputGenerationListener, _) >> loadCommand
@@ -113,13 +124,16 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * cacheKey.isValid() >> true
 
         then:
-        1 * taskContext.getExecutionTime() >> 1
-        1 * taskContext.getTaskArtifactState() >> taskArtifactState
-        1 * taskArtifactState.getOutputContentSnapshots() >> outputContentSnapshots
-        1 * buildCacheCommandFactory.createStore(cacheKey, _, outputContentSnapshots, task, 1) >> storeCommand
+        1 * taskContext.markExecutionTime() >> 1
+        1 * buildCacheCommandFactory.createStore(cacheKey, _, task, 1) >> storeCommand
 
         then:
         1 * buildCacheController.store(storeCommand)
+
+        then:
+        1 * storeCommand.getOutputSnapshots() >> outputSnapshots
+        1 * taskContext.getTaskArtifactState() >> taskArtifactState
+        1 * taskArtifactState.snapshotAfterOutputsStoredInCache(outputSnapshots, new OriginTaskExecutionMetadata(buildInvocationScopeId.id, 1))
         0 * _
     }
 
@@ -137,6 +151,7 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> false
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
 
         then:
         1 * delegate.execute(task, taskState, taskContext)
@@ -146,13 +161,16 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * cacheKey.isValid() >> true
 
         then:
-        1 * taskContext.getExecutionTime() >> 1
-        1 * taskContext.getTaskArtifactState() >> taskArtifactState
-        1 * taskArtifactState.getOutputContentSnapshots() >> outputContentSnapshots
-        1 * buildCacheCommandFactory.createStore(cacheKey, _, outputContentSnapshots, task, 1) >> storeCommand
+        1 * taskContext.markExecutionTime() >> 1
+        1 * buildCacheCommandFactory.createStore(cacheKey, _, task, 1) >> storeCommand
 
         then:
         1 * buildCacheController.store(storeCommand)
+
+        then:
+        1 * storeCommand.getOutputSnapshots() >> outputSnapshots
+        1 * taskContext.getTaskArtifactState() >> taskArtifactState
+        1 * taskArtifactState.snapshotAfterOutputsStoredInCache(outputSnapshots, new OriginTaskExecutionMetadata(buildInvocationScopeId.id, 1))
         0 * _
     }
 
@@ -170,6 +188,7 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
 
         then:
         1 * buildCacheCommandFactory.createLoad(*_)
@@ -227,6 +246,7 @@ class SkipCachedTaskExecuterTest extends Specification {
 
         then:
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
         1 * taskProperties.getOutputFileProperties() >> ImmutableSortedSet.of()
@@ -243,13 +263,16 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * cacheKey.isValid() >> true
 
         then:
-        1 * taskContext.getExecutionTime() >> 1
-        1 * taskContext.getTaskArtifactState() >> taskArtifactState
-        1 * taskArtifactState.getOutputContentSnapshots() >> outputContentSnapshots
-        1 * buildCacheCommandFactory.createStore(cacheKey, _, outputContentSnapshots, task, 1) >> storeCommand
+        1 * taskContext.markExecutionTime() >> 1
+        1 * buildCacheCommandFactory.createStore(cacheKey, _, task, 1) >> storeCommand
 
         then:
         1 * buildCacheController.store(storeCommand)
+
+        then:
+        1 * storeCommand.getOutputSnapshots() >> outputSnapshots
+        1 * taskContext.getTaskArtifactState() >> taskArtifactState
+        1 * taskArtifactState.snapshotAfterOutputsStoredInCache(outputSnapshots, new OriginTaskExecutionMetadata(buildInvocationScopeId.id, 1))
         0 * _
     }
 
@@ -264,6 +287,7 @@ class SkipCachedTaskExecuterTest extends Specification {
 
         then:
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
         1 * taskProperties.getOutputFileProperties() >> ImmutableSortedSet.of()
@@ -292,6 +316,7 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
         1 * taskProperties.getOutputFileProperties() >> ImmutableSortedSet.of()
         1 * cacheKey.isValid() >> true
+        1 * taskContext.setOutputSnapshotDeferred(true)
         1 * taskArtifactState.isAllowedToUseCachedResults() >> true
 
         then:
@@ -306,12 +331,15 @@ class SkipCachedTaskExecuterTest extends Specification {
         1 * taskState.getFailure() >> null
 
         then:
-        1 * taskContext.getExecutionTime() >> 1
+        1 * taskContext.markExecutionTime() >> 1
+        1 * buildCacheCommandFactory.createStore(*_) >> storeCommand
+        1 * buildCacheController.store(_) >> { throw new RuntimeException("unknown error") }
         1 * cacheKey.getDisplayName() >> "cache key"
+
+        then:
+        1 * storeCommand.getOutputSnapshots() >> null
         1 * taskContext.getTaskArtifactState() >> taskArtifactState
-        1 * taskArtifactState.getOutputContentSnapshots()
-        1 * buildCacheCommandFactory.createStore(*_)
-        1 * buildCacheController.store(_) >> { throw new RuntimeException("unknown error") }
+        1 * taskArtifactState.snapshotAfterOutputsStoredInCache(null, _)
 
         then:
         0 * _
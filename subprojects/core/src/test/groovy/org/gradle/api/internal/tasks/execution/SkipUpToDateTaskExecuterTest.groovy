@@ -26,7 +26,11 @@ import org.gradle.api.internal.tasks.TaskExecuter
 import org.gradle.api.internal.tasks.TaskExecutionContext
 import org.gradle.api.internal.tasks.TaskExecutionOutcome
 import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.internal.id.UniqueId
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.util.Path
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -40,7 +44,10 @@ class SkipUpToDateTaskExecuterTest extends Specification {
     def taskExecutionHistory = Mock(TaskExecutionHistory)
     Action<Task> action = Mock(Action)
 
-    def executer = new SkipUpToDateTaskExecuter(delegate)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def stageTimings = new TaskExecutionStageTimings()
+
+    def executer = new SkipUpToDateTaskExecuter(new TaskExecutionStageTimer(buildOperationExecutor, stageTimings), delegate)
 
     def "skips task when outputs are up to date"() {
         given:
@@ -52,6 +59,7 @@ class SkipUpToDateTaskExecuterTest extends Specification {
         executer.execute(task, taskState, taskContext)
 
         then:
+        1 * task.getIdentityPath() >> Path.path(":task")
         1 * taskArtifactState.isUpToDate(_) >> true
         1 * taskArtifactState.getExecutionHistory() >> taskExecutionHistory
         1 * taskExecutionHistory.getOriginExecutionMetadata() >> originMetadata
@@ -68,6 +76,7 @@ class SkipUpToDateTaskExecuterTest extends Specification {
 
         then:
         1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * task.getIdentityPath() >> Path.path(":task")
         1 * taskArtifactState.isUpToDate(_) >> false
         1 * taskContext.setUpToDateMessages(_)
 
@@ -78,4 +87,20 @@ class SkipUpToDateTaskExecuterTest extends Specification {
         where:
         exception << [null, new RuntimeException()]
     }
+
+    def "times up-to-date check as a child build operation"() {
+        when:
+        executer.execute(task, taskState, taskContext)
+
+        then:
+        1 * taskContext.taskArtifactState >> taskArtifactState
+        1 * task.getIdentityPath() >> Path.path(":task")
+        1 * taskArtifactState.isUpToDate(_) >> false
+
+        and:
+        buildOperationExecutor.operations*.displayName == ["Check up-to-date state for :task"]
+        buildOperationExecutor.operations[0].details.taskPath == ":task"
+        buildOperationExecutor.operations[0].details.stage == "CHECK_UP_TO_DATE"
+        stageTimings.statistics.getCount(TaskExecutionStage.CHECK_UP_TO_DATE) == 1
+    }
 }
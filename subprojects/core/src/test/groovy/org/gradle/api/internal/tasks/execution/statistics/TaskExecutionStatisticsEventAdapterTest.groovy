@@ -28,7 +28,8 @@ import spock.lang.Subject
 @Subject(TaskExecutionStatisticsEventAdapter)
 class TaskExecutionStatisticsEventAdapterTest extends Specification {
     TaskExecutionStatisticsListener listener = Mock(TaskExecutionStatisticsListener)
-    TaskExecutionStatisticsEventAdapter taskStatsEventAdapter = new TaskExecutionStatisticsEventAdapter(listener)
+    TaskExecutionStageTimings stageTimings = new TaskExecutionStageTimings()
+    TaskExecutionStatisticsEventAdapter taskStatsEventAdapter = new TaskExecutionStatisticsEventAdapter(listener, stageTimings)
 
     def gradle = Mock(Gradle)
     def project = Stub(Project) { getGradle() >> gradle }
@@ -49,6 +50,26 @@ class TaskExecutionStatisticsEventAdapterTest extends Specification {
         1 * listener.buildFinished(_)
     }
 
+    def "includes stage timings in statistics"() {
+        given:
+        gradle.getParent() >> null
+        stageTimings.record(TaskExecutionStage.CHECK_UP_TO_DATE, 2)
+        stageTimings.record(TaskExecutionStage.CHECK_UP_TO_DATE, 3)
+
+        when:
+        taskStatsEventAdapter.buildStarted(gradle)
+        taskStatsEventAdapter.afterExecute(task, taskState)
+        taskStatsEventAdapter.buildFinished(result)
+
+        then:
+        1 * listener.buildFinished(_) >> { TaskExecutionStatistics statistics ->
+            assert statistics.upToDateTaskCount == 1
+            assert statistics.stageStatistics.getCount(TaskExecutionStage.CHECK_UP_TO_DATE) == 2
+            assert statistics.stageStatistics.getDurationMillis(TaskExecutionStage.CHECK_UP_TO_DATE) == 5
+            assert statistics.stageStatistics.getCount(TaskExecutionStage.LOAD_FROM_CACHE) == 0
+        }
+    }
+
     def "does not delegate when building nested projects"() {
         given:
         gradle.getParent() >> Stub(Gradle)
@@ -16,6 +16,8 @@
 
 package org.gradle.internal.buildevents
 
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStage
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStageTimings
 import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatistics
 import org.gradle.internal.logging.text.TestStyledTextOutputFactory
 import org.gradle.util.TextUtil
@@ -69,4 +71,22 @@ class TaskExecutionStatisticsReporterTest extends Specification {
         0        | 7         | 0        | "7 actionable tasks: 7 from cache"
         0        | 0         | 5        | "5 actionable tasks: 5 up-to-date"
     }
+
+    def "reports time spent in task execution stages"() {
+        given:
+        def stageTimings = new TaskExecutionStageTimings()
+        stageTimings.record(TaskExecutionStage.CHECK_UP_TO_DATE, 1500)
+        stageTimings.record(TaskExecutionStage.CHECK_UP_TO_DATE, 500)
+        stageTimings.record(TaskExecutionStage.STORE_IN_CACHE, 250)
+
+        when:
+        reporter.buildFinished(new TaskExecutionStatistics(2, 0, 0, stageTimings.statistics))
+
+        then:
+        TextUtil.normaliseLineSeparators(textOutputFactory as String) == """{org.gradle.internal.buildevents.BuildResultLogger}{LIFECYCLE}2 actionable tasks: 2 executed
+{org.gradle.internal.buildevents.BuildResultLogger}{INFO}Time spent in task execution stages:
+  Check up-to-date state: 2.000s (2 tasks)
+  Store outputs in cache: 0.250s (1 task)
+"""
+    }
 }
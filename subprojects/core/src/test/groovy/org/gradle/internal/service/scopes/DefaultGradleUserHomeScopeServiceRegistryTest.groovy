@@ -83,6 +83,41 @@ class DefaultGradleUserHomeScopeServiceRegistryTest extends Specification {
         !homeDirService.closed
     }
 
+    def "closes services that are not in use when unused services are released"() {
+        def dir = new File("home-dir")
+
+        given:
+        def servicesBefore = homeDirServices.getServicesFor(dir)
+        def homeDirService = servicesBefore.get(SomeHomeDirService)
+        homeDirServices.release(servicesBefore)
+
+        when:
+        homeDirServices.releaseUnusedServices()
+
+        then:
+        homeDirService.closed
+
+        and:
+        def services = homeDirServices.getServicesFor(dir)
+        !services.get(SomeHomeDirService).is(homeDirService)
+        !services.get(SomeHomeDirService).closed
+    }
+
+    def "does not close services in use when unused services are released"() {
+        def dir = new File("home-dir")
+
+        given:
+        def services = homeDirServices.getServicesFor(dir)
+        def homeDirService = services.get(SomeHomeDirService)
+
+        when:
+        homeDirServices.releaseUnusedServices()
+
+        then:
+        !homeDirService.closed
+        homeDirServices.getServicesFor(dir).is(services)
+    }
+
     def "closes and recreates services when home dir is different to last use"() {
         def dir1 = new File("home-dir-1")
         def dir2 = new File("home-dir-2")
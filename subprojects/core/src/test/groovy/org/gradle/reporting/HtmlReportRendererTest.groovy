@@ -152,6 +152,34 @@ class HtmlReportRendererTest extends Specification {
         destDir.file("css/base-style.css").file
     }
 
+    def "copies resources required by pages rendered concurrently"() {
+        def destDir = tmpDir.file("out")
+        def reportRenderer = Mock(ReportRenderer)
+        def pageRenderer = Mock(ReportRenderer)
+        def resources = (1..20).collect { resource("style-${it}.css") }
+
+        when:
+        renderer.render("model", reportRenderer, destDir)
+
+        then:
+        1 * reportRenderer.render(_, _) >> { String model, HtmlReportBuilder builder ->
+            def threads = (1..20).collect { index ->
+                Thread.start {
+                    builder.renderHtmlPage("page-${index}.html" as String, model, pageRenderer)
+                }
+            }
+            threads*.join()
+        }
+        20 * pageRenderer.render(_, _) >> { String model, HtmlPageBuilder<SimpleHtmlWriter> builder ->
+            resources.each { builder.requireResource(it) }
+        }
+
+        and:
+        (1..20).each {
+            assert destDir.file("css/style-${it}.css").file
+        }
+    }
+
     def resource(String name) {
         def file = tmpDir.file("tmp", name)
         file.parentFile.mkdirs()
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.tooling.r47
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.integtests.tooling.fixture.ToolingApiVersion
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.idea.IdeaModuleDependency
+import org.gradle.tooling.model.idea.IdeaProject
+import org.gradle.tooling.model.idea.IdeaSingleEntryLibraryDependency
+
+@ToolingApiVersion('>=4.7')
+@TargetGradleVersion('>=4.7')
+class ToolingApiIdeModelParallelDependencyResolutionCrossVersionSpec extends ToolingApiSpecification {
+
+    def setup() {
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'b', 'c', 'd'
+        """
+        buildFile << """
+            subprojects {
+                apply plugin: 'java'
+                apply plugin: 'eclipse'
+                apply plugin: 'idea'
+                dependencies {
+                    compile files("\${rootDir}/libs/\${project.name}.jar")
+                }
+            }
+            project(':b') {
+                dependencies { compile project(':a') }
+            }
+            project(':c') {
+                dependencies { compile project(':b') }
+            }
+            project(':d') {
+                dependencies { compile project(':a') }
+                eclipse.classpath.file.whenMerged { classpath ->
+                    classpath.entries.removeAll { it.kind == 'lib' && it.path.endsWith('a.jar') }
+                }
+            }
+        """
+        ['a', 'b', 'c', 'd'].each { file("libs/${it}.jar").createFile() }
+    }
+
+    def "Eclipse model of a multi-project build is the same when built in parallel"() {
+        when:
+        def sequentialProject = withConnection { model(EclipseProject).get() }
+        def parallelProject = withConnection { model(EclipseProject).withArguments('--parallel').get() }
+
+        then:
+        eclipseDependencies(parallelProject) == eclipseDependencies(sequentialProject)
+        eclipseDependencies(parallelProject).c.projects.contains('b')
+        eclipseDependencies(parallelProject).c.libraries.contains('c.jar')
+
+        and:
+        // The whenMerged hook of d was applied
+        eclipseDependencies(parallelProject).d.libraries == ['d.jar']
+    }
+
+    def "IDEA model of a multi-project build is the same when built in parallel"() {
+        when:
+        def sequentialProject = withConnection { model(IdeaProject).get() }
+        def parallelProject = withConnection { model(IdeaProject).withArguments('--parallel').get() }
+
+        then:
+        ideaDependencies(parallelProject) == ideaDependencies(sequentialProject)
+        ideaDependencies(parallelProject).c.modules.contains('b')
+        ideaDependencies(parallelProject).c.libraries.contains('c.jar')
+    }
+
+    private static Map<String, Map<String, List<String>>> eclipseDependencies(EclipseProject rootProject) {
+        def result = [:]
+        ([rootProject] + rootProject.children).each { project ->
+            result[project.name] = [
+                projects: project.projectDependencies.collect { it.path.replace('/', '') }.sort(),
+                libraries: project.classpath.collect { it.file.name }.sort()
+            ]
+        }
+        return result
+    }
+
+    private static Map<String, Map<String, List<String>>> ideaDependencies(IdeaProject project) {
+        def result = [:]
+        project.modules.each { module ->
+            result[module.name] = [
+                modules: module.dependencies.findAll { it instanceof IdeaModuleDependency }.collect { it.targetModuleName }.unique().sort(),
+                libraries: module.dependencies.findAll { it instanceof IdeaSingleEntryLibraryDependency }.collect { it.file.name }.unique().sort()
+            ]
+        }
+        return result
+    }
+}
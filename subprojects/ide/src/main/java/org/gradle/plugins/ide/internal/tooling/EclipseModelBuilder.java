@@ -19,12 +19,14 @@ package org.gradle.plugins.ide.internal.tooling;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.lang.StringUtils;
+import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.initialization.IncludedBuild;
 import org.gradle.api.specs.Spec;
 import org.gradle.composite.internal.IncludedBuildInternal;
 import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.plugins.ide.api.XmlFileContentMerger;
 import org.gradle.plugins.ide.eclipse.EclipsePlugin;
 import org.gradle.plugins.ide.eclipse.model.AbstractClasspathEntry;
 import org.gradle.plugins.ide.eclipse.model.AbstractLibrary;
@@ -69,6 +71,7 @@ import java.util.Set;
 
 public class EclipseModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final ProjectDependencyResolver dependencyResolver;
 
     private boolean projectDependenciesOnly;
     private DefaultEclipseProject result;
@@ -76,9 +79,11 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
+    private Map<Project, List<ClasspathEntry>> classpathEntriesByProject;
 
     public EclipseModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.dependencyResolver = new ProjectDependencyResolver(services);
     }
 
     @Override
@@ -99,7 +104,9 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root);
         buildHierarchy(root);
+        resolveClasspathEntries(root);
         populate(root);
+        classpathEntriesByProject = null;
         return result;
     }
 
@@ -142,20 +149,52 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         eclipseProjects.add(eclipseProject);
     }
 
-    private void populate(Project project) {
+    private void resolveClasspathEntries(Project root) {
+        classpathEntriesByProject = Maps.newConcurrentMap();
+        Action<Project> resolveAction = new Action<Project>() {
+            @Override
+            public void execute(Project project) {
+                classpathEntriesByProject.put(project, resolveClasspathEntriesOf(project));
+            }
+        };
+        List<Project> projectsWithoutMergeHooks = Lists.newArrayList();
+        List<Project> projectsWithMergeHooks = Lists.newArrayList();
+        for (Project project : root.getAllprojects()) {
+            if (hasMergeHooks(project)) {
+                projectsWithMergeHooks.add(project);
+            } else {
+                projectsWithoutMergeHooks.add(project);
+            }
+        }
+        dependencyResolver.resolve(root, projectsWithoutMergeHooks, resolveAction);
+        // The beforeMerged and whenMerged hooks are not expected to be thread-safe, so they run one project at a time on the build thread
+        for (Project project : projectsWithMergeHooks) {
+            resolveAction.execute(project);
+        }
+    }
+
+    private static boolean hasMergeHooks(Project project) {
+        XmlFileContentMerger file = project.getExtensions().getByType(EclipseModel.class).getClasspath().getFile();
+        return file != null && !(file.getBeforeMerged().isEmpty() && file.getWhenMerged().isEmpty());
+    }
+
+    private List<ClasspathEntry> resolveClasspathEntriesOf(Project project) {
         EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
         EclipseClasspath eclipseClasspath = eclipseModel.getClasspath();
 
         eclipseClasspath.setProjectDependenciesOnly(projectDependenciesOnly);
 
-        List<ClasspathEntry> classpathEntries;
         if (eclipseClasspath.getFile() == null) {
-            classpathEntries = eclipseClasspath.resolveDependencies();
-        } else {
-            Classpath classpath = new Classpath(eclipseClasspath.getFileReferenceFactory());
-            eclipseClasspath.mergeXmlClasspath(classpath);
-            classpathEntries = classpath.getEntries();
+            return eclipseClasspath.resolveDependencies();
         }
+        Classpath classpath = new Classpath(eclipseClasspath.getFileReferenceFactory());
+        eclipseClasspath.mergeXmlClasspath(classpath);
+        return classpath.getEntries();
+    }
+
+    private void populate(Project project) {
+        EclipseModel eclipseModel = project.getExtensions().getByType(EclipseModel.class);
+        List<ClasspathEntry> classpathEntries = classpathEntriesByProject.get(project);
 
         final List<DefaultEclipseExternalDependency> externalDependencies = new LinkedList<DefaultEclipseExternalDependency>();
         final List<DefaultEclipseProjectDependency> projectDependencies = new LinkedList<DefaultEclipseProjectDependency>();
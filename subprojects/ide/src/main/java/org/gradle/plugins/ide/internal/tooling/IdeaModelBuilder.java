@@ -16,6 +16,7 @@
 
 package org.gradle.plugins.ide.internal.tooling;
 
+import org.gradle.api.Action;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.initialization.IncludedBuild;
@@ -58,11 +59,13 @@ import java.util.Set;
 
 public class IdeaModelBuilder implements ToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final ProjectDependencyResolver dependencyResolver;
 
     private boolean offlineDependencyResolution;
 
     public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.dependencyResolver = new ProjectDependencyResolver(services);
     }
 
     @Override
@@ -104,13 +107,18 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
                 .setTargetBytecodeVersion(projectTargetBytecodeLevel)
                 .setJdk(DefaultInstalledJdk.current()));
 
-        Map<String, DefaultIdeaModule> modules = new LinkedHashMap<String, DefaultIdeaModule>();
+        final Map<String, DefaultIdeaModule> modules = new LinkedHashMap<String, DefaultIdeaModule>();
+        final Map<Project, IdeaModule> modulesByProject = new LinkedHashMap<Project, IdeaModule>();
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
+            modulesByProject.put(module.getProject(), module);
         }
-        for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
-        }
+        dependencyResolver.resolve(project, modulesByProject.keySet(), new Action<Project>() {
+            @Override
+            public void execute(Project moduleProject) {
+                buildDependencies(modules, modulesByProject.get(moduleProject));
+            }
+        });
         final Collection<DefaultIdeaModule> ideaModules = modules.values();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
         return out;
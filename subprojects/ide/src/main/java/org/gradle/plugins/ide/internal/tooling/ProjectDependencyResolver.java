@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.Collections;
+
+/**
+ * Resolves the IDE dependencies of a set of projects. When parallel project execution is enabled, each project is resolved
+ * by a build operation holding the lock of that project, so that independent projects are resolved concurrently.
+ */
+class ProjectDependencyResolver {
+    private final ServiceRegistry services;
+
+    ProjectDependencyResolver(ServiceRegistry services) {
+        this.services = services;
+    }
+
+    public void resolve(Project rootProject, final Iterable<? extends Project> projects, final Action<? super Project> action) {
+        if (!rootProject.getGradle().getStartParameter().isParallelProjectExecutionEnabled()) {
+            for (Project project : projects) {
+                action.execute(project);
+            }
+            return;
+        }
+
+        final BuildOperationExecutor buildOperationExecutor = services.get(BuildOperationExecutor.class);
+        final WorkerLeaseService workerLeaseService = services.get(WorkerLeaseService.class);
+        workerLeaseService.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                        for (Project project : projects) {
+                            queue.add(new ResolveProjectDependencies(project, action, workerLeaseService));
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static class ResolveProjectDependencies implements RunnableBuildOperation {
+        private final Project project;
+        private final Action<? super Project> action;
+        private final WorkerLeaseService workerLeaseService;
+
+        ResolveProjectDependencies(Project project, Action<? super Project> action, WorkerLeaseService workerLeaseService) {
+            this.project = project;
+            this.action = action;
+            this.workerLeaseService = workerLeaseService;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            String gradlePath = ((GradleInternal) project.getGradle()).getIdentityPath().toString();
+            String projectPath = ((ProjectInternal) project).getIdentityPath().toString();
+            ResourceLock projectLock = workerLeaseService.getProjectLock(gradlePath, projectPath);
+            workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                @Override
+                public void run() {
+                    action.execute(project);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Resolve IDE dependencies of " + project);
+        }
+    }
+}
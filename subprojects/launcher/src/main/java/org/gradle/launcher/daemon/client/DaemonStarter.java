@@ -19,4 +19,9 @@ import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 
 public interface DaemonStarter {
     DaemonStartupInfo startDaemon(boolean singleRun);
+
+    /**
+     * Starts a daemon that warms itself up and advertises itself as idle, without running a build.
+     */
+    DaemonStartupInfo startStandbyDaemon();
 }
@@ -67,6 +67,7 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final ProgressLoggerFactory progressLoggerFactory;
     private final Serializer<Message> serializer;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
+    private int standbyDaemons;
 
     public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory, Serializer<Message> serializer) {
         this.serializer = serializer;
@@ -91,6 +92,17 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return connectTimeout;
     }
 
+    /**
+     * Sets the number of compatible idle daemons to keep available in addition to the daemon that runs the build. Missing standby daemons are started in the background on connect.
+     */
+    public void setStandbyDaemons(int standbyDaemons) {
+        this.standbyDaemons = standbyDaemons;
+    }
+
+    public int getStandbyDaemons() {
+        return standbyDaemons;
+    }
+
     public DaemonRegistry getDaemonRegistry() {
         return daemonRegistry;
     }
@@ -109,6 +121,12 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
+        DaemonClientConnection connection = doConnect(constraint);
+        startStandbyDaemons(connection, constraint);
+        return connection;
+    }
+
+    private DaemonClientConnection doConnect(ExplainingSpec<DaemonContext> constraint) {
         final Pair<Collection<DaemonInfo>, Collection<DaemonInfo>> idleBusy = partitionByState(daemonRegistry.getAll(), Idle);
         final Collection<DaemonInfo> idleDaemons = idleBusy.getLeft();
         final Collection<DaemonInfo> busyDaemons = idleBusy.getRight();
@@ -130,6 +148,42 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return startDaemon(constraint);
     }
 
+    private void startStandbyDaemons(DaemonClientConnection connection, ExplainingSpec<DaemonContext> constraint) {
+        if (standbyDaemons <= 0) {
+            return;
+        }
+        int availableDaemons = 0;
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            if (!daemon.getUid().equals(connection.getDaemon().getUid()) && constraint.isSatisfiedBy(daemon.getContext())) {
+                availableDaemons++;
+            }
+        }
+        final int missingDaemons = standbyDaemons - availableDaemons;
+        if (missingDaemons <= 0) {
+            return;
+        }
+        LOGGER.info("Starting {} standby Gradle daemon(s) in the background.", missingDaemons);
+        // Standby daemons detach shortly after they have started, so they are usually running well before the build completes.
+        // This is best-effort: the starter does not keep the client running, so a standby daemon that is still starting when the client exits is lost.
+        // The next build starts it again.
+        Thread starter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < missingDaemons; i++) {
+                    try {
+                        DaemonStartupInfo startupInfo = daemonStarter.startStandbyDaemon();
+                        LOGGER.debug("Started standby Gradle daemon {}", startupInfo);
+                    } catch (Exception e) {
+                        LOGGER.info("Could not start standby Gradle daemon.", e);
+                        return;
+                    }
+                }
+            }
+        }, "Standby daemon starter");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
     private void handleStopEvents(Collection<DaemonInfo> idleDaemons, Collection<DaemonInfo> busyDaemons) {
         final List<DaemonStopEvent> stopEvents = daemonRegistry.getStopEvents();
 
@@ -68,6 +68,15 @@ public class DefaultDaemonStarter implements DaemonStarter {
     }
 
     public DaemonStartupInfo startDaemon(boolean singleUse) {
+        return startDaemon(singleUse, false);
+    }
+
+    @Override
+    public DaemonStartupInfo startStandbyDaemon() {
+        return startDaemon(false, true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean singleUse, boolean standby) {
         String daemonUid = UUID.randomUUID().toString();
 
         GradleInstallation gradleInstallation = CurrentGradleInstallation.get();
@@ -118,6 +127,8 @@ public class DefaultDaemonStarter implements DaemonStarter {
             encoder.writeSmallInt(daemonParameters.getIdleTimeout());
             encoder.writeSmallInt(daemonParameters.getPeriodicCheckInterval());
             encoder.writeBoolean(singleUse);
+            encoder.writeSmallInt(daemonParameters.getStandbyDaemons());
+            encoder.writeBoolean(standby);
             encoder.writeString(daemonUid);
             encoder.writeSmallInt(daemonOpts.size());
             for (String daemonOpt : daemonOpts) {
@@ -41,6 +41,7 @@ public class DaemonBuildOptions {
         List<BuildOption<DaemonParameters>> options = new ArrayList<BuildOption<DaemonParameters>>();
         options.add(new IdleTimeoutOption());
         options.add(new HealthCheckOption());
+        options.add(new StandbyDaemonsOption());
         options.add(new BaseDirOption());
         options.add(new JvmArgsOption());
         options.add(new JavaHomeOption());
@@ -70,7 +71,7 @@ public class DaemonBuildOptions {
         @Override
         public void applyTo(String value, DaemonParameters settings, Origin origin) {
             try {
-                settings.setIdleTimeout(new Integer(value));
+                settings.setIdleTimeout(Integer.valueOf(value));
             } catch (NumberFormatException e) {
                 origin.handleInvalidValue(value, "the value should be an int");
             }
@@ -87,7 +88,24 @@ public class DaemonBuildOptions {
         @Override
         public void applyTo(String value, DaemonParameters settings, Origin origin) {
             try {
-                settings.setPeriodicCheckInterval(new Integer(value));
+                settings.setPeriodicCheckInterval(Integer.valueOf(value));
+            } catch (NumberFormatException e) {
+                origin.handleInvalidValue(value, "the value should be an int");
+            }
+        }
+    }
+
+    public static class StandbyDaemonsOption extends StringBuildOption<DaemonParameters> {
+        public static final String GRADLE_PROPERTY = "org.gradle.daemon.standby";
+
+        public StandbyDaemonsOption() {
+            super(GRADLE_PROPERTY);
+        }
+
+        @Override
+        public void applyTo(String value, DaemonParameters settings, Origin origin) {
+            try {
+                settings.setStandbyDaemons(Integer.valueOf(value));
             } catch (NumberFormatException e) {
                 origin.handleInvalidValue(value, "the value should be an int");
             }
@@ -44,6 +44,7 @@ public class DaemonParameters {
     private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
 
     private int periodicCheckInterval = DEFAULT_PERIODIC_CHECK_INTERVAL_MILLIS;
+    private int standbyDaemons;
     private final DaemonJvmOptions jvmOptions = new DaemonJvmOptions(new IdentityFileResolver());
     private Map<String, String> envVariables;
     private boolean enabled = true;
@@ -107,6 +108,17 @@ public class DaemonParameters {
         this.periodicCheckInterval = periodicCheckInterval;
     }
 
+    /**
+     * Returns the number of warmed up idle daemons to keep in addition to the daemon running the build. 0 disables standby daemons.
+     */
+    public int getStandbyDaemons() {
+        return standbyDaemons;
+    }
+
+    public void setStandbyDaemons(int standbyDaemons) {
+        this.standbyDaemons = standbyDaemons;
+    }
+
     public List<String> getEffectiveJvmArgs() {
         return jvmOptions.getAllImmutableJvmArgs();
     }
@@ -32,4 +32,14 @@ public interface DaemonServerConfiguration {
     List<String> getJvmOptions();
 
     boolean isSingleUse();
+
+    /**
+     * Returns the number of warmed up idle daemons that clients keep in addition to the daemon running the build.
+     */
+    int getStandbyDaemons();
+
+    /**
+     * Returns true when this daemon was started ahead of time as a standby daemon, rather than to run a build.
+     */
+    boolean isStandby();
 }
@@ -27,14 +27,22 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     private final int periodicCheckIntervalMs;
     private final boolean singleUse;
     private final List<String> jvmOptions;
+    private final int standbyDaemons;
+    private final boolean standby;
 
     public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, List<String> jvmOptions) {
+        this(daemonUid, daemonBaseDir, idleTimeoutMs, periodicCheckIntervalMs, singleUse, 0, false, jvmOptions);
+    }
+
+    public DefaultDaemonServerConfiguration(String daemonUid, File daemonBaseDir, int idleTimeoutMs, int periodicCheckIntervalMs, boolean singleUse, int standbyDaemons, boolean standby, List<String> jvmOptions) {
         this.daemonUid = daemonUid;
         this.daemonBaseDir = daemonBaseDir;
         this.idleTimeoutMs = idleTimeoutMs;
         this.periodicCheckIntervalMs = periodicCheckIntervalMs;
         this.singleUse = singleUse;
         this.jvmOptions = jvmOptions;
+        this.standbyDaemons = standbyDaemons;
+        this.standby = standby;
     }
 
     @Override
@@ -66,4 +74,14 @@ public class DefaultDaemonServerConfiguration implements DaemonServerConfigurati
     public boolean isSingleUse() {
         return singleUse;
     }
+
+    @Override
+    public int getStandbyDaemons() {
+        return standbyDaemons;
+    }
+
+    @Override
+    public boolean isStandby() {
+        return standby;
+    }
 }
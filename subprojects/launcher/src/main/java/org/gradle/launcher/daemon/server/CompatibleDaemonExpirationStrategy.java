@@ -31,16 +31,25 @@ import java.util.Collection;
 public class CompatibleDaemonExpirationStrategy implements DaemonExpirationStrategy {
     private final Daemon daemon;
     private final ExplainingSpec<DaemonContext> compatibilitySpec;
+    private final int standbyDaemons;
 
     public static final String EXPIRATION_REASON = "other compatible daemons were started";
 
-    CompatibleDaemonExpirationStrategy(Daemon daemon, ExplainingSpec<DaemonContext> compatibilitySpec) {
+    CompatibleDaemonExpirationStrategy(Daemon daemon, ExplainingSpec<DaemonContext> compatibilitySpec, int standbyDaemons) {
         this.daemon = daemon;
         this.compatibilitySpec = compatibilitySpec;
+        this.standbyDaemons = standbyDaemons;
+    }
+
+    CompatibleDaemonExpirationStrategy(Daemon daemon, ExplainingSpec<DaemonContext> compatibilitySpec) {
+        this(daemon, compatibilitySpec, 0);
     }
 
-    CompatibleDaemonExpirationStrategy(Daemon daemon) {
-        this(daemon, new DaemonCompatibilitySpec(daemon.getDaemonContext()));
+    /**
+     * @param standbyDaemons the number of compatible idle daemons to tolerate in addition to one daemon, so that standby daemons are not expired as duplicates.
+     */
+    CompatibleDaemonExpirationStrategy(Daemon daemon, int standbyDaemons) {
+        this(daemon, new DaemonCompatibilitySpec(daemon.getDaemonContext()), standbyDaemons);
     }
 
     @Override
@@ -53,7 +62,7 @@ public class CompatibleDaemonExpirationStrategy implements DaemonExpirationStrat
         };
         Collection<DaemonInfo> compatibleIdleDaemons = CollectionUtils.filter(daemon.getDaemonRegistry().getIdle(), spec);
 
-        if (compatibleIdleDaemons.size() > 1) {
+        if (compatibleIdleDaemons.size() > 1 + standbyDaemons) {
             return new DaemonExpirationResult(DaemonExpirationStatus.GRACEFUL_EXPIRE, EXPIRATION_REASON);
         } else {
             return DaemonExpirationResult.NOT_TRIGGERED;
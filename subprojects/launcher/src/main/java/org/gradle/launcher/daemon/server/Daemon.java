@@ -22,8 +22,10 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.remote.Address;
+import org.gradle.launcher.daemon.context.DaemonCompatibilitySpec;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.launcher.daemon.server.api.DaemonStateControl;
 import org.gradle.launcher.daemon.server.exec.DaemonCommandExecuter;
@@ -176,6 +178,39 @@ public class Daemon implements Stoppable {
         LOGGER.lifecycle(DaemonMessages.PROCESS_STARTED);
     }
 
+    /**
+     * Advertises this daemon as idle in the registry without it having run a build, so that clients can connect to it. A started daemon is advertised as busy, so that only the client that started it will connect to it.
+     * <p>
+     * Clients that connect concurrently may each start standby daemons, so the daemon is not advertised when the registry already contains the given number of compatible idle daemons.
+     *
+     * @param maxIdleDaemons the number of compatible idle daemons from which this daemon is not needed.
+     * @return whether the daemon was advertised as idle.
+     * @throws IllegalStateException if this daemon has not been started.
+     */
+    public boolean advertiseIdle(int maxIdleDaemons) {
+        lifecycleLock.lock();
+        try {
+            if (stateCoordinator == null) {
+                throw new IllegalStateException("cannot advertise daemon as idle as it has not been started.");
+            }
+            DaemonCompatibilitySpec compatibilitySpec = new DaemonCompatibilitySpec(daemonContext);
+            int compatibleIdleDaemons = 0;
+            for (DaemonInfo daemonInfo : daemonRegistry.getIdle()) {
+                if (compatibilitySpec.isSatisfiedBy(daemonInfo.getContext())) {
+                    compatibleIdleDaemons++;
+                }
+            }
+            if (compatibleIdleDaemons >= maxIdleDaemons) {
+                LOGGER.info("Not advertising the daemon as idle, {} compatible daemons are already idle.", compatibleIdleDaemons);
+                return false;
+            }
+            registryUpdater.onCompleteActivity();
+            return true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
     /**
      * Stops the daemon, blocking until any current requests/connections have been satisfied.
      * <p>
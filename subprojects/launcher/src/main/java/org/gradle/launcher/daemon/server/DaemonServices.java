@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
@@ -30,6 +31,7 @@ import org.gradle.internal.serialize.Serializer;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.GlobalScopeServices;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
 import org.gradle.launcher.cli.action.BuildActionSerializer;
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
 import org.gradle.launcher.daemon.context.DaemonContext;
@@ -107,8 +109,9 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DaemonMemoryStatus(healthStats);
     }
 
-    protected DaemonHealthCheck createDaemonHealthCheck(ListenerManager listenerManager, HealthExpirationStrategy healthExpirationStrategy) {
-        return new DaemonHealthCheck(healthExpirationStrategy, listenerManager);
+    protected DaemonHealthCheck createDaemonHealthCheck(ListenerManager listenerManager, DaemonMemoryStatus memoryStatus, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry) {
+        // Each path that checks the health of the daemon releases the daemon caches at most once before expiring it
+        return new DaemonHealthCheck(new HealthExpirationStrategy(memoryStatus, userHomeServiceRegistry), listenerManager);
     }
 
     protected DaemonRunningStats createDaemonRunningStats() {
@@ -119,12 +122,12 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DefaultDaemonScanInfo(runningStats, configuration.getIdleTimeout(), configuration.isSingleUse(), get(DaemonRegistry.class), listenerManager);
     }
 
-    protected MasterExpirationStrategy createMasterExpirationStrategy(Daemon daemon, HealthExpirationStrategy healthExpirationStrategy, ListenerManager listenerManager) {
-        return new MasterExpirationStrategy(daemon, configuration, healthExpirationStrategy, listenerManager);
+    protected DaemonWarmUp createDaemonWarmUp(DaemonDir daemonDir, ClassLoaderRegistry classLoaderRegistry, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry, ListenerManager listenerManager) {
+        return new DaemonWarmUp(daemonDir, classLoaderRegistry, userHomeServiceRegistry, listenerManager);
     }
 
-    protected HealthExpirationStrategy createHealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
-        return new HealthExpirationStrategy(memoryStatus);
+    protected MasterExpirationStrategy createMasterExpirationStrategy(Daemon daemon, DaemonMemoryStatus memoryStatus, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry, ListenerManager listenerManager) {
+        return new MasterExpirationStrategy(daemon, configuration, new HealthExpirationStrategy(memoryStatus, userHomeServiceRegistry), listenerManager);
     }
 
     protected DaemonHealthStats createDaemonHealthStats(DaemonRunningStats runningStats, ExecutorFactory executorFactory) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server;
+
+import com.google.common.base.Charsets;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
+import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.initialization.ClassLoaderRegistry;
+import org.gradle.internal.classpath.CachedClasspathTransformer;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+import org.gradle.launcher.daemon.registry.DaemonDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Warms up standby daemons, so that the first build run by a standby daemon does not pay for creating Gradle's services and loading its classes.
+ *
+ * <p>Daemons record the Gradle runtime classes of the plugins applied by each build they run. A standby daemon creates the services for the Gradle user home dir,
+ * and then loads the classes recorded by the most recent build run by any daemon of the same Gradle version.</p>
+ */
+public class DaemonWarmUp {
+    private static final Logger LOGGER = Logging.getLogger(DaemonWarmUp.class);
+    private static final String CLASSES_FILE_NAME = "warm-up-classes.txt";
+
+    private final File classesFile;
+    private final ClassLoader pluginsClassLoader;
+    private final GradleUserHomeScopeServiceRegistry userHomeServiceRegistry;
+    private final ListenerManager listenerManager;
+    private Set<String> recordedClasses = Collections.emptySet();
+
+    public DaemonWarmUp(DaemonDir daemonDir, ClassLoaderRegistry classLoaderRegistry, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry, ListenerManager listenerManager) {
+        this.classesFile = new File(daemonDir.getVersionedDir(), CLASSES_FILE_NAME);
+        this.pluginsClassLoader = classLoaderRegistry.getPluginsClassLoader();
+        this.userHomeServiceRegistry = userHomeServiceRegistry;
+        this.listenerManager = listenerManager;
+    }
+
+    /**
+     * Records the plugin classes of each successful build run by this daemon, for standby daemons to load.
+     */
+    public void recordBuilds() {
+        listenerManager.addListener(new BuildAdapter() {
+            @Override
+            public void buildFinished(BuildResult result) {
+                Gradle gradle = result.getGradle();
+                // Nested builds, such as buildSrc, are finished before the build that uses them
+                if (result.getFailure() == null && gradle != null && gradle.getParent() == null) {
+                    recordPluginClasses(gradle);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates the services for the given Gradle user home dir and loads the recorded classes. The services are kept by the daemon for the next build.
+     */
+    public void warmUp(File gradleUserHomeDir) {
+        Timer timer = Time.startTimer();
+        ServiceRegistry userHomeServices = userHomeServiceRegistry.getServicesFor(gradleUserHomeDir);
+        try {
+            userHomeServices.get(FileSystemSnapshotter.class);
+            userHomeServices.get(ValueSnapshotter.class);
+            userHomeServices.get(ClassLoaderCache.class);
+            userHomeServices.get(CachedClasspathTransformer.class);
+        } finally {
+            userHomeServiceRegistry.release(userHomeServices);
+        }
+
+        int loadedClasses = 0;
+        for (String className : readRecordedClasses()) {
+            try {
+                Class.forName(className, false, pluginsClassLoader);
+                loadedClasses++;
+            } catch (ClassNotFoundException e) {
+                LOGGER.debug("Could not load recorded class {} while warming up the daemon.", className);
+            } catch (LinkageError e) {
+                LOGGER.debug("Could not load recorded class {} while warming up the daemon.", className, e);
+            }
+        }
+        LOGGER.info("Warmed up standby daemon in {}, loading {} recorded plugin classes.", timer.getElapsed(), loadedClasses);
+    }
+
+    private void recordPluginClasses(Gradle gradle) {
+        Set<String> classNames = new TreeSet<String>();
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            for (Plugin<?> plugin : project.getPlugins()) {
+                String className = runtimeClassName(plugin.getClass());
+                if (className != null) {
+                    classNames.add(className);
+                }
+            }
+        }
+        if (classNames.equals(recordedClasses)) {
+            return;
+        }
+        try {
+            File tempFile = File.createTempFile(CLASSES_FILE_NAME, ".tmp", classesFile.getParentFile());
+            Files.write(tempFile.toPath(), classNames, Charsets.UTF_8);
+            Files.move(tempFile.toPath(), classesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            recordedClasses = classNames;
+        } catch (IOException e) {
+            LOGGER.debug("Could not record the plugin classes of the build for standby daemons.", e);
+        }
+    }
+
+    /**
+     * Returns the name of the most specific class of the given type that is loaded by the Gradle runtime, skipping generated classes and classes from build script classpaths.
+     */
+    private String runtimeClassName(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                if (Class.forName(current.getName(), false, pluginsClassLoader) == current) {
+                    return current.getName();
+                }
+            } catch (ClassNotFoundException e) {
+                // Not visible to the Gradle runtime, try the super class
+            }
+        }
+        return null;
+    }
+
+    private List<String> readRecordedClasses() {
+        if (!classesFile.isFile()) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(classesFile.toPath(), Charsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read the recorded plugin classes from {}.", classesFile, e);
+            return Collections.emptyList();
+        }
+    }
+}
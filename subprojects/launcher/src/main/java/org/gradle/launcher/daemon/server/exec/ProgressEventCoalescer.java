@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.internal.logging.console.BuildStatusRenderer;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.ProgressCompleteEvent;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.logging.events.ProgressStartEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes progress events from a batch of output events when a later progress event in the same batch replaces the status of the same operation.
+ *
+ * <p>Progress events of the build phase operations are never removed, as the client counts them to render the build progress bar.</p>
+ */
+public class ProgressEventCoalescer {
+    private final Set<OperationIdentifier> countedOperations = new HashSet<OperationIdentifier>();
+
+    public List<OutputEvent> coalesce(List<OutputEvent> events) {
+        for (OutputEvent event : events) {
+            if (event instanceof ProgressStartEvent) {
+                ProgressStartEvent startEvent = (ProgressStartEvent) event;
+                if (BuildStatusRenderer.BUILD_PROGRESS_CATEGORY.equals(startEvent.getCategory())) {
+                    countedOperations.add(startEvent.getProgressOperationId());
+                }
+            }
+        }
+
+        Set<OperationIdentifier> updatedOperations = new HashSet<OperationIdentifier>();
+        List<OutputEvent> result = new ArrayList<OutputEvent>(events.size());
+        for (int i = events.size() - 1; i >= 0; i--) {
+            OutputEvent event = events.get(i);
+            if (event instanceof ProgressEvent) {
+                OperationIdentifier operationId = ((ProgressEvent) event).getProgressOperationId();
+                if (!countedOperations.contains(operationId) && !updatedOperations.add(operationId)) {
+                    continue;
+                }
+            }
+            result.add(event);
+        }
+        Collections.reverse(result);
+
+        for (OutputEvent event : events) {
+            if (event instanceof ProgressCompleteEvent) {
+                countedOperations.remove(((ProgressCompleteEvent) event).getProgressOperationId());
+            }
+        }
+        return result;
+    }
+}
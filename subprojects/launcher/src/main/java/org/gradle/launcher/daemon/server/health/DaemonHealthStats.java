@@ -86,6 +86,9 @@ public class DaemonHealthStats implements Stoppable {
                 NumberUtil.ordinal(nextBuildNum), runningStats.getPrettyUpTime(), getCurrentPerformance());
             if (tenuredStats.getUsage() > 0) {
                 message += format(", GC rate: %.2f/s, tenured heap usage: %s%% of %s", tenuredStats.getRate(), tenuredStats.getUsage(), NumberUtil.formatBytes(tenuredStats.getMax()));
+                if (tenuredStats.getGrowthRate() > 0) {
+                    message += format(", tenured heap growth: %s/s", NumberUtil.formatBytes((long) tenuredStats.getGrowthRate()));
+                }
                 if (permgenStats.getUsage() > 0) {
                     message += format(", perm gen usage: %s%% of %s",
                         permgenStats.getUsage(), NumberUtil.formatBytes(permgenStats.getMax()));
@@ -97,6 +97,23 @@ public class DaemonMemoryStatus {
         });
     }
 
+    /**
+     * Returns true when enough garbage collections have happened to tell that the tenured space is in use below the configured threshold.
+     */
+    public boolean isTenuredSpaceHealthy() {
+        GarbageCollectionStats gcStats = stats.getGcMonitor().getTenuredStats();
+        return gcStats.getEventCount() >= 5
+            && gcStats.getUsage() > 0
+            && gcStats.getUsage() < tenuredUsageThreshold;
+    }
+
+    /**
+     * Discards the garbage collection stats collected so far, so that the status reflects only the collections that happen afterwards.
+     */
+    public void resetStats() {
+        stats.getGcMonitor().resetStats();
+    }
+
     private boolean exceedsThreshold(String pool, GarbageCollectionStats gcStats, Spec<GarbageCollectionStats> spec) {
         if (isEnabled()
             && strategy != GarbageCollectorMonitoringStrategy.UNKNOWN
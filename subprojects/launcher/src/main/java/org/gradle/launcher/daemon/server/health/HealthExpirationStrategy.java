@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.server.health;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
 import org.gradle.launcher.daemon.server.expiry.AnyDaemonExpirationStrategy;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
@@ -25,12 +26,12 @@ public class HealthExpirationStrategy implements DaemonExpirationStrategy {
 
     private final DaemonExpirationStrategy strategy;
 
-    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
-        this.strategy = new AnyDaemonExpirationStrategy(ImmutableList.of(
+    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry) {
+        this.strategy = new MemoryReclaimingExpirationStrategy(new AnyDaemonExpirationStrategy(ImmutableList.of(
             new GcThrashingDaemonExpirationStrategy(memoryStatus),
             new LowTenuredSpaceDaemonExpirationStrategy(memoryStatus),
             new LowPermGenDaemonExpirationStrategy(memoryStatus)
-        ));
+        )), memoryStatus, userHomeServiceRegistry);
     }
 
     @Override
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
+
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.DO_NOT_EXPIRE;
+
+/**
+ * Releases the memory held by the daemon's caches before letting a memory related expiration stop the daemon.
+ *
+ * <p>When the given strategy first triggers, the services kept for the Gradle user home dir are closed, which releases the in-memory caches, file system mirror and cached class loaders.
+ * The garbage collection stats are then discarded, so that the daemon is only expired if it becomes unhealthy again based on the collections that happen afterwards.
+ * Caches are released again only once the tenured space has been seen to be healthy.</p>
+ */
+public class MemoryReclaimingExpirationStrategy implements DaemonExpirationStrategy {
+    private static final Logger LOG = Logging.getLogger(MemoryReclaimingExpirationStrategy.class);
+
+    private final DaemonExpirationStrategy strategy;
+    private final DaemonMemoryStatus memoryStatus;
+    private final GradleUserHomeScopeServiceRegistry userHomeServiceRegistry;
+    private boolean released;
+
+    public MemoryReclaimingExpirationStrategy(DaemonExpirationStrategy strategy, DaemonMemoryStatus memoryStatus, GradleUserHomeScopeServiceRegistry userHomeServiceRegistry) {
+        this.strategy = strategy;
+        this.memoryStatus = memoryStatus;
+        this.userHomeServiceRegistry = userHomeServiceRegistry;
+    }
+
+    @Override
+    public synchronized DaemonExpirationResult checkExpiration() {
+        DaemonExpirationResult result = strategy.checkExpiration();
+        if (result.getStatus() == DO_NOT_EXPIRE) {
+            if (released && memoryStatus.isTenuredSpaceHealthy()) {
+                LOG.info("Daemon memory usage has recovered after releasing daemon caches.");
+                released = false;
+            }
+            return result;
+        }
+        if (released) {
+            return result;
+        }
+
+        LOG.info("Releasing daemon caches to avoid expiring the daemon ({}).", result.getReason());
+        released = true;
+        userHomeServiceRegistry.releaseUnusedServices();
+        memoryStatus.resetStats();
+        return DaemonExpirationResult.NOT_TRIGGERED;
+    }
+}
@@ -51,4 +51,14 @@ public class DefaultSlidingWindow<T> implements SlidingWindow<T> {
             lock.unlock();
         }
     }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            deque.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
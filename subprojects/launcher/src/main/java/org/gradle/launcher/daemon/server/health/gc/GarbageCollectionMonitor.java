@@ -105,6 +105,15 @@ public class GarbageCollectionMonitor {
         return new GarbageCollectionStats(slidingWindow.snapshot());
     }
 
+    /**
+     * Discards the events collected so far, so that the stats only reflect the garbage collections that happen afterwards, for example after memory has been released.
+     */
+    public void resetStats() {
+        for (SlidingWindow<GarbageCollectionEvent> window : events.values()) {
+            window.clear();
+        }
+    }
+
     public GarbageCollectorMonitoringStrategy getGcStrategy() {
         return gcStrategy;
     }
@@ -26,10 +26,12 @@ public class GarbageCollectionStats {
     final private long used;
     final private long max;
     final private long eventCount;
+    final private double growthRate;
 
     public GarbageCollectionStats(Set<GarbageCollectionEvent> events) {
         this.rate = calculateRate(events);
         this.used = calculateAverageUsage(events);
+        this.growthRate = calculateGrowthRate(events);
         this.max = calculateMaxSize(events);
         this.eventCount = events.size();
     }
@@ -97,6 +99,44 @@ public class GarbageCollectionStats {
         }
     }
 
+    /**
+     * Calculates how fast the memory retained after garbage collections grows, in bytes per second, as the slope of a least squares fit.
+     * A steady positive slope over the whole window indicates a leak, while a negative slope indicates that memory is being released.
+     */
+    static double calculateGrowthRate(Set<GarbageCollectionEvent> events) {
+        int collections = 0;
+        long lastCount = 0;
+        long firstTimestamp = 0;
+        double sumTime = 0;
+        double sumUsed = 0;
+        double sumTimeUsed = 0;
+        double sumTimeSquared = 0;
+        for (GarbageCollectionEvent event : events) {
+            // Skip if the garbage collector did not fire in between events
+            if (event.getCount() == lastCount || event.getCount() == 0) {
+                continue;
+            }
+            lastCount = event.getCount();
+
+            if (collections == 0) {
+                firstTimestamp = event.getTimestamp();
+            }
+            double time = (event.getTimestamp() - firstTimestamp) / 1000d;
+            double used = event.getUsage().getUsed();
+            collections++;
+            sumTime += time;
+            sumUsed += used;
+            sumTimeUsed += time * used;
+            sumTimeSquared += time * time;
+        }
+
+        double denominator = collections * sumTimeSquared - sumTime * sumTime;
+        if (collections < 2 || denominator == 0) {
+            return 0;
+        }
+        return (collections * sumTimeUsed - sumTime * sumUsed) / denominator;
+    }
+
     static long calculateMaxSize(Set<GarbageCollectionEvent> events) {
         if (events.size() < 1) {
             return -1;
@@ -130,4 +170,11 @@ public class GarbageCollectionStats {
     public long getEventCount() {
         return eventCount;
     }
+
+    /**
+     * Returns how fast the memory retained after garbage collections grows, in bytes per second. Negative when memory is being released.
+     */
+    public double getGrowthRate() {
+        return growthRate;
+    }
 }
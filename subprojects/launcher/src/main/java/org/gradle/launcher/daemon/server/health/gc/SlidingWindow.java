@@ -32,4 +32,9 @@ public interface SlidingWindow<T> {
      * @return Set view of the elements
      */
     public Set<T> snapshot();
+
+    /**
+     * Removes all elements from the window.
+     */
+    public void clear();
 }
@@ -75,21 +75,22 @@ public class LauncherServices extends AbstractPluginServiceRegistry {
                         new ParallelismConfigurationBuildActionExecuter(
                             new GradleThreadBuildActionExecuter(
                                 new ServicesSetupBuildActionExecuter(
-                                    new ContinuousBuildActionExecuter(
-                                        new BuildTreeScopeBuildActionExecuter(
-                                            new InProcessBuildActionExecuter(
-                                                new SubscribableBuildActionRunner(
-                                                    new RunAsBuildOperationBuildActionRunner(
-                                                        new ValidatingBuildActionRunner(
-                                                            new ChainingBuildActionRunner(buildActionRunners))),
-                                                    buildOperationListenerManager,
-                                                    registrations)
-                                            )
-                                        ),
-                                        fileSystemChangeWaiterFactory,
-                                        inputsListener,
-                                        styledTextOutputFactory,
-                                        executorFactory),
+                                    new ReusingModelBuildActionExecuter(
+                                        new ContinuousBuildActionExecuter(
+                                            new BuildTreeScopeBuildActionExecuter(
+                                                new InProcessBuildActionExecuter(
+                                                    new SubscribableBuildActionRunner(
+                                                        new RunAsBuildOperationBuildActionRunner(
+                                                            new ValidatingBuildActionRunner(
+                                                                new ChainingBuildActionRunner(buildActionRunners))),
+                                                        buildOperationListenerManager,
+                                                        registrations)
+                                                )
+                                            ),
+                                            fileSystemChangeWaiterFactory,
+                                            inputsListener,
+                                            styledTextOutputFactory,
+                                            executorFactory)),
                                     userHomeServiceRegistry)),
                             parallelismConfigurationManager)),
                     styledTextOutputFactory,
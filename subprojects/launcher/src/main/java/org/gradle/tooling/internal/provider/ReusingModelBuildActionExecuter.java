@@ -0,0 +1,288 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.SettingsInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.initialization.BuildRequestContext;
+import org.gradle.initialization.ModelConfigurationListener;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.HashingOutputStream;
+import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.launcher.exec.BuildActionExecuter;
+import org.gradle.launcher.exec.BuildActionParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reuses the result of a Tooling API model request when an identical request is made again and the build logic has not changed since.
+ *
+ * <p>A request is identical when its start parameter, client system properties and environment are the same. The build logic is
+ * tracked as the scripts that were run, the build file and {@code gradle.properties} of each project, the source directory
+ * layout of each project, the {@code buildSrc} tree and the init scripts and properties of the Gradle user home. Anything else
+ * that a build script reads is not tracked, so reuse has to be enabled explicitly using the {@value #REUSE_MODELS_SYSPROP}
+ * system property.</p>
+ */
+public class ReusingModelBuildActionExecuter implements BuildActionExecuter<BuildActionParameters> {
+    public static final String REUSE_MODELS_SYSPROP = "org.gradle.internal.tooling.reuse.models";
+
+    private static final Logger LOGGER = Logging.getLogger(ReusingModelBuildActionExecuter.class);
+    private static final int MAX_RESULTS = 4;
+
+    private final BuildActionExecuter<BuildActionParameters> delegate;
+    private final boolean enabled;
+    private final Map<HashCode, ReusableResult> results = new LinkedHashMap<HashCode, ReusableResult>(MAX_RESULTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<HashCode, ReusableResult> eldest) {
+            return size() > MAX_RESULTS;
+        }
+    };
+
+    public ReusingModelBuildActionExecuter(BuildActionExecuter<BuildActionParameters> delegate) {
+        this(delegate, Boolean.getBoolean(REUSE_MODELS_SYSPROP));
+    }
+
+    ReusingModelBuildActionExecuter(BuildActionExecuter<BuildActionParameters> delegate, boolean enabled) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object execute(BuildAction action, BuildRequestContext requestContext, BuildActionParameters actionParameters, ServiceRegistry contextServices) {
+        if (!enabled || !isReusable(action, actionParameters)) {
+            return delegate.execute(action, requestContext, actionParameters, contextServices);
+        }
+
+        HashCode requestKey = requestKey(action, actionParameters);
+        BuildActionResult previousResult = previousResult(requestKey);
+        if (previousResult != null) {
+            LOGGER.info("Reusing {} from a previous identical request, as the build logic has not changed.", ((BuildModelAction) action).getModelName());
+            return previousResult;
+        }
+
+        long startTime = System.currentTimeMillis();
+        BuildInputs inputs = new BuildInputs(action.getStartParameter());
+        ListenerManager listenerManager = contextServices.get(ListenerManager.class);
+        listenerManager.addListener(inputs);
+        Object result;
+        try {
+            result = delegate.execute(action, requestContext, actionParameters, contextServices);
+        } finally {
+            listenerManager.removeListener(inputs);
+        }
+
+        if (result instanceof BuildActionResult && ((BuildActionResult) result).failure == null && inputs.isComplete()) {
+            InputsFingerprint fingerprint = inputs.fingerprint();
+            if (fingerprint.lastModified < startTime) {
+                synchronized (results) {
+                    results.put(requestKey, new ReusableResult((BuildActionResult) result, inputs, fingerprint.hash));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isReusable(BuildAction action, BuildActionParameters actionParameters) {
+        if (!(action instanceof BuildModelAction)) {
+            return false;
+        }
+        BuildModelAction modelAction = (BuildModelAction) action;
+        StartParameter startParameter = modelAction.getStartParameter();
+        return modelAction.isModelRequest()
+            && !modelAction.isRunTasks()
+            && !modelAction.getClientSubscriptions().isSendAnyProgressEvents()
+            && !startParameter.isRefreshDependencies()
+            && !startParameter.isRerunTasks()
+            && !startParameter.isRecompileScripts()
+            && !startParameter.isContinuous()
+            && actionParameters.getInjectedPluginClasspath().isEmpty();
+    }
+
+    private static HashCode requestKey(BuildAction action, BuildActionParameters actionParameters) {
+        HashingOutputStream hashingOutputStream = new HashingOutputStream(Hashing.md5(), ByteStreams.nullOutputStream());
+        try {
+            ObjectOutputStream outputStream = new ObjectOutputStream(hashingOutputStream);
+            outputStream.writeObject(action);
+            outputStream.writeObject(new TreeMap<String, String>(actionParameters.getSystemProperties()));
+            outputStream.writeObject(new TreeMap<String, String>(actionParameters.getEnvVariables()));
+            outputStream.writeObject(actionParameters.getCurrentDir());
+            outputStream.close();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return hashingOutputStream.hash();
+    }
+
+    private BuildActionResult previousResult(HashCode requestKey) {
+        ReusableResult previous;
+        synchronized (results) {
+            previous = results.remove(requestKey);
+        }
+        if (previous == null) {
+            return null;
+        }
+        BuildActionResult result = previous.result.get();
+        if (result == null || !previous.inputs.fingerprint().hash.equals(previous.inputsHash)) {
+            return null;
+        }
+        synchronized (results) {
+            results.put(requestKey, previous);
+        }
+        return result;
+    }
+
+    private static class ReusableResult {
+        private final SoftReference<BuildActionResult> result;
+        private final BuildInputs inputs;
+        private final HashCode inputsHash;
+
+        ReusableResult(BuildActionResult result, BuildInputs inputs, HashCode inputsHash) {
+            this.result = new SoftReference<BuildActionResult>(result);
+            this.inputs = inputs;
+            this.inputsHash = inputsHash;
+        }
+    }
+
+    private static class InputsFingerprint {
+        private final HashCode hash;
+        private final long lastModified;
+
+        InputsFingerprint(HashCode hash, long lastModified) {
+            this.hash = hash;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Collects the files that the build logic was loaded from.
+     */
+    static class BuildInputs implements ModelConfigurationListener, ScriptExecutionListener {
+        private final Set<File> files = new TreeSet<File>();
+        private final Set<File> trees = new TreeSet<File>();
+        private final Set<File> directories = new TreeSet<File>();
+        private boolean configured;
+        private boolean untrackedScripts;
+
+        BuildInputs(StartParameter startParameter) {
+            File gradleUserHomeDir = startParameter.getGradleUserHomeDir();
+            files.add(new File(gradleUserHomeDir, "gradle.properties"));
+            files.add(new File(gradleUserHomeDir, "init.gradle"));
+            trees.add(new File(gradleUserHomeDir, "init.d"));
+            files.addAll(startParameter.getInitScripts());
+        }
+
+        @Override
+        public synchronized void onConfigure(GradleInternal model) {
+            configured = true;
+            SettingsInternal settings = model.getSettings();
+            File settingsDir = settings.getSettingsDir();
+            files.add(new File(settingsDir, "settings.gradle"));
+            files.add(new File(settingsDir, "settings.gradle.kts"));
+            trees.add(new File(settingsDir, "buildSrc"));
+            for (Project project : model.getRootProject().getAllprojects()) {
+                files.add(project.getBuildFile());
+                files.add(new File(project.getProjectDir(), "gradle.properties"));
+                directories.add(new File(project.getProjectDir(), "src"));
+            }
+        }
+
+        @Override
+        public synchronized void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+            File file = source.getResource().getLocation().getFile();
+            if (file == null) {
+                untrackedScripts = true;
+            } else {
+                files.add(file);
+            }
+        }
+
+        synchronized boolean isComplete() {
+            return configured && !untrackedScripts;
+        }
+
+        synchronized InputsFingerprint fingerprint() {
+            Hasher hasher = Hashing.md5().newHasher();
+            long lastModified = 0;
+            for (File file : files) {
+                hasher.putString(file.getAbsolutePath());
+                hasher.putLong(file.isFile() ? file.length() : -1);
+                hasher.putLong(file.lastModified());
+                lastModified = Math.max(lastModified, file.lastModified());
+            }
+            for (File tree : trees) {
+                hasher.putString(tree.getAbsolutePath());
+                lastModified = Math.max(lastModified, visit(tree, hasher, true));
+            }
+            for (File directory : directories) {
+                hasher.putString(directory.getAbsolutePath());
+                lastModified = Math.max(lastModified, visit(directory, hasher, false));
+            }
+            return new InputsFingerprint(hasher.hash(), lastModified);
+        }
+
+        /**
+         * Hashes the layout of the given directory, along with the length and timestamp of its files when {@code includeFiles} is set.
+         * Returns the latest timestamp of the files that were hashed.
+         */
+        private static long visit(File directory, Hasher hasher, boolean includeFiles) {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return 0;
+            }
+            Arrays.sort(children);
+            long lastModified = 0;
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    if (includeFiles && (child.getName().equals("build") || child.getName().equals(".gradle"))) {
+                        continue;
+                    }
+                    hasher.putString(child.getAbsolutePath());
+                    lastModified = Math.max(lastModified, visit(child, hasher, includeFiles));
+                } else if (includeFiles) {
+                    hasher.putString(child.getAbsolutePath());
+                    hasher.putLong(child.length());
+                    hasher.putLong(child.lastModified());
+                    lastModified = Math.max(lastModified, child.lastModified());
+                }
+            }
+            return lastModified;
+        }
+    }
+}
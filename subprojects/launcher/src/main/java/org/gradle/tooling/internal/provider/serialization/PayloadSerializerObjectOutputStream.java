@@ -19,13 +19,19 @@ package org.gradle.tooling.internal.provider.serialization;
 import org.gradle.internal.serialize.ExceptionReplacingObjectOutputStream;
 import org.gradle.internal.serialize.TopLevelExceptionPlaceholder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutputStream {
     static final int SAME_CLASSLOADER_TOKEN = 0;
     private final SerializeMap map;
+    private final Map<String, String> canonicalStrings = new HashMap<String, String>();
+    // Keyed by path, as File.equals() ignores case on Windows and would merge files whose paths differ only in case
+    private final Map<String, File> canonicalFiles = new HashMap<String, File>();
 
     public PayloadSerializerObjectOutputStream(OutputStream outputStream, SerializeMap map) throws IOException {
         super(outputStream);
@@ -37,6 +43,32 @@ class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutput
         return new PayloadSerializerObjectOutputStream(outputStream, map);
     }
 
+    /**
+     * Models typically contain many equal strings and files, such as paths shared by many projects. Replace equal values with a single instance
+     * so that each value is written only once and the remaining occurrences are written as back references.
+     */
+    @Override
+    protected Object doReplaceObject(Object obj) throws IOException {
+        if (obj instanceof String) {
+            String canonical = canonicalStrings.get(obj);
+            if (canonical == null) {
+                canonicalStrings.put((String) obj, (String) obj);
+                return obj;
+            }
+            return canonical;
+        }
+        if (obj.getClass() == File.class) {
+            File file = (File) obj;
+            File canonical = canonicalFiles.get(file.getPath());
+            if (canonical == null) {
+                canonicalFiles.put(file.getPath(), file);
+                return obj;
+            }
+            return canonical;
+        }
+        return super.doReplaceObject(obj);
+    }
+
     @Override
     protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
         Class<?> targetClass = desc.forClass();
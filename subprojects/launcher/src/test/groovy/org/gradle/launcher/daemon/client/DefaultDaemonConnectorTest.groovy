@@ -30,6 +30,7 @@ import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
 import org.gradle.launcher.daemon.registry.DaemonInfo
 import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Busy
 import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Idle
@@ -182,6 +183,39 @@ class DefaultDaemonConnectorTest extends Specification {
         thrown(DaemonConnectionException)
     }
 
+    def "connect() starts missing standby daemons in the background"() {
+        given:
+        startIdleDaemon()
+        connector.standbyDaemons = 2
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection && connection.connection.num == 0
+
+        and:
+        new PollingConditions().eventually {
+            assert numAllDaemons == 3
+        }
+    }
+
+    def "connect() does not start standby daemons when enough compatible idle daemons are available"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+        connector.standbyDaemons = 1
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection
+
+        and:
+        numAllDaemons == 2
+    }
+
     def "suspect address is removed from the registry on connect failure"() {
         given:
         startIdleDaemon()
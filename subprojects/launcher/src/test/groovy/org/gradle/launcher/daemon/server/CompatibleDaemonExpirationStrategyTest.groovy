@@ -72,7 +72,21 @@ class CompatibleDaemonExpirationStrategyTest extends DaemonExpirationStrategyTes
         !wouldExpire(d1)
     }
 
-    boolean wouldExpire(DaemonInfo info, Boolean timeoutReached = true) {
+    def "does not expire compatible daemons kept as standby daemons"() {
+        given:
+        DaemonInfo d1 = registerDaemon(Idle)
+        DaemonInfo d2 = registerDaemon(Idle)
+        DaemonInfo d3 = registerDaemon(Idle)
+
+        when:
+        compatible = [ d1, d2, d3 ]
+
+        then:
+        !wouldExpire(d1, true, 2)
+        wouldExpire(d1, true, 1)
+    }
+
+    boolean wouldExpire(DaemonInfo info, Boolean timeoutReached = true, int standbyDaemons = 0) {
         Daemon daemon = Mock(Daemon) {
             1 * getDaemonRegistry() >> { registry }
             _ * getDaemonContext() >> { info.getContext() }
@@ -88,6 +102,6 @@ class CompatibleDaemonExpirationStrategyTest extends DaemonExpirationStrategyTes
             compatibleWithCurrent = []
         }
 
-        return new CompatibleDaemonExpirationStrategy(daemon, compatibilitySpec).checkExpiration().status == GRACEFUL_EXPIRE
+        return new CompatibleDaemonExpirationStrategy(daemon, compatibilitySpec, standbyDaemons).checkExpiration().status == GRACEFUL_EXPIRE
     }
 }
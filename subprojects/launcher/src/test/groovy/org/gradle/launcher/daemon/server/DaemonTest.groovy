@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.concurrent.ManagedScheduledExecutor
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.remote.Address
+import org.gradle.launcher.daemon.context.DaemonContext
+import org.gradle.launcher.daemon.context.DefaultDaemonContext
+import org.gradle.launcher.daemon.registry.DaemonInfo
+import org.gradle.launcher.daemon.registry.EmbeddedDaemonRegistry
+import org.gradle.launcher.daemon.server.exec.DaemonCommandExecuter
+import spock.lang.Specification
+
+import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Busy
+import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Idle
+
+class DaemonTest extends Specification {
+    def registry = new EmbeddedDaemonRegistry()
+    def address = address()
+    def connector = Stub(DaemonServerConnector) {
+        start(_, _) >> address
+    }
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> Stub(ManagedExecutor)
+        createScheduled(_, _) >> Stub(ManagedScheduledExecutor)
+    }
+    def daemon = new Daemon(connector, registry, context(["-Xmx1g"]), Stub(DaemonCommandExecuter), executorFactory, Stub(ListenerManager))
+
+    def "a started daemon is advertised as busy"() {
+        when:
+        daemon.start()
+
+        then:
+        registry.all*.state == [Busy]
+    }
+
+    def "advertises a standby daemon as idle when fewer compatible daemons are idle"() {
+        given:
+        registerDaemon(context(["-Xmx1g"]), Idle)
+        registerDaemon(context(["-Xmx1g"]), Busy)
+        registerDaemon(context(["-Xmx2g"]), Idle)
+        daemon.start()
+
+        when:
+        def advertised = daemon.advertiseIdle(2)
+
+        then:
+        advertised
+        registry.all.find { it.address == address }.state == Idle
+    }
+
+    def "does not advertise a standby daemon as idle when enough compatible daemons are idle"() {
+        given:
+        registerDaemon(context(["-Xmx1g"]), Idle)
+        registerDaemon(context(["-Xmx1g"]), Idle)
+        daemon.start()
+
+        when:
+        def advertised = daemon.advertiseIdle(2)
+
+        then:
+        !advertised
+        registry.all.find { it.address == address }.state == Busy
+    }
+
+    def "cannot advertise a daemon that has not been started"() {
+        when:
+        daemon.advertiseIdle(1)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    private void registerDaemon(DaemonContext context, state) {
+        registry.store(new DaemonInfo(address(), context, "password".bytes, state))
+    }
+
+    private static DaemonContext context(List<String> daemonOpts) {
+        return new DefaultDaemonContext(UUID.randomUUID().toString(), new File("java-home"), new File("registry"), 123L, 1000, daemonOpts)
+    }
+
+    private static Address address() {
+        new Address() {
+            String getDisplayName() { "address" }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.BuildAdapter
+import org.gradle.BuildResult
+import org.gradle.api.Plugin
+import org.gradle.api.Project
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.plugins.PluginContainer
+import org.gradle.initialization.ClassLoaderRegistry
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry
+import org.gradle.launcher.daemon.registry.DaemonDir
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class DaemonWarmUpTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def daemonDir = new DaemonDir(temp.file("daemon"))
+    def requestedClasses = []
+    def pluginsClassLoader = new ClassLoader(getClass().classLoader) {
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            requestedClasses << name
+            return super.loadClass(name, resolve)
+        }
+    }
+    def classLoaderRegistry = Stub(ClassLoaderRegistry) {
+        getPluginsClassLoader() >> pluginsClassLoader
+    }
+    def userHomeServiceRegistry = Mock(GradleUserHomeScopeServiceRegistry)
+    def listenerManager = Mock(ListenerManager)
+    BuildAdapter buildListener
+
+    def setup() {
+        daemonDir.versionedDir.mkdirs()
+    }
+
+    def "records the runtime classes of the plugins applied by a successful build"() {
+        given:
+        recordBuilds()
+        def scriptPluginClass = new GroovyClassLoader(getClass().classLoader).parseClass("class ScriptPlugin extends ${TestPlugin.canonicalName} {}")
+
+        when:
+        buildListener.buildFinished(new BuildResult(gradle(new TestPlugin(), scriptPluginClass.newInstance()), null))
+
+        then:
+        classesFile.readLines() == [TestPlugin.name]
+    }
+
+    def "does not record the plugins of a failed build"() {
+        given:
+        recordBuilds()
+
+        when:
+        buildListener.buildFinished(new BuildResult(gradle(new TestPlugin()), new RuntimeException()))
+
+        then:
+        !classesFile.exists()
+    }
+
+    def "does not record the plugins of a nested build"() {
+        given:
+        recordBuilds()
+        def gradle = gradle(new TestPlugin())
+        _ * gradle.parent >> Stub(GradleInternal)
+
+        when:
+        buildListener.buildFinished(new BuildResult(gradle, null))
+
+        then:
+        !classesFile.exists()
+    }
+
+    def "creates the user home services and loads the recorded classes"() {
+        given:
+        def userHomeDir = temp.file("user-home")
+        def userHomeServices = Mock(ServiceRegistry)
+        classesFile.text = "${TestPlugin.name}\norg.gradle.Unknown\n"
+
+        when:
+        warmUp().warmUp(userHomeDir)
+
+        then:
+        1 * userHomeServiceRegistry.getServicesFor(userHomeDir) >> userHomeServices
+        4 * userHomeServices.get(_)
+
+        then:
+        1 * userHomeServiceRegistry.release(userHomeServices)
+
+        and:
+        requestedClasses == [TestPlugin.name, "org.gradle.Unknown"]
+    }
+
+    def "releases the user home services when they cannot be created"() {
+        given:
+        def userHomeDir = temp.file("user-home")
+        def userHomeServices = Mock(ServiceRegistry)
+        def failure = new RuntimeException()
+
+        when:
+        warmUp().warmUp(userHomeDir)
+
+        then:
+        1 * userHomeServiceRegistry.getServicesFor(userHomeDir) >> userHomeServices
+        1 * userHomeServices.get(_) >> { throw failure }
+        1 * userHomeServiceRegistry.release(userHomeServices)
+
+        and:
+        def e = thrown(RuntimeException)
+        e == failure
+    }
+
+    def "loads no classes when no build was recorded"() {
+        when:
+        warmUp().warmUp(temp.file("user-home"))
+
+        then:
+        1 * userHomeServiceRegistry.getServicesFor(_) >> Stub(ServiceRegistry)
+
+        and:
+        requestedClasses.empty
+    }
+
+    private DaemonWarmUp warmUp() {
+        return new DaemonWarmUp(daemonDir, classLoaderRegistry, userHomeServiceRegistry, listenerManager)
+    }
+
+    private void recordBuilds() {
+        listenerManager.addListener(_) >> { BuildAdapter listener -> buildListener = listener }
+        warmUp().recordBuilds()
+        assert buildListener != null
+    }
+
+    private GradleInternal gradle(Plugin<?>... plugins) {
+        def project = Stub(Project) {
+            getPlugins() >> Stub(PluginContainer) {
+                iterator() >> { plugins.iterator() }
+            }
+        }
+        def rootProject = Stub(Project) {
+            getAllprojects() >> ([project] as Set)
+        }
+        def gradle = Mock(GradleInternal)
+        _ * gradle.rootProject >> rootProject
+        return gradle
+    }
+
+    private File getClassesFile() {
+        return new File(daemonDir.versionedDir, "warm-up-classes.txt")
+    }
+
+    static class TestPlugin implements Plugin<Project> {
+        @Override
+        void apply(Project project) {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.console.BuildStatusRenderer
+import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.ProgressCompleteEvent
+import org.gradle.internal.logging.events.ProgressEvent
+import org.gradle.internal.logging.events.ProgressStartEvent
+import org.gradle.internal.operations.BuildOperationCategory
+import org.gradle.internal.operations.OperationIdentifier
+import spock.lang.Specification
+
+class ProgressEventCoalescerTest extends Specification {
+    def coalescer = new ProgressEventCoalescer()
+
+    def "keeps only the latest progress event of each operation in a batch"() {
+        def start1 = start(1, "category")
+        def start2 = start(2, "category")
+        def progress1a = progress(1, "a")
+        def progress2a = progress(2, "a")
+        def log = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message", null)
+        def progress1b = progress(1, "b")
+        def complete2 = complete(2)
+
+        expect:
+        coalescer.coalesce([start1, start2, progress1a, progress2a, log, progress1b, complete2]) == [start1, start2, progress2a, log, progress1b, complete2]
+    }
+
+    def "keeps all progress events of build phase operations"() {
+        def start = start(1, BuildStatusRenderer.BUILD_PROGRESS_CATEGORY)
+        def progress1 = progress(1, "")
+        def progress2 = progress(1, "")
+        def progress3 = progress(1, "")
+
+        expect:
+        coalescer.coalesce([start, progress1, progress2]) == [start, progress1, progress2]
+        coalescer.coalesce([progress3, progress3]) == [progress3, progress3]
+    }
+
+    def "coalesces progress events once build phase operation has completed"() {
+        def start = start(1, BuildStatusRenderer.BUILD_PROGRESS_CATEGORY)
+        def progress1 = progress(1, "")
+        def progress2 = progress(1, "")
+        def complete = complete(1)
+
+        expect:
+        coalescer.coalesce([start, progress1, progress2, complete]) == [start, progress1, progress2, complete]
+        coalescer.coalesce([progress1, progress2]) == [progress2]
+    }
+
+    def "keeps events that are not progress events"() {
+        def event1 = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message 1", null)
+        def event2 = new LogEvent(0, "category", LogLevel.LIFECYCLE, "message 2", null)
+
+        expect:
+        coalescer.coalesce([event1, event2, event1]) == [event1, event2, event1]
+    }
+
+    private static ProgressStartEvent start(long id, String category) {
+        return new ProgressStartEvent(new OperationIdentifier(id), null, 0, category, "description", null, null, "", 0, false, null, null, BuildOperationCategory.UNCATEGORIZED)
+    }
+
+    private static ProgressEvent progress(long id, String status) {
+        return new ProgressEvent(new OperationIdentifier(id), status, false)
+    }
+
+    private static ProgressCompleteEvent complete(long id) {
+        return new ProgressCompleteEvent(new OperationIdentifier(id), 0, "", false)
+    }
+}
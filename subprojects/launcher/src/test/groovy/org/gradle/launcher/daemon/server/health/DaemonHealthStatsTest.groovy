@@ -57,6 +57,25 @@ class DaemonHealthStatsTest extends Specification {
         healthStats.healthInfo == String.format("Starting 2nd build in daemon [uptime: 3 mins, performance: 98%%, GC rate: %.2f/s, tenured heap usage: 10%% of %.1f kB]", 1.0, 1.0)
     }
 
+    def "reports growth of retained tenured heap"() {
+        when:
+        gcInfo.getCollectionTime() >> 25
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> 10
+                getMax() >> 1024
+                getRate() >> 1.0
+                getGrowthRate() >> 2048
+            }
+        }
+        runningStats.getBuildCount() >> 1
+        runningStats.getPrettyUpTime() >> "3 mins"
+        runningStats.getAllBuildsTime() >> 1000
+
+        then:
+        healthStats.healthInfo == String.format("Starting 2nd build in daemon [uptime: 3 mins, performance: 98%%, GC rate: %.2f/s, tenured heap usage: 10%% of %.1f kB, tenured heap growth: %.1f kB/s]", 1.0, 1.0, 2.0)
+    }
+
     def "handles no garbage collection data"() {
         when:
         gcInfo.getCollectionTime() >> 25
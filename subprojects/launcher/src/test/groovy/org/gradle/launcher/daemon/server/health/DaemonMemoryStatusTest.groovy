@@ -90,6 +90,52 @@ class DaemonMemoryStatusTest extends Specification {
         1.0           | 75             | 1.0  | 100  | true
     }
 
+    @Unroll
+    def "considers tenured space exhausted regardless of the growth rate of retained memory (growth rate #growthRate)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, "90")
+        System.setProperty(TENURED_RATE_EXPIRE_AT, "1.0")
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> 95
+                getRate() >> 1.1
+                getEventCount() >> 10
+                getGrowthRate() >> growthRate
+            }
+        }
+
+        then:
+        status.isTenuredSpaceExhausted() == unhealthy
+
+        where:
+        growthRate | unhealthy
+        -1024      | true
+        0          | true
+        1024       | true
+    }
+
+    @Unroll
+    def "knows when tenured space is healthy (#usageThreshold > #used, #events events)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, usageThreshold.toString())
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+                getEventCount() >> events
+            }
+        }
+
+        then:
+        status.isTenuredSpaceHealthy() == healthy
+
+        where:
+        usageThreshold | used | events | healthy
+        90             | 50   | 10     | true
+        90             | 95   | 10     | false
+        90             | 50   | 2      | false
+        90             | -1   | 10     | false
+    }
+
     @Unroll
     def "knows when perm gen space is exhausted (#usageThreshold <= #used, #usageThreshold <= #used)"() {
         when:
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy
+import spock.lang.Specification
+
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.DO_NOT_EXPIRE
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.GRACEFUL_EXPIRE
+
+class MemoryReclaimingExpirationStrategyTest extends Specification {
+    def delegate = Mock(DaemonExpirationStrategy)
+    def memoryStatus = Mock(DaemonMemoryStatus)
+    def userHomeServiceRegistry = Mock(GradleUserHomeScopeServiceRegistry)
+    def strategy = new MemoryReclaimingExpirationStrategy(delegate, memoryStatus, userHomeServiceRegistry)
+    def expire = new DaemonExpirationResult(GRACEFUL_EXPIRE, "after running out of JVM memory")
+
+    def "does not release caches when daemon is healthy"() {
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        result.status == DO_NOT_EXPIRE
+        1 * delegate.checkExpiration() >> DaemonExpirationResult.NOT_TRIGGERED
+        0 * userHomeServiceRegistry._
+        0 * memoryStatus.resetStats()
+    }
+
+    def "releases caches instead of expiring the first time the daemon is unhealthy"() {
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        result.status == DO_NOT_EXPIRE
+        1 * delegate.checkExpiration() >> expire
+        1 * userHomeServiceRegistry.releaseUnusedServices()
+        1 * memoryStatus.resetStats()
+    }
+
+    def "expires when daemon is still unhealthy after releasing caches"() {
+        given:
+        delegate.checkExpiration() >> expire
+        strategy.checkExpiration()
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        result == expire
+        0 * userHomeServiceRegistry._
+    }
+
+    def "releases caches again once daemon has recovered"() {
+        given:
+        delegate.checkExpiration() >>> [expire, DaemonExpirationResult.NOT_TRIGGERED, expire]
+        memoryStatus.isTenuredSpaceHealthy() >> true
+        strategy.checkExpiration()
+        strategy.checkExpiration()
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        result.status == DO_NOT_EXPIRE
+        1 * userHomeServiceRegistry.releaseUnusedServices()
+    }
+}
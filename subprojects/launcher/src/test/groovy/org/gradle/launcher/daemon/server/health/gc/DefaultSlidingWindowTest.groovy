@@ -42,4 +42,18 @@ class DefaultSlidingWindowTest extends Specification {
         and:
         window.snapshot() == [4,5,6,7,8] as Set
     }
+
+    def "can be cleared"() {
+        given:
+        (1..3).each { next ->
+            window.slideAndInsert(next)
+        }
+
+        when:
+        window.clear()
+        window.slideAndInsert(4)
+
+        then:
+        window.snapshot() == [4] as Set
+    }
 }
@@ -31,6 +31,32 @@ public class GarbageCollectionStatsTest extends Specification {
         new GarbageCollectionStats(checkStream).usage == 73
     }
 
+    def "correctly calculates growth rate of retained memory"() {
+        expect:
+        new GarbageCollectionStats(checkStream).growthRate == 220
+    }
+
+    def "growth rate is negative when retained memory goes down"() {
+        Set<GarbageCollectionEvent> checks = [
+            new GarbageCollectionEvent(1000, new MemoryUsage(0, 900, 1000, 1000), 1),
+            new GarbageCollectionEvent(2000, new MemoryUsage(0, 500, 1000, 1000), 2),
+            new GarbageCollectionEvent(3000, new MemoryUsage(0, 100, 1000, 1000), 3)
+        ]
+
+        expect:
+        new GarbageCollectionStats(checks).growthRate == -400
+    }
+
+    def "growth rate is zero without enough garbage collections"() {
+        Set<GarbageCollectionEvent> checks = [
+            new GarbageCollectionEvent(1000, new MemoryUsage(0, 250, 1000, 1000), 2),
+            new GarbageCollectionEvent(2000, new MemoryUsage(0, 500, 1000, 1000), 2)
+        ]
+
+        expect:
+        new GarbageCollectionStats(checks).growthRate == 0
+    }
+
     Set<GarbageCollectionEvent> getCheckStream() {
         Set<GarbageCollectionEvent> checks = [
             new GarbageCollectionEvent(1000, new MemoryUsage(0, 250, 1000, 1000), 2),
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider
+
+import org.gradle.api.Project
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.SettingsInternal
+import org.gradle.api.internal.StartParameterInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.initialization.BuildRequestContext
+import org.gradle.initialization.ModelConfigurationListener
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.launcher.exec.BuildActionExecuter
+import org.gradle.launcher.exec.BuildActionParameters
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.tooling.internal.provider.serialization.SerializedPayload
+import org.junit.Rule
+import spock.lang.Specification
+
+class ReusingModelBuildActionExecuterTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp
+    def delegate = Mock(BuildActionExecuter)
+    def listenerManager = new DefaultListenerManager()
+    def contextServices = Stub(ServiceRegistry) {
+        get(ListenerManager) >> listenerManager
+    }
+    def requestContext = Stub(BuildRequestContext)
+    def parameters = Stub(BuildActionParameters) {
+        getSystemProperties() >> [:]
+        getEnvVariables() >> [:]
+        getCurrentDir() >> temp.testDirectory
+        getInjectedPluginClasspath() >> ClassPath.EMPTY
+    }
+    TestFile buildFile
+    GradleInternal gradle
+
+    def setup() {
+        buildFile = temp.file("build.gradle")
+        buildFile.text = "apply plugin: 'java'"
+        buildFile.lastModified = System.currentTimeMillis() - 10000
+        def project = Stub(Project) {
+            getBuildFile() >> buildFile
+            getProjectDir() >> temp.testDirectory
+        }
+        gradle = Stub(GradleInternal) {
+            getSettings() >> Stub(SettingsInternal) {
+                getSettingsDir() >> temp.testDirectory
+            }
+            getRootProject() >> Stub(ProjectInternal) {
+                getAllprojects() >> ([project] as Set)
+            }
+        }
+    }
+
+    def "reuses result of identical model request when build logic has not changed"() {
+        def executer = new ReusingModelBuildActionExecuter(delegate, true)
+        def result = result()
+
+        when:
+        def first = executer.execute(modelAction(), requestContext, parameters, contextServices)
+        def second = executer.execute(modelAction(), requestContext, parameters, contextServices)
+
+        then:
+        first == result
+        second == result
+        1 * delegate.execute(_, requestContext, parameters, contextServices) >> { configure(); result }
+    }
+
+    def "does not reuse result when build file has changed"() {
+        def executer = new ReusingModelBuildActionExecuter(delegate, true)
+
+        when:
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+        buildFile << "\napply plugin: 'groovy'"
+        buildFile.lastModified = System.currentTimeMillis() - 5000
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+
+        then:
+        2 * delegate.execute(_, requestContext, parameters, contextServices) >> { configure(); result() }
+    }
+
+    def "does not reuse result of a different request"() {
+        def executer = new ReusingModelBuildActionExecuter(delegate, true)
+
+        when:
+        executer.execute(modelAction("model1"), requestContext, parameters, contextServices)
+        executer.execute(modelAction("model2"), requestContext, parameters, contextServices)
+
+        then:
+        2 * delegate.execute(_, requestContext, parameters, contextServices) >> { configure(); result() }
+    }
+
+    def "does not reuse failed result"() {
+        def executer = new ReusingModelBuildActionExecuter(delegate, true)
+
+        when:
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+
+        then:
+        2 * delegate.execute(_, requestContext, parameters, contextServices) >> { configure(); new BuildActionResult(null, payload()) }
+    }
+
+    def "does not reuse result when disabled"() {
+        def executer = new ReusingModelBuildActionExecuter(delegate, false)
+
+        when:
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+        executer.execute(modelAction(), requestContext, parameters, contextServices)
+
+        then:
+        2 * delegate.execute(_, requestContext, parameters, contextServices) >> { configure(); result() }
+    }
+
+    private void configure() {
+        listenerManager.getBroadcaster(ModelConfigurationListener).onConfigure(gradle)
+    }
+
+    private BuildModelAction modelAction(String modelName = "model") {
+        def startParameter = new StartParameterInternal()
+        startParameter.gradleUserHomeDir = temp.file("user-home")
+        return new BuildModelAction(startParameter, modelName, false, new BuildClientSubscriptions(false, false, false))
+    }
+
+    private static BuildActionResult result() {
+        return new BuildActionResult(payload(), null)
+    }
+
+    private static SerializedPayload payload() {
+        return new SerializedPayload(null, [])
+    }
+}
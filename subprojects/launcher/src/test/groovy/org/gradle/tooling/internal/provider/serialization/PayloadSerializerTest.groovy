@@ -43,6 +43,31 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         "some value" | _
     }
 
+    def "writes equal strings and files only once"() {
+        def path = "/some/long/path/to/a/project/directory"
+        def original = (1..100).collect { [new String(path), new File(path)] }
+
+        when:
+        def serialized = originator.serialize(original)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        received == original
+        received.collect { it[0] }.unique { System.identityHashCode(it) }.size() == 1
+        received.collect { it[1] }.unique { System.identityHashCode(it) }.size() == 1
+        serialized.serializedModel.sum { it.length } < 100 * path.length()
+    }
+
+    def "keeps files whose paths differ only in case"() {
+        def original = [new File("/some/Path"), new File("/some/path"), new File("/some/Path")]
+
+        when:
+        def received = receiver.deserialize(originator.serialize(original))
+
+        then:
+        received*.path == ["/some/Path", "/some/path", "/some/Path"].collect { new File(it).path }
+    }
+
     def "implementation classpath travels with object"() {
         def payloadClass = isolated(CustomPayload, PayloadInterface).loadClass(CustomPayload.name)
         def original = payloadClass.newInstance(value: 'value')
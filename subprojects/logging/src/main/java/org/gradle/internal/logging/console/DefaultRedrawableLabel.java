@@ -89,20 +89,61 @@ public class DefaultRedrawableLabel implements RedrawableLabel {
             }
 
             int writtenTextLength = writePos.col;
-            writePos.col = 0;
-            redrawText(ansi.writeAt(writePos), writtenTextLength);
+            int unchangedTextLength = previousWriteRow == absolutePositionRow ? unchangedTextLength() : 0;
+            writePos.col = unchangedTextLength;
+            redrawText(ansi.writeAt(writePos), unchangedTextLength, writtenTextLength);
 
             writtenSpans = spans;
             previousWriteRow = absolutePositionRow;
         }
     }
 
-    private void redrawText(AnsiContext ansi, int writtenTextLength) {
+    /**
+     * Returns the length of the text at the start of the label that is already on the console, so that only the text after it needs to be rewritten.
+     */
+    private int unchangedTextLength() {
+        int length = 0;
+        for (int i = 0; i < spans.size() && i < writtenSpans.size(); i++) {
+            StyledTextOutputEvent.Span span = spans.get(i);
+            StyledTextOutputEvent.Span writtenSpan = writtenSpans.get(i);
+            if (span.equals(writtenSpan)) {
+                length += span.getText().length();
+                continue;
+            }
+            if (span.getStyle() == writtenSpan.getStyle()) {
+                length += commonPrefixLength(span.getText(), writtenSpan.getText());
+            }
+            break;
+        }
+        return length;
+    }
+
+    private static int commonPrefixLength(String text, String writtenText) {
+        int maxLength = Math.min(text.length(), writtenText.length());
+        int length = 0;
+        while (length < maxLength && text.charAt(length) == writtenText.charAt(length)) {
+            length++;
+        }
+        if (length > 0 && Character.isHighSurrogate(text.charAt(length - 1))) {
+            // Don't split a surrogate pair
+            length--;
+        }
+        return length;
+    }
+
+    private void redrawText(AnsiContext ansi, int unchangedTextLength, int writtenTextLength) {
         int textLength = 0;
         for (StyledTextOutputEvent.Span span : spans) {
-            ansi.withStyle(span.getStyle(), writeText(span.getText()));
-
-            textLength += span.getText().length();
+            String text = span.getText();
+            int spanStart = textLength;
+            textLength += text.length();
+            if (textLength <= unchangedTextLength) {
+                continue;
+            }
+            if (spanStart < unchangedTextLength) {
+                text = text.substring(unchangedTextLength - spanStart);
+            }
+            ansi.withStyle(span.getStyle(), writeText(text));
         }
 
         if (previousWriteRow == absolutePositionRow && textLength < writtenTextLength) {
@@ -104,5 +104,22 @@ public class StyledTextOutputEvent extends RenderableOutputEvent implements Styl
         public String getText() {
             return text;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Span other = (Span) o;
+            return style == other.style && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * style.hashCode() + text.hashCode();
+        }
     }
 }
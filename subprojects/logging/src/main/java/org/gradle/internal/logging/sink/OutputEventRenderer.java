@@ -53,15 +53,25 @@ import org.gradle.internal.time.Clock;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A {@link OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>Events are rendered by one thread at a time. A thread that produces an event while another thread is rendering queues the event and returns,
+ * and the rendering thread renders the queued events, in order, before it returns. Changes to the listeners first render the queued events, so that
+ * every event goes to the listeners that were attached when it was produced. {@link #flush()} waits until the events queued before it are rendered.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     private final Object lock = new Object();
+    private final Lock renderLock = new ReentrantLock();
+    private final Queue<OutputEvent> pendingEvents = new ConcurrentLinkedQueue<OutputEvent>();
     private final AtomicReference<LogLevel> logLevel = new AtomicReference<LogLevel>(LogLevel.LIFECYCLE);
     private final Clock clock;
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
@@ -103,6 +113,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     @Override
     public void restore(Snapshot state) {
         synchronized (lock) {
+            renderPendingEvents();
             SnapshotImpl snapshot = (SnapshotImpl) state;
             if (snapshot.logLevel != logLevel.get()) {
                 configure(snapshot.logLevel);
@@ -132,7 +143,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     @Override
     public void flush() {
-        onOutput(new FlushOutputEvent());
+        render(new FlushOutputEvent(), true);
     }
 
     public OutputStream getOriginalStdOut() {
@@ -145,6 +156,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
         synchronized (lock) {
+            renderPendingEvents();
             ConsoleConfigureAction.execute(this, consoleOutput);
         }
     }
@@ -152,6 +164,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
     @Override
     public void attachConsole(OutputStream outputStream, ConsoleOutput consoleOutput) {
         synchronized (lock) {
+            renderPendingEvents();
             if (consoleOutput == ConsoleOutput.Plain) {
                 addPlainConsole(new StreamBackedStandardOutputListener(outputStream));
             } else {
@@ -170,6 +183,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void addStandardOutputListener() {
         synchronized (lock) {
+            renderPendingEvents();
             originalStdOut = System.out;
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
@@ -181,6 +195,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private void addStandardErrorListener() {
         synchronized (lock) {
+            renderPendingEvents();
             originalStdErr = System.err;
             if (stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
@@ -260,6 +275,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
 
     private OutputEventRenderer addConsoleChain(OutputEventListener consoleChain, boolean stdout, boolean stderr) {
         synchronized (lock) {
+            renderPendingEvents();
             if (stdout && stderr) {
                 this.console = consoleChain;
                 removeStandardOutputListener();
@@ -341,7 +357,46 @@ public class OutputEventRenderer implements OutputEventListener, LoggingRouter {
             }
             this.logLevel.set(newLogLevel);
         }
-        synchronized (lock) {
+        render(event, false);
+    }
+
+    /**
+     * Queues the given event and renders the queued events, unless another thread is rendering them.
+     *
+     * @param wait Whether to wait for another thread that is rendering, so that the event has been rendered when this method returns.
+     */
+    private void render(OutputEvent event, boolean wait) {
+        pendingEvents.add(event);
+        if (Thread.holdsLock(lock)) {
+            // Already rendering or reconfiguring on this thread, so render now to keep the events ordered with the changes made under the lock
+            renderPendingEvents();
+            return;
+        }
+        // Another thread may queue an event after this thread has rendered the pending events and before it has released the render lock,
+        // so check again after releasing the lock
+        while (!pendingEvents.isEmpty()) {
+            if (wait) {
+                renderLock.lock();
+            } else if (!renderLock.tryLock()) {
+                // Some other thread is rendering and will render the queued events
+                return;
+            }
+            try {
+                synchronized (lock) {
+                    renderPendingEvents();
+                }
+            } finally {
+                renderLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Renders the queued events. Called while holding the lock, including before every change to the listeners.
+     */
+    private void renderPendingEvents() {
+        OutputEvent event;
+        while ((event = pendingEvents.poll()) != null) {
             formatters.getSource().onOutput(event);
         }
     }
@@ -161,6 +161,71 @@ class DefaultRedrawableLabelTest extends Specification{
         0 * ansi._
     }
 
+    def "setting the same label text between redraw won't rewrite the text to ansi"() {
+        given:
+        label.text = "text"
+
+        when:
+        redraw()
+        label.text = "text"
+        redraw()
+
+        then:
+        1 * ansi.a("text")
+        0 * ansi._
+    }
+
+    def "changing the end of the label text between redraw will only rewrite the changed text to ansi"() {
+        given:
+        label.text = "text 10%"
+
+        when:
+        redraw()
+        label.text = "text 20%"
+        redraw()
+
+        then:
+        1 * ansi.a("text 10%")
+        1 * ansi.cursorLeft(3)
+        1 * ansi.a("20%")
+        0 * ansi._
+    }
+
+    def "changing the last span of the styled label text between redraw will only rewrite the changed text to ansi"() {
+        given:
+        label.text = [new StyledTextOutputEvent.Span(StyledTextOutput.Style.Header, "> task"), new StyledTextOutputEvent.Span(" 10%")]
+
+        when:
+        redraw()
+        label.text = [new StyledTextOutputEvent.Span(StyledTextOutput.Style.Header, "> task"), new StyledTextOutputEvent.Span(" 20%")]
+        redraw()
+
+        then:
+        1 * ansi.a(Ansi.Attribute.INTENSITY_BOLD)
+        1 * ansi.a("> task")
+        1 * ansi.a(Ansi.Attribute.RESET)
+        1 * ansi.a(" 10%")
+        1 * ansi.cursorLeft(3)
+        1 * ansi.a("20%")
+        0 * ansi._
+    }
+
+    def "removing the end of the label text between redraw will only erase the removed characters"() {
+        given:
+        label.text = "text 100%"
+
+        when:
+        redraw()
+        label.text = "text 10"
+        redraw()
+
+        then:
+        1 * ansi.a("text 100%")
+        1 * ansi.cursorLeft(2)
+        1 * ansi.eraseLine(Ansi.Erase.FORWARD)
+        0 * ansi._
+    }
+
     def "changing the label text to a smaller string between redraw will erase the characters moving forward"() {
         given:
         label.text = "long text"
@@ -32,6 +32,9 @@ import org.gradle.util.RedirectStdOutAndErr
 import org.junit.Rule
 import spock.lang.Unroll
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class OutputEventRendererTest extends OutputSpecification {
     @Rule
     public final RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
@@ -409,6 +412,117 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut == ''
         outputs.stdErr == ''
     }
+
+    def "renders all events produced by concurrent threads in the order each thread produced them"() {
+        def received = []
+        renderer.addOutputEventListener({ e ->
+            if (e instanceof LogEvent) {
+                received << e.message
+            }
+        } as OutputEventListener)
+
+        when:
+        def threads = (1..8).collect { thread ->
+            Thread.start {
+                100.times { renderer.onOutput(event("${thread}-${it}", LogLevel.INFO)) }
+            }
+        }
+        threads*.join()
+        renderer.flush()
+
+        then:
+        received.size() == 800
+        (1..8).each { thread ->
+            assert received.findAll { it.startsWith("${thread}-") } == (0..<100).collect { "${thread}-${it}".toString() }
+        }
+    }
+
+    def "renders events produced by a listener while rendering"() {
+        def received = []
+        renderer.addOutputEventListener({ e ->
+            if (e instanceof LogEvent) {
+                received << e.message
+                if (e.message == 'outer') {
+                    renderer.onOutput(event('nested', LogLevel.INFO))
+                }
+            }
+        } as OutputEventListener)
+
+        when:
+        renderer.onOutput(event('outer', LogLevel.INFO))
+        renderer.onOutput(event('after', LogLevel.INFO))
+
+        then:
+        received == ['outer', 'nested', 'after']
+    }
+
+    def "flush waits for the events that another thread is rendering"() {
+        def received = [].asSynchronized()
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        renderer.addOutputEventListener({ e ->
+            if (e instanceof LogEvent) {
+                if (e.message == 'slow') {
+                    rendering.countDown()
+                    release.await()
+                }
+                received << e.message
+            }
+        } as OutputEventListener)
+
+        when:
+        def renderingThread = Thread.start { renderer.onOutput(event('slow', LogLevel.INFO)) }
+        rendering.await()
+        renderer.onOutput(event('queued', LogLevel.INFO))
+        def flushed = new CountDownLatch(1)
+        Thread.start {
+            renderer.flush()
+            flushed.countDown()
+        }
+
+        then:
+        !flushed.await(100, TimeUnit.MILLISECONDS)
+
+        when:
+        release.countDown()
+
+        then:
+        flushed.await(10, TimeUnit.SECONDS)
+        received == ['slow', 'queued']
+
+        cleanup:
+        release.countDown()
+        renderingThread?.join()
+    }
+
+    def "renders the events queued before a listener is removed to that listener"() {
+        def received = [].asSynchronized()
+        def rendering = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def listener = { e ->
+            if (e instanceof LogEvent) {
+                if (e.message == 'slow') {
+                    rendering.countDown()
+                    release.await()
+                }
+                received << e.message
+            }
+        } as OutputEventListener
+        renderer.addOutputEventListener(listener)
+
+        when:
+        def renderingThread = Thread.start { renderer.onOutput(event('slow', LogLevel.INFO)) }
+        rendering.await()
+        renderer.onOutput(event('queued', LogLevel.INFO))
+        def removingThread = Thread.start { renderer.removeOutputEventListener(listener) }
+        release.countDown()
+        removingThread.join()
+        renderer.onOutput(event('after', LogLevel.INFO))
+        renderingThread.join()
+
+        then:
+        received == ['slow', 'queued']
+    }
 }
 
 class TestListener implements StandardOutputListener {
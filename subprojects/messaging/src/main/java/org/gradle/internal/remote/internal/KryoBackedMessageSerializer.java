@@ -31,7 +31,7 @@ public class KryoBackedMessageSerializer implements MessageSerializer {
     }
 
     @Override
-    public FlushableEncoder newEncoder(OutputStream outputStream) {
-        return new KryoBackedEncoder(outputStream);
+    public FlushableEncoder newEncoder(OutputStream outputStream, int bufferSize) {
+        return new KryoBackedEncoder(outputStream, bufferSize);
     }
 }
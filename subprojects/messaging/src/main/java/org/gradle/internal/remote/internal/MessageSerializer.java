@@ -29,7 +29,8 @@ public interface MessageSerializer {
     Decoder newDecoder(InputStream inputStream);
 
     /**
-     * Creates an encoder that writes the given output stream. Note that the implementation may perform buffering.
+     * Creates an encoder that writes the given output stream. Note that the implementation may perform buffering, and may write content in chunks of up
+     * to the given buffer size.
      */
-    FlushableEncoder newEncoder(OutputStream outputStream);
+    FlushableEncoder newEncoder(OutputStream outputStream, int bufferSize);
 }
@@ -40,6 +40,7 @@ import java.nio.channels.SocketChannel;
 
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
+    private static final int BUFFER_SIZE = 32 * 1024;
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -65,7 +66,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
         remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
         objectReader = messageSerializer.newReader(streamSerializer.newDecoder(instr));
-        encoder = streamSerializer.newEncoder(outstr);
+        encoder = streamSerializer.newEncoder(outstr, BUFFER_SIZE);
         objectWriter = messageSerializer.newWriter(encoder);
     }
 
@@ -154,7 +155,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -164,7 +165,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             if (nread <= 0) {
                 return nread;
             }
-            return readBuffer[0];
+            return readBuffer[0] & 0xff;
         }
 
         @Override
@@ -174,29 +175,19 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
-                    return -1;
-                }
-
-                buffer.clear();
-                int nread;
-                try {
-                    nread = socket.read(buffer);
-                } catch (IOException e) {
-                    if (isEndOfStream(e)) {
-                        buffer.position(0);
-                        buffer.limit(0);
+                // Messages usually arrive in batches, so try to read before waiting on the selector
+                int nread = readIntoBuffer();
+                while (nread == 0) {
+                    try {
+                        selector.select();
+                    } catch (ClosedSelectorException e) {
                         return -1;
                     }
-                    throw e;
+                    if (!selector.isOpen()) {
+                        return -1;
+                    }
+                    nread = readIntoBuffer();
                 }
-                buffer.flip();
-
                 if (nread < 0) {
                     return -1;
                 }
@@ -207,6 +198,23 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             return count;
         }
 
+        private int readIntoBuffer() throws IOException {
+            buffer.clear();
+            int nread;
+            try {
+                nread = socket.read(buffer);
+            } catch (IOException e) {
+                if (isEndOfStream(e)) {
+                    buffer.position(0);
+                    buffer.limit(0);
+                    return -1;
+                }
+                throw e;
+            }
+            buffer.flip();
+            return nread;
+        }
+
         @Override
         public void close() throws IOException {
             selector.close();
@@ -222,7 +230,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         }
 
         @Override
@@ -233,6 +241,11 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         @Override
         public void write(byte[] src, int offset, int max) throws IOException {
+            if (buffer.position() == 0 && max >= buffer.capacity()) {
+                // Nothing is pending, so write a full chunk straight to the channel rather than copying it through the buffer
+                writeToChannel(ByteBuffer.wrap(src, offset, max));
+                return;
+            }
             int remaining = max;
             int currentPos = offset;
             while (remaining > 0) {
@@ -257,7 +270,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         private void writeBufferToChannel() throws IOException {
             buffer.flip();
-            int count = writeWithNonBlockingRetry();
+            int count = writeWithNonBlockingRetry(buffer);
             if (count == 0) {
                 // buffer was still full after non-blocking retries, now block
                 waitForWriteBufferToDrain();
@@ -265,7 +278,16 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             buffer.compact();
         }
 
-        private int writeWithNonBlockingRetry() throws IOException {
+        private void writeToChannel(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                int count = writeWithNonBlockingRetry(src);
+                if (count == 0) {
+                    waitForWriteBufferToDrain();
+                }
+            }
+        }
+
+        private int writeWithNonBlockingRetry(ByteBuffer buffer) throws IOException {
             int count = 0;
             int retryCount = 0;
             while (count == 0 && retryCount++ < RETRIES_WHEN_BUFFER_FULL) {
@@ -223,6 +223,31 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can send many small and large messages to peer"() {
+        def large = "x" * (128 * 1024)
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            1000.times { connection.dispatch("message " + it) }
+            connection.dispatch(large)
+            connection.dispatch("done")
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+
+        then:
+        1000.times { assert connection.receive() == "message " + it }
+        connection.receive() == large
+        connection.receive() == "done"
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
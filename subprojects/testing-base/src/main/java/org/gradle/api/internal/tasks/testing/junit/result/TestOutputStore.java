@@ -18,23 +18,34 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
-import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Stores the output of tests. The output file holds the encoded messages only. Consecutive messages of the same test and destination form a region,
+ * and the index file holds the regions of each test and destination, so that the output of a test can be read without reading the output of other tests.
+ */
 public class TestOutputStore {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final File resultsDir;
     private final Charset messageStorageCharset;
+    private Map<Long, Map<Long, TestCaseRegion>> index;
 
     public TestOutputStore(File resultsDir) {
         this.resultsDir = resultsDir;
@@ -49,34 +60,76 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
-    private static class Region {
-        long start;
-        long stop;
+    /**
+     * The start and stop positions of regions in the output file, in ascending order.
+     */
+    private static class Regions {
+        private static final long[] EMPTY = new long[0];
+
+        long[] bounds = EMPTY;
+        int size;
+
+        void add(long start, long stop) {
+            if (size > 0 && bounds[size - 1] == start) {
+                // Extend the previous region
+                bounds[size - 1] = stop;
+                return;
+            }
+            if (size == bounds.length) {
+                bounds = Arrays.copyOf(bounds, Math.max(4, size * 2));
+            }
+            bounds[size++] = start;
+            bounds[size++] = stop;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
 
-        private Region() {
-            start = -1;
-            stop = -1;
+        void write(Output output) {
+            output.writeInt(size / 2, true);
+            long previousStop = 0;
+            for (int i = 0; i < size; i += 2) {
+                output.writeLong(bounds[i] - previousStop, true);
+                output.writeLong(bounds[i + 1] - bounds[i], true);
+                previousStop = bounds[i + 1];
+            }
         }
 
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        static Regions read(Input input) {
+            Regions regions = new Regions();
+            int count = input.readInt(true);
+            regions.bounds = count == 0 ? EMPTY : new long[count * 2];
+            long previousStop = 0;
+            for (int i = 0; i < count; i++) {
+                long start = previousStop + input.readLong(true);
+                long stop = start + input.readLong(true);
+                regions.bounds[regions.size++] = start;
+                regions.bounds[regions.size++] = stop;
+                previousStop = stop;
+            }
+            return regions;
         }
     }
 
     private static class TestCaseRegion {
-        Region stdOutRegion = new Region();
-        Region stdErrRegion = new Region();
+        Regions stdOutRegions = new Regions();
+        Regions stdErrRegions = new Regions();
+
+        Regions get(TestOutputEvent.Destination destination) {
+            return destination == TestOutputEvent.Destination.StdOut ? stdOutRegions : stdErrRegions;
+        }
     }
 
     public class Writer implements Closeable {
-        private final KryoBackedEncoder output;
+        private final OutputStream output;
+        private long position;
 
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
         public Writer() {
             try {
-                output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
+                output = new BufferedOutputStream(new FileOutputStream(getOutputsFile()), BUFFER_SIZE);
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
@@ -84,8 +137,15 @@ public class TestOutputStore {
 
         @Override
         public void close() {
-            output.close();
+            try {
+                output.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
             writeIndex();
+            synchronized (TestOutputStore.this) {
+                TestOutputStore.this.index = null;
+            }
         }
 
         public void onOutput(long classId, TestOutputEvent outputEvent) {
@@ -93,43 +153,37 @@ public class TestOutputStore {
         }
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
-            boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
-
-            output.writeBoolean(stdout);
-            output.writeSmallLong(classId);
-            output.writeSmallLong(testId);
-
             byte[] bytes;
             try {
                 bytes = outputEvent.getMessage().getBytes(messageStorageCharset.name());
             } catch (UnsupportedEncodingException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
-            output.writeSmallInt(bytes.length);
-            output.writeBytes(bytes, 0, bytes.length);
-        }
-
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
+            try {
+                output.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
 
+            long start = position;
+            position += bytes.length;
+            mark(classId, testId, outputEvent.getDestination(), start, position);
+        }
+
+        private void mark(long classId, long testId, TestOutputEvent.Destination destination, long start, long stop) {
             Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            if (testCaseRegions == null) {
+                testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+                index.put(classId, testCaseRegions);
             }
 
             TestCaseRegion region = testCaseRegions.get(testId);
-
-            Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
+            if (region == null) {
+                region = new TestCaseRegion();
+                testCaseRegions.put(testId, region);
             }
-            streamRegion.stop = total;
+
+            region.get(destination).add(start, stop);
         }
 
         private void writeIndex() {
@@ -140,7 +194,6 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
                 indexOutput.writeInt(index.size(), true);
 
@@ -155,10 +208,8 @@ public class TestOutputStore {
                         long id = testCaseEntry.getKey();
                         TestCaseRegion region = testCaseEntry.getValue();
                         indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                        region.stdOutRegions.write(indexOutput);
+                        region.stdErrRegions.write(indexOutput);
                     }
                 }
             } finally {
@@ -171,55 +222,53 @@ public class TestOutputStore {
         return new Writer();
     }
 
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+    /**
+     * The index is only read once, and shared by the readers of all threads generating reports.
+     */
+    private synchronized Map<Long, Map<Long, TestCaseRegion>> getIndex() {
+        if (index != null) {
+            return index;
         }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        Input input;
+        try {
+            input = new Input(new FileInputStream(getIndexFile()));
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
         }
-    }
 
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
+        Map<Long, Map<Long, TestCaseRegion>> loaded = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        try {
+            int numClasses = input.readInt(true);
+            for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
+                long classId = input.readLong(true);
+                Map<Long, TestCaseRegion> testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+
+                int numEntries = input.readInt(true);
+                for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
+                    long testId = input.readLong(true);
+                    TestCaseRegion region = new TestCaseRegion();
+                    region.stdOutRegions = Regions.read(input);
+                    region.stdErrRegions = Regions.read(input);
+                    testCaseRegions.put(testId, region);
+                }
 
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
+                loaded.put(classId, testCaseRegions);
             }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
-            children.put(key, index);
+        } finally {
+            input.close();
         }
 
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
-        }
+        index = loaded;
+        return loaded;
     }
 
     public class Reader implements Closeable {
-        private final Index index;
+        private final Map<Long, Map<Long, TestCaseRegion>> index;
         private final RandomAccessFile dataFile;
+        private ByteBuffer bytes;
+        private CharBuffer chars;
+        private CharsetDecoder decoder;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,37 +279,7 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
-                try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
-                    }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
+                index = getIndex();
 
                 try {
                     dataFile = new RandomAccessFile(getOutputsFile(), "r");
@@ -289,98 +308,133 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
+            Map<Long, TestCaseRegion> classIndex = index.get(classId);
             if (classIndex == null) {
                 return false;
-            } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
             }
+            for (TestCaseRegion region : classIndex.values()) {
+                if (!region.get(destination).isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         public void writeAllOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, 0, true, destination, writer);
+            if (dataFile == null) {
+                return;
+            }
+
+            Map<Long, TestCaseRegion> classIndex = index.get(classId);
+            if (classIndex == null) {
+                return;
+            }
+
+            // Merge the regions of all tests of the class, so that the output is written in the order it was produced in
+            Regions allRegions = new Regions();
+            for (TestCaseRegion region : classIndex.values()) {
+                Regions regions = region.get(destination);
+                for (int i = 0; i < regions.size; i += 2) {
+                    allRegions.add(regions.bounds[i], regions.bounds[i + 1]);
+                }
+            }
+            sortRegions(allRegions);
+            copyRegions(allRegions, writer);
         }
 
         public void writeNonTestOutput(long classId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, 0, false, destination, writer);
+            writeTestOutput(classId, 0, destination, writer);
         }
 
         public void writeTestOutput(long classId, long testId, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            doRead(classId, testId, false, destination, writer);
-        }
-
-        private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
             if (dataFile == null) {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
+            Map<Long, TestCaseRegion> classIndex = index.get(classId);
+            if (classIndex == null) {
+                return;
             }
-
-            if (targetIndex == null) {
+            TestCaseRegion region = classIndex.get(testId);
+            if (region == null) {
                 return;
             }
+            copyRegions(region.get(destination), writer);
+        }
 
-            boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
+        private void sortRegions(Regions regions) {
+            int count = regions.size / 2;
+            long[][] pairs = new long[count][];
+            for (int i = 0; i < count; i++) {
+                pairs[i] = new long[]{regions.bounds[2 * i], regions.bounds[2 * i + 1]};
+            }
+            Arrays.sort(pairs, new Comparator<long[]>() {
+                @Override
+                public int compare(long[] o1, long[] o2) {
+                    return o1[0] < o2[0] ? -1 : (o1[0] == o2[0] ? 0 : 1);
+                }
+            });
+            for (int i = 0; i < count; i++) {
+                regions.bounds[2 * i] = pairs[i][0];
+                regions.bounds[2 * i + 1] = pairs[i][1];
+            }
+        }
 
-            if (region.start < 0) {
+        /**
+         * Decodes the given regions of the output file straight into the writer, without creating a String for each message.
+         */
+        private void copyRegions(Regions regions, java.io.Writer writer) {
+            if (regions.isEmpty()) {
                 return;
             }
-
-            boolean ignoreClassLevel = !allClassOutput && testId != 0;
-            boolean ignoreTestLevel = !allClassOutput && testId == 0;
+            if (bytes == null) {
+                bytes = ByteBuffer.allocate(BUFFER_SIZE);
+                chars = CharBuffer.allocate(BUFFER_SIZE);
+                decoder = messageStorageCharset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
-
-                    boolean isClassLevel = readTestId == 0;
-
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
-
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
+                FileChannel channel = dataFile.getChannel();
+                for (int i = 0; i < regions.size; i += 2) {
+                    long position = regions.bounds[i];
+                    long stop = regions.bounds[i + 1];
+                    if (position == stop) {
                         continue;
                     }
-
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
+                    decoder.reset();
+                    bytes.clear();
+                    while (position < stop) {
+                        bytes.limit(bytes.position() + (int) Math.min(bytes.remaining(), stop - position));
+                        int read = channel.read(bytes, position);
+                        if (read < 0) {
+                            throw new EOFException(String.format("Unexpected end of test outputs data file '%s'.", getOutputsFile()));
                         }
-
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
+                        position += read;
+                        bytes.flip();
+                        decode(writer, position == stop);
+                        bytes.compact();
                     }
+                    decoder.flush(chars);
+                    writeChars(writer);
                 }
-            } catch (IOException e1) {
-                throw new UncheckedIOException(e1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
+
+        private void decode(java.io.Writer writer, boolean endOfInput) throws IOException {
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                writeChars(writer);
+            } while (result.isOverflow());
+        }
+
+        private void writeChars(java.io.Writer writer) throws IOException {
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
     }
 
     // IMPORTANT: return must be closed when done with.
@@ -16,14 +16,19 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
 import org.gradle.api.tasks.testing.*;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.serialize.PlaceholderException;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Collects the test results into memory and spools the test output to file during execution (to avoid holding it all in memory).
@@ -40,6 +45,59 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
         this.outputWriter = outputWriter;
     }
 
+    /**
+     * Adds the results and output of the given test classes from the binary results of a previous execution. The results are given new ids.
+     */
+    public void addPreviousResults(File previousResultsDir, final Set<String> classNames) {
+        final TestOutputStore.Reader previousOutput = new TestOutputStore(previousResultsDir).reader();
+        try {
+            new TestResultSerializer(previousResultsDir).read(new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult previousClassResult) {
+                    if (classNames.contains(previousClassResult.getClassName())) {
+                        addPreviousResult(previousClassResult, previousOutput);
+                    }
+                }
+            });
+        } finally {
+            CompositeStoppable.stoppable(previousOutput).stop();
+        }
+    }
+
+    private void addPreviousResult(TestClassResult previousClassResult, TestOutputStore.Reader previousOutput) {
+        TestClassResult classResult = new TestClassResult(internalIdCounter++, previousClassResult.getClassName(), previousClassResult.getClassDisplayName(), previousClassResult.getStartTime());
+        copyOutput(previousOutput, previousClassResult.getId(), 0, classResult.getId(), 0);
+        for (TestMethodResult previousMethodResult : previousClassResult.getResults()) {
+            TestMethodResult methodResult = new TestMethodResult(internalIdCounter++, previousMethodResult.getName(), previousMethodResult.getDisplayName(), previousMethodResult.getResultType(), previousMethodResult.getDuration(), previousMethodResult.getEndTime());
+            for (TestFailure failure : previousMethodResult.getFailures()) {
+                methodResult.addFailure(failure.getMessage(), failure.getStackTrace(), failure.getExceptionType());
+            }
+            copyOutput(previousOutput, previousClassResult.getId(), previousMethodResult.getId(), classResult.getId(), methodResult.getId());
+            classResult.add(methodResult);
+        }
+        results.put(classResult.getClassName(), classResult);
+    }
+
+    private void copyOutput(TestOutputStore.Reader previousOutput, long previousClassId, long previousTestId, long classId, long testId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter output = new StringWriter();
+            if (previousTestId == 0) {
+                previousOutput.writeNonTestOutput(previousClassId, destination, output);
+            } else {
+                previousOutput.writeTestOutput(previousClassId, previousTestId, destination, output);
+            }
+            if (output.getBuffer().length() == 0) {
+                continue;
+            }
+            TestOutputEvent outputEvent = new DefaultTestOutputEvent(destination, output.toString());
+            if (testId == 0) {
+                outputWriter.onOutput(classId, outputEvent);
+            } else {
+                outputWriter.onOutput(classId, testId, outputEvent);
+            }
+        }
+    }
+
     @Override
     public void beforeSuite(TestDescriptor suite) {
     }
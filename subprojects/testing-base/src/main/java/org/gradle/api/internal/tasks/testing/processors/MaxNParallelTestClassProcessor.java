@@ -26,17 +26,25 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.dispatch.DispatchException;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. By default, uses a simple round-robin algorithm to assign test classes to
+ * processors. When created to pull test classes, test classes are instead queued and each processor is given the next
+ * test class as soon as it has accepted the previous one, so that processors that accept test classes only when ready
+ * to run them share the work evenly.
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final boolean pullTestClasses;
+    private final Object pendingLock = new Object();
+    private final Deque<TestClassRunInfo> pendingTestClasses = new ArrayDeque<TestClassRunInfo>();
+    private final Deque<PullingTestClassProcessor> idleProcessors = new ArrayDeque<PullingTestClassProcessor>();
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
@@ -46,9 +54,14 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private volatile boolean stoppedNow;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, false);
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, boolean pullTestClasses) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.pullTestClasses = pullTestClasses;
     }
 
     @Override
@@ -68,11 +81,24 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         if (processors.size() < maxProcessors) {
             processor = factory.create();
             rawProcessors.add(processor);
-            Actor actor = actorFactory.createActor(processor);
+            PullingTestClassProcessor pullingProcessor = pullTestClasses ? new PullingTestClassProcessor(processor) : null;
+            Actor actor = actorFactory.createActor(pullingProcessor != null ? pullingProcessor : processor);
             processor = actor.getProxy(TestClassProcessor.class);
+            if (pullingProcessor != null) {
+                pullingProcessor.asyncProcessor = processor;
+            }
             actors.add(actor);
             processors.add(processor);
             processor.startProcessing(resultProcessor);
+        } else if (pullTestClasses) {
+            synchronized (pendingLock) {
+                PullingTestClassProcessor idleProcessor = idleProcessors.poll();
+                if (idleProcessor == null) {
+                    pendingTestClasses.add(testClass);
+                    return;
+                }
+                processor = idleProcessor.asyncProcessor;
+            }
         } else {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
@@ -80,8 +106,37 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         processor.processTestClass(testClass);
     }
 
+    /**
+     * Called from the thread of the given processor once it has accepted a test class. Gives it the next pending test class, if any.
+     */
+    private void testClassAccepted(PullingTestClassProcessor processor) {
+        TestClassRunInfo next;
+        synchronized (pendingLock) {
+            next = stoppedNow ? null : pendingTestClasses.poll();
+            if (next == null) {
+                idleProcessors.add(processor);
+                pendingLock.notifyAll();
+                return;
+            }
+        }
+        processor.asyncProcessor.processTestClass(next);
+    }
+
+    private void awaitPendingTestClasses() {
+        synchronized (pendingLock) {
+            while (!pendingTestClasses.isEmpty() && !stoppedNow) {
+                try {
+                    pendingLock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        }
+    }
+
     @Override
     public void stop() {
+        awaitPendingTestClasses();
         try {
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
@@ -92,8 +147,45 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     @Override
     public void stopNow() {
         stoppedNow = true;
+        synchronized (pendingLock) {
+            pendingTestClasses.clear();
+            pendingLock.notifyAll();
+        }
         for (TestClassProcessor processor : rawProcessors) {
             processor.stopNow();
         }
     }
+
+    private class PullingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor delegate;
+        private volatile TestClassProcessor asyncProcessor;
+
+        PullingTestClassProcessor(TestClassProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            delegate.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            try {
+                delegate.processTestClass(testClass);
+            } finally {
+                testClassAccepted(this);
+            }
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+
+        @Override
+        public void stopNow() {
+            delegate.stopNow();
+        }
+    }
 }
@@ -20,21 +20,40 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * In order to speed up the development feedback cycle, this class guarantee previous failed test classes
- * to be passed to its delegate first.
+ * In order to speed up the development feedback cycle, this class passes the test classes that are the most likely to fail to its delegate first.
+ * Previous failed test classes are passed first, followed by the test classes closest to the classes that changed since the previous execution, and then by
+ * the test classes that failed most often in the recent executions. The other test classes keep their order.
  */
 public class RunPreviousFailedFirstTestClassProcessor implements TestClassProcessor {
     private final Set<String> previousFailedTestClasses;
+    private final Map<String, Integer> changeDistances;
+    private final Map<String, Double> failureRates;
     private final TestClassProcessor delegate;
-    private final LinkedHashSet<TestClassRunInfo> prioritizedTestClasses = new LinkedHashSet<TestClassRunInfo>();
-    private final LinkedHashSet<TestClassRunInfo> otherTestClasses = new LinkedHashSet<TestClassRunInfo>();
+    private final LinkedHashSet<TestClassRunInfo> testClasses = new LinkedHashSet<TestClassRunInfo>();
+    private volatile boolean stoppedNow;
 
     public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, TestClassProcessor delegate) {
+        this(previousFailedTestClasses, Collections.<String, Integer>emptyMap(), Collections.<String, Double>emptyMap(), delegate);
+    }
+
+    /**
+     * @param previousFailedTestClasses The test classes that failed in the previous execution.
+     * @param changeDistances The distance of the test classes affected by changes to the closest changed class.
+     * @param failureRates The proportion of the recent executions of the test classes that failed.
+     */
+    public RunPreviousFailedFirstTestClassProcessor(Set<String> previousFailedTestClasses, Map<String, Integer> changeDistances, Map<String, Double> failureRates, TestClassProcessor delegate) {
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.changeDistances = changeDistances;
+        this.failureRates = failureRates;
         this.delegate = delegate;
     }
 
@@ -45,19 +64,32 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
-        if (previousFailedTestClasses.contains(testClass.getTestClassName())) {
-            prioritizedTestClasses.add(testClass);
-        } else {
-            otherTestClasses.add(testClass);
-        }
+        testClasses.add(testClass);
     }
 
     @Override
     public void stop() {
+        List<TestClassRunInfo> prioritizedTestClasses = new ArrayList<TestClassRunInfo>(testClasses);
+        // The sort is stable, so test classes with the same priority keep their order
+        Collections.sort(prioritizedTestClasses, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo left, TestClassRunInfo right) {
+                String leftClass = left.getTestClassName();
+                String rightClass = right.getTestClassName();
+                int result = compareFlags(previousFailedTestClasses.contains(rightClass), previousFailedTestClasses.contains(leftClass));
+                if (result == 0) {
+                    result = compareInts(changeDistance(leftClass), changeDistance(rightClass));
+                }
+                if (result == 0) {
+                    result = Double.compare(failureRate(rightClass), failureRate(leftClass));
+                }
+                return result;
+            }
+        });
         for (TestClassRunInfo test : prioritizedTestClasses) {
-            delegate.processTestClass(test);
-        }
-        for (TestClassRunInfo test : otherTestClasses) {
+            if (stoppedNow) {
+                break;
+            }
             delegate.processTestClass(test);
         }
         delegate.stop();
@@ -65,6 +97,25 @@ public class RunPreviousFailedFirstTestClassProcessor implements TestClassProces
 
     @Override
     public void stopNow() {
+        stoppedNow = true;
         delegate.stopNow();
     }
+
+    private int changeDistance(String testClass) {
+        Integer distance = changeDistances.get(testClass);
+        return distance == null ? Integer.MAX_VALUE : distance;
+    }
+
+    private double failureRate(String testClass) {
+        Double failureRate = failureRates.get(testClass);
+        return failureRate == null ? 0 : failureRate;
+    }
+
+    private static int compareFlags(boolean left, boolean right) {
+        return left == right ? 0 : (left ? 1 : -1);
+    }
+
+    private static int compareInts(int left, int right) {
+        return left < right ? -1 : (left == right ? 0 : 1);
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Passes only the test classes of one shard to its delegate, longest first.
+ *
+ * <p>Test classes are assigned to shards so that their previous durations add up to roughly the same total in each shard.
+ * Test classes without a previous duration are assumed to take the average duration of the others. The assignment only
+ * depends on the names of the test classes and their previous durations, so shards computed separately from the same
+ * test classes and durations do not overlap.</p>
+ */
+public class ShardingTestClassProcessor implements TestClassProcessor {
+    private final int shardIndex;
+    private final int shardCount;
+    private final Map<String, Long> previousDurations;
+    private final TestClassProcessor delegate;
+    private final Map<String, TestClassRunInfo> testClasses = new TreeMap<String, TestClassRunInfo>();
+
+    public ShardingTestClassProcessor(int shardIndex, int shardCount, Map<String, Long> previousDurations, TestClassProcessor delegate) {
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.previousDurations = previousDurations;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        delegate.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (!testClasses.containsKey(testClass.getTestClassName())) {
+            testClasses.put(testClass.getTestClassName(), testClass);
+        }
+    }
+
+    @Override
+    public void stop() {
+        for (TestClassRunInfo testClass : selectShard()) {
+            delegate.processTestClass(testClass);
+        }
+        delegate.stop();
+    }
+
+    @Override
+    public void stopNow() {
+        delegate.stopNow();
+    }
+
+    private List<TestClassRunInfo> selectShard() {
+        final Map<String, Long> durations = estimateDurations();
+        List<String> classNames = new ArrayList<String>(testClasses.keySet());
+        Collections.sort(classNames, new Comparator<String>() {
+            @Override
+            public int compare(String left, String right) {
+                int result = durations.get(right).compareTo(durations.get(left));
+                return result != 0 ? result : left.compareTo(right);
+            }
+        });
+
+        // Assign each test class, longest first, to the shard with the lowest total so far
+        long[] totals = new long[shardCount];
+        List<TestClassRunInfo> selected = new ArrayList<TestClassRunInfo>();
+        for (String className : classNames) {
+            int shard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (totals[i] < totals[shard]) {
+                    shard = i;
+                }
+            }
+            totals[shard] += durations.get(className);
+            if (shard == shardIndex) {
+                selected.add(testClasses.get(className));
+            }
+        }
+        return selected;
+    }
+
+    private Map<String, Long> estimateDurations() {
+        long knownTotal = 0;
+        int knownCount = 0;
+        for (String className : testClasses.keySet()) {
+            Long duration = previousDurations.get(className);
+            if (duration != null) {
+                knownTotal += duration;
+                knownCount++;
+            }
+        }
+        long defaultDuration = knownCount == 0 ? 1 : knownTotal / knownCount;
+
+        Map<String, Long> durations = new TreeMap<String, Long>();
+        for (String className : testClasses.keySet()) {
+            Long duration = previousDurations.get(className);
+            // Count every test class, so that fast test classes are spread over the shards as well
+            durations.put(className, Math.max(1, duration != null ? duration : defaultDuration));
+        }
+        return durations;
+    }
+}
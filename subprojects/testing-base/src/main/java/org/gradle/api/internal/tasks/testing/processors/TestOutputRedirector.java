@@ -53,26 +53,38 @@ class TestOutputRedirector {
         if (System.err != null) {
             System.err.flush();
         }
-        outForwarder.outputOwner = testId;
-        errForwarder.outputOwner = testId;
+        outForwarder.setOutputOwner(testId);
+        errForwarder.setOutputOwner(testId);
     }
 
     static class Forwarder implements StandardOutputListener {
         final TestResultProcessor processor;
         final TestOutputEvent.Destination dest;
-        Object outputOwner;
+        // The owner of the output of threads that have not started a test themselves, such as threads started by a test
+        volatile Object outputOwner;
+        // Tests that run concurrently each own the output of the thread that started them
+        final ThreadLocal<Object> threadOutputOwner = new ThreadLocal<Object>();
 
         public Forwarder(TestResultProcessor processor, TestOutputEvent.Destination dest) {
             this.processor = processor;
             this.dest = dest;
         }
 
+        void setOutputOwner(Object testId) {
+            threadOutputOwner.set(testId);
+            outputOwner = testId;
+        }
+
         @Override
         public void onOutput(CharSequence output) {
-            if (outputOwner == null) {
+            Object owner = threadOutputOwner.get();
+            if (owner == null) {
+                owner = outputOwner;
+            }
+            if (owner == null) {
                 throw new RuntimeException("Unable send output event from test executor. Please report this problem. Destination: " + dest + ", event: " + output.toString());
             }
-            processor.output(outputOwner, new DefaultTestOutputEvent(dest, output.toString()));
+            processor.output(owner, new DefaultTestOutputEvent(dest, output.toString()));
         }
     }
 }
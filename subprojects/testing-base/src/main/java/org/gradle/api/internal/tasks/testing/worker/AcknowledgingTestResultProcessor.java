@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+/**
+ * The build side of a {@link FlowControlledTestResultProcessor}. Tells the test worker once the output it sent has been processed.
+ */
+public class AcknowledgingTestResultProcessor implements TestResultProcessor {
+    private final TestResultProcessor delegate;
+    private final RemoteTestOutputFlowControl flowControl;
+
+    public AcknowledgingTestResultProcessor(TestResultProcessor delegate, RemoteTestOutputFlowControl flowControl) {
+        this.delegate = delegate;
+        this.flowControl = flowControl;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        delegate.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        delegate.completed(testId, event);
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        try {
+            delegate.output(testId, event);
+        } finally {
+            flowControl.outputProcessed(event.getMessage().length());
+        }
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        delegate.failure(testId, result);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.concurrent.ManagedScheduledExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the test events of a test worker to the build process, combining consecutive output of a test into fewer events.
+ * <p>
+ * Stops the tests that write output when the build process has not yet processed {@link #MAX_UNPROCESSED_OUTPUT_LENGTH} characters of the output
+ * already sent, so that tests that write a lot of output do not fill up the memory of the build process faster than it can process the output.
+ */
+public class FlowControlledTestResultProcessor implements TestResultProcessor, RemoteTestOutputFlowControl, Stoppable {
+    static final int MAX_BATCH_LENGTH = 8 * 1024;
+    static final int MAX_UNPROCESSED_OUTPUT_LENGTH = 1024 * 1024;
+    static final long FLUSH_PERIOD_MILLIS = 100;
+    /**
+     * Sends the output anyway when the build process has not processed any output within this time, so that the tests do not hang when the
+     * build process stops responding.
+     */
+    private static final long MAX_PROCESSED_WAIT_SECONDS = 60;
+
+    private final TestResultProcessor delegate;
+    private final ManagedScheduledExecutor executor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition outputProcessed = lock.newCondition();
+    private Object pendingTestId;
+    private TestOutputEvent.Destination pendingDestination;
+    private final StringBuilder pendingOutput = new StringBuilder();
+    private long unprocessedOutputLength;
+
+    public FlowControlledTestResultProcessor(TestResultProcessor delegate, ManagedScheduledExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                flushIfPossible();
+            }
+        }, FLUSH_PERIOD_MILLIS, FLUSH_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        lock.lock();
+        try {
+            flush();
+            delegate.started(test, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        lock.lock();
+        try {
+            flush();
+            delegate.completed(testId, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        lock.lock();
+        try {
+            if (pendingOutput.length() > 0 && (!testId.equals(pendingTestId) || event.getDestination() != pendingDestination)) {
+                flush();
+            }
+            pendingTestId = testId;
+            pendingDestination = event.getDestination();
+            pendingOutput.append(event.getMessage());
+            if (pendingOutput.length() >= MAX_BATCH_LENGTH) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        lock.lock();
+        try {
+            flush();
+            delegate.failure(testId, result);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void outputProcessed(int length) {
+        lock.lock();
+        try {
+            unprocessedOutputLength -= length;
+            outputProcessed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the pending output without waiting for the build process to catch up, as the tests do not write output once the worker is stopped.
+     */
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            sendPendingOutput();
+        } finally {
+            lock.unlock();
+        }
+        executor.stop();
+    }
+
+    /**
+     * Sends the pending output, so that the output of a test that is still running shows up in the build process.
+     * Does not block the flushing thread when the build process has not caught up, instead the output is sent by the next test event.
+     */
+    private void flushIfPossible() {
+        lock.lock();
+        try {
+            if (unprocessedOutputLength < MAX_UNPROCESSED_OUTPUT_LENGTH) {
+                sendPendingOutput();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        if (pendingOutput.length() == 0) {
+            return;
+        }
+        try {
+            while (unprocessedOutputLength >= MAX_UNPROCESSED_OUTPUT_LENGTH) {
+                if (!outputProcessed.await(MAX_PROCESSED_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Output is written by the tests, which may be interrupted, so keep the interrupted status and send the output anyway
+            Thread.currentThread().interrupt();
+        }
+        sendPendingOutput();
+    }
+
+    private void sendPendingOutput() {
+        if (pendingOutput.length() == 0) {
+            return;
+        }
+        String message = pendingOutput.toString();
+        pendingOutput.setLength(0);
+        unprocessedOutputLength += message.length();
+        delegate.output(pendingTestId, new DefaultTestOutputEvent(pendingDestination, message));
+    }
+}
@@ -24,22 +24,41 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ForkingTestClassProcessor implements TestClassProcessor {
+    /**
+     * The number of test classes sent to the worker that it has not yet started processing. Further test classes are only sent when the worker
+     * requests them, so that test classes are not queued up in a worker while other workers are idle.
+     */
+    private static final int MAX_QUEUED_TEST_CLASSES = 1;
+
     private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
@@ -47,15 +66,27 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final ReusableTestWorkerClientsManager reusableWorkers;
     private final Lock lock = new ReentrantLock();
+    private final Condition testClassRequested = lock.newCondition();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private ReusableTestWorkerClient reusableWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
+    private boolean workerDisconnected;
+    private int unprocessedTestClasses;
 
     public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+        this(parentWorkerLease, workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, documentationRegistry, null);
+    }
+
+    /**
+     * @param reusableWorkers The idle workers to take the worker from and to return it to once the tests have been executed, or null to start a new worker that is stopped once the tests have been executed.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable ReusableTestWorkerClientsManager reusableWorkers) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -64,6 +95,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.reusableWorkers = reusableWorkers;
     }
 
     @Override
@@ -82,15 +114,57 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor == null) {
                 completion = currentWorkerLease.startChild();
                 JULRedirector.checkDeprecatedProperty(options);
-                remoteProcessor = forkProcess();
+                remoteProcessor = reusableWorkers == null ? forkProcess() : reserveReusableWorker();
             }
 
+            awaitTestClassRequest();
+            if (stoppedNow || workerDisconnected) {
+                // A worker that exited early is reported as failed when this processor stops
+                return;
+            }
+            unprocessedTestClasses++;
             remoteProcessor.processTestClass(testClass);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Blocks while the worker has a test class in progress and {@link #MAX_QUEUED_TEST_CLASSES} waiting, and is still connected.
+     * A test class can run for any amount of time, so there is no timeout.
+     */
+    private void awaitTestClassRequest() {
+        try {
+            while (unprocessedTestClasses > MAX_QUEUED_TEST_CLASSES && !stoppedNow && !workerDisconnected) {
+                testClassRequested.await();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void testClassProcessed() {
+        lock.lock();
+        try {
+            if (unprocessedTestClasses > 0) {
+                unprocessedTestClasses--;
+            }
+            testClassRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void workerDisconnected() {
+        lock.lock();
+        try {
+            workerDisconnected = true;
+            testClassRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     RemoteTestClassProcessor forkProcess() {
         WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
         builder.setBaseName("Gradle Test Executor");
@@ -105,14 +179,86 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(TestResultProcessor.class, new AcknowledgingTestResultProcessor(resultProcessor, connection.addOutgoing(RemoteTestOutputFlowControl.class)));
+        connection.addIncoming(RemoteTestClassRequester.class, new TestClassRequester());
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
         return remoteProcessor;
     }
 
+    /**
+     * Takes an idle worker started with the same options, or starts a new one, and starts a session for the tests of this processor.
+     */
+    RemoteTestClassProcessor reserveReusableWorker() {
+        WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(getReusableTestWorkerImplementationClasspath());
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+
+        List<Object> key = getReusableWorkerKey(builder);
+        reusableWorker = reusableWorkers.reserveIdleClient(key);
+        if (reusableWorker == null) {
+            WorkerProcess workerProcess = builder.build();
+            workerProcess.start();
+            reusableWorker = new ReusableTestWorkerClient(key, workerProcess);
+        }
+
+        TestWorkerSessionSpec sessionSpec = new TestWorkerSessionSpec(new DefaultClassPath(classPath).getAsURLs(), getTestFrameworkImplementationClasspath(),
+            new HashSet<String>(builder.getSharedPackages()), serialize(processorFactory));
+        reusableWorker.startSession(sessionSpec, resultProcessor, new TestClassRequester());
+        final ReusableTestWorkerClient worker = reusableWorker;
+        return new RemoteTestClassProcessor() {
+            @Override
+            public void startProcessing() {
+            }
+
+            @Override
+            public void processTestClass(TestClassRunInfo testClass) {
+                worker.processTestClass(testClass);
+            }
+
+            @Override
+            public void stop() {
+                worker.stopSession();
+            }
+        };
+    }
+
+    /**
+     * A worker can be reused by processors that would start an identical process.
+     */
+    private static List<Object> getReusableWorkerKey(WorkerProcessBuilder builder) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        Map<String, String> environment = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> entry : javaCommand.getEnvironment().entrySet()) {
+            environment.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return Arrays.<Object>asList(javaCommand.getExecutable(), javaCommand.getAllJvmArgs(), environment, javaCommand.getWorkingDir(), builder.getLogLevel());
+    }
+
+    private static byte[] serialize(WorkerTestClassProcessorFactory processorFactory) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+            outputStream.writeObject(processorFactory);
+            outputStream.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
+        return CollectionUtils.flattenCollections(URL.class, getReusableTestWorkerImplementationClasspath(), getTestFrameworkImplementationClasspath());
+    }
+
+    /**
+     * The implementation classpath of a reusable worker, which leaves out the test framework implementation, as that is loaded for each session.
+     */
+    List<URL> getReusableTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
@@ -122,17 +268,22 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             moduleRegistry.getModule("gradle-cli").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-native").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-testing-base").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getModule("gradle-testing-jvm").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getModule("gradle-testing-junit-platform").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getExternalModule("junit-platform-engine").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getExternalModule("junit-platform-launcher").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getExternalModule("junit-platform-commons").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-process-services").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("slf4j-api").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("jul-to-slf4j").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("native-platform").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("kryo").getImplementationClasspath().getAsURLs(),
-            moduleRegistry.getExternalModule("commons-lang").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("commons-lang").getImplementationClasspath().getAsURLs()
+        );
+    }
+
+    List<URL> getTestFrameworkImplementationClasspath() {
+        return CollectionUtils.flattenCollections(URL.class,
+            moduleRegistry.getModule("gradle-testing-jvm").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getModule("gradle-testing-junit-platform").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-engine").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-launcher").getImplementationClasspath().getAsURLs(),
+            moduleRegistry.getExternalModule("junit-platform-commons").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getExternalModule("junit").getImplementationClasspath().getAsURLs()
         );
     }
@@ -149,7 +300,13 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
                 } finally {
                     lock.unlock();
                 }
-                workerProcess.waitForStop();
+                if (reusableWorker == null) {
+                    workerProcess.waitForStop();
+                } else if (!stoppedNow && reusableWorker.awaitSessionStopped()) {
+                    reusableWorkers.release(reusableWorker);
+                } else {
+                    reusableWorker.stop();
+                }
             } catch (ExecException e) {
                 if (!stoppedNow) {
                     throw new ExecException(e.getMessage()
@@ -168,11 +325,29 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         lock.lock();
         try {
             stoppedNow = true;
-            if (remoteProcessor != null) {
+            testClassRequested.signalAll();
+            if (reusableWorker != null) {
+                reusableWorker.stopNow();
+            } else if (remoteProcessor != null) {
                 workerProcess.stopNow();
             }
         } finally {
             lock.unlock();
         }
     }
+
+    /**
+     * Receives the test class requests of the worker, and is notified when the worker disconnects.
+     */
+    private class TestClassRequester implements RemoteTestClassRequester, StreamCompletion {
+        @Override
+        public void requestTestClass() {
+            testClassProcessed();
+        }
+
+        @Override
+        public void endStream() {
+            workerDisconnected();
+        }
+    }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.TestSuiteExecutionException;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.CachingClassLoader;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.MultiParentClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.security.AccessControlException;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that executes the tests of several test tasks, one session at a time. The worker process is started without an application classpath.
+ * Instead, the test runtime classpath and the test framework implementation are loaded in new ClassLoaders for each session, and discarded once the session stops.
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, RemoteReusableTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private LongIdGenerator idGenerator;
+    private CountDownLatch completed;
+    private WorkerProcessContext workerProcessContext;
+    private FlowControlledTestResultProcessor resultProcessor;
+    private RemoteTestClassRequester testClassRequester;
+    private ReusableTestWorkerSessionListener sessionListener;
+    private Session session;
+    private boolean reusable = true;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
+
+        this.completed = new CountDownLatch(1);
+        this.workerProcessContext = workerProcessContext;
+        this.idGenerator = new LongIdGenerator();
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        resultProcessor = new FlowControlledTestResultProcessor(serverConnection.addOutgoing(TestResultProcessor.class),
+            new DefaultExecutorFactory().createScheduled("Test output flush", 1));
+        serverConnection.addIncoming(RemoteTestOutputFlowControl.class, resultProcessor);
+        testClassRequester = serverConnection.addOutgoing(RemoteTestClassRequester.class);
+        sessionListener = serverConnection.addOutgoing(ReusableTestWorkerSessionListener.class);
+        serverConnection.addIncoming(RemoteReusableTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } finally {
+            LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+            resultProcessor.stop();
+        }
+    }
+
+    @Override
+    public void startSession(TestWorkerSessionSpec spec) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            session = new Session(spec);
+        } catch (Throwable t) {
+            // An exception thrown here would stop the delivery of the later messages of the session, so report it as the failure of the worker suite instead
+            reusable = false;
+            reportSessionStartFailure(t);
+            return;
+        }
+        session.processor.startProcessing(resultProcessor);
+    }
+
+    private void reportSessionStartFailure(Throwable failure) {
+        Clock clock = workerProcessContext.getServiceRegistry().get(Clock.class);
+        Object suiteId = new CompositeIdGenerator(workerProcessContext.getWorkerId(), idGenerator).generateId();
+        WorkerTestClassProcessor.WorkerTestSuiteDescriptor suite = new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(suiteId, workerProcessContext.getDisplayName());
+        resultProcessor.started(suite, new TestStartEvent(clock.getCurrentTime()));
+        resultProcessor.failure(suiteId, new TestSuiteExecutionException(String.format("Could not start %s.", suite), failure));
+        resultProcessor.completed(suiteId, new TestCompleteEvent(clock.getCurrentTime()));
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            // The test classes of a session that could not be started are not executed, its failure is already reported
+            if (session != null) {
+                session.processor.processTestClass(testClass);
+            }
+        } catch (AccessControlException e) {
+            // The later messages are not delivered once this is thrown, so stop the worker, like a worker that is not reusable
+            reusable = false;
+            completed.countDown();
+            throw e;
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+            testClassRequester.requestTestClass();
+        }
+    }
+
+    @Override
+    public void stopSession() {
+        Thread.currentThread().setName("Test worker");
+        // Exceptions are not rethrown, as that would stop the delivery of the later messages to this worker
+        try {
+            if (session != null) {
+                session.processor.stop();
+            }
+        } catch (Throwable t) {
+            LOGGER.error("Could not stop the session of {}.", workerProcessContext.getDisplayName(), t);
+            reusable = false;
+        }
+        // Clean the interrupted status
+        // because some test class processors do work here, e.g. JUnitPlatform
+        Thread.interrupted();
+        try {
+            if (session != null) {
+                session.close();
+            }
+        } catch (Throwable t) {
+            LOGGER.info("Could not clean up after the session, {} will not be reused.", workerProcessContext.getDisplayName(), t);
+            reusable = false;
+        }
+        session = null;
+        // The build waits for this, even when the session could not be started
+        sessionListener.sessionStopped(reusable);
+    }
+
+    @Override
+    public void stop() {
+        completed.countDown();
+    }
+
+    private class Session {
+        private final Properties systemProperties;
+        private final VisitableURLClassLoader applicationClassLoader;
+        private final VisitableURLClassLoader implementationClassLoader;
+        private final DefaultServiceRegistry testServices;
+        private final TestClassProcessor processor;
+
+        Session(TestWorkerSessionSpec spec) {
+            systemProperties = new Properties();
+            systemProperties.putAll(System.getProperties());
+
+            applicationClassLoader = new VisitableURLClassLoader(ClassLoaderUtils.getPlatformClassLoader(), spec.getApplicationClasspath());
+            FilteringClassLoader.Spec filteringClassLoaderSpec = new FilteringClassLoader.Spec();
+            for (String sharedPackage : spec.getSharedPackages()) {
+                filteringClassLoaderSpec.allowPackage(sharedPackage);
+            }
+            FilteringClassLoader sharedClassLoader = new FilteringClassLoader(applicationClassLoader, filteringClassLoaderSpec);
+            ClassLoader parent = new CachingClassLoader(new MultiParentClassLoader(sharedClassLoader, getClass().getClassLoader()));
+            implementationClassLoader = new VisitableURLClassLoader(parent, spec.getImplementationClasspath());
+
+            testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext, idGenerator);
+            TestClassProcessor targetProcessor = createProcessorFactory(spec).create(testServices);
+            IdGenerator<?> ids = testServices.get(IdGenerator.class);
+            targetProcessor = new WorkerTestClassProcessor(targetProcessor, ids.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+            processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, applicationClassLoader).getSource();
+        }
+
+        private WorkerTestClassProcessorFactory createProcessorFactory(TestWorkerSessionSpec spec) {
+            try {
+                ObjectInputStream inputStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(spec.getSerializedProcessorFactory()), implementationClassLoader);
+                try {
+                    return (WorkerTestClassProcessorFactory) inputStream.readObject();
+                } finally {
+                    inputStream.close();
+                }
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        /**
+         * Resets the process wide state the tests are most likely to change, so that it does not leak into the next session.
+         */
+        void close() {
+            try {
+                // Clean out any security manager the tests might have installed
+                System.setSecurityManager(null);
+            } catch (SecurityException e) {
+                LOGGER.info("Could not remove the security manager installed by the tests, {} will not be reused.", workerProcessContext.getDisplayName());
+                reusable = false;
+            }
+            if (reusable) {
+                System.setProperties(systemProperties);
+            }
+            testServices.close();
+            ClassLoaderUtils.tryClose(implementationClassLoader);
+            ClassLoaderUtils.tryClose(applicationClassLoader);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The build side of a {@link ReusableTestWorker}. Forwards the messages of the current session to the result processor and test class requester of that session.
+ */
+public class ReusableTestWorkerClient implements Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final RemoteReusableTestWorker remoteWorker;
+    private final Lock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private TestResultProcessor resultProcessor;
+    private RemoteTestClassRequester testClassRequester;
+    private boolean sessionActive;
+    private boolean reusable = true;
+    private boolean disconnected;
+
+    public ReusableTestWorkerClient(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        Incoming incoming = new Incoming();
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestResultProcessor.class, new AcknowledgingTestResultProcessor(incoming, connection.addOutgoing(RemoteTestOutputFlowControl.class)));
+        connection.addIncoming(RemoteTestClassRequester.class, incoming);
+        connection.addIncoming(ReusableTestWorkerSessionListener.class, incoming);
+        remoteWorker = connection.addOutgoing(RemoteReusableTestWorker.class);
+        connection.connect();
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * Returns whether this worker can start another session.
+     */
+    public boolean isReusable() {
+        lock.lock();
+        try {
+            return reusable && !disconnected && !sessionActive;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void startSession(TestWorkerSessionSpec spec, TestResultProcessor resultProcessor, RemoteTestClassRequester testClassRequester) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            this.testClassRequester = testClassRequester;
+            sessionActive = true;
+        } finally {
+            lock.unlock();
+        }
+        remoteWorker.startSession(spec);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        remoteWorker.processTestClass(testClass);
+    }
+
+    public void stopSession() {
+        remoteWorker.stopSession();
+    }
+
+    /**
+     * Blocks until the worker has finished the current session or has disconnected. Like a worker that is not reused, the tests of the session can run for any
+     * amount of time, so a worker that died is only detected by its disconnection.
+     *
+     * @return Whether the worker can start another session.
+     */
+    public boolean awaitSessionStopped() {
+        lock.lock();
+        try {
+            while (sessionActive && !disconnected) {
+                stateChanged.await();
+            }
+            return reusable && !disconnected;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (!disconnected) {
+                remoteWorker.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+        workerProcess.waitForStop();
+    }
+
+    public void stopNow() {
+        lock.lock();
+        try {
+            disconnected = true;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workerProcess.stopNow();
+    }
+
+    private class Incoming implements TestResultProcessor, RemoteTestClassRequester, ReusableTestWorkerSessionListener, StreamCompletion {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            resultProcessor.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            resultProcessor.completed(testId, event);
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            resultProcessor.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            resultProcessor.failure(testId, result);
+        }
+
+        @Override
+        public void requestTestClass() {
+            testClassRequester.requestTestClass();
+        }
+
+        @Override
+        public void sessionStopped(boolean reusable) {
+            lock.lock();
+            try {
+                sessionActive = false;
+                ReusableTestWorkerClient.this.reusable = reusable;
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void endStream() {
+            RemoteTestClassRequester sessionTestClassRequester;
+            lock.lock();
+            try {
+                disconnected = true;
+                stateChanged.signalAll();
+                sessionTestClassRequester = sessionActive ? testClassRequester : null;
+            } finally {
+                lock.unlock();
+            }
+            // Like the handlers of a connection, the test class requester of the current session is told when the worker disconnects
+            if (sessionTestClassRequester instanceof StreamCompletion) {
+                ((StreamCompletion) sessionTestClassRequester).endStream();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps idle reusable test workers, so that later test executions in the same build or in later builds can use them instead of starting new processes.
+ */
+public class ReusableTestWorkerClientsManager implements Stoppable {
+    private final int maxIdleClients;
+    private final LinkedList<ReusableTestWorkerClient> idleClients = new LinkedList<ReusableTestWorkerClient>();
+    private boolean stopped;
+
+    public ReusableTestWorkerClientsManager(int maxIdleClients) {
+        this.maxIdleClients = maxIdleClients;
+    }
+
+    /**
+     * Returns an idle worker started with the given key, or null when there is none.
+     */
+    @Nullable
+    public ReusableTestWorkerClient reserveIdleClient(Object key) {
+        List<ReusableTestWorkerClient> disconnected = new ArrayList<ReusableTestWorkerClient>();
+        ReusableTestWorkerClient reserved = null;
+        synchronized (idleClients) {
+            Iterator<ReusableTestWorkerClient> iterator = idleClients.iterator();
+            while (iterator.hasNext()) {
+                ReusableTestWorkerClient client = iterator.next();
+                if (!client.isReusable()) {
+                    iterator.remove();
+                    disconnected.add(client);
+                } else if (client.getKey().equals(key)) {
+                    iterator.remove();
+                    reserved = client;
+                    break;
+                }
+            }
+        }
+        stopNow(disconnected);
+        return reserved;
+    }
+
+    /**
+     * Returns a worker that has finished its session to the idle workers. Stops the least recently used idle worker when there are too many of them.
+     */
+    public void release(ReusableTestWorkerClient client) {
+        List<ReusableTestWorkerClient> evicted = new ArrayList<ReusableTestWorkerClient>();
+        synchronized (idleClients) {
+            if (stopped) {
+                evicted.add(client);
+            } else {
+                idleClients.addFirst(client);
+                while (idleClients.size() > maxIdleClients) {
+                    evicted.add(idleClients.removeLast());
+                }
+            }
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+    }
+
+    @Override
+    public void stop() {
+        List<ReusableTestWorkerClient> clients;
+        synchronized (idleClients) {
+            stopped = true;
+            clients = new ArrayList<ReusableTestWorkerClient>(idleClients);
+            idleClients.clear();
+        }
+        CompositeStoppable.stoppable(clients).stop();
+    }
+
+    private static void stopNow(List<ReusableTestWorkerClient> clients) {
+        for (ReusableTestWorkerClient client : clients) {
+            client.stopNow();
+        }
+    }
+}
@@ -22,17 +22,23 @@ import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.id.CompositeIdGenerator;
 import org.gradle.internal.serialize.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class TestEventSerializer {
     public static SerializerRegistry create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
         DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        ClassNameSerializer classNameSerializer = new ClassNameSerializer();
         registry.register(DefaultTestClassRunInfo.class, new DefaultTestClassRunInfoSerializer());
         registry.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
         registry.register(DefaultTestSuiteDescriptor.class, new DefaultTestSuiteDescriptorSerializer());
-        registry.register(WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class, new WorkerTestSuiteDescriptorSerializer());
-        registry.register(DefaultTestClassDescriptor.class, new DefaultTestClassDescriptorSerializer());
-        registry.register(DefaultTestMethodDescriptor.class, new DefaultTestMethodDescriptorSerializer());
-        registry.register(DefaultTestDescriptor.class, new DefaultTestDescriptorSerializer());
+        registry.register(WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class, new WorkerTestSuiteDescriptorSerializer(classNameSerializer));
+        registry.register(DefaultTestClassDescriptor.class, new DefaultTestClassDescriptorSerializer(classNameSerializer));
+        registry.register(DefaultTestMethodDescriptor.class, new DefaultTestMethodDescriptorSerializer(classNameSerializer));
+        registry.register(DefaultTestDescriptor.class, new DefaultTestDescriptorSerializer(classNameSerializer));
         registry.register(TestStartEvent.class, new TestStartEventSerializer());
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
@@ -64,6 +70,47 @@ public class TestEventSerializer {
         }
     }
 
+    /**
+     * Writes each class name only once, and refers to it by its index afterwards, as the class name is repeated in the descriptor of every test of the class.
+     * The names written and the names read are kept apart, as messages are written and read by different threads.
+     * A reusable test worker executes the tests of many sessions over the same connection, so the names are forgotten at the start of each session, which is the first message of the session to be written and read.
+     */
+    private static class ClassNameSerializer implements Serializer<String> {
+        private final Map<String, Integer> writtenNames = new HashMap<String, Integer>();
+        private final List<String> readNames = new ArrayList<String>();
+
+        void sessionWritten() {
+            writtenNames.clear();
+        }
+
+        void sessionRead() {
+            readNames.clear();
+        }
+
+        @Override
+        public String read(Decoder decoder) throws Exception {
+            int index = decoder.readSmallInt();
+            if (index > 0) {
+                return readNames.get(index - 1);
+            }
+            String name = decoder.readString();
+            readNames.add(name);
+            return name;
+        }
+
+        @Override
+        public void write(Encoder encoder, String value) throws Exception {
+            Integer index = writtenNames.get(value);
+            if (index != null) {
+                encoder.writeSmallInt(index);
+                return;
+            }
+            encoder.writeSmallInt(0);
+            encoder.writeString(value);
+            writtenNames.put(value, writtenNames.size() + 1);
+        }
+    }
+
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         @Override
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
@@ -157,11 +204,20 @@ public class TestEventSerializer {
         }
     }
 
+    /**
+     * The worker suite is started once per session, before any test of the session.
+     */
     private static class WorkerTestSuiteDescriptorSerializer implements Serializer<WorkerTestClassProcessor.WorkerTestSuiteDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final ClassNameSerializer classNameSerializer;
+
+        WorkerTestSuiteDescriptorSerializer(ClassNameSerializer classNameSerializer) {
+            this.classNameSerializer = classNameSerializer;
+        }
 
         @Override
         public WorkerTestClassProcessor.WorkerTestSuiteDescriptor read(Decoder decoder) throws Exception {
+            classNameSerializer.sessionRead();
             Object id = idSerializer.read(decoder);
             String name = decoder.readString();
             return new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(id, name);
@@ -169,6 +225,7 @@ public class TestEventSerializer {
 
         @Override
         public void write(Encoder encoder, WorkerTestClassProcessor.WorkerTestSuiteDescriptor value) throws Exception {
+            classNameSerializer.sessionWritten();
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
             encoder.writeString(value.getName());
         }
@@ -176,31 +233,41 @@ public class TestEventSerializer {
 
     private static class DefaultTestClassDescriptorSerializer implements Serializer<DefaultTestClassDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        final Serializer<String> classNameSerializer;
+
+        DefaultTestClassDescriptorSerializer(Serializer<String> classNameSerializer) {
+            this.classNameSerializer = classNameSerializer;
+        }
 
         @Override
         public DefaultTestClassDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String name = decoder.readString();
-            String displayName = decoder.readString();
+            String name = classNameSerializer.read(decoder);
+            String displayName = classNameSerializer.read(decoder);
             return new DefaultTestClassDescriptor(id, name, displayName);
         }
 
         @Override
         public void write(Encoder encoder, DefaultTestClassDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getName());
-            encoder.writeString(value.getDisplayName());
+            classNameSerializer.write(encoder, value.getName());
+            classNameSerializer.write(encoder, value.getDisplayName());
         }
     }
 
     private static class DefaultTestDescriptorSerializer implements Serializer<DefaultTestDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        final Serializer<String> classNameSerializer;
+
+        DefaultTestDescriptorSerializer(Serializer<String> classNameSerializer) {
+            this.classNameSerializer = classNameSerializer;
+        }
 
         @Override
         public DefaultTestDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String className = decoder.readString();
-            String classDisplayName = decoder.readString();
+            String className = classNameSerializer.read(decoder);
+            String classDisplayName = classNameSerializer.read(decoder);
             String name = decoder.readString();
             String displayName = decoder.readString();
             return new DefaultTestDescriptor(id, className, name, classDisplayName, displayName);
@@ -209,8 +276,8 @@ public class TestEventSerializer {
         @Override
         public void write(Encoder encoder, DefaultTestDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getClassName());
-            encoder.writeString(value.getClassDisplayName());
+            classNameSerializer.write(encoder, value.getClassName());
+            classNameSerializer.write(encoder, value.getClassDisplayName());
             encoder.writeString(value.getName());
             encoder.writeString(value.getDisplayName());
         }
@@ -218,11 +285,16 @@ public class TestEventSerializer {
 
     private static class DefaultTestMethodDescriptorSerializer implements Serializer<DefaultTestMethodDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        final Serializer<String> classNameSerializer;
+
+        DefaultTestMethodDescriptorSerializer(Serializer<String> classNameSerializer) {
+            this.classNameSerializer = classNameSerializer;
+        }
 
         @Override
         public DefaultTestMethodDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String className = decoder.readString();
+            String className = classNameSerializer.read(decoder);
             String name = decoder.readString();
             return new DefaultTestMethodDescriptor(id, className, name);
         }
@@ -230,7 +302,7 @@ public class TestEventSerializer {
         @Override
         public void write(Encoder encoder, DefaultTestMethodDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getClassName());
+            classNameSerializer.write(encoder, value.getClassName());
             encoder.writeString(value.getName());
         }
     }
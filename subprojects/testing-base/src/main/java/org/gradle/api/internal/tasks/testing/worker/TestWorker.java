@@ -48,7 +48,8 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private final WorkerTestClassProcessorFactory factory;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private FlowControlledTestResultProcessor resultProcessor;
+    private RemoteTestClassRequester testClassRequester;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
@@ -75,6 +76,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
             // Clean out any security manager the tests might have installed
             System.setSecurityManager(null);
+            resultProcessor.stop();
             testServices.close();
         }
     }
@@ -91,7 +93,10 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.resultProcessor = new FlowControlledTestResultProcessor(serverConnection.addOutgoing(TestResultProcessor.class),
+                testServices.get(ExecutorFactory.class).createScheduled("Test output flush", 1));
+        serverConnection.addIncoming(RemoteTestOutputFlowControl.class, resultProcessor);
+        this.testClassRequester = serverConnection.addOutgoing(RemoteTestClassRequester.class);
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
@@ -113,6 +118,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            testClassRequester.requestTestClass();
         }
     }
 
@@ -129,11 +135,20 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
     }
 
-    private static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
+    static class TestFrameworkServiceRegistry extends DefaultServiceRegistry {
         private final WorkerProcessContext workerProcessContext;
+        private final LongIdGenerator idGenerator;
 
         public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext) {
+            this(workerProcessContext, new LongIdGenerator());
+        }
+
+        /**
+         * Shares the id generator across the sessions of a reusable worker, so that test ids stay unique for the lifetime of the worker.
+         */
+        public TestFrameworkServiceRegistry(WorkerProcessContext workerProcessContext, LongIdGenerator idGenerator) {
             this.workerProcessContext = workerProcessContext;
+            this.idGenerator = idGenerator;
         }
 
         protected Clock createClock() {
@@ -141,7 +156,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         }
 
         protected IdGenerator<Object> createIdGenerator() {
-            return new CompositeIdGenerator(workerProcessContext.getWorkerId(), new LongIdGenerator());
+            return new CompositeIdGenerator(workerProcessContext.getWorkerId(), idGenerator);
         }
 
         protected ExecutorFactory createExecutorFactory() {
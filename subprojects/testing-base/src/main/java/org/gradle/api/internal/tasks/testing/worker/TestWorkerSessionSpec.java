@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The classes to load for a session of a reusable test worker, and the test class processor to execute them with.
+ */
+public class TestWorkerSessionSpec implements Serializable {
+    private final List<URL> applicationClasspath;
+    private final List<URL> implementationClasspath;
+    private final Set<String> sharedPackages;
+    private final byte[] serializedProcessorFactory;
+
+    public TestWorkerSessionSpec(List<URL> applicationClasspath, List<URL> implementationClasspath, Set<String> sharedPackages, byte[] serializedProcessorFactory) {
+        this.applicationClasspath = applicationClasspath;
+        this.implementationClasspath = implementationClasspath;
+        this.sharedPackages = sharedPackages;
+        this.serializedProcessorFactory = serializedProcessorFactory;
+    }
+
+    /**
+     * The test runtime classpath.
+     */
+    public List<URL> getApplicationClasspath() {
+        return applicationClasspath;
+    }
+
+    /**
+     * The test framework implementation, which is loaded separately for each session as it links against the test framework on the application classpath.
+     */
+    public List<URL> getImplementationClasspath() {
+        return implementationClasspath;
+    }
+
+    /**
+     * The packages of the application classpath that are visible to the test framework implementation.
+     */
+    public Set<String> getSharedPackages() {
+        return sharedPackages;
+    }
+
+    /**
+     * The {@link org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory}, which can only be deserialized using the implementation ClassLoader of the session.
+     */
+    public byte[] getSerializedProcessorFactory() {
+        return serializedProcessorFactory;
+    }
+}
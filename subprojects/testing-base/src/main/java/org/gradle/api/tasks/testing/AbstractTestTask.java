@@ -71,17 +71,25 @@ import org.gradle.internal.logging.ConsoleRenderer;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.logging.text.StyledTextOutputFactory;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.GFileUtils;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Abstract class for all test task.
@@ -170,6 +178,20 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
     @Incubating
     protected abstract TestExecutionSpec createTestExecutionSpec();
 
+    /**
+     * Returns the names of the test classes that are not executed, whose results of the previous execution are kept instead. Called after {@link #createTestExecutionSpec()}.
+     */
+    @Internal
+    Set<String> getReusedTestClasses() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Called with the results of all test classes once they have been written, including the results kept from the previous execution.
+     */
+    void testResultsWritten(Collection<TestClassResult> results) {
+    }
+
     @Internal
     @VisibleForTesting
     ListenerBroadcast<TestOutputListener> getTestOutputListenerBroadcaster() {
@@ -432,8 +454,15 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         addTestOutputListener(eventLogger);
 
         TestExecutionSpec executionSpec = createTestExecutionSpec();
+        Set<String> reusedTestClasses = getReusedTestClasses();
 
         File binaryResultsDir = getBinResultsDir();
+        File previousResultsDir = null;
+        if (!reusedTestClasses.isEmpty()) {
+            previousResultsDir = new File(getTemporaryDir(), "previous-results");
+            getProject().delete(previousResultsDir);
+            GFileUtils.moveExistingDirectory(binaryResultsDir, previousResultsDir);
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -442,6 +471,10 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
 
         TestOutputStore.Writer outputWriter = testOutputStore.writer();
         TestReportDataCollector testReportDataCollector = new TestReportDataCollector(results, outputWriter);
+        if (previousResultsDir != null) {
+            testReportDataCollector.addPreviousResults(previousResultsDir, reusedTestClasses);
+            getProject().delete(previousResultsDir);
+        }
 
         addTestListener(testReportDataCollector);
         addTestOutputListener(testReportDataCollector);
@@ -477,6 +510,7 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        testResultsWritten(results.values());
 
         createReporting(results, testOutputStore);
 
@@ -509,27 +543,61 @@ public abstract class AbstractTestTask extends ConventionTask implements Verific
     }
 
     private void createReporting(Map<String, TestClassResult> results, TestOutputStore testOutputStore) {
-        TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
+        final TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
 
         try {
             if (testReporter == null) {
                 testReporter = new DefaultTestReport(getBuildOperationExecutor());
             }
 
+            final List<RunnableBuildOperation> reportGenerators = Lists.newArrayList();
             JUnitXmlReport junitXml = reports.getJunitXml();
             if (junitXml.isEnabled()) {
                 TestOutputAssociation outputAssociation = junitXml.isOutputPerTestCase()
                     ? TestOutputAssociation.WITH_TESTCASE
                     : TestOutputAssociation.WITH_SUITE;
-                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation, getBuildOperationExecutor(), getInetAddressFactory().getHostname());
-                binary2JUnitXmlReportGenerator.generate();
+                final Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation, getBuildOperationExecutor(), getInetAddressFactory().getHostname());
+                reportGenerators.add(new RunnableBuildOperation() {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        binary2JUnitXmlReportGenerator.generate();
+                    }
+
+                    @Override
+                    public BuildOperationDescriptor.Builder description() {
+                        return BuildOperationDescriptor.displayName("Generate JUnit XML test results");
+                    }
+                });
             }
 
-            DirectoryReport html = reports.getHtml();
+            final DirectoryReport html = reports.getHtml();
             if (!html.isEnabled()) {
                 getLogger().info("Test report disabled, omitting generation of the HTML test report.");
             } else {
-                testReporter.generateReport(testResultsProvider, html.getDestination());
+                final TestReporter testReporter = this.testReporter;
+                reportGenerators.add(new RunnableBuildOperation() {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        testReporter.generateReport(testResultsProvider, html.getDestination());
+                    }
+
+                    @Override
+                    public BuildOperationDescriptor.Builder description() {
+                        return BuildOperationDescriptor.displayName("Generate HTML test report");
+                    }
+                });
+            }
+
+            if (!reportGenerators.isEmpty()) {
+                // The reports are independent, so the files of one report can be written while the other is still waiting for its last files
+                getBuildOperationExecutor().runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                        for (RunnableBuildOperation reportGenerator : reportGenerators) {
+                            queue.add(reportGenerator);
+                        }
+                    }
+                });
             }
         } finally {
             CompositeStoppable.stoppable(testResultsProvider).stop();
@@ -98,6 +98,27 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads interleaved output larger than the read buffer"() {
+        def message = "h\u00e9llo \u2713 \ud83d\ude00 " * 20000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, message))
+        writer.onOutput(2, 1, output(StdOut, "[other]"))
+        writer.onOutput(1, 2, output(StdOut, "[out]"))
+        writer.onOutput(1, 1, output(StdOut, message))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == message + "[out]" + message
+        collectOutput(reader, 1, 1, StdOut) == message + message
+        collectAllOutput(reader, 2, StdOut) == "[other]"
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -19,6 +19,8 @@ package org.gradle.api.internal.tasks.testing.junit.result
 import org.gradle.api.internal.tasks.testing.*
 import org.gradle.api.internal.tasks.testing.results.DefaultTestResult
 import org.gradle.internal.serialize.PlaceholderException
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Issue
 import spock.lang.Specification
 
@@ -29,6 +31,8 @@ import static org.gradle.api.tasks.testing.TestResult.ResultType.FAILURE
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SUCCESS
 
 class TestReportDataCollectorSpec extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
     def Map<String, TestClassResult> results = [:]
     def TestOutputStore.Writer writer = Mock()
     def collector = new TestReportDataCollector(results, writer)
@@ -219,4 +223,45 @@ class TestReportDataCollectorSpec extends Specification {
         then:
         results.get("FooTest").startTime == 100
     }
+
+    def "adds results and output of previous test classes with new ids"() {
+        def previousResultsDir = temporaryFolder.createDir("previous")
+        def previousOutput = new TestOutputStore(previousResultsDir)
+        def previousWriter = previousOutput.writer()
+        previousWriter.onOutput(1, new DefaultTestOutputEvent(StdOut, "class-out"))
+        previousWriter.onOutput(1, 2, new DefaultTestOutputEvent(StdErr, "test-err"))
+        previousWriter.onOutput(3, 4, new DefaultTestOutputEvent(StdOut, "other-out"))
+        previousWriter.close()
+        def fooTest = new TestClassResult(1, "FooTest", 100).add(new TestMethodResult(2, "testMethod", SUCCESS, 50, 150))
+        def barTest = new TestClassResult(3, "BarTest", 100).add(new TestMethodResult(4, "testMethod", SUCCESS, 50, 150))
+        new TestResultSerializer(previousResultsDir).write([fooTest, barTest])
+
+        when:
+        collector.addPreviousResults(previousResultsDir, ["FooTest"] as Set)
+
+        then:
+        1 * writer.onOutput(1, new DefaultTestOutputEvent(StdOut, "class-out"))
+        1 * writer.onOutput(1, 2, new DefaultTestOutputEvent(StdErr, "test-err"))
+        0 * writer._
+
+        and:
+        results.keySet() == ["FooTest"] as Set
+        def result = results.FooTest
+        result.id == 1
+        result.startTime == 100
+        result.results.size() == 1
+        result.results[0].id == 2
+        result.results[0].name == "testMethod"
+        result.results[0].resultType == SUCCESS
+        result.results[0].duration == 50
+
+        when:
+        def test = new DefaultTestDescriptor("1.1.1", "BazTest", "testMethod")
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, asList()))
+
+        then:
+        results.BazTest.id == 4
+        results.BazTest.results[0].id == 3
+    }
 }
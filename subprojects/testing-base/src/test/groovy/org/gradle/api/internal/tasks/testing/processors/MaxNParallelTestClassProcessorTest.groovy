@@ -202,4 +202,64 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * processor1.stopNow()
         1 * processor2.stopNow()
     }
+
+    def "gives pending test classes to the processor that accepts its test class first when pulling test classes"() {
+        def pullingProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, true)
+        TestClassRunInfo test1 = Mock()
+        TestClassRunInfo test2 = Mock()
+        TestClassRunInfo test3 = Mock()
+        TestClassRunInfo test4 = Mock()
+        TestClassRunInfo test5 = Mock()
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        TestClassProcessor actorTarget1 = null
+        TestClassProcessor actorTarget2 = null
+
+        given:
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        pullingProcessor.startProcessing(resultProcessor)
+
+        when:
+        pullingProcessor.processTestClass(test1)
+        pullingProcessor.processTestClass(test2)
+        pullingProcessor.processTestClass(test3)
+        pullingProcessor.processTestClass(test4)
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        2 * actorFactory.createActor(_) >> { args -> actorTarget1 = args[0]; actor1 } >> { args -> actorTarget2 = args[0]; actor2 }
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * asyncProcessor2.processTestClass(test2)
+        0 * asyncProcessor1.processTestClass(_)
+        0 * asyncProcessor2.processTestClass(_)
+
+        when:
+        actorTarget2.processTestClass(test2)
+        actorTarget2.processTestClass(test3)
+
+        then:
+        1 * processor2.processTestClass(test2)
+        1 * asyncProcessor2.processTestClass(test3)
+
+        then:
+        1 * processor2.processTestClass(test3)
+        1 * asyncProcessor2.processTestClass(test4)
+        0 * asyncProcessor1.processTestClass(_)
+
+        when:
+        actorTarget1.processTestClass(test1)
+        pullingProcessor.processTestClass(test5)
+
+        then:
+        1 * processor1.processTestClass(test1)
+        1 * asyncProcessor1.processTestClass(test5)
+        0 * asyncProcessor2.processTestClass(_)
+    }
 }
@@ -46,4 +46,45 @@ class RunPreviousFailedFirstTestClassProcessorTest extends Specification {
         then:
         1 * delegate.stop()
     }
+
+    def 'test classes closest to changes and failing most often are passed to delegate next'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor(['Class5'] as Set, [Class2: 1, Class3: 0, Class5: 2], [Class1: 0.5d, Class2: 0.25d, Class4: 0.75d], delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class3', 'Class4', 'Class5', 'Class6'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class5'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class2'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class4'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class6'))
+        then:
+        1 * delegate.stop()
+    }
+
+    def 'stops passing test classes to delegate when stopped now'() {
+        given:
+        processor = new RunPreviousFailedFirstTestClassProcessor([] as Set, delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1')) >> { processor.stopNow() }
+        1 * delegate.stopNow()
+        0 * delegate.processTestClass(_)
+        1 * delegate.stop()
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class ShardingTestClassProcessorTest extends Specification {
+    TestClassProcessor delegate = Mock()
+    TestResultProcessor testResultProcessor = Mock()
+
+    def 'passes test classes of the shard to delegate longest first'() {
+        given:
+        def processor = new ShardingTestClassProcessor(0, 2, [Class1: 10L, Class2: 60L, Class3: 100L, Class4: 50L], delegate)
+
+        when:
+        processor.startProcessing(testResultProcessor)
+        ['Class1', 'Class2', 'Class3', 'Class4'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(testResultProcessor)
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class3'))
+        then:
+        1 * delegate.processTestClass(new DefaultTestClassRunInfo('Class1'))
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+
+    def 'shards are disjoint and contain every test class'() {
+        given:
+        def classNames = (1..20).collect { "Class$it" as String }
+        def durations = [Class1: 500L, Class2: 20L, Class7: 300L, Class13: 5L]
+
+        when:
+        def shards = (0..<3).collect { shard(it, 3, durations, classNames) }
+
+        then:
+        shards.flatten().sort() == classNames.sort()
+        shards.flatten().unique().size() == classNames.size()
+    }
+
+    def 'balances shards by previous duration'() {
+        given:
+        def durations = [Class1: 300L, Class2: 100L, Class3: 100L, Class4: 100L]
+
+        expect:
+        shard(0, 2, durations, durations.keySet()) == ['Class1']
+        shard(1, 2, durations, durations.keySet()) == ['Class2', 'Class3', 'Class4']
+    }
+
+    def 'assumes average duration for test classes without previous duration'() {
+        given:
+        def durations = [Class1: 100L, Class2: 300L]
+
+        expect:
+        shard(0, 2, durations, ['Class1', 'Class2', 'Class3']) == ['Class2']
+        shard(1, 2, durations, ['Class1', 'Class2', 'Class3']) == ['Class3', 'Class1']
+    }
+
+    def 'splits test classes evenly without previous durations'() {
+        given:
+        def classNames = (1..10).collect { "Class$it" as String }
+
+        expect:
+        (0..<4).collect { shard(it, 4, [:], classNames).size() } == [3, 3, 2, 2]
+    }
+
+    def 'shards that reuse different test classes assign every test class to exactly one shard'() {
+        given:
+        def classNames = (1..10).collect { "Class$it" as String }
+        def durations = [Class1: 500L, Class2: 20L, Class5: 300L]
+        // Each shard has only the results of the test classes it executed before, and the durations have changed since
+        def reused = [['Class1', 'Class3', 'Class4'] as Set, ['Class2', 'Class5', 'Class6'] as Set]
+
+        when:
+        def assigned = (0..<2).collect { shard(it, 2, durations, classNames) }
+        def executed = (0..<2).collect { shard(it, 2, durations, classNames, reused[it]) }
+
+        then:
+        assigned.flatten().sort() == classNames.sort()
+        assigned.flatten().unique().size() == classNames.size()
+        (0..<2).every { executed[it] == assigned[it] - reused[it] }
+    }
+
+    private List<String> shard(int shardIndex, int shardCount, Map<String, Long> durations, Collection<String> classNames, Set<String> reused = [] as Set) {
+        def selected = []
+        def recorder = Stub(TestClassProcessor) {
+            processTestClass(_) >> { TestClassRunInfo testClass -> selected << testClass.testClassName }
+        }
+        def processor = new ShardingTestClassProcessor(shardIndex, shardCount, durations, new ExcludingTestClassProcessor(reused, recorder))
+        processor.startProcessing(testResultProcessor)
+        classNames.each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        processor.stop()
+        return selected
+    }
+}
@@ -78,4 +78,25 @@ class TestOutputRedirectorTest extends Specification {
         })
         0 * _
     }
+
+    def "attributes output to the test started by the writing thread"() {
+        def f = new TestOutputRedirector.Forwarder(processor, TestOutputEvent.Destination.StdOut)
+
+        when:
+        f.setOutputOwner("1")
+        Thread.start {
+            f.setOutputOwner("2")
+            f.onOutput("from 2")
+        }.join()
+        f.onOutput("from 1")
+        Thread.start {
+            f.onOutput("from other")
+        }.join()
+
+        then:
+        1 * processor.output("2", { it.message == "from 2" })
+        1 * processor.output("1", { it.message == "from 1" })
+        1 * processor.output("2", { it.message == "from other" })
+        0 * _
+    }
 }
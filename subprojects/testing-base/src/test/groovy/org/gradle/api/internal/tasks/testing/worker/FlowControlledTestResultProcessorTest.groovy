@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.concurrent.ManagedScheduledExecutor
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class FlowControlledTestResultProcessorTest extends ConcurrentSpec {
+    def delegate = Mock(TestResultProcessor)
+    def executor = Mock(ManagedScheduledExecutor)
+    Runnable flush
+    FlowControlledTestResultProcessor processor
+
+    def setup() {
+        1 * executor.scheduleAtFixedRate(_, _, _, _) >> { flush = it[0]; null }
+        processor = new FlowControlledTestResultProcessor(delegate, executor)
+    }
+
+    def "combines consecutive output of a test into one event"() {
+        def complete = new TestCompleteEvent(100L)
+
+        when:
+        processor.output("test-1", new DefaultTestOutputEvent(StdOut, "1\n"))
+        processor.output("test-1", new DefaultTestOutputEvent(StdOut, "2\n"))
+        processor.output("test-1", new DefaultTestOutputEvent(StdErr, "3\n"))
+        processor.output("test-2", new DefaultTestOutputEvent(StdErr, "4\n"))
+        processor.completed("test-2", complete)
+
+        then:
+        1 * delegate.output("test-1", new DefaultTestOutputEvent(StdOut, "1\n2\n"))
+
+        then:
+        1 * delegate.output("test-1", new DefaultTestOutputEvent(StdErr, "3\n"))
+
+        then:
+        1 * delegate.output("test-2", new DefaultTestOutputEvent(StdErr, "4\n"))
+
+        then:
+        1 * delegate.completed("test-2", complete)
+        0 * delegate._
+    }
+
+    def "sends the output of a running test periodically"() {
+        when:
+        processor.output("test", new DefaultTestOutputEvent(StdOut, "1\n"))
+
+        then:
+        0 * delegate._
+
+        when:
+        flush.run()
+
+        then:
+        1 * delegate.output("test", new DefaultTestOutputEvent(StdOut, "1\n"))
+    }
+
+    def "blocks the tests when the build process has not processed the output sent"() {
+        def message = "x" * FlowControlledTestResultProcessor.MAX_BATCH_LENGTH
+        def batches = (int) (FlowControlledTestResultProcessor.MAX_UNPROCESSED_OUTPUT_LENGTH / FlowControlledTestResultProcessor.MAX_BATCH_LENGTH)
+
+        when:
+        async {
+            start {
+                (batches + 1).times {
+                    processor.output("test", new DefaultTestOutputEvent(StdOut, message))
+                }
+                instant.sent
+            }
+            thread.block()
+            instant.processed
+            processor.outputProcessed(message.length())
+        }
+
+        then:
+        instant.sent > instant.processed
+        (batches + 1) * delegate.output("test", _)
+    }
+
+    def "sends pending output and stops flushing when stopped"() {
+        when:
+        processor.output("test", new DefaultTestOutputEvent(StdOut, "1\n"))
+        processor.stop()
+
+        then:
+        1 * delegate.output("test", new DefaultTestOutputEvent(StdOut, "1\n"))
+
+        then:
+        1 * executor.stop()
+    }
+}
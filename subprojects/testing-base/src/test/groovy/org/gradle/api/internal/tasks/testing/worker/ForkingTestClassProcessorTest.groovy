@@ -20,10 +20,12 @@ import org.gradle.api.Action
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.classpath.Module
 import org.gradle.api.internal.classpath.ModuleRegistry
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.process.JavaForkOptions
 import org.gradle.process.internal.ExecException
@@ -72,7 +74,10 @@ class ForkingTestClassProcessorTest extends Specification {
 
     def "starts process with a limited implementation classpath"() {
         setup:
-        1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
+        1 * workerProcess.getConnection() >> Stub(ObjectConnection) {
+            addOutgoing(RemoteTestClassProcessor) >> Stub(RemoteTestClassProcessor)
+            addOutgoing(RemoteTestOutputFlowControl) >> Stub(RemoteTestOutputFlowControl)
+        }
 
         when:
         processor.forkProcess()
@@ -96,7 +101,10 @@ class ForkingTestClassProcessorTest extends Specification {
         ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
 
         setup:
-        1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
+        1 * workerProcess.getConnection() >> Stub(ObjectConnection) {
+            addOutgoing(RemoteTestClassProcessor) >> Stub(RemoteTestClassProcessor)
+            addOutgoing(RemoteTestOutputFlowControl) >> Stub(RemoteTestOutputFlowControl)
+        }
 
         when:
         processor.processTestClass(Mock(TestClassRunInfo))
@@ -110,7 +118,10 @@ class ForkingTestClassProcessorTest extends Specification {
         ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
 
         setup:
-        1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
+        1 * workerProcess.getConnection() >> Stub(ObjectConnection) {
+            addOutgoing(RemoteTestClassProcessor) >> Stub(RemoteTestClassProcessor)
+            addOutgoing(RemoteTestOutputFlowControl) >> Stub(RemoteTestOutputFlowControl)
+        }
 
         when:
         processor.processTestClass(Mock(TestClassRunInfo))
@@ -123,6 +134,76 @@ class ForkingTestClassProcessorTest extends Specification {
         notThrown(ExecException)
     }
 
+    def "runs tests in a session of a reusable worker and releases the worker once the session stops"() {
+        def reusableWorkers = Mock(ReusableTestWorkerClientsManager)
+        def reusableWorker = Mock(ReusableTestWorkerClient)
+        def test = Mock(TestClassRunInfo)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, new SerializableProcessorFactory(), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry, reusableWorkers)
+
+        when:
+        processor.processTestClass(test)
+        processor.stop()
+
+        then:
+        _ * workerProcessBuilder.getSharedPackages() >> (["org.junit"] as Set)
+        1 * reusableWorkers.reserveIdleClient(_) >> reusableWorker
+        1 * reusableWorker.startSession({ it.sharedPackages == ["org.junit"] as Set && it.applicationClasspath == [new File("classpath.jar").toURI().toURL()] }, _, _)
+        1 * reusableWorker.processTestClass(test)
+        1 * reusableWorker.stopSession()
+        1 * reusableWorker.awaitSessionStopped() >> true
+        1 * reusableWorkers.release(reusableWorker)
+        0 * reusableWorker.stop()
+        0 * workerProcessBuilder.build()
+    }
+
+    def "stops reusable worker that cannot start another session"() {
+        def reusableWorkers = Mock(ReusableTestWorkerClientsManager)
+        def reusableWorker = Mock(ReusableTestWorkerClient)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, new SerializableProcessorFactory(), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry, reusableWorkers)
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        _ * workerProcessBuilder.getSharedPackages() >> ([] as Set)
+        1 * reusableWorkers.reserveIdleClient(_) >> reusableWorker
+        1 * reusableWorker.awaitSessionStopped() >> false
+        1 * reusableWorker.stop()
+        0 * reusableWorkers.release(_)
+    }
+
+    def "does not send test classes to a worker that disconnected"() {
+        def reusableWorkers = Mock(ReusableTestWorkerClientsManager)
+        def reusableWorker = Mock(ReusableTestWorkerClient)
+        def test1 = Mock(TestClassRunInfo)
+        def test2 = Mock(TestClassRunInfo)
+        def test3 = Mock(TestClassRunInfo)
+        def testClassRequester
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, new SerializableProcessorFactory(), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry, reusableWorkers)
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        testClassRequester.endStream()
+        processor.processTestClass(test3)
+
+        then:
+        _ * workerProcessBuilder.getSharedPackages() >> ([] as Set)
+        1 * reusableWorkers.reserveIdleClient(_) >> reusableWorker
+        1 * reusableWorker.startSession(_, _, _) >> { testClassRequester = it[2] }
+        1 * reusableWorker.processTestClass(test1)
+        1 * reusableWorker.processTestClass(test2)
+        0 * reusableWorker.processTestClass(test3)
+    }
+
+    static class SerializableProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+        @Override
+        TestClassProcessor create(ServiceRegistry serviceRegistry) {
+            return null
+        }
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.worker.WorkerProcess
+import spock.lang.Specification
+
+class ReusableTestWorkerClientTest extends Specification {
+    def connection = Mock(ObjectConnection)
+    def workerProcess = Mock(WorkerProcess) {
+        getConnection() >> connection
+    }
+    def remoteWorker = Mock(RemoteReusableTestWorker)
+    def sessionListener
+    def client
+
+    def setup() {
+        connection.addOutgoing(RemoteReusableTestWorker) >> remoteWorker
+        connection.addIncoming(ReusableTestWorkerSessionListener, _) >> { Class type, Object listener -> sessionListener = listener }
+        client = new ReusableTestWorkerClient("key", workerProcess)
+        client.startSession(new TestWorkerSessionSpec([], [], [] as Set, new byte[0]), Stub(TestResultProcessor), Stub(RemoteTestClassRequester))
+    }
+
+    def "can reuse worker once its session stopped"() {
+        when:
+        sessionListener.sessionStopped(true)
+
+        then:
+        client.awaitSessionStopped()
+        client.reusable
+        0 * workerProcess.stopNow()
+    }
+
+    def "does not reuse worker that cannot be reused"() {
+        when:
+        sessionListener.sessionStopped(false)
+
+        then:
+        !client.awaitSessionStopped()
+        !client.reusable
+        0 * workerProcess.stopNow()
+    }
+
+    def "does not reuse worker that disconnected during its session"() {
+        when:
+        sessionListener.endStream()
+
+        then:
+        !client.awaitSessionStopped()
+        !client.reusable
+        0 * workerProcess.stopNow()
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ReusableTestWorkerClientsManagerTest extends Specification {
+    @Subject
+    def manager = new ReusableTestWorkerClientsManager(2)
+
+    def "reserves released client with the same key"() {
+        def client = client("a")
+
+        expect:
+        manager.reserveIdleClient("a") == null
+
+        when:
+        manager.release(client)
+
+        then:
+        manager.reserveIdleClient("b") == null
+        manager.reserveIdleClient("a") == client
+        manager.reserveIdleClient("a") == null
+    }
+
+    def "stops least recently released client when there are too many idle clients"() {
+        def client1 = client("a")
+        def client2 = client("a")
+        def client3 = client("a")
+
+        when:
+        manager.release(client1)
+        manager.release(client2)
+        manager.release(client3)
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        0 * client3.stop()
+
+        and:
+        manager.reserveIdleClient("a") == client3
+        manager.reserveIdleClient("a") == client2
+        manager.reserveIdleClient("a") == null
+    }
+
+    def "discards idle client that can no longer be reused"() {
+        def client = client("a")
+
+        when:
+        manager.release(client)
+        def reserved = manager.reserveIdleClient("a")
+
+        then:
+        _ * client.isReusable() >> false
+        1 * client.stopNow()
+        reserved == null
+    }
+
+    def "stops idle clients and clients released after stop"() {
+        def client1 = client("a")
+        def client2 = client("b")
+
+        when:
+        manager.release(client1)
+        manager.stop()
+
+        then:
+        1 * client1.stop()
+
+        when:
+        manager.release(client2)
+
+        then:
+        1 * client2.stop()
+        manager.reserveIdleClient("b") == null
+    }
+
+    def client(String key) {
+        return Mock(ReusableTestWorkerClient) {
+            _ * getKey() >> key
+            _ * isReusable() >> true
+        }
+    }
+}
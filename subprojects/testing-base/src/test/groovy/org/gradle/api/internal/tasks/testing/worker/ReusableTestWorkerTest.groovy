@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestSuiteExecutionException
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.service.DefaultServiceRegistry
+import org.gradle.internal.time.Clock
+import org.gradle.internal.time.Time
+import org.gradle.process.internal.worker.WorkerProcessContext
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+class ReusableTestWorkerTest extends ConcurrentSpec {
+    @Rule SetSystemProperties properties = new SetSystemProperties()
+    def workerContext = Mock(WorkerProcessContext)
+    def connection = Mock(ObjectConnection)
+    def test = Mock(TestClassRunInfo)
+    def resultProcessor = Mock(TestResultProcessor)
+    def testClassRequester = Mock(RemoteTestClassRequester)
+    def sessionListener = Mock(ReusableTestWorkerSessionListener)
+    def worker = new ReusableTestWorker()
+    def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
+
+    def setup() {
+        workerContext.workerId >> "<worker-id>"
+        workerContext.displayName >> "Gradle Test Executor 1"
+        workerContext.serverConnection >> connection
+        workerContext.serviceRegistry >> serviceRegistry
+        connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        connection.addOutgoing(RemoteTestClassRequester) >> testClassRequester
+        connection.addOutgoing(ReusableTestWorkerSessionListener) >> sessionListener
+    }
+
+    def "reports session that cannot be started and still stops it"() {
+        def spec = new TestWorkerSessionSpec([], [], [] as Set, "not a processor factory".bytes)
+
+        when:
+        async {
+            worker.execute(workerContext)
+        }
+
+        then:
+        1 * connection.connect() >> {
+            start {
+                worker.startSession(spec)
+                worker.processTestClass(test)
+                worker.stopSession()
+                worker.stop()
+            }
+        }
+        1 * resultProcessor.started({ it.name == "Gradle Test Executor 1" }, _)
+        1 * resultProcessor.failure(_, { it instanceof TestSuiteExecutionException && it.message == "Could not start Gradle Test Executor 1." })
+        1 * resultProcessor.completed(_, _)
+        1 * testClassRequester.requestTestClass()
+        1 * sessionListener.sessionStopped(false)
+    }
+}
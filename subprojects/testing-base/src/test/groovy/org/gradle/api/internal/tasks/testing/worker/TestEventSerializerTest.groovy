@@ -101,6 +101,49 @@ class TestEventSerializerTest extends SerializerSpec {
         result.name == "some-test"
     }
 
+    def "writes repeated class names only once"() {
+        def descriptor1 = new DefaultTestDescriptor(new CompositeIdGenerator.CompositeId(1L, 2L), "some-class", "some-test")
+        def descriptor2 = new DefaultTestDescriptor(new CompositeIdGenerator.CompositeId(1L, 3L), "some-class", "other-test")
+        def descriptorSerializer = serializer.build(DefaultTestDescriptor)
+
+        when:
+        def bytes1 = toBytes(descriptor1, descriptorSerializer)
+        def bytes2 = toBytes(descriptor2, descriptorSerializer)
+        def result1 = fromBytes(bytes1, descriptorSerializer)
+        def result2 = fromBytes(bytes2, descriptorSerializer)
+
+        then:
+        bytes2.length < bytes1.length
+        result1.className == "some-class"
+        result1.name == "some-test"
+        result2.className == "some-class"
+        result2.classDisplayName == "some-class"
+        result2.name == "other-test"
+    }
+
+    def "writes the class names again in each session"() {
+        def descriptor = new DefaultTestDescriptor(new CompositeIdGenerator.CompositeId(1L, 2L), "some-class", "some-test")
+        def worker = new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(new CompositeIdGenerator.CompositeId(1L, 1L), "worker")
+        def descriptorSerializer = serializer.build(DefaultTestDescriptor)
+        def workerSerializer = serializer.build(WorkerTestClassProcessor.WorkerTestSuiteDescriptor)
+
+        when:
+        def session1 = toBytes(worker, workerSerializer)
+        def bytes1 = toBytes(descriptor, descriptorSerializer)
+        def session2 = toBytes(worker, workerSerializer)
+        def bytes2 = toBytes(descriptor, descriptorSerializer)
+        fromBytes(session1, workerSerializer)
+        def result1 = fromBytes(bytes1, descriptorSerializer)
+        fromBytes(session2, workerSerializer)
+        def result2 = fromBytes(bytes2, descriptorSerializer)
+
+        then:
+        bytes2 == bytes1
+        result1.className == "some-class"
+        result2.className == "some-class"
+        result2.name == "some-test"
+    }
+
     def "serializes DefaultTestMethodDescriptor"() {
         def id = new CompositeIdGenerator.CompositeId(1L, 2L)
         def descriptor = new DefaultTestMethodDescriptor(id, "some-class", "some-test")
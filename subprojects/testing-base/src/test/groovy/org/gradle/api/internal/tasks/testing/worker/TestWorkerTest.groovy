@@ -38,6 +38,7 @@ public class TestWorkerTest extends ConcurrentSpec {
     def processor = Mock(TestClassProcessor)
     def test = Mock(TestClassRunInfo)
     def resultProcessor = Mock(TestResultProcessor)
+    def testClassRequester = Mock(RemoteTestClassRequester)
     def worker = new TestWorker(factory)
     def serviceRegistry = new DefaultServiceRegistry().add(Clock, Time.clock())
 
@@ -61,7 +62,9 @@ public class TestWorkerTest extends ConcurrentSpec {
         and:
         1 * factory.create(_) >> processor
         1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(RemoteTestClassRequester) >> testClassRequester
         1 * connection.addIncoming(RemoteTestClassProcessor, worker)
+        1 * connection.addIncoming(RemoteTestOutputFlowControl, _ as FlowControlledTestResultProcessor)
         1 * connection.useParameterSerializers(_)
         1 * connection.connect() >> {
             start {
@@ -74,6 +77,7 @@ public class TestWorkerTest extends ConcurrentSpec {
         }
         1 * processor.startProcessing(_)
         1 * processor.processTestClass(test)
+        1 * testClassRequester.requestTestClass()
         1 * processor.stop()
     }
 }
@@ -40,7 +40,9 @@ import org.junit.platform.launcher.core.LauncherFactory;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -53,17 +55,21 @@ import static org.junit.platform.launcher.TagFilter.includeTags;
 
 public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProcessor<JUnitPlatformSpec> {
     private TestResultProcessor resultProcessor;
-    private TestClassExecutionListener executionListener;
     private CollectAllTestClassesExecutor testClassExecutor;
 
     public JUnitPlatformTestClassProcessor(JUnitPlatformSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, Clock clock) {
         super(spec, idGenerator, actorFactory, clock);
     }
 
+    @Override
+    protected TestResultProcessor attachParents(TestResultProcessor resultProcessor) {
+        // Test classes may execute concurrently, so the listener attaches each test to its test class itself
+        return resultProcessor;
+    }
+
     @Override
     protected Action<String> createTestExecutor(TestResultProcessor threadSafeResultProcessor, TestClassExecutionListener threadSafeTestClassListener) {
         resultProcessor = threadSafeResultProcessor;
-        executionListener = threadSafeTestClassListener;
         testClassExecutor = new CollectAllTestClassesExecutor();
         return testClassExecutor;
     }
@@ -88,7 +94,7 @@ public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProce
 
         private void processAllTestClasses() {
             Launcher launcher = LauncherFactory.create();
-            launcher.registerTestExecutionListeners(new JUnitPlatformTestExecutionListener(resultProcessor, clock, idGenerator, executionListener));
+            launcher.registerTestExecutionListeners(new JUnitPlatformTestExecutionListener(resultProcessor, clock, idGenerator));
             launcher.execute(createLauncherDiscoveryRequest(testClasses));
         }
     }
@@ -116,10 +122,22 @@ public class JUnitPlatformTestClassProcessor extends AbstractJUnitTestClassProce
         addTestNameFilters(requestBuilder);
         addEnginesFilter(requestBuilder);
         addTagsFilter(requestBuilder);
+        addParallelExecutionParameters(requestBuilder);
 
         return requestBuilder.build();
     }
 
+    private void addParallelExecutionParameters(LauncherDiscoveryRequestBuilder requestBuilder) {
+        if (spec.getParallelism() > 1) {
+            Map<String, String> parameters = new HashMap<>();
+            parameters.put("junit.jupiter.execution.parallel.enabled", "true");
+            parameters.put("junit.jupiter.execution.parallel.mode.default", "concurrent");
+            parameters.put("junit.jupiter.execution.parallel.config.strategy", "fixed");
+            parameters.put("junit.jupiter.execution.parallel.config.fixed.parallelism", String.valueOf(spec.getParallelism()));
+            requestBuilder.configurationParameters(parameters);
+        }
+    }
+
     private void addEnginesFilter(LauncherDiscoveryRequestBuilder requestBuilder) {
         if (!spec.getIncludeEngines().isEmpty()) {
             requestBuilder.filters(includeEngines(spec.getIncludeEngines()));
@@ -16,11 +16,13 @@
 
 package org.gradle.api.internal.tasks.testing.junitplatform;
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
 import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
 import org.gradle.api.internal.tasks.testing.junit.GenericJUnitTestEventAdapter;
-import org.gradle.api.internal.tasks.testing.junit.TestClassExecutionListener;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.time.Clock;
 import org.junit.platform.engine.TestExecutionResult;
@@ -31,21 +33,30 @@ import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.TestPlan;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static org.gradle.api.internal.tasks.testing.junitplatform.VintageTestNameAdapter.*;
 import static org.junit.platform.engine.TestExecutionResult.Status.SUCCESSFUL;
 
+/**
+ * Adapts the JUnit platform execution events to test events. The test engines may execute several test classes concurrently,
+ * so each test is explicitly attached to the outermost test class that contains it.
+ */
 public class JUnitPlatformTestExecutionListener implements TestExecutionListener {
+    private final TestResultProcessor resultProcessor;
     private final GenericJUnitTestEventAdapter<String> adapter;
+    private final Clock clock;
     private final IdGenerator<?> idGenerator;
-    private final TestClassExecutionListener executionListener;
-    private final CurrentRunningTestClass currentRunningTestClass;
-    private TestPlan currentTestPlan;
+    private final Map<String, TestDescriptorInternal> runningTestClasses = new ConcurrentHashMap<>();
+    private volatile TestPlan currentTestPlan;
 
-    public JUnitPlatformTestExecutionListener(TestResultProcessor resultProcessor, Clock clock, IdGenerator<?> idGenerator, TestClassExecutionListener executionListener) {
+    public JUnitPlatformTestExecutionListener(TestResultProcessor resultProcessor, Clock clock, IdGenerator<?> idGenerator) {
+        this.resultProcessor = resultProcessor;
         this.adapter = new GenericJUnitTestEventAdapter<>(resultProcessor, clock);
+        this.clock = clock;
         this.idGenerator = idGenerator;
-        this.executionListener = executionListener;
-        this.currentRunningTestClass = new CurrentRunningTestClass();
     }
 
     @Override
@@ -61,7 +72,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
     @Override
     public void executionSkipped(TestIdentifier testIdentifier, String reason) {
         if (isLeafTest(testIdentifier)) {
-            adapter.testIgnored(getDescriptor(testIdentifier));
+            adapter.testIgnored(getDescriptor(testIdentifier), getParentId(testIdentifier));
         } else if (isClass(testIdentifier)) {
             reportTestClassStarted(testIdentifier);
             currentTestPlan.getChildren(testIdentifier).forEach(child -> executionSkipped(child, reason));
@@ -75,7 +86,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
             reportTestClassStarted(testIdentifier);
         }
         if (isLeafTest(testIdentifier)) {
-            adapter.testStarted(testIdentifier.getUniqueId(), getDescriptor(testIdentifier));
+            adapter.testStarted(testIdentifier.getUniqueId(), getDescriptor(testIdentifier), getParentId(testIdentifier));
         }
     }
 
@@ -93,8 +104,13 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
     }
 
     private void executionFailedBeforeTestClassStart(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
-        reportTestClassStarted(testIdentifier);
-        reportTestClassFinished(testIdentifier, testExecutionResult.getThrowable().get());
+        TestDescriptorInternal testClass = reportTestClassStarted(testIdentifier);
+        long now = clock.getCurrentTime();
+        DefaultTestDescriptor initializationError = new DefaultTestDescriptor(idGenerator.generateId(), testClass.getClassName(), "initializationError");
+        resultProcessor.started(initializationError, new TestStartEvent(now, testClass.getId()));
+        resultProcessor.failure(initializationError.getId(), testExecutionResult.getThrowable().get());
+        resultProcessor.completed(initializationError.getId(), new TestCompleteEvent(now));
+        reportTestClassFinished(testIdentifier);
     }
 
     private void executionFinishedAfterTestClassStart(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
@@ -104,7 +120,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
         if (isFailedContainer(testIdentifier, testExecutionResult)) {
             // only leaf methods triggered start events previously
             // so here we need to add the missing start events
-            adapter.testStarted(testIdentifier.getUniqueId(), getDescriptor(testIdentifier));
+            adapter.testStarted(testIdentifier.getUniqueId(), getDescriptor(testIdentifier), getParentId(testIdentifier));
             testFinished(testIdentifier, testExecutionResult);
         } else if (isLeafTest(testIdentifier)) {
             testFinished(testIdentifier, testExecutionResult);
@@ -116,7 +132,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
     }
 
     private boolean testFailedBeforeTestClassStart(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
-        return isFailedContainer(testIdentifier, testExecutionResult) && currentRunningTestClass.count == 0;
+        return isFailedContainer(testIdentifier, testExecutionResult) && findRunningTestClass(testIdentifier) == null;
     }
 
     private void testFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
@@ -124,7 +140,7 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
             case SUCCESSFUL:
                 break;
             case FAILED:
-                adapter.testFailure(testIdentifier.getUniqueId(), getDescriptor(testIdentifier), testExecutionResult.getThrowable().get());
+                adapter.testFailure(testIdentifier.getUniqueId(), getDescriptor(testIdentifier), getParentId(testIdentifier), testExecutionResult.getThrowable().get());
                 break;
             case ABORTED:
                 adapter.testAssumptionFailure(testIdentifier.getUniqueId());
@@ -135,16 +151,45 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
         adapter.testFinished(testIdentifier.getUniqueId());
     }
 
-    private void reportTestClassStarted(TestIdentifier testIdentifier) {
-        currentRunningTestClass.start(className(testIdentifier), classDisplayName(testIdentifier));
+    /**
+     * Reports a test class as started, unless it is nested inside a test class that is already running. Returns the running test class that contains the given test class.
+     */
+    private TestDescriptorInternal reportTestClassStarted(TestIdentifier testIdentifier) {
+        TestDescriptorInternal runningTestClass = findRunningTestClass(testIdentifier);
+        if (runningTestClass != null) {
+            return runningTestClass;
+        }
+        TestDescriptorInternal testClass = new DefaultTestClassDescriptor(idGenerator.generateId(), className(testIdentifier), classDisplayName(testIdentifier));
+        runningTestClasses.put(testIdentifier.getUniqueId(), testClass);
+        resultProcessor.started(testClass, new TestStartEvent(clock.getCurrentTime()));
+        return testClass;
+    }
+
+    private void reportTestClassFinished(TestIdentifier testIdentifier) {
+        TestDescriptorInternal testClass = runningTestClasses.remove(testIdentifier.getUniqueId());
+        if (testClass != null) {
+            resultProcessor.completed(testClass.getId(), new TestCompleteEvent(clock.getCurrentTime()));
+        }
     }
 
-    private void reportTestClassFinished(TestIdentifier testIdentifier, Throwable failure) {
-        currentRunningTestClass.end(className(testIdentifier), failure);
+    @Nullable
+    private Object getParentId(TestIdentifier testIdentifier) {
+        TestDescriptorInternal testClass = findRunningTestClass(testIdentifier);
+        return testClass == null ? null : testClass.getId();
     }
 
-    private void reportTestClassFinished(TestIdentifier testIdentifier) {
-        currentRunningTestClass.end(className(testIdentifier), null);
+    @Nullable
+    private TestDescriptorInternal findRunningTestClass(TestIdentifier testIdentifier) {
+        while (true) {
+            TestDescriptorInternal testClass = runningTestClasses.get(testIdentifier.getUniqueId());
+            if (testClass != null) {
+                return testClass;
+            }
+            if (!testIdentifier.getParentId().isPresent()) {
+                return null;
+            }
+            testIdentifier = currentTestPlan.getTestIdentifier(testIdentifier.getParentId().get());
+        }
     }
 
     private boolean isFailedContainer(TestIdentifier testIdentifier, TestExecutionResult result) {
@@ -210,29 +255,4 @@ public class JUnitPlatformTestExecutionListener implements TestExecutionListener
             return "UnknownClass";
         }
     }
-
-    private class CurrentRunningTestClass {
-        private String name;
-        private int count;
-
-        private void start(String className, String displayName) {
-            if (name == null) {
-                name = className;
-                executionListener.testClassStarted(className, displayName);
-                count = 1;
-            } else if (className.equals(name)) {
-                count++;
-            }
-        }
-
-        private void end(String className, Throwable failure) {
-            if (className.equals(name)) {
-                count--;
-                if (count == 0) {
-                    executionListener.testClassFinished(failure);
-                    name = null;
-                }
-            }
-        }
-    }
 }
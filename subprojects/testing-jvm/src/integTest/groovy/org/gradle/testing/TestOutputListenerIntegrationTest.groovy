@@ -24,10 +24,11 @@ import org.junit.Test
 import spock.lang.Issue
 
 import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_4_LATEST
+import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_PLATFORM_OLDEST
 import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_VINTAGE_JUPITER
 
 @Issue("GRADLE-1009")
-@TargetCoverage({ JUNIT_4_LATEST + JUNIT_VINTAGE_JUPITER })
+@TargetCoverage({ JUNIT_4_LATEST + JUNIT_VINTAGE_JUPITER + JUNIT_PLATFORM_OLDEST })
 class TestOutputListenerIntegrationTest extends JUnitMultiVersionIntegrationSpec {
     @Rule public final TestResources resources = new TestResources(temporaryFolder)
 
@@ -28,12 +28,13 @@ import spock.lang.Issue
 import spock.lang.Unroll
 
 import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_4_LATEST
+import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_PLATFORM_OLDEST
 import static org.gradle.testing.fixture.JUnitCoverage.JUNIT_VINTAGE_JUPITER
 
 /**
  * General tests for the JVM testing infrastructure that don't deserve their own test class.
  */
-@TargetCoverage({ JUNIT_4_LATEST + JUNIT_VINTAGE_JUPITER })
+@TargetCoverage({ JUNIT_4_LATEST + JUNIT_VINTAGE_JUPITER + JUNIT_PLATFORM_OLDEST })
 class TestingIntegrationTest extends JUnitMultiVersionIntegrationSpec {
 
     @Issue("https://issues.gradle.org/browse/GRADLE-1948")
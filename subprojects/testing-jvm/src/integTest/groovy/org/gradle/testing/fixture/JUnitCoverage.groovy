@@ -20,15 +20,19 @@ import org.gradle.api.JavaVersion
 
 /**
  * NEWEST is JUnit 4 series, i.e. junit:junit:4.12
- * JUPITER is JUnit Jupiter engine, i.e. org.junit.jupiter:junit-jupiter-api:5.1.0
- * VINTAGE is JUnit Vintage engine which supports JUnit 4 tests on top of JUnit Platform, i.e. org.junit.vintage:junit-vintage-engine:5.1.0
+ * JUPITER is JUnit Jupiter engine, i.e. org.junit.jupiter:junit-jupiter-api:5.3.1
+ * VINTAGE is JUnit Vintage engine which supports JUnit 4 tests on top of JUnit Platform, i.e. org.junit.vintage:junit-vintage-engine:5.3.1
+ * OLDEST_JUPITER and OLDEST_VINTAGE are the oldest engine versions supported, which run on the newer JUnit Platform launcher bundled with Gradle
  */
 class JUnitCoverage {
     final static String NEWEST = '4.12'
-    final static String LATEST_JUPITER_VERSION = '5.1.0'
-    final static String LATEST_VINTAGE_VERSION = '5.1.0'
+    final static String LATEST_JUPITER_VERSION = '5.3.1'
+    final static String LATEST_VINTAGE_VERSION = '5.3.1'
+    final static String OLDEST_JUNIT_PLATFORM_ENGINE_VERSION = '5.0.0'
     final static String JUPITER = 'Jupiter:' + LATEST_JUPITER_VERSION
     final static String VINTAGE = 'Vintage:' + LATEST_VINTAGE_VERSION
+    final static String OLDEST_JUPITER = 'Jupiter:' + OLDEST_JUNIT_PLATFORM_ENGINE_VERSION
+    final static String OLDEST_VINTAGE = 'Vintage:' + OLDEST_JUNIT_PLATFORM_ENGINE_VERSION
     final static String[] LARGE_COVERAGE = ['4.0', '4.4', '4.8.2', NEWEST]
     final static String[] IGNORE_ON_CLASS = ['4.4', '4.8.2', NEWEST]
     final static String[] ASSUMPTIONS = ['4.5', NEWEST]
@@ -37,6 +41,7 @@ class JUnitCoverage {
     final static String[] JUNIT_4_LATEST = [NEWEST]
     final static String[] JUNIT_VINTAGE = emptyIfJava7(VINTAGE)
     final static String[] JUNIT_VINTAGE_JUPITER = emptyIfJava7(VINTAGE, JUPITER)
+    final static String[] JUNIT_PLATFORM_OLDEST = emptyIfJava7(OLDEST_VINTAGE, OLDEST_JUPITER)
 
     static String[] emptyIfJava7(String... versions) {
         if (JavaVersion.current().isJava8Compatible()) {
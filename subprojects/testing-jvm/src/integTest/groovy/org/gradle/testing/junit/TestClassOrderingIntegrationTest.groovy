@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.testing.junit
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import spock.lang.Unroll
+
+class TestClassOrderingIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        buildFile << """
+            apply plugin: 'java'
+
+            ${mavenCentralRepository()}
+
+            dependencies {
+                testCompile 'junit:junit:4.12'
+            }
+
+            test {
+                systemProperty 'failing', project.hasProperty('failing') ? project.property('failing') : ''
+                testLogging.showStandardStreams = true
+                outputs.upToDateWhen { false }
+            }
+        """
+        ['ATest', 'BTest', 'CTest', 'DTest', 'YFlakyTest', 'ZFlakyTest'].each { writeTestClass(it) }
+    }
+
+    def "keeps the failure history of test classes that a filtered execution does not run"() {
+        given:
+        fails('test', '-Pfailing=ZFlakyTest')
+        succeeds('test', '--tests', 'ATest')
+
+        when:
+        succeeds('test')
+
+        then:
+        executedTestClasses().first() == 'ZFlakyTest'
+    }
+
+    def "keeps the failure history of test classes that a fail fast execution does not run"() {
+        given:
+        fails('test', '-Pfailing=ZFlakyTest')
+        fails('test', '-Pfailing=YFlakyTest')
+        // The previous failed test class runs first and fails, so no other test class runs
+        fails('test', '--fail-fast', '-Pfailing=YFlakyTest')
+        assert executedTestClasses() == ['YFlakyTest']
+
+        when:
+        succeeds('test')
+
+        then:
+        executedTestClasses().take(2) == ['YFlakyTest', 'ZFlakyTest']
+    }
+
+    @Unroll
+    def "executes test classes affected by changes first with #description"() {
+        given:
+        buildFile << "test { ${config} }"
+        file('src/main/java/Used.java').text = "public class Used { public static String value() { return \"a\"; } }"
+        file('src/main/java/Helper.java').text = "public class Helper { public static String value() { return Used.value(); } }"
+        writeTestClass('ZDependentTest', 'Used.value();')
+        writeTestClass('YIndirectTest', 'Helper.value();')
+        succeeds('test')
+
+        when:
+        file('src/main/java/Used.java').text = "public class Used { public static String value() { return \"b\"; } }"
+        succeeds('test')
+
+        then:
+        executedTestClasses().take(2) == ['ZDependentTest', 'YIndirectTest']
+
+        where:
+        description                  | config
+        'fail fast'                  | 'failFast = true'
+        'incremental test selection' | 'incrementalTestSelection = true'
+    }
+
+    private void writeTestClass(String className, String body = '') {
+        file("src/test/java/${className}.java").text = """
+            import org.junit.Test;
+
+            public class ${className} {
+                @Test
+                public void test() {
+                    ${body}
+                    System.out.println("Executing ${className}");
+                    if ("${className}".equals(System.getProperty("failing"))) {
+                        throw new RuntimeException();
+                    }
+                }
+            }
+        """
+    }
+
+    private List<String> executedTestClasses() {
+        return output.readLines().findResults { line ->
+            def matcher = line =~ /Executing (\w+)/
+            matcher.find() ? matcher.group(1) : null
+        }
+    }
+}
@@ -24,6 +24,7 @@ import spock.lang.Unroll
 
 import static org.gradle.testing.fixture.JUnitCoverage.LATEST_JUPITER_VERSION
 import static org.hamcrest.Matchers.containsString
+import static org.hamcrest.Matchers.not
 
 @Requires(TestPrecondition.JDK8_OR_LATER)
 class JUnitPlatformIntegrationTest extends JUnitPlatformIntegrationSpec {
@@ -44,7 +45,7 @@ class JUnitPlatformIntegrationTest extends JUnitPlatformIntegrationSpec {
         given:
         buildFile << """
         dependencies {
-            testCompile 'org.junit.platform:junit-platform-runner:1.0.3'
+            testCompile 'org.junit.platform:junit-platform-runner:1.3.1'
         }
         """
         createSimpleJupiterTest()
@@ -322,4 +323,119 @@ public class StaticInnerTest {
         result.testClass('org.gradle.StaticInnerTest$Nested$Nested2').assertTestCount(1, 0, 0)
             .assertTestPassed('inside')
     }
+
+    def 'can execute test classes concurrently'() {
+        given:
+        useParallelJupiter()
+        file('src/test/java/org/gradle/Rendezvous.java') << '''
+package org.gradle;
+import java.util.concurrent.*;
+public class Rendezvous {
+    private static final CyclicBarrier BARRIER = new CyclicBarrier(3);
+
+    // Only returns once a test of each of the concurrent test classes is running
+    public static void await() throws Exception {
+        BARRIER.await(30, TimeUnit.SECONDS);
+    }
+}
+'''
+        (1..3).each { index ->
+            file("src/test/java/org/gradle/ConcurrentTest${index}.java") << """
+package org.gradle;
+import org.junit.jupiter.api.*;
+public class ConcurrentTest${index} {
+    @Test
+    public void first() throws Exception {
+        System.out.println("before rendezvous of ConcurrentTest${index}");
+        Rendezvous.await();
+        System.out.println("after rendezvous of ConcurrentTest${index}");
+    }
+
+    @Test
+    public void second() {
+        System.out.println("output of ConcurrentTest${index}");
+    }
+}
+"""
+        }
+        file('src/test/java/org/gradle/FailingBeforeAllTest.java') << '''
+package org.gradle;
+import org.junit.jupiter.api.*;
+public class FailingBeforeAllTest {
+    @BeforeAll
+    public static void before() {
+        throw new RuntimeException("failure in beforeAll");
+    }
+
+    @Test
+    public void ok() {
+    }
+}
+'''
+
+        when:
+        fails('test')
+
+        then:
+        def result = new DefaultTestExecutionResult(testDirectory)
+        result.assertTestClassesExecuted('org.gradle.ConcurrentTest1', 'org.gradle.ConcurrentTest2', 'org.gradle.ConcurrentTest3', 'org.gradle.FailingBeforeAllTest')
+        (1..3).each { index ->
+            def otherIndices = (1..3) - index
+            result.testClass("org.gradle.ConcurrentTest${index}").assertTestCount(2, 0, 0)
+                .assertTestPassed('first()')
+                .assertTestPassed('second()')
+                .assertStdout(containsString("before rendezvous of ConcurrentTest${index}"))
+                .assertStdout(containsString("after rendezvous of ConcurrentTest${index}"))
+                .assertStdout(containsString("output of ConcurrentTest${index}"))
+                .assertStdout(not(containsString("ConcurrentTest${otherIndices[0]}")))
+                .assertStdout(not(containsString("ConcurrentTest${otherIndices[1]}")))
+        }
+        result.testClass('org.gradle.FailingBeforeAllTest').assertTestCount(1, 1, 0)
+            .assertTestFailed('classMethod', containsString('failure in beforeAll'))
+    }
+
+    def 'can handle test engine failure when executing tests concurrently'() {
+        given:
+        useParallelJupiter()
+        createSimpleJupiterTest()
+        file('src/test/java/UninstantiatableExtension.java') << '''
+import org.junit.jupiter.api.extension.*;
+public class UninstantiatableExtension implements BeforeEachCallback {
+  private UninstantiatableExtension(){}
+
+  @Override
+  public void beforeEach(final ExtensionContext context) throws Exception {
+  }
+}
+'''
+        file('src/test/resources/META-INF/services/org.junit.jupiter.api.extension.Extension') << 'UninstantiatableExtension'
+        buildFile << '''
+            test {
+                systemProperty('junit.jupiter.extensions.autodetection.enabled', 'true')
+            }
+        '''
+
+        when:
+        fails('test')
+
+        then:
+        new DefaultTestExecutionResult(testDirectory)
+            .testClass('UnknownClass')
+            .assertTestFailed('initializationError', containsString('UninstantiatableExtension'))
+    }
+
+    private void useParallelJupiter() {
+        // Parallel execution is supported by Jupiter from 5.3 on
+        buildFile << """
+            dependencies {
+                testCompile 'org.junit.jupiter:junit-jupiter-api:${LATEST_JUPITER_VERSION}','org.junit.jupiter:junit-jupiter-engine:${LATEST_JUPITER_VERSION}'
+            }
+
+            test {
+                useJUnitPlatform {
+                    parallelism = 4
+                }
+            }
+        """
+    }
 }
@@ -22,6 +22,8 @@ import org.gradle.process.JavaForkOptions;
 import org.gradle.util.Path;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 public class JvmTestExecutionSpec implements TestExecutionSpec {
@@ -36,8 +38,19 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     private final JavaForkOptions javaForkOptions;
     private final int maxParallelForks;
     private final Set<String> previousFailedTestClasses;
+    private final int shardIndex;
+    private final int shardCount;
+    private final Map<String, Long> previousTestClassDurations;
+    private final Set<String> reusedTestClasses;
+    private final boolean reuseForks;
+    private final Map<String, Integer> testClassChangeDistances;
+    private final Map<String, Double> testClassFailureRates;
 
     public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses) {
+        this(testFramework, classpath, candidateClassFiles, scanForTestClasses, testClassesDirs, path, identityPath, forkEvery, javaForkOptions, maxParallelForks, previousFailedTestClasses, 0, 1, Collections.<String, Long>emptyMap(), Collections.<String>emptySet(), false, Collections.<String, Integer>emptyMap(), Collections.<String, Double>emptyMap());
+    }
+
+    public JvmTestExecutionSpec(TestFramework testFramework, Iterable<? extends File> classpath, FileTree candidateClassFiles, boolean scanForTestClasses, FileCollection testClassesDirs, String path, Path identityPath, long forkEvery, JavaForkOptions javaForkOptions, int maxParallelForks, Set<String> previousFailedTestClasses, int shardIndex, int shardCount, Map<String, Long> previousTestClassDurations, Set<String> reusedTestClasses, boolean reuseForks, Map<String, Integer> testClassChangeDistances, Map<String, Double> testClassFailureRates) {
         this.testFramework = testFramework;
         this.classpath = classpath;
         this.candidateClassFiles = candidateClassFiles;
@@ -49,6 +62,13 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
         this.javaForkOptions = javaForkOptions;
         this.maxParallelForks = maxParallelForks;
         this.previousFailedTestClasses = previousFailedTestClasses;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.previousTestClassDurations = previousTestClassDurations;
+        this.reusedTestClasses = reusedTestClasses;
+        this.reuseForks = reuseForks;
+        this.testClassChangeDistances = testClassChangeDistances;
+        this.testClassFailureRates = testClassFailureRates;
     }
 
     public TestFramework getTestFramework() {
@@ -94,4 +114,47 @@ public class JvmTestExecutionSpec implements TestExecutionSpec {
     public Set<String> getPreviousFailedTestClasses() {
         return previousFailedTestClasses;
     }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * The durations in milliseconds of test classes in previous runs, used to balance the shards.
+     */
+    public Map<String, Long> getPreviousTestClassDurations() {
+        return previousTestClassDurations;
+    }
+
+    /**
+     * The test classes that are not executed, as their results of the previous execution are reused.
+     */
+    public Set<String> getReusedTestClasses() {
+        return reusedTestClasses;
+    }
+
+    /**
+     * Whether the test processes may be taken from, and returned to, the pool of reusable test processes.
+     */
+    public boolean isReuseForks() {
+        return reuseForks;
+    }
+
+    /**
+     * The distance of the classes affected by the changes since the previous execution to the closest changed class, used to run the test classes closest to the changes first.
+     */
+    public Map<String, Integer> getTestClassChangeDistances() {
+        return testClassChangeDistances;
+    }
+
+    /**
+     * The proportion of the recent executions of the test classes that failed, used to run the test classes that fail often first.
+     */
+    public Map<String, Double> getTestClassFailureRates() {
+        return testClassFailureRates;
+    }
 }
@@ -16,21 +16,15 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
-import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
-import org.gradle.util.internal.PatchedClassReader;
-import org.objectweb.asm.ClassReader;
+import org.gradle.cache.internal.FileContentCache;
 import org.objectweb.asm.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,26 +33,29 @@ import java.util.Set;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
-public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+public abstract class AbstractTestFrameworkDetector implements TestFrameworkDetector {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     private static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
+    private final FileContentCache<ClassScanResult> scanResults;
     private final Map<File, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
 
     private Set<File> testClassesDirectories;
     private Set<File> testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
+    /**
+     * @param scanResults The results of scanning the class files with the class visitor of the test framework.
+     */
+    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager, FileContentCache<ClassScanResult> scanResults) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
+        this.scanResults = scanResults;
         this.superClasses = new HashMap<File, Boolean>();
     }
 
-    protected abstract T createClassVisitor();
-
     private File getSuperTestClassFile(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
@@ -115,23 +112,6 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new PatchedClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-        } catch (Throwable e) {
-            throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
-        } finally {
-            IOUtils.closeQuietly(classStream);
-        }
-
-        return classVisitor;
-    }
-
     @Override
     public boolean processTestClass(File testClassFile) {
         return processTestClass(testClassFile, false);
@@ -143,12 +123,12 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * parent class is a test class all the extending classes are marked as test classes.
      */
     private boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
+        final ClassScanResult scanResult = scanResults.get(testClassFile);
 
-        boolean isTest = classVisitor.isTest();
+        boolean isTest = scanResult.isTest();
 
         if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = scanResult.getSuperClassName();
 
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
@@ -164,7 +144,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, scanResult, superClass);
 
         return isTest;
     }
@@ -191,9 +171,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    private void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    private void publishTestClass(boolean isTest, ClassScanResult scanResult, boolean superClass) {
+        if (isTest && !scanResult.isAbstract() && !superClass) {
+            String className = Type.getObjectType(scanResult.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
@@ -15,25 +15,31 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.lang.text.StrBuilder;
+import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.file.DefaultTemporaryFileProvider;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.Factory;
-import org.gradle.util.JarUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.*;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * This class manages class file extraction from library jar files.
  */
 public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
-    private final Map<String, Set<File>> packageJarFilesMappings;
+    private final Map<String, File> classFileJarFiles;
     private final Map<String, File> extractedJarClasses;
     private final Set<String> unextractableClasses;
     private final TemporaryFileProvider tempDirProvider;
@@ -41,28 +47,35 @@ public class ClassFileExtractionManager {
     public ClassFileExtractionManager(final Factory<File> tempDirFactory) {
         assert tempDirFactory != null;
         tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
-        packageJarFilesMappings = new HashMap<String, Set<File>>();
+        classFileJarFiles = new HashMap<String, File>();
         extractedJarClasses = new HashMap<String, File>();
         unextractableClasses = new TreeSet<String>();
     }
 
     /**
-     * Add all packages found in the jar file to the package <> jar(s) index.
+     * Add all class files found in the jar file to the class file <> jar index. A class file that is in several jars is
+     * extracted from the first jar added that contains it, the same as the jar it is loaded from.
      *
      * @param libraryJar Jar file to add to the index.
      */
     public void addLibraryJar(final File libraryJar) {
-        new JarFilePackageLister().listJarPackages(libraryJar, new JarFilePackageListener() {
-            public void receivePackage(String packageName) {
-                Set<File> jarFiles = packageJarFilesMappings.get(packageName);
-                if (jarFiles == null) {
-                    jarFiles = new TreeSet<File>();
+        try {
+            ZipFile zipFile = new ZipFile(libraryJar);
+            try {
+                Enumeration<? extends ZipEntry> zipFileEntries = zipFile.entries();
+                while (zipFileEntries.hasMoreElements()) {
+                    ZipEntry zipFileEntry = zipFileEntries.nextElement();
+                    String zipFileEntryName = zipFileEntry.getName();
+                    if (!zipFileEntry.isDirectory() && zipFileEntryName.endsWith(".class") && !classFileJarFiles.containsKey(zipFileEntryName)) {
+                        classFileJarFiles.put(zipFileEntryName, libraryJar);
+                    }
                 }
-                jarFiles.add(libraryJar);
-
-                packageJarFilesMappings.put(packageName, jarFiles);
+            } finally {
+                zipFile.close();
             }
-        });
+        } catch (IOException e) {
+            throw new GradleException("failed to scan jar file for classes (" + libraryJar.getAbsolutePath() + ")", e);
+        }
     }
 
     /**
@@ -88,50 +101,32 @@ public class ClassFileExtractionManager {
     }
 
     private boolean extractClassFile(final String className) {
-        boolean classFileExtracted = false;
+        final File jarFile = classFileJarFiles.get(className + ".class");
+        if (jarFile == null) {
+            // super class not on the classpath - unable to scan parent class
+            return false;
+        }
 
         final File extractedClassFile = tempFile();
-        final String classFileName = new StrBuilder().append(className).append(".class").toString();
-        final String classNamePackage = classNamePackage(className);
-        final Set<File> packageJarFiles = packageJarFilesMappings.get(classNamePackage);
-
-        File classFileSourceJar = null;
-
-        if (packageJarFiles != null && !packageJarFiles.isEmpty()) {
-            final Iterator<File> packageJarFilesIt = packageJarFiles.iterator();
-
-            while (!classFileExtracted && packageJarFilesIt.hasNext()) {
-                final File jarFile = packageJarFilesIt.next();
-
+        try {
+            ZipFile zipFile = new ZipFile(jarFile);
+            try {
+                InputStream classFileStream = zipFile.getInputStream(zipFile.getEntry(className + ".class"));
                 try {
-                    classFileExtracted = JarUtil.extractZipEntry(jarFile, classFileName, extractedClassFile);
-
-                    if (classFileExtracted) {
-                        classFileSourceJar = jarFile;
-                    }
-                } catch (IOException e) {
-                    throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
+                    FileUtils.copyInputStreamToFile(classFileStream, extractedClassFile);
+                } finally {
+                    classFileStream.close();
                 }
+            } finally {
+                zipFile.close();
             }
-
-            if (classFileExtracted) {
-                LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
-
-                extractedJarClasses.put(className, extractedClassFile);
-            }
-        } // super class not on the classpath - unable to scan parent class
-
-        return classFileExtracted;
-    }
-
-    private String classNamePackage(final String className) {
-        final int lastSlashIndex = className.lastIndexOf('/');
-
-        if (lastSlashIndex == -1) {
-            return null; // class in root package - should not happen
-        } else {
-            return className.substring(0, lastSlashIndex + 1);
+        } catch (IOException e) {
+            throw new GradleException("failed to extract class file from jar (" + jarFile + ")", e);
         }
+
+        LOGGER.debug("extracted class {} from {}", className, jarFile.getName());
+        extractedJarClasses.put(className, extractedClassFile);
+        return true;
     }
 
     private File tempFile() {
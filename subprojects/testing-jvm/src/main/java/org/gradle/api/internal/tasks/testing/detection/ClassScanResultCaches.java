@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.Factory;
+import org.gradle.internal.file.FileType;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the results of scanning class files for test classes, per test framework and class file content.
+ * The results are reused across test tasks and builds, so that unchanged class files are not parsed again before the tests can start.
+ */
+public class ClassScanResultCaches {
+    private final FileContentCacheFactory cacheFactory;
+    private final Map<String, FileContentCache<ClassScanResult>> caches = new HashMap<String, FileContentCache<ClassScanResult>>();
+
+    public ClassScanResultCaches(FileContentCacheFactory cacheFactory) {
+        this.cacheFactory = cacheFactory;
+    }
+
+    /**
+     * Returns the cache for the given test framework.
+     *
+     * @param testFramework Identifies the test framework across builds.
+     * @param classVisitorFactory Creates the visitors to scan class files that are not in the cache. Must create the same kind of visitor for every call with the same test framework.
+     */
+    public synchronized FileContentCache<ClassScanResult> getCache(String testFramework, final Factory<? extends TestClassVisitor> classVisitorFactory) {
+        FileContentCache<ClassScanResult> cache = caches.get(testFramework);
+        if (cache == null) {
+            cache = cacheFactory.newCache(testFramework + "-test-class-scans", 400000, new FileContentCacheFactory.Calculator<ClassScanResult>() {
+                @Override
+                public ClassScanResult calculate(File file, FileType fileType) {
+                    return ClassScanResult.scan(file, classVisitorFactory.create());
+                }
+            }, new ClassScanResult.Serializer());
+            caches.put(testFramework, cache);
+        }
+        return cache;
+    }
+}
@@ -47,7 +47,7 @@ public abstract class AbstractJUnitTestClassProcessor<T extends JUnitSpec> imple
     @Override
     public void startProcessing(TestResultProcessor resultProcessor) {
         // Build a result processor chain
-        TestResultProcessor resultProcessorChain = new AttachParentTestResultProcessor(resultProcessor);
+        TestResultProcessor resultProcessorChain = attachParents(resultProcessor);
         TestClassExecutionEventGenerator eventGenerator = new TestClassExecutionEventGenerator(resultProcessorChain, idGenerator, clock);
 
         // Wrap the result processor chain up in a blocking actor, to make the whole thing thread-safe
@@ -58,6 +58,13 @@ public abstract class AbstractJUnitTestClassProcessor<T extends JUnitSpec> imple
         executor = createTestExecutor(threadSafeResultProcessor, threadSafeTestClassListener);
     }
 
+    /**
+     * Attaches the tests that are started without a parent to the test class currently executing.
+     */
+    protected TestResultProcessor attachParents(TestResultProcessor resultProcessor) {
+        return new AttachParentTestResultProcessor(resultProcessor);
+    }
+
     protected abstract Action<String> createTestExecutor(TestResultProcessor threadSafeResultProcessor, TestClassExecutionListener threadSafeTestClassListener);
 
     @Override
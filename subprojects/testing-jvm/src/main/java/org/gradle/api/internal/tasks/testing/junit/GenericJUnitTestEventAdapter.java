@@ -23,6 +23,8 @@ import org.gradle.api.internal.tasks.testing.TestStartEvent;
 import org.gradle.api.tasks.testing.TestResult;
 import org.gradle.internal.time.Clock;
 
+import javax.annotation.Nullable;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -47,14 +49,25 @@ public class GenericJUnitTestEventAdapter<T> {
     }
 
     public void testStarted(T identifier, TestDescriptorInternal descriptor) {
+        testStarted(identifier, descriptor, null);
+    }
+
+    /**
+     * Reports that a test has started, as a child of the given parent. When the parent is {@code null}, the test is attached to the test class currently executing.
+     */
+    public void testStarted(T identifier, TestDescriptorInternal descriptor, @Nullable Object parentId) {
         synchronized (lock) {
             TestDescriptorInternal oldTest = executing.put(identifier, descriptor);
             assert oldTest == null : String.format("Unexpected start event for %s", identifier);
         }
-        resultProcessor.started(descriptor, startEvent());
+        resultProcessor.started(descriptor, startEvent(parentId));
     }
 
     public void testFailure(T identifier, TestDescriptorInternal descriptor, Throwable exception) {
+        testFailure(identifier, descriptor, null, exception);
+    }
+
+    public void testFailure(T identifier, TestDescriptorInternal descriptor, @Nullable Object parentId, Throwable exception) {
         TestDescriptorInternal testInternal;
         synchronized (lock) {
             testInternal = executing.get(identifier);
@@ -64,7 +77,7 @@ public class GenericJUnitTestEventAdapter<T> {
             // This can happen when, for example, a @BeforeClass or @AfterClass method fails
             needEndEvent = true;
             testInternal = descriptor;
-            resultProcessor.started(testInternal, startEvent());
+            resultProcessor.started(testInternal, startEvent(parentId));
         }
         resultProcessor.failure(testInternal.getId(), exception);
         if (needEndEvent) {
@@ -79,7 +92,11 @@ public class GenericJUnitTestEventAdapter<T> {
     }
 
     public void testIgnored(TestDescriptorInternal descriptor) {
-        resultProcessor.started(descriptor, startEvent());
+        testIgnored(descriptor, null);
+    }
+
+    public void testIgnored(TestDescriptorInternal descriptor, @Nullable Object parentId) {
+        resultProcessor.started(descriptor, startEvent(parentId));
         resultProcessor.completed(descriptor.getId(), new TestCompleteEvent(clock.getCurrentTime(), TestResult.ResultType.SKIPPED));
     }
 
@@ -100,7 +117,7 @@ public class GenericJUnitTestEventAdapter<T> {
         resultProcessor.completed(testInternal.getId(), new TestCompleteEvent(endTime, resultType));
     }
 
-    private TestStartEvent startEvent() {
-        return new TestStartEvent(clock.getCurrentTime());
+    private TestStartEvent startEvent(@Nullable Object parentId) {
+        return new TestStartEvent(clock.getCurrentTime(), parentId);
     }
 }
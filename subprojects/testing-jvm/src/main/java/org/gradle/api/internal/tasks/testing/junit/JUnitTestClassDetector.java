@@ -16,16 +16,11 @@
 package org.gradle.api.internal.tasks.testing.junit;
 
 import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
-import org.gradle.api.internal.tasks.testing.detection.TestFrameworkDetector;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
 class JUnitTestClassDetector extends TestClassVisitor {
-    JUnitTestClassDetector(final TestFrameworkDetector detector) {
-        super(detector);
-    }
-
     @Override
     protected boolean ignoreNonStaticInnerClass(){
         return true;
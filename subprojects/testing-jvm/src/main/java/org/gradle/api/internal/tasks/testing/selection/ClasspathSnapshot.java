@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.internal.hash.HashCode;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The state of the test runtime classpath and the other inputs of a test task, used to find the test classes affected by changes.
+ */
+public class ClasspathSnapshot {
+    private final Map<String, HashCode> classHashes;
+    private final HashCode otherInputsHash;
+    private final Map<String, FileTreeElement> classFiles;
+
+    public ClasspathSnapshot(Map<String, HashCode> classHashes, HashCode otherInputsHash) {
+        this(classHashes, otherInputsHash, Collections.<String, FileTreeElement>emptyMap());
+    }
+
+    ClasspathSnapshot(Map<String, HashCode> classHashes, HashCode otherInputsHash, Map<String, FileTreeElement> classFiles) {
+        this.classHashes = classHashes;
+        this.otherInputsHash = otherInputsHash;
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * Returns the hash of each class in the class directories of the classpath, by class name.
+     */
+    public Map<String, HashCode> getClassHashes() {
+        return classHashes;
+    }
+
+    /**
+     * Returns the hash of all other inputs: jars and resources on the classpath, other input files and input properties.
+     */
+    public HashCode getOtherInputsHash() {
+        return otherInputsHash;
+    }
+
+    /**
+     * Returns the class files by class name. Only available for a snapshot of the current classpath.
+     */
+    Map<String, FileTreeElement> getClassFiles() {
+        return classFiles;
+    }
+}
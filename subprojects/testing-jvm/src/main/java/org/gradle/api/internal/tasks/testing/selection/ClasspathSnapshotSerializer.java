@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+
+import java.util.Map;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+public class ClasspathSnapshotSerializer extends AbstractSerializer<ClasspathSnapshot> {
+    private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+    private final MapSerializer<String, HashCode> mapSerializer = new MapSerializer<String, HashCode>(STRING_SERIALIZER, hashCodeSerializer);
+
+    @Override
+    public ClasspathSnapshot read(Decoder decoder) throws Exception {
+        HashCode otherInputsHash = hashCodeSerializer.read(decoder);
+        Map<String, HashCode> classHashes = mapSerializer.read(decoder);
+        return new ClasspathSnapshot(classHashes, otherInputsHash);
+    }
+
+    @Override
+    public void write(Encoder encoder, ClasspathSnapshot value) throws Exception {
+        hashCodeSerializer.write(encoder, value.getOtherInputsHash());
+        mapSerializer.write(encoder, value.getClassHashes());
+    }
+}
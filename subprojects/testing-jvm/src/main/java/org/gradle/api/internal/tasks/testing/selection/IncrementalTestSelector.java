@@ -0,0 +1,289 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.caching.internal.BuildCacheHasher;
+import org.gradle.caching.internal.DefaultBuildCacheHasher;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Selects the test classes that are not affected by the changes to the inputs of a test task since a previous execution.
+ *
+ * <p>A test class is affected when it changed, or when a class it references in its bytecode changed, directly or transitively. Only changes to the classes in
+ * the class directories of the test runtime classpath are tracked per class. Any change to the other inputs, like jars and resources on the classpath, other
+ * input files or input properties, affects every test class.</p>
+ */
+public class IncrementalTestSelector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalTestSelector.class);
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final FileHasher fileHasher;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final ValueSnapshotter valueSnapshotter;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final ClasspathSnapshotSerializer serializer = new ClasspathSnapshotSerializer();
+
+    public IncrementalTestSelector(FileHasher fileHasher, DirectoryFileTreeFactory directoryFileTreeFactory, ValueSnapshotter valueSnapshotter, GeneralCompileCaches compileCaches) {
+        this.fileHasher = fileHasher;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.valueSnapshotter = valueSnapshotter;
+        this.analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), compileCaches.getClassAnalysisCache());
+    }
+
+    /**
+     * Takes a snapshot of the given classpath and other inputs.
+     *
+     * @param classpath The test runtime classpath.
+     * @param inputFiles All input files of the test task, which may include the classpath.
+     * @param inputProperties All input properties of the test task.
+     */
+    public ClasspathSnapshot snapshot(Iterable<File> classpath, Iterable<File> inputFiles, Map<String, Object> inputProperties) {
+        final Map<String, HashCode> classHashes = new LinkedHashMap<String, HashCode>();
+        final Map<String, FileTreeElement> classFiles = new HashMap<String, FileTreeElement>();
+        final Set<File> seenClassFiles = new HashSet<File>();
+        BuildCacheHasher otherInputsHasher = new DefaultBuildCacheHasher();
+        for (File entry : classpath) {
+            otherInputsHasher.putString(entry.getAbsolutePath());
+            if (!entry.isDirectory()) {
+                continue;
+            }
+            directoryFileTreeFactory.create(entry).visit(new FileVisitor() {
+                @Override
+                public void visitDir(FileVisitDetails dirDetails) {
+                }
+
+                @Override
+                public void visitFile(FileVisitDetails fileDetails) {
+                    String path = fileDetails.getRelativePath().getPathString();
+                    if (!path.endsWith(".class")) {
+                        return;
+                    }
+                    seenClassFiles.add(fileDetails.getFile());
+                    String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                    // The first class on the classpath is the one that is loaded
+                    if (!classHashes.containsKey(className)) {
+                        classHashes.put(className, fileHasher.hash(fileDetails));
+                        classFiles.put(className, fileDetails);
+                    }
+                }
+            });
+        }
+
+        final Map<String, HashCode> otherFileHashes = new TreeMap<String, HashCode>();
+        for (File inputFile : inputFiles) {
+            if (inputFile.isDirectory()) {
+                directoryFileTreeFactory.create(inputFile).visit(new FileVisitor() {
+                    @Override
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        if (!seenClassFiles.contains(fileDetails.getFile())) {
+                            otherFileHashes.put(fileDetails.getFile().getAbsolutePath(), fileHasher.hash(fileDetails));
+                        }
+                    }
+                });
+            } else if (inputFile.isFile()) {
+                if (!seenClassFiles.contains(inputFile)) {
+                    otherFileHashes.put(inputFile.getAbsolutePath(), fileHasher.hash(inputFile));
+                }
+            }
+        }
+        for (Map.Entry<String, HashCode> entry : otherFileHashes.entrySet()) {
+            otherInputsHasher.putString(entry.getKey());
+            otherInputsHasher.putHash(entry.getValue());
+        }
+        valueSnapshotter.snapshot(new TreeMap<String, Object>(inputProperties)).appendToHasher(otherInputsHasher);
+
+        return new ClasspathSnapshot(classHashes, otherInputsHasher.hash(), classFiles);
+    }
+
+    /**
+     * Returns those of the given test classes that are not affected by the changes between the given snapshots.
+     *
+     * @param previous The snapshot taken for the previous execution.
+     * @param current The snapshot of the current classpath.
+     * @param testClasses The candidate test classes.
+     */
+    public Set<String> selectUnaffectedTestClasses(ClasspathSnapshot previous, ClasspathSnapshot current, Set<String> testClasses) {
+        Map<String, Integer> affectedClasses = findAffectedClasses(previous, current);
+        if (affectedClasses == null) {
+            return Collections.emptySet();
+        }
+        return selectUnaffectedTestClasses(affectedClasses, current, testClasses);
+    }
+
+    /**
+     * Returns those of the given test classes that are not affected by the changes, given the classes returned by {@link #findAffectedClasses(ClasspathSnapshot, ClasspathSnapshot)}.
+     *
+     * @param affectedClasses The classes affected by the changes.
+     * @param current The snapshot of the current classpath.
+     * @param testClasses The candidate test classes.
+     */
+    public Set<String> selectUnaffectedTestClasses(Map<String, Integer> affectedClasses, ClasspathSnapshot current, Set<String> testClasses) {
+        Set<String> unaffectedTestClasses = new HashSet<String>();
+        for (String testClass : testClasses) {
+            if (current.getClassHashes().containsKey(testClass) && !affectedClasses.containsKey(testClass)) {
+                unaffectedTestClasses.add(testClass);
+            }
+        }
+        return unaffectedTestClasses;
+    }
+
+    /**
+     * Returns the classes affected by the changes between the given snapshots, with their distance to the closest changed class: 0 for a class that changed,
+     * 1 for a class that references a changed class, and so on. Returns null when every class is affected.
+     *
+     * @param previous The snapshot taken for the previous execution.
+     * @param current The snapshot of the current classpath.
+     */
+    @Nullable
+    public Map<String, Integer> findAffectedClasses(ClasspathSnapshot previous, ClasspathSnapshot current) {
+        if (!previous.getOtherInputsHash().equals(current.getOtherInputsHash())) {
+            return null;
+        }
+
+        Map<String, Integer> affectedClasses = new HashMap<String, Integer>();
+        Deque<String> queue = new ArrayDeque<String>();
+        for (Map.Entry<String, HashCode> entry : current.getClassHashes().entrySet()) {
+            if (!entry.getValue().equals(previous.getClassHashes().get(entry.getKey()))) {
+                affectedClasses.put(entry.getKey(), 0);
+                queue.add(entry.getKey());
+            }
+        }
+        for (String className : previous.getClassHashes().keySet()) {
+            if (!current.getClassHashes().containsKey(className)) {
+                affectedClasses.put(className, 0);
+                queue.add(className);
+            }
+        }
+
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (Map.Entry<String, FileTreeElement> entry : current.getClassFiles().entrySet()) {
+            ClassAnalysis analysis = analyzer.getClassAnalysis(current.getClassHashes().get(entry.getKey()), entry.getValue());
+            accumulator.addClass(analysis);
+        }
+        Map<String, DependentsSet> dependents = accumulator.getDependentsMap();
+
+        // Visit the dependents breadth first, so that each class is reached through its shortest path to a changed class
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            DependentsSet classDependents = dependents.get(className);
+            if (classDependents == null) {
+                continue;
+            }
+            if (classDependents.isDependencyToAll()) {
+                return null;
+            }
+            int distance = affectedClasses.get(className) + 1;
+            for (String dependent : classDependents.getDependentClasses()) {
+                if (!affectedClasses.containsKey(dependent)) {
+                    affectedClasses.put(dependent, distance);
+                    queue.add(dependent);
+                }
+            }
+        }
+        return affectedClasses;
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(ClasspathSnapshot, File)}, or returns null when there is no usable snapshot in the given file.
+     */
+    @Nullable
+    public ClasspathSnapshot read(File snapshotFile) {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(snapshotFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != SNAPSHOT_VERSION) {
+                    return null;
+                }
+                return serializer.read(decoder);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // A truncated or otherwise unreadable snapshot only means that every test class is executed
+            LOGGER.debug("Could not read classpath snapshot from {}.", snapshotFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given snapshot to a temporary file first and then replaces the given file with it, so that an interrupted write never leaves a partial snapshot behind.
+     */
+    public void write(ClasspathSnapshot snapshot, File snapshotFile) {
+        File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try {
+            OutputStream outputStream = new FileOutputStream(tempFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(SNAPSHOT_VERSION);
+                serializer.write(encoder, snapshot);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
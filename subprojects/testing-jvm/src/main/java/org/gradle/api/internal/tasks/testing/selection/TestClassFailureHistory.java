@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The outcomes of the recent executions of the test classes of a test task, used to run the test classes that fail often first.
+ *
+ * <p>For each test class, the outcomes of its last {@value #MAX_EXECUTIONS} executions are kept as a bit set, where the lowest bit is the outcome of the most recent execution.</p>
+ */
+public class TestClassFailureHistory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestClassFailureHistory.class);
+    private static final int HISTORY_VERSION = 1;
+    static final int MAX_EXECUTIONS = 32;
+
+    private final Map<String, Outcomes> outcomes;
+
+    public TestClassFailureHistory() {
+        this(new HashMap<String, Outcomes>());
+    }
+
+    private TestClassFailureHistory(Map<String, Outcomes> outcomes) {
+        this.outcomes = outcomes;
+    }
+
+    /**
+     * Records the outcome of an execution of the given test class.
+     */
+    public void executed(String testClass, boolean failed) {
+        Outcomes previous = outcomes.get(testClass);
+        int executions = previous == null ? 0 : previous.executions;
+        int failures = previous == null ? 0 : previous.failures;
+        outcomes.put(testClass, new Outcomes(Math.min(executions + 1, MAX_EXECUTIONS), (failures << 1) | (failed ? 1 : 0)));
+    }
+
+    /**
+     * Forgets the test classes other than the given ones, like the test classes that were deleted.
+     */
+    public void retainAll(Collection<String> testClasses) {
+        outcomes.keySet().retainAll(testClasses);
+    }
+
+    /**
+     * Returns the proportion of the recent executions of each test class that failed, for the test classes that failed at least once recently.
+     */
+    public Map<String, Double> getFailureRates() {
+        Map<String, Double> failureRates = new HashMap<String, Double>();
+        for (Map.Entry<String, Outcomes> entry : outcomes.entrySet()) {
+            Outcomes testClassOutcomes = entry.getValue();
+            if (testClassOutcomes.failures != 0) {
+                failureRates.put(entry.getKey(), (double) Integer.bitCount(testClassOutcomes.failures) / testClassOutcomes.executions);
+            }
+        }
+        return failureRates;
+    }
+
+    /**
+     * Reads a history written by {@link #write(File)}, or returns an empty history when there is no usable history in the given file.
+     */
+    public static TestClassFailureHistory read(File historyFile) {
+        if (!historyFile.isFile()) {
+            return new TestClassFailureHistory();
+        }
+        try {
+            InputStream inputStream = new FileInputStream(historyFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != HISTORY_VERSION) {
+                    return new TestClassFailureHistory();
+                }
+                int count = decoder.readSmallInt();
+                Map<String, Outcomes> outcomes = new HashMap<String, Outcomes>(count);
+                for (int i = 0; i < count; i++) {
+                    String testClass = decoder.readString();
+                    int executions = decoder.readSmallInt();
+                    int failures = decoder.readInt();
+                    outcomes.put(testClass, new Outcomes(executions, failures));
+                }
+                return new TestClassFailureHistory(outcomes);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // A truncated or otherwise unreadable history only affects the order of the test classes
+            LOGGER.debug("Could not read test class failure history from {}.", historyFile, e);
+            return new TestClassFailureHistory();
+        }
+    }
+
+    /**
+     * Writes this history to a temporary file first and then replaces the given file with it, so that an interrupted write never leaves a partial history behind.
+     */
+    public void write(File historyFile) {
+        File tempFile = new File(historyFile.getParentFile(), historyFile.getName() + ".tmp");
+        try {
+            OutputStream outputStream = new FileOutputStream(tempFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(HISTORY_VERSION);
+                encoder.writeSmallInt(outcomes.size());
+                for (Map.Entry<String, Outcomes> entry : outcomes.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallInt(entry.getValue().executions);
+                    encoder.writeInt(entry.getValue().failures);
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+            Files.move(tempFile.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static class Outcomes {
+        private final int executions;
+        private final int failures;
+
+        Outcomes(int executions, int failures) {
+            this.executions = executions;
+            this.failures = failures;
+        }
+    }
+}
@@ -17,15 +17,19 @@ package org.gradle.api.internal.tasks.testing.testng;
 
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
+import org.gradle.api.internal.tasks.testing.detection.ClassScanResultCaches;
+import org.gradle.internal.Factory;
 
-class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetector> {
-    TestNGDetector(ClassFileExtractionManager classFileExtractionManager) {
-        super(classFileExtractionManager);
-    }
+class TestNGDetector extends AbstractTestFrameworkDetector {
+    private static final Factory<TestNGTestClassDetector> CLASS_VISITOR_FACTORY = new Factory<TestNGTestClassDetector>() {
+        @Override
+        public TestNGTestClassDetector create() {
+            return new TestNGTestClassDetector();
+        }
+    };
 
-    @Override
-    protected TestNGTestClassDetector createClassVisitor() {
-        return new TestNGTestClassDetector(this);
+    TestNGDetector(ClassFileExtractionManager classFileExtractionManager, ClassScanResultCaches scanResultCaches) {
+        super(classFileExtractionManager, scanResultCaches.getCache("testng", CLASS_VISITOR_FACTORY));
     }
 
     @Override
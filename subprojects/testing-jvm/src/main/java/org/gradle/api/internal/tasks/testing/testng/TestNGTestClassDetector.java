@@ -17,7 +17,6 @@ package org.gradle.api.internal.tasks.testing.testng;
 
 import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
-import org.gradle.api.internal.tasks.testing.detection.TestFrameworkDetector;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -37,10 +36,6 @@ class TestNGTestClassDetector extends TestClassVisitor {
         .add("Lorg/testng/annotations/Factory;")
         .build();
 
-    TestNGTestClassDetector(final TestFrameworkDetector detector) {
-        super(detector);
-    }
-
     @Override
     protected boolean ignoreNonStaticInnerClass() {
         return false;
@@ -21,11 +21,14 @@ import groovy.lang.Closure;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Incubating;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.NonNullApi;
+import org.gradle.api.file.EmptyFileVisitor;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
@@ -33,6 +36,7 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.tasks.testing.JvmTestExecutionSpec;
 import org.gradle.api.internal.tasks.testing.TestExecuter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
+import org.gradle.api.internal.tasks.testing.detection.ClassScanResultCaches;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
@@ -40,6 +44,10 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
 import org.gradle.api.tasks.testing.junitplatform.JUnitPlatformOptions;
 import org.gradle.api.internal.tasks.testing.junitplatform.JUnitPlatformTestFramework;
+import org.gradle.api.internal.tasks.testing.selection.ClasspathSnapshot;
+import org.gradle.api.internal.tasks.testing.selection.IncrementalTestSelector;
+import org.gradle.api.internal.tasks.testing.selection.TestClassFailureHistory;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerClientsManager;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.CacheableTask;
@@ -74,7 +82,9 @@ import org.gradle.util.SingleMessageLogger;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -146,10 +156,19 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private int shardIndex;
+    private int shardCount = 1;
+    private FileCollection shardingResultsDirs;
+    private boolean incrementalTestSelection;
+    private boolean reuseForks;
+    private Set<String> reusedTestClasses = Collections.emptySet();
+    private Map<String, Integer> testClassChangeDistances = Collections.emptyMap();
+    private ClasspathSnapshot currentClasspathSnapshot;
     private TestExecuter<JvmTestExecutionSpec> testExecuter;
 
     public Test() {
         patternSet = getFileResolver().getPatternSetFactory().create();
+        shardingResultsDirs = getProject().files();
         forkOptions = new DefaultJavaForkOptions(getFileResolver());
         forkOptions.setEnableAssertions(true);
     }
@@ -164,6 +183,11 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ClassScanResultCaches getClassScanResultCaches() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected WorkerProcessFactory getProcessBuilderFactory() {
         throw new UnsupportedOperationException();
@@ -174,6 +198,11 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected IncrementalTestSelector getIncrementalTestSelector() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected ModuleRegistry getModuleRegistry() {
         throw new UnsupportedOperationException();
@@ -449,6 +478,14 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
 
     /**
      * Enables fail fast behavior causing the task to fail on the first failed test.
+     *
+     * <p>The test classes are always executed in the order of their likelihood to fail: the test classes that failed in the previous execution first, followed by
+     * the test classes that failed most often recently. When fail fast or {@link #isIncrementalTestSelection() incremental test selection} is enabled, the test
+     * classes affected by changes to the classes since the previous execution are executed right after the previous failed test classes, the closest to the
+     * changes first.</p>
+     *
+     * <p>Finding the affected test classes requires hashing the class directories of the classpath and analyzing the dependencies of their classes before each
+     * execution, so enabling fail fast adds this cost to every execution, even when incremental test selection is not enabled.</p>
      */
     @Option(option = "fail-fast", description = "Stops test execution after the first failed test.")
     @Override
@@ -551,7 +588,162 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
     protected JvmTestExecutionSpec createTestExecutionSpec() {
         DefaultJavaForkOptions javaForkOptions = new DefaultJavaForkOptions(getFileResolver());
         copyTo(javaForkOptions);
-        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses());
+        if (shardIndex >= shardCount) {
+            throw new InvalidUserDataException(String.format("Cannot run shard %d of %s, as it only has %d shards. Shards are numbered from 0.", shardIndex, this, shardCount));
+        }
+        Map<String, Long> previousTestClassDurations = shardCount > 1 ? getPreviousTestClassDurations() : Collections.<String, Long>emptyMap();
+        detectChanges();
+        Map<String, Double> testClassFailureRates = TestClassFailureHistory.read(getFailureHistoryFile()).getFailureRates();
+        return new JvmTestExecutionSpec(getTestFramework(), getClasspath(), getCandidateClassFiles(), isScanForTestClasses(), getTestClassesDirs(), getPath(), getIdentityPath(), getForkEvery(), javaForkOptions, getMaxParallelForks(), getPreviousFailedTestClasses(), shardIndex, shardCount, previousTestClassDurations, reusedTestClasses, canReuseForks(javaForkOptions), testClassChangeDistances, testClassFailureRates);
+    }
+
+    @Override
+    Set<String> getReusedTestClasses() {
+        return reusedTestClasses;
+    }
+
+    /**
+     * A process started with a Java agent or for debugging is only useful for the current execution.
+     */
+    private boolean canReuseForks(JavaForkOptions javaForkOptions) {
+        if (!reuseForks || getForkEvery() != 0 || javaForkOptions.getDebug()) {
+            return false;
+        }
+        for (String jvmArg : javaForkOptions.getAllJvmArgs()) {
+            if (jvmArg.startsWith("-javaagent:") || jvmArg.startsWith("-agentlib:") || jvmArg.startsWith("-agentpath:")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the classpath with the snapshot kept with the results of the previous execution, to select the test classes whose previous results are reused
+     * and to run the test classes closest to the changes first when failing fast.
+     */
+    private void detectChanges() {
+        reusedTestClasses = Collections.emptySet();
+        testClassChangeDistances = Collections.emptyMap();
+        currentClasspathSnapshot = null;
+        if (!incrementalTestSelection && !getFailFast()) {
+            return;
+        }
+
+        IncrementalTestSelector selector = getIncrementalTestSelector();
+        // Read before the results of the previous execution are replaced, the snapshot of this execution is only written once its results are written
+        ClasspathSnapshot previousSnapshot = selector.read(getClasspathSnapshotFile());
+        currentClasspathSnapshot = selector.snapshot(getClasspath(), getInputs().getFiles(), getInputs().getProperties());
+        if (previousSnapshot == null) {
+            return;
+        }
+        Map<String, Integer> affectedClasses = selector.findAffectedClasses(previousSnapshot, currentClasspathSnapshot);
+        if (affectedClasses == null) {
+            return;
+        }
+        testClassChangeDistances = affectedClasses;
+        if (incrementalTestSelection) {
+            reusedTestClasses = selector.selectUnaffectedTestClasses(affectedClasses, currentClasspathSnapshot, getPreviousPassedTestClasses());
+            if (!reusedTestClasses.isEmpty()) {
+                getLogger().info("Reusing the previous results of {} test classes not affected by changes.", reusedTestClasses.size());
+            }
+        }
+    }
+
+    @Override
+    void testResultsWritten(Collection<TestClassResult> results) {
+        File historyFile = getFailureHistoryFile();
+        TestClassFailureHistory history = TestClassFailureHistory.read(historyFile);
+        for (TestClassResult result : results) {
+            if (!reusedTestClasses.contains(result.getClassName())) {
+                history.executed(result.getClassName(), result.getFailuresCount() > 0);
+            }
+        }
+        // Test classes that did not run, because of a filter or because the execution failed fast, keep their history
+        history.retainAll(getExistingTestClasses());
+        history.write(historyFile);
+        writeClasspathSnapshot(results);
+    }
+
+    /**
+     * Keeps the snapshot of this execution with its results, so that the results are only ever reused against the classpath they were produced with.
+     * Without incremental test selection, the snapshot is only used to order the test classes and is kept apart from the results.
+     */
+    private void writeClasspathSnapshot(Collection<TestClassResult> results) {
+        if (currentClasspathSnapshot == null) {
+            return;
+        }
+        if (incrementalTestSelection && getFailFast() && hasFailures(results)) {
+            // The execution was possibly stopped while a test class was running, so the results of that class may look complete when they are not
+            return;
+        }
+        getIncrementalTestSelector().write(currentClasspathSnapshot, getClasspathSnapshotFile());
+        currentClasspathSnapshot = null;
+    }
+
+    private static boolean hasFailures(Collection<TestClassResult> results) {
+        for (TestClassResult result : results) {
+            if (result.getFailuresCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the names of all classes in the test classes directories, regardless of the filters of this task.
+     */
+    private Set<String> getExistingTestClasses() {
+        final Set<String> testClasses = new HashSet<String>();
+        getTestClassesDirs().getAsFileTree().visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                String path = fileDetails.getRelativePath().getPathString();
+                if (path.endsWith(".class")) {
+                    testClasses.add(path.substring(0, path.length() - ".class".length()).replace('/', '.'));
+                }
+            }
+        });
+        return testClasses;
+    }
+
+    private File getClasspathSnapshotFile() {
+        return incrementalTestSelection ? new File(getBinResultsDir(), "classpath-snapshot.bin") : new File(getTemporaryDir(), "ordering-classpath-snapshot.bin");
+    }
+
+    private File getFailureHistoryFile() {
+        return new File(getTemporaryDir(), "failure-history.bin");
+    }
+
+    private Set<String> getPreviousPassedTestClasses() {
+        final Set<String> previousPassedTestClasses = new HashSet<String>();
+        new TestResultSerializer(getBinResultsDir()).read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult testClassResult) {
+                if (testClassResult.getFailuresCount() == 0) {
+                    previousPassedTestClasses.add(testClassResult.getClassName());
+                }
+            }
+        });
+        return previousPassedTestClasses;
+    }
+
+    private Map<String, Long> getPreviousTestClassDurations() {
+        final Map<String, Long> durations = new HashMap<String, Long>();
+        for (File resultsDir : shardingResultsDirs) {
+            TestResultSerializer serializer = new TestResultSerializer(resultsDir);
+            if (serializer.isHasResults()) {
+                serializer.read(new Action<TestClassResult>() {
+                    @Override
+                    public void execute(TestClassResult testClassResult) {
+                        Long previous = durations.get(testClassResult.getClassName());
+                        if (previous == null || previous < testClassResult.getDuration()) {
+                            durations.put(testClassResult.getClassName(), testClassResult.getDuration());
+                        }
+                    }
+                });
+            }
+        }
+        return durations;
     }
 
     private Set<String> getPreviousFailedTestClasses() {
@@ -595,7 +787,8 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
                 getServices().get(Clock.class),
                 getServices().get(DocumentationRegistry.class),
-                (DefaultTestFilter) getFilter());
+                (DefaultTestFilter) getFilter(),
+                getServices().get(ReusableTestWorkerClientsManager.class));
         } else {
             return testExecuter;
         }
@@ -906,7 +1099,7 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
      * @since 3.5
      */
     public void useJUnit(Action<? super JUnitOptions> testFrameworkConfigure) {
-        useTestFramework(new JUnitTestFramework(this, (DefaultTestFilter) getFilter()), testFrameworkConfigure);
+        useTestFramework(new JUnitTestFramework(this, (DefaultTestFilter) getFilter(), getClassScanResultCaches()), testFrameworkConfigure);
     }
 
     /**
@@ -956,7 +1149,7 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
      * @since 3.5
      */
     public void useTestNG(Action<? super TestFrameworkOptions> testFrameworkConfigure) {
-        useTestFramework(new TestNGTestFramework(this, (DefaultTestFilter) getFilter(), getInstantiator(), getClassLoaderCache()), testFrameworkConfigure);
+        useTestFramework(new TestNGTestFramework(this, (DefaultTestFilter) getFilter(), getInstantiator(), getClassLoaderCache(), getClassScanResultCaches()), testFrameworkConfigure);
     }
 
     /**
@@ -1029,6 +1222,159 @@ public class Test extends AbstractTestTask implements JavaForkOptions, PatternFi
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns whether only the test classes affected by changes since the previous execution of this task are executed. The default value is {@code false}.
+     *
+     * <p>When enabled, a test class that passed in the previous execution is not executed again when neither the class nor any class it references in its bytecode,
+     * directly or transitively, changed in the class directories of the classpath. Its previous results are included in the results and reports of this
+     * execution instead. Any change to the jars and resources on the classpath, to other input files or to the configuration of this task executes all test classes.</p>
+     *
+     * <p>Classes that are only used reflectively, for example by name or through annotation values, are not tracked. A test class that depends on such a class
+     * is not executed again when only that class changes.</p>
+     *
+     * <p>The affected test classes are executed first, the closest to the changes first, as described for {@link #setFailFast(boolean)}.</p>
+     *
+     * @return Whether only the affected test classes are executed.
+     * @since 4.7
+     */
+    @Input
+    @Incubating
+    public boolean isIncrementalTestSelection() {
+        return incrementalTestSelection;
+    }
+
+    /**
+     * Sets whether only the test classes affected by changes since the previous execution of this task are executed.
+     *
+     * @param incrementalTestSelection Whether only the affected test classes are executed.
+     * @see #isIncrementalTestSelection()
+     * @since 4.7
+     */
+    @Incubating
+    public void setIncrementalTestSelection(boolean incrementalTestSelection) {
+        this.incrementalTestSelection = incrementalTestSelection;
+    }
+
+    /**
+     * Returns whether the forked test processes are kept running after this task completes, to execute the tests of later executions of this or other test tasks.
+     * The default value is {@code false}.
+     *
+     * <p>When enabled, a test process is reused by any test task with the same JVM arguments, executable, environment and working directory, for this build and
+     * for later builds run by the same Gradle daemon. The test runtime classpath and the test framework are loaded in a fresh ClassLoader for each execution,
+     * and system properties and the security manager are reset once it completes. Static state of the JDK classes, threads started by the tests and other
+     * process-wide changes are not reset, so this should only be enabled for tests that do not leave such changes behind.</p>
+     *
+     * <p>As the test classes are loaded by a ClassLoader created for each execution, they are not visible to the system ClassLoader. Tests that use
+     * {@code ClassLoader.getSystemClassLoader()} to load classes or resources of the test runtime classpath, or that read the {@code java.class.path} system
+     * property to find it, do not work when this is enabled. Use the context ClassLoader of the test thread instead.</p>
+     *
+     * <p>Test processes are not reused when {@link #getForkEvery()} is set, when the tests are debugged, or when a Java agent is configured.</p>
+     *
+     * @return Whether the forked test processes are reused.
+     * @since 4.7
+     */
+    @Internal
+    @Incubating
+    public boolean isReuseForks() {
+        return reuseForks;
+    }
+
+    /**
+     * Sets whether the forked test processes are kept running after this task completes, to execute the tests of later executions of this or other test tasks.
+     *
+     * @param reuseForks Whether the forked test processes are reused.
+     * @see #isReuseForks()
+     * @since 4.7
+     */
+    @Incubating
+    public void setReuseForks(boolean reuseForks) {
+        this.reuseForks = reuseForks;
+    }
+
+    /**
+     * Returns the index of the shard of test classes that this task executes. Shards are numbered from 0. The default value is 0.
+     *
+     * @return The index of the shard to execute.
+     * @see #getShardCount()
+     * @since 4.7
+     */
+    @Input
+    @Incubating
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    /**
+     * Sets the index of the shard of test classes that this task executes. Shards are numbered from 0.
+     *
+     * @param shardIndex The index of the shard to execute.
+     * @since 4.7
+     */
+    @Incubating
+    public void setShardIndex(int shardIndex) {
+        if (shardIndex < 0) {
+            throw new IllegalArgumentException("Cannot set shardIndex to a value less than 0.");
+        }
+        this.shardIndex = shardIndex;
+    }
+
+    /**
+     * Returns the number of shards that the test classes are split into. Only the test classes of the shard selected by {@link #getShardIndex()}
+     * are executed. The default value is 1 (all test classes are executed).
+     *
+     * <p>Test classes are assigned to shards so that the durations recorded in {@link #getShardingResultsDirs()} add up to roughly the same
+     * total in each shard. The assignment only depends on the detected test classes and the recorded durations, so tasks on different machines
+     * that have the same test classes and recorded durations execute each test class exactly once between them.</p>
+     *
+     * @return The number of shards.
+     * @since 4.7
+     */
+    @Input
+    @Incubating
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Sets the number of shards that the test classes are split into. Set to 1 to disable sharding.
+     *
+     * @param shardCount The number of shards.
+     * @since 4.7
+     */
+    @Incubating
+    public void setShardCount(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Cannot set shardCount to a value less than 1.");
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns the binary test results directories of previous executions, whose recorded test class durations are used to balance the shards.
+     * When a test class has a duration in several directories, the longest is used. Test classes without a recorded duration are assumed to take
+     * the average duration of the others. The default value is empty, which splits the test classes into shards of the same size.
+     *
+     * @return The binary test results directories.
+     * @since 4.7
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    @Incubating
+    public FileCollection getShardingResultsDirs() {
+        return shardingResultsDirs;
+    }
+
+    /**
+     * Sets the binary test results directories of previous executions, whose recorded test class durations are used to balance the shards.
+     *
+     * @param shardingResultsDirs The binary test results directories.
+     * @since 4.7
+     */
+    @Incubating
+    public void setShardingResultsDirs(FileCollection shardingResultsDirs) {
+        this.shardingResultsDirs = shardingResultsDirs;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -39,6 +39,8 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
 
     private Set<String> excludeTags = new LinkedHashSet<String>();
 
+    private int parallelism = 1;
+
     /**
      * The set of engines to run with. Equivalent to invoking <a href="https://junit.org/junit5/docs/current/api/org/junit/platform/launcher/EngineFilter.html#includeEngines-java.lang.String...-">EngineFilter.includeEngines</a>.
      *
@@ -112,4 +114,37 @@ public class JUnitPlatformOptions extends TestFrameworkOptions {
     public void setExcludeTags(Set<String> excludeTags) {
         this.excludeTags = excludeTags;
     }
+
+    /**
+     * Returns the maximum number of tests that are executed concurrently in each test process. The default value is 1, which executes the tests sequentially.
+     *
+     * <p>When greater than 1, the parallel execution of the test engines is enabled with a fixed parallelism. Test engines that do not support parallel execution still execute their tests sequentially.
+     * Tests that declare the resources they use, or that require to run in the same thread as their parent, are scheduled accordingly by the test engine.</p>
+     *
+     * <p>The JUnit Jupiter engine supports parallel execution from version 5.3 on. Older versions ignore this setting and execute their tests sequentially.</p>
+     *
+     * <p>When greater than 1, this setting also makes tests execute concurrently by default, by setting {@code junit.jupiter.execution.parallel.mode.default} to
+     * {@code concurrent}. This overrides the parallel execution parameters declared in a {@code junit-platform.properties} file on the test runtime classpath.
+     * Use {@code @Execution(SAME_THREAD)} to execute particular test classes or methods sequentially.</p>
+     *
+     * @see <a href="https://junit.org/junit5/docs/current/user-guide/#writing-tests-parallel-execution">Parallel Execution</a>
+     * @since 4.7
+     */
+    @Incubating
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of tests that are executed concurrently in each test process.
+     *
+     * @since 4.7
+     */
+    @Incubating
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Cannot set parallelism to a value less than 1.");
+        }
+        this.parallelism = parallelism;
+    }
 }
@@ -16,6 +16,13 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
+import org.gradle.api.internal.tasks.testing.detection.ClassScanResultCaches;
+import org.gradle.api.internal.tasks.testing.selection.IncrementalTestSelector;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
@@ -25,4 +32,17 @@ public class JvmTestingServices extends AbstractPluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
     }
+
+    @Override
+    public void registerGradleServices(ServiceRegistration registration) {
+        registration.addProvider(new Object() {
+            IncrementalTestSelector createIncrementalTestSelector(FileHasher fileHasher, DirectoryFileTreeFactory directoryFileTreeFactory, ValueSnapshotter valueSnapshotter, GeneralCompileCaches compileCaches) {
+                return new IncrementalTestSelector(fileHasher, directoryFileTreeFactory, valueSnapshotter, compileCaches);
+            }
+
+            ClassScanResultCaches createClassScanResultCaches(FileContentCacheFactory cacheFactory) {
+                return new ClassScanResultCaches(cacheFactory);
+            }
+        });
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.internal.Factories
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.JarUtils
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def manager = new ClassFileExtractionManager(Factories.constant(tmpDir.createDir("tmp")))
+
+    def "extracts class file from the first jar that contains it"() {
+        def jar1 = tmpDir.file("lib1.jar")
+        jar1.bytes = JarUtils.jarWithContents("org/gradle/Other.class": "other")
+        def jar2 = tmpDir.file("lib2.jar")
+        jar2.bytes = JarUtils.jarWithContents("org/gradle/SuperTest.class": "first")
+        def jar3 = tmpDir.file("lib3.jar")
+        jar3.bytes = JarUtils.jarWithContents("org/gradle/SuperTest.class": "second")
+
+        when:
+        manager.addLibraryJar(jar1)
+        manager.addLibraryJar(jar2)
+        manager.addLibraryJar(jar3)
+
+        then:
+        manager.getLibraryClassFile("org/gradle/SuperTest").text == "first"
+        manager.getLibraryClassFile("org/gradle/Other").text == "other"
+    }
+
+    def "returns null for class that is not in any jar"() {
+        def jar = tmpDir.file("lib.jar")
+        jar.bytes = JarUtils.jarWithContents("org/gradle/Other.class": "other")
+
+        when:
+        manager.addLibraryJar(jar)
+
+        then:
+        manager.getLibraryClassFile("org/gradle/SuperTest") == null
+        manager.getLibraryClassFile("org/gradle/SuperTest") == null
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.cache.internal.FileContentCache
+import org.gradle.cache.internal.FileContentCacheFactory
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class ClassScanResultCachesTest extends Specification {
+    def cacheFactory = Mock(FileContentCacheFactory)
+    def caches = new ClassScanResultCaches(cacheFactory)
+
+    def "creates one cache per test framework"() {
+        def visitorFactory = Stub(Factory)
+        def junitCache = Stub(FileContentCache)
+        def testNGCache = Stub(FileContentCache)
+
+        when:
+        def cache1 = caches.getCache("junit", visitorFactory)
+        def cache2 = caches.getCache("junit", visitorFactory)
+        def cache3 = caches.getCache("testng", visitorFactory)
+
+        then:
+        1 * cacheFactory.newCache("junit-test-class-scans", _, _, _) >> junitCache
+        1 * cacheFactory.newCache("testng-test-class-scans", _, _, _) >> testNGCache
+        0 * cacheFactory._
+
+        and:
+        cache1.is(junitCache)
+        cache2.is(junitCache)
+        cache3.is(testNGCache)
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.api.file.FileTreeElement
+import org.gradle.api.internal.changedetection.state.StringValueSnapshot
+import org.gradle.api.internal.changedetection.state.ValueSnapshotter
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.Hashing
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+class IncrementalTestSelectorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> Hashing.md5().hashBytes(file.bytes) }
+        hash(_ as FileTreeElement) >> { FileTreeElement file -> Hashing.md5().hashBytes(file.file.bytes) }
+    }
+    def valueSnapshotter = Stub(ValueSnapshotter) {
+        snapshot(_) >> { Object value -> new StringValueSnapshot(value.toString()) }
+    }
+    def compileCaches = Stub(GeneralCompileCaches) {
+        getClassAnalysisCache() >> Stub(ClassAnalysisCache) {
+            get(_, _) >> { key, Factory factory -> factory.create() }
+        }
+    }
+    def selector = new IncrementalTestSelector(fileHasher, TestFiles.directoryFileTreeFactory(), valueSnapshotter, compileCaches)
+
+    TestFile classesDir = temporaryFolder.createDir("classes")
+    TestFile resourcesDir = temporaryFolder.createDir("resources")
+    Map<String, Object> inputProperties = [value: "value"]
+
+    def setup() {
+        writeClass("Base")
+        writeClass("Helper", "Base")
+        writeClass("Unrelated")
+        writeClass("HelperTest", "Helper")
+        writeClass("UnrelatedTest", "Unrelated")
+        writeClass("OtherTest")
+        resourcesDir.file("data.txt").text = "data"
+    }
+
+    def "test classes are unaffected when nothing changed"() {
+        when:
+        def previous = snapshot()
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()) == testClasses()
+    }
+
+    def "test classes that depend on changed class transitively are affected"() {
+        def previous = snapshot()
+
+        when:
+        writeClass("Base", "java/lang/Object", "changed")
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()) == ["UnrelatedTest", "OtherTest"] as Set
+    }
+
+    def "changed test class is affected"() {
+        def previous = snapshot()
+
+        when:
+        writeClass("OtherTest", "java/lang/Object", "changed")
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()) == ["HelperTest", "UnrelatedTest"] as Set
+    }
+
+    def "removed test class is not selected"() {
+        def previous = snapshot()
+
+        when:
+        classesDir.file("OtherTest.class").delete()
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()) == ["HelperTest", "UnrelatedTest"] as Set
+    }
+
+    def "all test classes are affected when a resource changed"() {
+        def previous = snapshot()
+
+        when:
+        resourcesDir.file("data.txt").text = "changed"
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()).empty
+    }
+
+    def "all test classes are affected when an input property changed"() {
+        def previous = snapshot()
+
+        when:
+        inputProperties.value = "changed"
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, testClasses()).empty
+    }
+
+    def "only candidate test classes are selected"() {
+        when:
+        def previous = snapshot()
+        def current = snapshot()
+
+        then:
+        selector.selectUnaffectedTestClasses(previous, current, ["HelperTest", "MissingTest"] as Set) == ["HelperTest"] as Set
+    }
+
+    def "finds distance of affected classes to the closest changed class"() {
+        def previous = snapshot()
+
+        when:
+        writeClass("Base", "java/lang/Object", "changed")
+        writeClass("OtherTest", "java/lang/Object", "changed")
+        def current = snapshot()
+
+        then:
+        selector.findAffectedClasses(previous, current) == [Base: 0, Helper: 1, HelperTest: 2, OtherTest: 0]
+    }
+
+    def "every class is affected when a resource changed"() {
+        def previous = snapshot()
+
+        when:
+        resourcesDir.file("data.txt").text = "changed"
+        def current = snapshot()
+
+        then:
+        selector.findAffectedClasses(previous, current) == null
+    }
+
+    def "reads snapshot that was written"() {
+        def snapshotFile = temporaryFolder.file("snapshot.bin")
+        def snapshot = snapshot()
+
+        when:
+        selector.write(snapshot, snapshotFile)
+        def read = selector.read(snapshotFile)
+
+        then:
+        read.classHashes == snapshot.classHashes
+        read.otherInputsHash == snapshot.otherInputsHash
+        selector.selectUnaffectedTestClasses(read, snapshot(), testClasses()) == testClasses()
+    }
+
+    def "returns null when there is no snapshot"() {
+        expect:
+        selector.read(temporaryFolder.file("missing.bin")) == null
+    }
+
+    def "returns null when the snapshot is truncated"() {
+        def snapshotFile = temporaryFolder.file("snapshot.bin")
+        selector.write(snapshot(), snapshotFile)
+        snapshotFile.bytes = Arrays.copyOf(snapshotFile.bytes, 3)
+
+        expect:
+        selector.read(snapshotFile) == null
+    }
+
+    def "replaces an existing snapshot"() {
+        def snapshotFile = temporaryFolder.file("snapshot.bin")
+        snapshotFile.text = "not a snapshot"
+        def snapshot = snapshot()
+
+        when:
+        selector.write(snapshot, snapshotFile)
+
+        then:
+        selector.read(snapshotFile).classHashes == snapshot.classHashes
+        !temporaryFolder.file("snapshot.bin.tmp").exists()
+    }
+
+    private ClasspathSnapshot snapshot() {
+        return selector.snapshot([classesDir, resourcesDir], [classesDir, resourcesDir], inputProperties)
+    }
+
+    private static Set<String> testClasses() {
+        return ["HelperTest", "UnrelatedTest", "OtherTest"] as Set
+    }
+
+    private void writeClass(String name, String superName = "java/lang/Object", String source = null) {
+        def writer = new ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, name, null, superName, null)
+        if (source != null) {
+            writer.visitSource(source, null)
+        }
+        writer.visitEnd()
+        classesDir.file("${name}.class").bytes = writer.toByteArray()
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassFailureHistoryTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    def "calculates failure rate of recent executions"() {
+        def history = new TestClassFailureHistory()
+
+        when:
+        history.executed("FlakyTest", true)
+        history.executed("FlakyTest", false)
+        history.executed("FailingTest", true)
+        history.executed("PassingTest", false)
+
+        then:
+        history.failureRates == [FlakyTest: 0.5d, FailingTest: 1.0d]
+    }
+
+    def "forgets outcomes of old executions"() {
+        def history = new TestClassFailureHistory()
+
+        when:
+        history.executed("SomeTest", true)
+        TestClassFailureHistory.MAX_EXECUTIONS.times {
+            history.executed("SomeTest", false)
+        }
+
+        then:
+        history.failureRates.isEmpty()
+    }
+
+    def "forgets test classes that no longer exist"() {
+        def history = new TestClassFailureHistory()
+        history.executed("DeletedTest", true)
+        history.executed("SomeTest", true)
+
+        when:
+        history.retainAll(["SomeTest", "OtherTest"])
+
+        then:
+        history.failureRates == [SomeTest: 1d]
+    }
+
+    def "reads history that was written"() {
+        def historyFile = temporaryFolder.file("history.bin")
+        def history = new TestClassFailureHistory()
+        history.executed("FlakyTest", true)
+        history.executed("FlakyTest", false)
+        history.executed("PassingTest", false)
+
+        when:
+        history.write(historyFile)
+        def read = TestClassFailureHistory.read(historyFile)
+        read.executed("PassingTest", true)
+
+        then:
+        read.failureRates == [FlakyTest: 0.5d, PassingTest: 0.5d]
+    }
+
+    def "returns empty history when there is no history"() {
+        expect:
+        TestClassFailureHistory.read(temporaryFolder.file("missing.bin")).failureRates.isEmpty()
+    }
+
+    def "returns empty history when the history is truncated"() {
+        def historyFile = temporaryFolder.file("history.bin")
+        def history = new TestClassFailureHistory()
+        history.executed("FailingTest", true)
+        history.write(historyFile)
+        historyFile.bytes = Arrays.copyOf(historyFile.bytes, 3)
+
+        expect:
+        TestClassFailureHistory.read(historyFile).failureRates.isEmpty()
+    }
+
+    def "replaces an existing history"() {
+        def historyFile = temporaryFolder.file("history.bin")
+        historyFile.text = "not a history"
+        def history = new TestClassFailureHistory()
+        history.executed("FailingTest", true)
+
+        when:
+        history.write(historyFile)
+
+        then:
+        TestClassFailureHistory.read(historyFile).failureRates == [FailingTest: 1d]
+        !temporaryFolder.file("history.bin.tmp").exists()
+    }
+}
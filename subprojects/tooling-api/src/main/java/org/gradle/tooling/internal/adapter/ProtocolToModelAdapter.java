@@ -15,7 +15,9 @@
  */
 package org.gradle.tooling.internal.adapter;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.collect.MapMaker;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.time.CountdownTimer;
@@ -32,9 +34,11 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
@@ -48,6 +52,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -63,6 +68,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
     private static final ReflectionMethodInvoker REFLECTION_METHOD_INVOKER = new ReflectionMethodInvoker();
     private static final TypeInspector TYPE_INSPECTOR = new TypeInspector();
     private static final CollectionMapper COLLECTION_MAPPER = new CollectionMapper();
+    private static final ProxyConstructorCache PROXY_CONSTRUCTOR_CACHE = new ProxyConstructorCache();
     private static final Object[] EMPTY = new Object[0];
     private static final Class[] EMPTY_CLASS_ARRAY = new Class[0];
     private static final Method EQUALS_METHOD;
@@ -154,7 +160,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
 
         // Create a proxy
         InvocationHandlerImpl handler = new InvocationHandlerImpl(targetType, sourceObject, decorationsForThisType, graphDetails);
-        Object proxy = Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType}, handler);
+        Object proxy = PROXY_CONSTRUCTOR_CACHE.newProxyInstance(viewType, handler);
         handler.attachProxy(proxy);
 
         return viewType.cast(proxy);
@@ -426,10 +432,14 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
                 this.parameterTypes = new SoftReference<Class<?>[]>(parameterTypes);
                 // hashcode will always be used, so we precompute it in order to make sure we
                 // won't compute it multiple times during comparisons
+                this.hashCode = hashCode(lookupClass, methodName, parameterTypes);
+            }
+
+            static int hashCode(Class<?> lookupClass, String methodName, Class<?>[] parameterTypes) {
                 int result = lookupClass != null ? lookupClass.hashCode() : 0;
                 result = 31 * result + (methodName != null ? methodName.hashCode() : 0);
                 result = 31 * result + Arrays.hashCode(parameterTypes);
-                this.hashCode = result;
+                return result;
             }
 
             public boolean isDirty() {
@@ -485,29 +495,57 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
             }
         }
 
+        /**
+         * A key used to look up an entry, which holds strong references so that it does not need to allocate soft references for each lookup.
+         * It is never stored in the cache.
+         */
+        private static class MethodInvocationLookupKey {
+            private final Class<?> lookupClass;
+            private final String methodName;
+            private final Class<?>[] parameterTypes;
+            private final int hashCode;
+
+            private MethodInvocationLookupKey(Class<?> lookupClass, String methodName, Class<?>[] parameterTypes) {
+                this.lookupClass = lookupClass;
+                this.methodName = methodName;
+                this.parameterTypes = parameterTypes;
+                this.hashCode = MethodInvocationKey.hashCode(lookupClass, methodName, parameterTypes);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof MethodInvocationKey)) {
+                    return false;
+                }
+                MethodInvocationKey that = (MethodInvocationKey) o;
+                return lookupClass == that.lookupClass.get() && methodName.equals(that.methodName) && Arrays.equals(parameterTypes, that.parameterTypes.get());
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+        }
+
         public Method get(MethodInvocation invocation) {
             Class<?> owner = invocation.getDelegate().getClass();
             String name = invocation.getName();
             Class<?>[] parameterTypes = invocation.getParameterTypes();
-            MethodInvocationKey key = new MethodInvocationKey(
-                owner,
-                name,
-                parameterTypes
-            );
+            MethodInvocationLookupKey lookupKey = new MethodInvocationLookupKey(owner, name, parameterTypes);
             lock.readLock().lock();
-            Optional<Method> cached = store.get(key);
+            Optional<Method> cached = store.get(lookupKey);
             if (cached == null) {
                 cacheMiss++;
                 lock.readLock().unlock();
                 lock.writeLock().lock();
                 try {
-                    cached = store.get(key);
+                    cached = store.get(lookupKey);
                     if (cached == null) {
                         cached = lookup(owner, name, parameterTypes);
                         if (cacheMiss % 10 == 0) {
                             removeDirtyEntries();
                         }
-                        store.put(key, cached);
+                        store.put(new MethodInvocationKey(owner, name, parameterTypes), cached);
                     }
                     lock.readLock().lock();
                 } finally {
@@ -579,6 +617,42 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     }
 
+    /**
+     * Caches the constructor of the proxy class for each view type, so that the proxy class and its constructor are not looked up for each view.
+     * The constructors are softly referenced, so that the view types and their ClassLoaders can be collected.
+     * Views are created by many threads at once, so the cache is read without locking. A constructor may be looked up more than once by threads that miss the cache at the same time.
+     */
+    @VisibleForTesting
+    static class ProxyConstructorCache {
+        private final ConcurrentMap<Class<?>, SoftReference<Constructor<?>>> constructors = new MapMaker().weakKeys().makeMap();
+
+        Object newProxyInstance(Class<?> viewType, InvocationHandler handler) {
+            try {
+                return getConstructor(viewType).newInstance(handler);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @VisibleForTesting
+        Constructor<?> getConstructor(Class<?> viewType) throws NoSuchMethodException {
+            SoftReference<Constructor<?>> reference = constructors.get(viewType);
+            Constructor<?> constructor = reference == null ? null : reference.get();
+            if (constructor == null) {
+                Class<?> proxyClass = Proxy.getProxyClass(viewType.getClassLoader(), viewType);
+                constructor = proxyClass.getConstructor(InvocationHandler.class);
+                if (!Modifier.isPublic(proxyClass.getModifiers())) {
+                    // The proxy class for a non-public view type is not public
+                    constructor.setAccessible(true);
+                }
+                constructors.put(viewType, new SoftReference<Constructor<?>>(constructor));
+            }
+            return constructor;
+        }
+    }
+
     private static class ReflectionMethodInvoker implements MethodInvoker {
         private final MethodInvocationCache lookupCache = new MethodInvocationCache();
 
@@ -604,8 +678,9 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
     }
 
     private static class PropertyCachingMethodInvoker implements MethodInvoker {
-        private final Map<String, Object> properties = new HashMap<String, Object>();
-        private final Set<String> unknown = new HashSet<String>();
+        // Created on first use, as many views are created and never queried
+        private Map<String, Object> properties;
+        private Set<String> unknown;
         private final MethodInvoker next;
 
         private PropertyCachingMethodInvoker(MethodInvoker next) {
@@ -614,21 +689,27 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
 
         public void invoke(MethodInvocation method) throws Throwable {
             if (method.isGetter()) {
-                if (properties.containsKey(method.getName())) {
+                if (properties != null && properties.containsKey(method.getName())) {
                     method.setResult(properties.get(method.getName()));
                     return;
                 }
-                if (unknown.contains(method.getName())) {
+                if (unknown != null && unknown.contains(method.getName())) {
                     return;
                 }
 
                 Object value;
                 next.invoke(method);
                 if (!method.found()) {
+                    if (unknown == null) {
+                        unknown = new HashSet<String>();
+                    }
                     unknown.add(method.getName());
                     return;
                 }
                 value = method.getResult();
+                if (properties == null) {
+                    properties = new HashMap<String, Object>();
+                }
                 properties.put(method.getName(), value);
                 return;
             }
@@ -23,8 +23,11 @@ import org.gradle.util.Matchers
 import spock.lang.Specification
 
 import java.lang.reflect.InvocationHandler
+import java.lang.reflect.Modifier
+import java.lang.reflect.Proxy
 import java.nio.channels.ByteChannel
 import java.nio.channels.Channel
+import java.util.concurrent.CopyOnWriteArrayList
 
 class ProtocolToModelAdapterTest extends Specification {
     final ProtocolToModelAdapter adapter = new ProtocolToModelAdapter()
@@ -594,6 +597,75 @@ class ProtocolToModelAdapterTest extends Specification {
         then:
         thrown(IllegalArgumentException)
     }
+
+    def "can create views of a non-public type"() {
+        def source = new NamedSource(name: "child", parent: new NamedSource(name: "parent"))
+
+        when:
+        def view = adapter.adapt(NonPublicTestModel.class, source)
+
+        then:
+        !Modifier.isPublic(view.getClass().modifiers)
+        view.getName() == "child"
+        view.getParent() instanceof NonPublicTestModel
+        view.getParent().getName() == "parent"
+        view.getParent().getParent() == null
+    }
+
+    def "views of the same type share the proxy class"() {
+        TestProtocolModel protocolModel1 = Mock()
+        TestProtocolModel protocolModel2 = Mock()
+
+        expect:
+        adapter.adapt(TestModel.class, protocolModel1).getClass() == adapter.adapt(TestModel.class, protocolModel2).getClass()
+    }
+
+    def "caches the proxy constructor of each view type"() {
+        def cache = new ProtocolToModelAdapter.ProxyConstructorCache()
+
+        when:
+        def constructor = cache.getConstructor(TestModel)
+
+        then:
+        cache.getConstructor(TestModel).is(constructor)
+        TestModel.isAssignableFrom(constructor.declaringClass)
+        !cache.getConstructor(TestProject).is(constructor)
+    }
+
+    def "makes the proxy constructor of a non-public view type accessible"() {
+        def cache = new ProtocolToModelAdapter.ProxyConstructorCache()
+        def handler = Stub(InvocationHandler)
+
+        when:
+        def constructor = cache.getConstructor(NonPublicTestModel)
+
+        then:
+        !Modifier.isPublic(constructor.declaringClass.modifiers)
+        constructor.accessible
+
+        and:
+        cache.newProxyInstance(NonPublicTestModel, handler) instanceof NonPublicTestModel
+    }
+
+    def "can create proxies from concurrent threads"() {
+        def cache = new ProtocolToModelAdapter.ProxyConstructorCache()
+        def handler = Stub(InvocationHandler)
+        def proxyClasses = new CopyOnWriteArrayList<Class<?>>()
+
+        when:
+        def threads = (1..10).collect {
+            Thread.start {
+                100.times {
+                    proxyClasses << cache.newProxyInstance(TestModel, handler).getClass()
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        proxyClasses.size() == 1000
+        proxyClasses.unique() == [Proxy.getProxyClass(TestModel.classLoader, TestModel)]
+    }
 }
 
 interface TestModel {
@@ -730,3 +802,8 @@ class FixedMixin implements Serializable {
         return "[$model.project.name]"
     }
 }
+
+class NamedSource {
+    String name
+    NamedSource parent
+}